@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongBiFunction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.broker.routing.BrokerRoutingManager;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
+
+
+/**
+ * The {@code QueryResultCache} caches the responses of the single-stage queries on the broker, so that repeated queries
+ * (e.g. dashboards refreshing every few seconds) can be answered without querying the servers.
+ *
+ * <p>The cache key consists of the server queries (after all the broker side rewrites, including the time boundary for
+ * hybrid tables) and a hash of the routed segments with their CRC. When a segment is added, removed or replaced, the
+ * key of the query changes, so the stale entries are never hit again and are evicted as least recently used. This is
+ * sufficient for OFFLINE tables, but not for REALTIME tables where the consuming segments keep ingesting records
+ * without changing the routed segments. Results of the queries hitting REALTIME tables are only cached when the max
+ * staleness is configured, and expire after it.
+ */
+@ThreadSafe
+public class QueryResultCache {
+  private final ToLongBiFunction<String, String> _segmentCrcProvider;
+  private final int _maxResultRows;
+  private final long _realtimeMaxStalenessMs;
+  private final Cache<String, CachedResponse> _cache;
+
+  public QueryResultCache(PinotConfiguration config, BrokerRoutingManager routingManager) {
+    this(routingManager::getSegmentCrc, config.getProperty(Broker.CONFIG_OF_BROKER_QUERY_RESULT_CACHE_MAX_ENTRIES,
+            Broker.DEFAULT_BROKER_QUERY_RESULT_CACHE_MAX_ENTRIES),
+        config.getProperty(Broker.CONFIG_OF_BROKER_QUERY_RESULT_CACHE_MAX_RESULT_ROWS,
+            Broker.DEFAULT_BROKER_QUERY_RESULT_CACHE_MAX_RESULT_ROWS),
+        config.getProperty(Broker.CONFIG_OF_BROKER_QUERY_RESULT_CACHE_REALTIME_MAX_STALENESS_MS,
+            Broker.DEFAULT_BROKER_QUERY_RESULT_CACHE_REALTIME_MAX_STALENESS_MS));
+  }
+
+  /**
+   * @param segmentCrcProvider provides the CRC of a segment from the table name with type and the segment name
+   * @param maxEntries max number of cached responses
+   * @param maxResultRows max number of rows in a cached response, larger responses are not cached
+   * @param realtimeMaxStalenessMs max staleness of the cached responses for queries hitting REALTIME tables, where
+   *                               non-positive value means such responses are not cached
+   */
+  @VisibleForTesting
+  QueryResultCache(ToLongBiFunction<String, String> segmentCrcProvider, int maxEntries, int maxResultRows,
+      long realtimeMaxStalenessMs) {
+    _segmentCrcProvider = segmentCrcProvider;
+    _maxResultRows = maxResultRows;
+    _realtimeMaxStalenessMs = realtimeMaxStalenessMs;
+    _cache = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+  }
+
+  /**
+   * Returns the cache key for the query with the given server requests and routing tables, or {@code null} if the
+   * query is not cacheable.
+   * <p>NOTE: This method should be called before the broker attaches per request query options (e.g. remaining
+   * timeout) to the server requests.
+   */
+  @Nullable
+  public String getCacheKey(@Nullable BrokerRequest offlineBrokerRequest,
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> offlineRoutingTable,
+      @Nullable BrokerRequest realtimeBrokerRequest,
+      @Nullable Map<ServerInstance, Pair<List<String>, List<String>>> realtimeRoutingTable) {
+    if (realtimeBrokerRequest != null && _realtimeMaxStalenessMs <= 0) {
+      return null;
+    }
+    if ((offlineBrokerRequest != null && !isCacheable(offlineBrokerRequest.getPinotQuery())) || (
+        realtimeBrokerRequest != null && !isCacheable(realtimeBrokerRequest.getPinotQuery()))) {
+      return null;
+    }
+    StringBuilder keyBuilder = new StringBuilder();
+    Hasher segmentHasher = Hashing.murmur3_128().newHasher();
+    if (offlineBrokerRequest != null && offlineRoutingTable != null) {
+      addToKey(offlineBrokerRequest.getPinotQuery(), offlineRoutingTable, keyBuilder, segmentHasher);
+    }
+    keyBuilder.append('|');
+    if (realtimeBrokerRequest != null && realtimeRoutingTable != null) {
+      addToKey(realtimeBrokerRequest.getPinotQuery(), realtimeRoutingTable, keyBuilder, segmentHasher);
+    }
+    return keyBuilder.append('|').append(segmentHasher.hash()).toString();
+  }
+
+  private static boolean isCacheable(PinotQuery pinotQuery) {
+    if (pinotQuery.isExplain()) {
+      return false;
+    }
+    Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+    if (queryOptions == null) {
+      return true;
+    }
+    return !QueryOptionsUtils.isSkipResultCache(queryOptions) && !Boolean.parseBoolean(
+        queryOptions.get(Broker.Request.TRACE));
+  }
+
+  private void addToKey(PinotQuery pinotQuery, Map<ServerInstance, Pair<List<String>, List<String>>> routingTable,
+      StringBuilder keyBuilder, Hasher segmentHasher) {
+    // Sort the query options so that the same query always has the same key
+    Map<String, String> queryOptions = pinotQuery.getQueryOptions();
+    if (queryOptions != null && !(queryOptions instanceof TreeMap)) {
+      pinotQuery = pinotQuery.deepCopy();
+      pinotQuery.setQueryOptions(new TreeMap<>(queryOptions));
+    }
+    keyBuilder.append(pinotQuery);
+
+    // Sort the segments because the same segments can be routed to different servers
+    List<String> segments = new ArrayList<>();
+    for (Pair<List<String>, List<String>> segmentsOnServer : routingTable.values()) {
+      segments.addAll(segmentsOnServer.getLeft());
+      segments.addAll(segmentsOnServer.getRight());
+    }
+    Collections.sort(segments);
+    String tableNameWithType = pinotQuery.getDataSource().getTableName();
+    for (String segment : segments) {
+      segmentHasher.putString(segment, StandardCharsets.UTF_8);
+      segmentHasher.putLong(_segmentCrcProvider.applyAsLong(tableNameWithType, segment));
+    }
+  }
+
+  /**
+   * Returns a copy of the cached response for the given key, or {@code null} if it does not exist or has expired. The
+   * returned response only carries the query result, but not the execution stats of the original query.
+   */
+  @Nullable
+  public BrokerResponseNative get(String key) {
+    return get(key, System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  @Nullable
+  BrokerResponseNative get(String key, long currentTimeMs) {
+    CachedResponse cachedResponse = _cache.getIfPresent(key);
+    if (cachedResponse == null) {
+      return null;
+    }
+    if (currentTimeMs > cachedResponse._expirationTimeMs) {
+      _cache.invalidate(key);
+      return null;
+    }
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setResultTable(cachedResponse._resultTable);
+    brokerResponse.setTotalDocs(cachedResponse._totalDocs);
+    return brokerResponse;
+  }
+
+  /**
+   * Caches the response for the given key if it is a complete response without exception, and is not too large.
+   *
+   * @param key cache key returned from {@link #getCacheKey}
+   * @param brokerResponse response of the query
+   * @param queriedRealtime whether the query hits REALTIME table
+   */
+  public void put(String key, BrokerResponseNative brokerResponse, boolean queriedRealtime) {
+    put(key, brokerResponse, queriedRealtime, System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  void put(String key, BrokerResponseNative brokerResponse, boolean queriedRealtime, long currentTimeMs) {
+    ResultTable resultTable = brokerResponse.getResultTable();
+    if (resultTable == null || brokerResponse.isPartialResult() || resultTable.getRows().size() > _maxResultRows) {
+      return;
+    }
+    long expirationTimeMs = queriedRealtime ? currentTimeMs + _realtimeMaxStalenessMs : Long.MAX_VALUE;
+    _cache.put(key, new CachedResponse(resultTable, brokerResponse.getTotalDocs(), expirationTimeMs));
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache.size();
+  }
+
+  private static class CachedResponse {
+    final ResultTable _resultTable;
+    final long _totalDocs;
+    final long _expirationTimeMs;
+
+    CachedResponse(ResultTable resultTable, long totalDocs, long expirationTimeMs) {
+      _resultTable = resultTable;
+      _totalDocs = totalDocs;
+      _expirationTimeMs = expirationTimeMs;
+    }
+  }
+}
@@ -49,6 +49,7 @@ import org.apache.http.util.EntityUtils;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.querycache.QueryResultCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -136,6 +137,7 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
   protected final boolean _enableDistinctCountBitmapOverride;
   protected final int _queryResponseLimit;
   protected final Map<Long, QueryServers> _queriesById;
+  protected final QueryResultCache _queryResultCache;
 
   public BaseSingleStageBrokerRequestHandler(PinotConfiguration config, String brokerId,
       BrokerRoutingManager routingManager, AccessControlFactory accessControlFactory,
@@ -153,10 +155,14 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     boolean enableQueryCancellation =
         Boolean.parseBoolean(config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_CANCELLATION));
     _queriesById = enableQueryCancellation ? new ConcurrentHashMap<>() : null;
+    boolean enableQueryResultCache = config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_RESULT_CACHE,
+        Broker.DEFAULT_BROKER_ENABLE_QUERY_RESULT_CACHE);
+    _queryResultCache = enableQueryResultCache ? new QueryResultCache(config, routingManager) : null;
     LOGGER.info("Initialized {} with broker id: {}, timeout: {}ms, query response limit: {}, query log max length: {}, "
-            + "query log max rate: {}, query cancellation enabled: {}", getClass().getSimpleName(), _brokerId,
-        _brokerTimeoutMs, _queryResponseLimit, _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(),
-        enableQueryCancellation);
+            + "query log max rate: {}, query cancellation enabled: {}, query result cache enabled: {}",
+        getClass().getSimpleName(), _brokerId, _brokerTimeoutMs, _queryResponseLimit,
+        _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(), enableQueryCancellation,
+        enableQueryResultCache);
   }
 
   @Override
@@ -608,6 +614,22 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
           return getEmptyBrokerOnlyResponse(pinotQuery, requestContext, tableName, requesterIdentity);
         }
       }
+
+      // Look up the query result cache. The cache key must be computed before the query timeout is set in the requests.
+      String resultCacheKey = null;
+      if (_queryResultCache != null && exceptions.isEmpty() && !pinotQuery.isExplain()) {
+        resultCacheKey = _queryResultCache.getCacheKey(offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+            realtimeRoutingTable);
+        if (resultCacheKey != null) {
+          BrokerResponseNative cachedResponse = _queryResultCache.get(resultCacheKey);
+          if (cachedResponse != null) {
+            _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_RESULT_CACHE_HITS, 1);
+            return getCachedBrokerResponse(cachedResponse, pinotQuery, requestContext, rawTableName, tableName,
+                requesterIdentity);
+          }
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_RESULT_CACHE_MISSES, 1);
+        }
+      }
       long routingEndTimeNs = System.nanoTime();
       _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING,
           routingEndTimeNs - routingStartTimeNs);
@@ -716,6 +738,9 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
             offlineRoutingTable, realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats,
             requestContext);
       }
+      if (resultCacheKey != null) {
+        _queryResultCache.put(resultCacheKey, brokerResponse, realtimeBrokerRequest != null);
+      }
 
       for (ProcessingException exception : exceptions) {
         brokerResponse.addException(exception);
@@ -766,6 +791,22 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     return brokerResponse;
   }
 
+  private BrokerResponseNative getCachedBrokerResponse(BrokerResponseNative brokerResponse, PinotQuery pinotQuery,
+      RequestContext requestContext, String rawTableName, String tableName,
+      @Nullable RequesterIdentity requesterIdentity) {
+    long totalTimeMs = System.currentTimeMillis() - requestContext.getRequestArrivalTimeMillis();
+    brokerResponse.setTimeUsedMs(totalTimeMs);
+    augmentStatistics(requestContext, brokerResponse);
+    if (QueryOptionsUtils.shouldDropResults(pinotQuery.getQueryOptions())) {
+      brokerResponse.setResultTable(null);
+    }
+    _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.QUERY_TOTAL_TIME_MS, totalTimeMs,
+        TimeUnit.MILLISECONDS);
+    _queryLogger.log(
+        new QueryLogger.QueryLogParams(requestContext, tableName, brokerResponse, requesterIdentity, null));
+    return brokerResponse;
+  }
+
   private void handleTimestampIndexOverride(PinotQuery pinotQuery, @Nullable TableConfig tableConfig) {
     if (tableConfig == null || tableConfig.getFieldConfigList() == null) {
       return;
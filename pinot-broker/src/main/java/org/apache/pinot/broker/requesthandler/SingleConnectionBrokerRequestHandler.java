@@ -20,8 +20,10 @@ package org.apache.pinot.broker.requesthandler;
 
 import com.google.common.collect.Maps;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -42,6 +44,7 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.core.query.reduce.BrokerReduceService;
+import org.apache.pinot.core.query.reduce.StreamingBrokerReducer;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
@@ -112,62 +115,106 @@ public class SingleConnectionBrokerRequestHandler extends BaseSingleStageBrokerR
         _queryRouter.submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
             realtimeBrokerRequest, realtimeRoutingTable, timeoutMs);
     _failureDetector.notifyQuerySubmitted(asyncQueryResponse);
-    Map<ServerRoutingInstance, ServerResponse> finalResponses = asyncQueryResponse.getFinalResponses();
-    if (asyncQueryResponse.getStatus() == QueryResponse.Status.TIMED_OUT) {
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_TIMEOUTS, 1);
-    }
-    _failureDetector.notifyQueryFinished(asyncQueryResponse);
-    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
-        System.nanoTime() - scatterGatherStartTimeNs);
-    // TODO Use scatterGatherStats as serverStats
-    serverStats.setServerStats(asyncQueryResponse.getServerStats());
-
-    int numServersQueried = finalResponses.size();
-    long totalResponseSize = 0;
-    Map<ServerRoutingInstance, DataTable> dataTableMap = Maps.newHashMapWithExpectedSize(numServersQueried);
-    List<ServerRoutingInstance> serversNotResponded = new ArrayList<>();
-    for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : finalResponses.entrySet()) {
-      ServerResponse serverResponse = entry.getValue();
-      DataTable dataTable = serverResponse.getDataTable();
-      if (dataTable != null) {
-        dataTableMap.put(entry.getKey(), dataTable);
-        totalResponseSize += serverResponse.getResponseSize();
+
+    // NOTE: The data tables are deserialized in place from the response buffers, which are released after the query is
+    //       reduced, so the data tables should not be accessed after the reduce.
+    try {
+      // When streaming reduce is enabled for the query, reduce the data tables as they arrive from the servers until
+      // the query times out
+      long reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
+      StreamingBrokerReducer streamingBrokerReducer =
+          _brokerReduceService.getStreamingBrokerReducer(originalBrokerRequest, serverBrokerRequest, reduceTimeoutMs,
+              _brokerMetrics);
+      Set<ServerRoutingInstance> reducedServers = null;
+      long reduceTimeNanos = 0;
+      if (streamingBrokerReducer != null) {
+        reducedServers = new HashSet<>();
+        Map<ServerRoutingInstance, ServerResponse> currentResponses = asyncQueryResponse.getCurrentResponses();
+        ServerRoutingInstance arrivedServer;
+        while (!streamingBrokerReducer.isTimedOut()
+            && (arrivedServer = asyncQueryResponse.pollNextArrivedServer()) != null) {
+          DataTable dataTable = currentResponses.get(arrivedServer).getDataTable();
+          if (dataTable != null && reducedServers.add(arrivedServer)) {
+            long reduceStartTimeNs = System.nanoTime();
+            streamingBrokerReducer.reduce(arrivedServer, dataTable);
+            reduceTimeNanos += System.nanoTime() - reduceStartTimeNs;
+          }
+        }
+      }
+
+      Map<ServerRoutingInstance, ServerResponse> finalResponses = asyncQueryResponse.getFinalResponses();
+      if (asyncQueryResponse.getStatus() == QueryResponse.Status.TIMED_OUT) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_TIMEOUTS, 1);
+      }
+      _failureDetector.notifyQueryFinished(asyncQueryResponse);
+      _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
+          System.nanoTime() - scatterGatherStartTimeNs);
+      // TODO Use scatterGatherStats as serverStats
+      serverStats.setServerStats(asyncQueryResponse.getServerStats());
+
+      int numServersQueried = finalResponses.size();
+      long totalResponseSize = 0;
+      Map<ServerRoutingInstance, DataTable> dataTableMap = Maps.newHashMapWithExpectedSize(numServersQueried);
+      List<ServerRoutingInstance> serversNotResponded = new ArrayList<>();
+      for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : finalResponses.entrySet()) {
+        ServerResponse serverResponse = entry.getValue();
+        DataTable dataTable = serverResponse.getDataTable();
+        if (dataTable != null) {
+          if (streamingBrokerReducer == null) {
+            dataTableMap.put(entry.getKey(), dataTable);
+          } else if (!reducedServers.contains(entry.getKey())) {
+            // Data table arrived after the last poll
+            reducedServers.add(entry.getKey());
+            long reduceStartTimeNs = System.nanoTime();
+            streamingBrokerReducer.reduce(entry.getKey(), dataTable);
+            reduceTimeNanos += System.nanoTime() - reduceStartTimeNs;
+          }
+          totalResponseSize += serverResponse.getResponseSize();
+        } else {
+          serversNotResponded.add(entry.getKey());
+        }
+      }
+      int numServersResponded = streamingBrokerReducer == null ? dataTableMap.size() : reducedServers.size();
+
+      long reduceStartTimeNs = System.nanoTime();
+      BrokerResponseNative brokerResponse;
+      if (streamingBrokerReducer == null) {
+        reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
+        brokerResponse =
+            _brokerReduceService.reduceOnDataTable(originalBrokerRequest, serverBrokerRequest, dataTableMap,
+                reduceTimeoutMs, _brokerMetrics);
       } else {
-        serversNotResponded.add(entry.getKey());
+        brokerResponse = streamingBrokerReducer.seal();
       }
-    }
-    int numServersResponded = dataTableMap.size();
-
-    long reduceStartTimeNs = System.nanoTime();
-    long reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
-    BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, serverBrokerRequest, dataTableMap,
-            reduceTimeoutMs, _brokerMetrics);
-    long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
-    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
-
-    brokerResponse.setNumServersQueried(numServersQueried);
-    brokerResponse.setNumServersResponded(numServersResponded);
-    brokerResponse.setBrokerReduceTimeMs(TimeUnit.NANOSECONDS.toMillis(reduceTimeNanos));
-
-    Exception brokerRequestSendException = asyncQueryResponse.getException();
-    if (brokerRequestSendException != null) {
-      String errorMsg = QueryException.getTruncatedStackTrace(brokerRequestSendException);
-      brokerResponse.addException(
-          new QueryProcessingException(QueryException.BROKER_REQUEST_SEND_ERROR_CODE, errorMsg));
-    }
-    int numServersNotResponded = serversNotResponded.size();
-    if (numServersNotResponded != 0) {
-      brokerResponse.addException(new QueryProcessingException(QueryException.SERVER_NOT_RESPONDING_ERROR_CODE,
-          String.format("%d servers %s not responded", numServersNotResponded, serversNotResponded)));
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED, 1);
-    }
-    if (brokerResponse.getExceptionsSize() > 0) {
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1);
-    }
-    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.TOTAL_SERVER_RESPONSE_SIZE, totalResponseSize);
+      reduceTimeNanos += System.nanoTime() - reduceStartTimeNs;
+      _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
+
+      brokerResponse.setNumServersQueried(numServersQueried);
+      brokerResponse.setNumServersResponded(numServersResponded);
+      brokerResponse.setBrokerReduceTimeMs(TimeUnit.NANOSECONDS.toMillis(reduceTimeNanos));
+
+      Exception brokerRequestSendException = asyncQueryResponse.getException();
+      if (brokerRequestSendException != null) {
+        String errorMsg = QueryException.getTruncatedStackTrace(brokerRequestSendException);
+        brokerResponse.addException(
+            new QueryProcessingException(QueryException.BROKER_REQUEST_SEND_ERROR_CODE, errorMsg));
+      }
+      int numServersNotResponded = serversNotResponded.size();
+      if (numServersNotResponded != 0) {
+        brokerResponse.addException(new QueryProcessingException(QueryException.SERVER_NOT_RESPONDING_ERROR_CODE,
+            String.format("%d servers %s not responded", numServersNotResponded, serversNotResponded)));
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED,
+            1);
+      }
+      if (brokerResponse.getExceptionsSize() > 0) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1);
+      }
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.TOTAL_SERVER_RESPONSE_SIZE, totalResponseSize);
 
-    return brokerResponse;
+      return brokerResponse;
+    } finally {
+      asyncQueryResponse.releaseDataTables();
+    }
   }
 
   @Override
@@ -44,6 +44,7 @@ import org.apache.pinot.broker.routing.adaptiveserverselector.AdaptiveServerSele
 import org.apache.pinot.broker.routing.adaptiveserverselector.AdaptiveServerSelectorFactory;
 import org.apache.pinot.broker.routing.instanceselector.InstanceSelector;
 import org.apache.pinot.broker.routing.instanceselector.InstanceSelectorFactory;
+import org.apache.pinot.broker.routing.segmentmetadata.SegmentCrcTracker;
 import org.apache.pinot.broker.routing.segmentmetadata.SegmentZkMetadataFetchListener;
 import org.apache.pinot.broker.routing.segmentmetadata.SegmentZkMetadataFetcher;
 import org.apache.pinot.broker.routing.segmentpartition.SegmentPartitionMetadataManager;
@@ -521,6 +522,13 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     QueryConfig queryConfig = tableConfig.getQueryConfig();
     Long queryTimeoutMs = queryConfig != null ? queryConfig.getTimeoutMs() : null;
 
+    // Track the segment CRC to invalidate the cached query results when the segments are replaced
+    SegmentCrcTracker segmentCrcTracker = null;
+    if (_pinotConfig.getProperty(CommonConstants.Broker.CONFIG_OF_BROKER_ENABLE_QUERY_RESULT_CACHE,
+        CommonConstants.Broker.DEFAULT_BROKER_ENABLE_QUERY_RESULT_CACHE)) {
+      segmentCrcTracker = new SegmentCrcTracker();
+    }
+
     SegmentZkMetadataFetcher segmentZkMetadataFetcher = new SegmentZkMetadataFetcher(tableNameWithType, _propertyStore);
     for (SegmentZkMetadataFetchListener listener : segmentPruners) {
       segmentZkMetadataFetcher.register(listener);
@@ -528,12 +536,15 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     if (partitionMetadataManager != null) {
       segmentZkMetadataFetcher.register(partitionMetadataManager);
     }
+    if (segmentCrcTracker != null) {
+      segmentZkMetadataFetcher.register(segmentCrcTracker);
+    }
     segmentZkMetadataFetcher.init(idealState, externalView, preSelectedOnlineSegments);
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, idealStatePath, externalViewPath, segmentPreSelector, segmentSelector,
             segmentPruners, instanceSelector, idealStateVersion, externalViewVersion, segmentZkMetadataFetcher,
-            timeBoundaryManager, partitionMetadataManager, queryTimeoutMs);
+            timeBoundaryManager, partitionMetadataManager, segmentCrcTracker, queryTimeoutMs);
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -711,6 +722,19 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns the CRC of the given segment, or {@link SegmentCrcTracker#UNKNOWN_CRC} if the CRC is not available (e.g.
+   * the query result cache is not enabled, or the segment is consuming).
+   */
+  public long getSegmentCrc(String tableNameWithType, String segment) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null) {
+      return SegmentCrcTracker.UNKNOWN_CRC;
+    }
+    SegmentCrcTracker segmentCrcTracker = routingEntry.getSegmentCrcTracker();
+    return segmentCrcTracker != null ? segmentCrcTracker.getCrc(segment) : SegmentCrcTracker.UNKNOWN_CRC;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final String _idealStatePath;
@@ -719,6 +743,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     final SegmentSelector _segmentSelector;
     final List<SegmentPruner> _segmentPruners;
     final SegmentPartitionMetadataManager _partitionMetadataManager;
+    final SegmentCrcTracker _segmentCrcTracker;
     final InstanceSelector _instanceSelector;
     final Long _queryTimeoutMs;
     final SegmentZkMetadataFetcher _segmentZkMetadataFetcher;
@@ -733,7 +758,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
         InstanceSelector instanceSelector, int lastUpdateIdealStateVersion, int lastUpdateExternalViewVersion,
         SegmentZkMetadataFetcher segmentZkMetadataFetcher, @Nullable TimeBoundaryManager timeBoundaryManager,
-        @Nullable SegmentPartitionMetadataManager partitionMetadataManager, @Nullable Long queryTimeoutMs) {
+        @Nullable SegmentPartitionMetadataManager partitionMetadataManager,
+        @Nullable SegmentCrcTracker segmentCrcTracker, @Nullable Long queryTimeoutMs) {
       _tableNameWithType = tableNameWithType;
       _idealStatePath = idealStatePath;
       _externalViewPath = externalViewPath;
@@ -745,6 +771,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _partitionMetadataManager = partitionMetadataManager;
+      _segmentCrcTracker = segmentCrcTracker;
       _queryTimeoutMs = queryTimeoutMs;
       _segmentZkMetadataFetcher = segmentZkMetadataFetcher;
     }
@@ -775,6 +802,11 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _partitionMetadataManager;
     }
 
+    @Nullable
+    SegmentCrcTracker getSegmentCrcTracker() {
+      return _segmentCrcTracker;
+    }
+
     Long getQueryTimeoutMs() {
       return _queryTimeoutMs;
     }
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentmetadata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+
+
+/**
+ * The {@code SegmentCrcTracker} tracks the CRC of the online segments of a table from the segment ZK metadata, so that
+ * the broker can tell whether a segment has been replaced (e.g. refreshed with new data) without reading ZK on the
+ * query path.
+ *
+ * <p>The CRC is {@code -1} for segments without ZK metadata or without CRC (e.g. consuming segments). The ZK metadata
+ * of a segment is only pulled again when the segment is refreshed, so the CRC is not updated when a consuming segment
+ * is committed, and should not be used to detect the changes of the real-time segments.
+ */
+public class SegmentCrcTracker implements SegmentZkMetadataFetchListener {
+  public static final long UNKNOWN_CRC = -1L;
+
+  // Updated within the synchronized block of the routing manager, and read concurrently on the query path
+  private final Map<String, Long> _segmentCrcMap = new ConcurrentHashMap<>();
+
+  @Override
+  public void init(IdealState idealState, ExternalView externalView, List<String> onlineSegments,
+      List<ZNRecord> znRecords) {
+    int numSegments = onlineSegments.size();
+    for (int i = 0; i < numSegments; i++) {
+      _segmentCrcMap.put(onlineSegments.get(i), getCrc(znRecords.get(i)));
+    }
+  }
+
+  @Override
+  public void onAssignmentChange(IdealState idealState, ExternalView externalView, Set<String> onlineSegments,
+      List<String> pulledSegments, List<ZNRecord> znRecords) {
+    int numSegments = pulledSegments.size();
+    for (int i = 0; i < numSegments; i++) {
+      _segmentCrcMap.put(pulledSegments.get(i), getCrc(znRecords.get(i)));
+    }
+    _segmentCrcMap.keySet().retainAll(onlineSegments);
+  }
+
+  @Override
+  public void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
+    _segmentCrcMap.put(segment, getCrc(znRecord));
+  }
+
+  private static long getCrc(@Nullable ZNRecord znRecord) {
+    return znRecord != null ? new SegmentZKMetadata(znRecord).getCrc() : UNKNOWN_CRC;
+  }
+
+  /**
+   * Returns the CRC of the given segment, or {@link #UNKNOWN_CRC} if it is not available.
+   */
+  public long getCrc(String segment) {
+    return _segmentCrcMap.getOrDefault(segment, UNKNOWN_CRC);
+  }
+}
@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentpruner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.zookeeper.datamodel.ZNRecord;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.Identifier;
+import org.apache.pinot.common.request.context.RequestContextUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.CommonConstants.Query.Range;
+import org.apache.pinot.spi.utils.CommonConstants.Segment;
+import org.apache.pinot.sql.FilterKind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code ColumnValueSegmentPruner} prunes segments based on the column min/max values stored in the segment ZK
+ * metadata for the columns configured in
+ * {@link org.apache.pinot.spi.config.table.IndexingConfig#getColumnValuePruningColumns()}. The pruner supports queries
+ * with filter (or nested filter) of EQUALITY, IN and RANGE predicates on these columns. Segments without the min/max
+ * values (e.g. pushed before the columns are configured) are not pruned.
+ */
+public class ColumnValueSegmentPruner implements SegmentPruner {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ColumnValueSegmentPruner.class);
+
+  private final String _tableNameWithType;
+  // Map from column to its stored type
+  private final Map<String, DataType> _columnDataTypes;
+  private final Map<String, Map<String, ValueRange>> _valueRangesMap = new ConcurrentHashMap<>();
+
+  public ColumnValueSegmentPruner(String tableNameWithType, Map<String, DataType> columnDataTypes) {
+    _tableNameWithType = tableNameWithType;
+    _columnDataTypes = columnDataTypes;
+  }
+
+  @Override
+  public void init(IdealState idealState, ExternalView externalView, List<String> onlineSegments,
+      List<ZNRecord> znRecords) {
+    // Bulk load value ranges for all online segments
+    for (int idx = 0; idx < onlineSegments.size(); idx++) {
+      String segment = onlineSegments.get(idx);
+      Map<String, ValueRange> valueRanges = extractValueRanges(segment, znRecords.get(idx));
+      if (valueRanges != null) {
+        _valueRangesMap.put(segment, valueRanges);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void onAssignmentChange(IdealState idealState, ExternalView externalView,
+      Set<String> onlineSegments, List<String> pulledSegments, List<ZNRecord> znRecords) {
+    // NOTE: We don't update all the segment ZK metadata for every external view change, but only the new added/removed
+    //       ones. The refreshed segment ZK metadata change won't be picked up.
+    for (int idx = 0; idx < pulledSegments.size(); idx++) {
+      String segment = pulledSegments.get(idx);
+      ZNRecord znRecord = znRecords.get(idx);
+      _valueRangesMap.computeIfAbsent(segment, k -> extractValueRanges(k, znRecord));
+    }
+    _valueRangesMap.keySet().retainAll(onlineSegments);
+  }
+
+  @Override
+  public synchronized void refreshSegment(String segment, @Nullable ZNRecord znRecord) {
+    Map<String, ValueRange> valueRanges = extractValueRanges(segment, znRecord);
+    if (valueRanges != null) {
+      _valueRangesMap.put(segment, valueRanges);
+    } else {
+      _valueRangesMap.remove(segment);
+    }
+  }
+
+  /**
+   * Returns the map from column to value range for the given segment.
+   *
+   * NOTE: Returns {@code null} when the ZNRecord is missing (could be transient Helix issue). Returns empty map when
+   *       the segment does not have valid min/max values in its ZK metadata, in which case we won't retry later.
+   */
+  @Nullable
+  private Map<String, ValueRange> extractValueRanges(String segment, @Nullable ZNRecord znRecord) {
+    if (znRecord == null) {
+      LOGGER.warn("Failed to find segment ZK metadata for segment: {}, table: {}", segment, _tableNameWithType);
+      return null;
+    }
+    Map<String, String> minValues = znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+    Map<String, String> maxValues = znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
+    if (minValues == null || maxValues == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, ValueRange> valueRanges = new HashMap<>();
+    for (Map.Entry<String, DataType> entry : _columnDataTypes.entrySet()) {
+      String column = entry.getKey();
+      String minValue = minValues.get(column);
+      String maxValue = maxValues.get(column);
+      if (minValue == null || maxValue == null) {
+        continue;
+      }
+      DataType dataType = entry.getValue();
+      try {
+        valueRanges.put(column,
+            new ValueRange((Comparable) dataType.convert(minValue), (Comparable) dataType.convert(maxValue)));
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while extracting min/max value for column: {}, segment: {}, table: {}", column,
+            segment, _tableNameWithType, e);
+      }
+    }
+    return valueRanges;
+  }
+
+  @Override
+  public Set<String> prune(BrokerRequest brokerRequest, Set<String> segments) {
+    Expression filterExpression = brokerRequest.getPinotQuery().getFilterExpression();
+    if (filterExpression == null) {
+      return segments;
+    }
+    Set<String> selectedSegments = new HashSet<>();
+    for (String segment : segments) {
+      Map<String, ValueRange> valueRanges = _valueRangesMap.get(segment);
+      if (valueRanges == null || valueRanges.isEmpty() || isValueMatch(filterExpression, valueRanges)) {
+        selectedSegments.add(segment);
+      }
+    }
+    return selectedSegments;
+  }
+
+  /**
+   * Returns {@code false} if the filter cannot match any value within the value ranges of the segment.
+   */
+  private boolean isValueMatch(Expression filterExpression, Map<String, ValueRange> valueRanges) {
+    Function function = filterExpression.getFunctionCall();
+    FilterKind filterKind = FilterKind.valueOf(function.getOperator());
+    List<Expression> operands = function.getOperands();
+    switch (filterKind) {
+      case AND:
+        for (Expression child : operands) {
+          if (!isValueMatch(child, valueRanges)) {
+            return false;
+          }
+        }
+        return true;
+      case OR:
+        for (Expression child : operands) {
+          if (isValueMatch(child, valueRanges)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        break;
+    }
+
+    ValueRange valueRange = getValueRange(operands.get(0), valueRanges);
+    if (valueRange == null) {
+      return true;
+    }
+    DataType dataType = _columnDataTypes.get(operands.get(0).getIdentifier().getName());
+    try {
+      switch (filterKind) {
+        case EQUALS:
+          return valueRange.contains(getValue(operands.get(1), dataType));
+        case IN: {
+          int numOperands = operands.size();
+          for (int i = 1; i < numOperands; i++) {
+            if (valueRange.contains(getValue(operands.get(i), dataType))) {
+              return true;
+            }
+          }
+          return false;
+        }
+        case GREATER_THAN:
+          return valueRange._maxValue.compareTo(getValue(operands.get(1), dataType)) > 0;
+        case GREATER_THAN_OR_EQUAL:
+          return valueRange._maxValue.compareTo(getValue(operands.get(1), dataType)) >= 0;
+        case LESS_THAN:
+          return valueRange._minValue.compareTo(getValue(operands.get(1), dataType)) < 0;
+        case LESS_THAN_OR_EQUAL:
+          return valueRange._minValue.compareTo(getValue(operands.get(1), dataType)) <= 0;
+        case BETWEEN:
+          return valueRange._maxValue.compareTo(getValue(operands.get(1), dataType)) >= 0
+              && valueRange._minValue.compareTo(getValue(operands.get(2), dataType)) <= 0;
+        case RANGE:
+          return isRangeMatch(operands.get(1).getLiteral().getStringValue(), valueRange, dataType);
+        default:
+          return true;
+      }
+    } catch (Exception e) {
+      // Do not prune the segment when the value cannot be converted (e.g. non-literal or invalid value)
+      return true;
+    }
+  }
+
+  @Nullable
+  private static ValueRange getValueRange(Expression expression, Map<String, ValueRange> valueRanges) {
+    Identifier identifier = expression.getIdentifier();
+    return identifier != null ? valueRanges.get(identifier.getName()) : null;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Comparable getValue(Expression expression, DataType dataType) {
+    return (Comparable) dataType.convert(RequestContextUtils.getStringValue(expression));
+  }
+
+  /**
+   * Parses the range string (e.g. '(* 16311]') and returns whether it overlaps with the value range.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean isRangeMatch(String rangeString, ValueRange valueRange, DataType dataType) {
+    int length = rangeString.length();
+    boolean lowerExclusive = rangeString.charAt(0) == Range.LOWER_EXCLUSIVE;
+    boolean upperExclusive = rangeString.charAt(length - 1) == Range.UPPER_EXCLUSIVE;
+    String[] split = StringUtils.split(rangeString.substring(1, length - 1), Range.DELIMITER);
+    if (!split[0].equals(Range.UNBOUNDED)) {
+      int compareResult = valueRange._maxValue.compareTo(dataType.convert(split[0]));
+      if (compareResult < 0 || (compareResult == 0 && lowerExclusive)) {
+        return false;
+      }
+    }
+    if (!split[1].equals(Range.UNBOUNDED)) {
+      int compareResult = valueRange._minValue.compareTo(dataType.convert(split[1]));
+      if (compareResult > 0 || (compareResult == 0 && upperExclusive)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static class ValueRange {
+    final Comparable _minValue;
+    final Comparable _maxValue;
+
+    ValueRange(Comparable minValue, Comparable maxValue) {
+      _minValue = minValue;
+      _maxValue = maxValue;
+    }
+
+    boolean contains(Comparable value) {
+      return _minValue.compareTo(value) <= 0 && _maxValue.compareTo(value) >= 0;
+    }
+  }
+}
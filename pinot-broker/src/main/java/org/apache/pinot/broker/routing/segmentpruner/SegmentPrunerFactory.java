@@ -19,6 +19,7 @@
 package org.apache.pinot.broker.routing.segmentpruner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -35,6 +36,8 @@ import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,10 +79,17 @@ public class SegmentPrunerFactory {
               configuredSegmentPruners.add(timeSegmentPruner);
             }
           }
+          if (RoutingConfig.COLUMN_VALUE_SEGMENT_PRUNER_TYPE.equalsIgnoreCase(segmentPrunerType)) {
+            ColumnValueSegmentPruner columnValueSegmentPruner =
+                getColumnValueSegmentPruner(tableConfig, propertyStore);
+            if (columnValueSegmentPruner != null) {
+              configuredSegmentPruners.add(columnValueSegmentPruner);
+            }
+          }
         }
-        // Sort all segment pruners in order of: empty -> time -> partition. We are trying to sort them in a this order
-        // for improving the performance, this order may not be the optimal case -- we need move the pruner that will
-        // potentially prune the most segments to front)
+        // Sort all segment pruners in order of: empty -> time -> partition -> column value. We are trying to sort them
+        // in a this order for improving the performance, this order may not be the optimal case -- we need move the
+        // pruner that will potentially prune the most segments to front)
         segmentPruners.addAll(sortSegmentPruners(configuredSegmentPruners));
       } else {
         // Handle legacy configs for backward-compatibility
@@ -149,9 +159,49 @@ public class SegmentPrunerFactory {
     return new TimeSegmentPruner(tableConfig, timeFieldSpec);
   }
 
+  @Nullable
+  private static ColumnValueSegmentPruner getColumnValueSegmentPruner(TableConfig tableConfig,
+      ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    String tableNameWithType = tableConfig.getTableName();
+    List<String> columns = tableConfig.getIndexingConfig().getColumnValuePruningColumns();
+    if (columns == null || columns.isEmpty()) {
+      LOGGER.warn("Cannot enable column value pruning without column value pruning columns for table: {}",
+          tableNameWithType);
+      return null;
+    }
+    Schema schema = ZKMetadataProvider.getTableSchema(propertyStore, tableConfig);
+    if (schema == null) {
+      LOGGER.warn("Cannot enable column value pruning without schema for table: {}", tableNameWithType);
+      return null;
+    }
+    Map<String, DataType> columnDataTypes = new HashMap<>();
+    for (String column : columns) {
+      FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+      if (fieldSpec == null || !fieldSpec.isSingleValueField()) {
+        LOGGER.warn("Skipping column value pruning on column: {} without single-value field spec for table: {}",
+            column, tableNameWithType);
+        continue;
+      }
+      DataType storedType = fieldSpec.getDataType().getStoredType();
+      if (!storedType.isNumeric() && storedType != DataType.STRING) {
+        LOGGER.warn("Skipping column value pruning on column: {} of unsupported data type: {} for table: {}", column,
+            storedType, tableNameWithType);
+        continue;
+      }
+      columnDataTypes.put(column, storedType);
+    }
+    if (columnDataTypes.isEmpty()) {
+      LOGGER.warn("Cannot enable column value pruning without valid columns for table: {}", tableNameWithType);
+      return null;
+    }
+    LOGGER.info("Using ColumnValueSegmentPruner on columns: {} for table: {}", columnDataTypes.keySet(),
+        tableNameWithType);
+    return new ColumnValueSegmentPruner(tableNameWithType, columnDataTypes);
+  }
+
   private static List<SegmentPruner> sortSegmentPruners(List<SegmentPruner> pruners) {
     // If there's multiple pruners, always prune empty segments first. After that, pruned based on time range, and
-    // followed by partition pruners.
+    // followed by partition pruners, and column value pruners at last.
     // Partition pruner run time is proportional to input # of segments while time range pruner is not,
     // Prune based on time range first will have a smaller input size for partition pruners, so have better performance.
     List<SegmentPruner> sortedPruners = new ArrayList<>();
@@ -171,6 +221,11 @@ public class SegmentPrunerFactory {
         sortedPruners.add(pruner);
       }
     }
+    for (SegmentPruner pruner : pruners) {
+      if (pruner instanceof ColumnValueSegmentPruner) {
+        sortedPruners.add(pruner);
+      }
+    }
     return sortedPruners;
   }
 }
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class QueryResultCacheTest {
+  private static final String OFFLINE_QUERY = "SELECT COUNT(*) FROM testTable_OFFLINE";
+  private static final String REALTIME_QUERY = "SELECT COUNT(*) FROM testTable_REALTIME";
+  private static final ServerInstance SERVER_0 = new ServerInstance(new InstanceConfig("server0_9000"));
+  private static final ServerInstance SERVER_1 = new ServerInstance(new InstanceConfig("server1_9000"));
+
+  private final Map<String, Long> _segmentCrcMap = new HashMap<>();
+
+  private QueryResultCache createCache(int maxEntries, long realtimeMaxStalenessMs) {
+    return new QueryResultCache((tableNameWithType, segment) -> _segmentCrcMap.getOrDefault(segment, -1L),
+        maxEntries, 10, realtimeMaxStalenessMs);
+  }
+
+  private static Map<ServerInstance, Pair<List<String>, List<String>>> getRoutingTable(String... segmentsOnServer0) {
+    Map<ServerInstance, Pair<List<String>, List<String>>> routingTable = new HashMap<>();
+    routingTable.put(SERVER_0, Pair.of(List.of(segmentsOnServer0), Collections.emptyList()));
+    routingTable.put(SERVER_1, Pair.of(List.of("segment2"), Collections.emptyList()));
+    return routingTable;
+  }
+
+  private static BrokerResponseNative getBrokerResponse(int numRows) {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    List<Object[]> rows = Collections.nCopies(numRows, new Object[]{1L});
+    brokerResponse.setResultTable(
+        new ResultTable(new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG}), rows));
+    brokerResponse.setTotalDocs(100);
+    brokerResponse.setNumServersQueried(2);
+    return brokerResponse;
+  }
+
+  @Test
+  public void testOfflineQuery() {
+    QueryResultCache cache = createCache(10, 0);
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(OFFLINE_QUERY);
+    _segmentCrcMap.put("segment0", 123L);
+    _segmentCrcMap.put("segment1", 456L);
+    String key = cache.getCacheKey(brokerRequest, getRoutingTable("segment0", "segment1"), null, null);
+    assertNotNull(key);
+    assertNull(cache.get(key));
+    cache.put(key, getBrokerResponse(1), false);
+
+    // Same query routed to different servers should have the same key
+    Map<ServerInstance, Pair<List<String>, List<String>>> routingTable = new HashMap<>();
+    routingTable.put(SERVER_1, Pair.of(List.of("segment1", "segment0"), Collections.emptyList()));
+    routingTable.put(SERVER_0, Pair.of(List.of("segment2"), Collections.emptyList()));
+    assertEquals(cache.getCacheKey(CalciteSqlCompiler.compileToBrokerRequest(OFFLINE_QUERY), routingTable, null, null),
+        key);
+    BrokerResponseNative cachedResponse = cache.get(key);
+    assertNotNull(cachedResponse);
+    assertEquals(cachedResponse.getNumRowsResultSet(), 1);
+    assertEquals(cachedResponse.getTotalDocs(), 100);
+    // Execution stats should not be returned from the cache
+    assertEquals(cachedResponse.getNumServersQueried(), 0);
+
+    // Changing the routed segments or the segment CRC should change the key
+    assertNotEquals(cache.getCacheKey(brokerRequest, getRoutingTable("segment0"), null, null), key);
+    _segmentCrcMap.put("segment1", 789L);
+    assertNotEquals(cache.getCacheKey(brokerRequest, getRoutingTable("segment0", "segment1"), null, null), key);
+
+    // Different query should have different key
+    BrokerRequest otherBrokerRequest =
+        CalciteSqlCompiler.compileToBrokerRequest("SELECT COUNT(*) FROM testTable_OFFLINE WHERE col > 1");
+    assertNotEquals(cache.getCacheKey(otherBrokerRequest, getRoutingTable("segment0", "segment1"), null, null), key);
+  }
+
+  @Test
+  public void testNonCacheableQuery() {
+    QueryResultCache cache = createCache(10, 0);
+    assertNull(cache.getCacheKey(CalciteSqlCompiler.compileToBrokerRequest("EXPLAIN PLAN FOR " + OFFLINE_QUERY),
+        getRoutingTable("segment0"), null, null));
+    assertNull(
+        cache.getCacheKey(CalciteSqlCompiler.compileToBrokerRequest("SET useResultCache=false; " + OFFLINE_QUERY),
+            getRoutingTable("segment0"), null, null));
+    assertNull(cache.getCacheKey(CalciteSqlCompiler.compileToBrokerRequest("SET trace=true; " + OFFLINE_QUERY),
+        getRoutingTable("segment0"), null, null));
+    // Real-time query is not cacheable without max staleness
+    assertNull(cache.getCacheKey(null, null, CalciteSqlCompiler.compileToBrokerRequest(REALTIME_QUERY),
+        getRoutingTable("segment0")));
+  }
+
+  @Test
+  public void testNonCacheableResponse() {
+    QueryResultCache cache = createCache(10, 0);
+    String key = cache.getCacheKey(CalciteSqlCompiler.compileToBrokerRequest(OFFLINE_QUERY),
+        getRoutingTable("segment0"), null, null);
+    assertNotNull(key);
+
+    // Response with exception
+    BrokerResponseNative brokerResponse = getBrokerResponse(1);
+    brokerResponse.addException(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, "error"));
+    cache.put(key, brokerResponse, false);
+    assertNull(cache.get(key));
+
+    // Response with num groups limit reached
+    brokerResponse = getBrokerResponse(1);
+    brokerResponse.setNumGroupsLimitReached(true);
+    cache.put(key, brokerResponse, false);
+    assertNull(cache.get(key));
+
+    // Response with too many rows
+    cache.put(key, getBrokerResponse(11), false);
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testRealtimeQueryStaleness() {
+    QueryResultCache cache = createCache(10, 1000);
+    String key = cache.getCacheKey(null, null, CalciteSqlCompiler.compileToBrokerRequest(REALTIME_QUERY),
+        getRoutingTable("segment0"));
+    assertNotNull(key);
+    cache.put(key, getBrokerResponse(1), true, 1000L);
+    assertNotNull(cache.get(key, 1500L));
+    assertNotNull(cache.get(key, 2000L));
+    assertNull(cache.get(key, 2001L));
+    assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void testEviction() {
+    QueryResultCache cache = createCache(1, 0);
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(OFFLINE_QUERY);
+    String key0 = cache.getCacheKey(brokerRequest, getRoutingTable("segment0"), null, null);
+    String key1 = cache.getCacheKey(brokerRequest, getRoutingTable("segment1"), null, null);
+    cache.put(key0, getBrokerResponse(1), false);
+    cache.put(key1, getBrokerResponse(1), false);
+    assertEquals(cache.size(), 1);
+    assertNull(cache.get(key0));
+    assertNotNull(cache.get(key1));
+  }
+}
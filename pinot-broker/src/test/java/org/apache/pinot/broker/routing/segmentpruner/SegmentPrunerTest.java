@@ -100,6 +100,13 @@ public class SegmentPrunerTest extends ControllerTest {
   private static final String SDF_QUERY_5 =
       "SELECT * FROM testTable WHERE timeColumn IN (20200101, 20200102) AND timeColumn >= 20200530";
 
+  private static final String COLUMN_VALUE_QUERY_1 = "SELECT * FROM testTable WHERE memberId >= 10 OR memberId > 25";
+  private static final String COLUMN_VALUE_QUERY_2 =
+      "SELECT * FROM testTable WHERE memberId BETWEEN 2 AND 5 AND memberName <> 'abc'";
+  private static final String COLUMN_VALUE_QUERY_3 = "SELECT * FROM testTable WHERE NOT memberId = 0";
+  private static final String COLUMN_VALUE_QUERY_4 =
+      "SELECT * FROM testTable WHERE memberId < 0 OR memberName IN ('aaa', 'zzz')";
+
   // Timestamp can be passed as string or long
   private static final String TIMESTAMP_QUERY_1 = "SELECT * FROM testTable WHERE timeColumn = '2020-01-31 00:00:00'";
   private static final String TIMESTAMP_QUERY_2 = String.format("SELECT * FROM testTable WHERE timeColumn = %d",
@@ -672,6 +679,78 @@ public class SegmentPrunerTest extends ControllerTest {
     assertEquals(segmentPruner.prune(brokerRequest1, onlineSegments), Set.of(segment0));
   }
 
+  @Test
+  public void testColumnValueSegmentPruner() {
+    BrokerRequest brokerRequest1 = CalciteSqlCompiler.compileToBrokerRequest(QUERY_1);
+    BrokerRequest brokerRequest2 = CalciteSqlCompiler.compileToBrokerRequest(QUERY_2);
+    BrokerRequest brokerRequest3 = CalciteSqlCompiler.compileToBrokerRequest(QUERY_3);
+    BrokerRequest brokerRequest4 = CalciteSqlCompiler.compileToBrokerRequest(QUERY_4);
+    BrokerRequest brokerRequest5 = CalciteSqlCompiler.compileToBrokerRequest(COLUMN_VALUE_QUERY_1);
+    BrokerRequest brokerRequest6 = CalciteSqlCompiler.compileToBrokerRequest(COLUMN_VALUE_QUERY_2);
+    BrokerRequest brokerRequest7 = CalciteSqlCompiler.compileToBrokerRequest(COLUMN_VALUE_QUERY_3);
+    BrokerRequest brokerRequest8 = CalciteSqlCompiler.compileToBrokerRequest(COLUMN_VALUE_QUERY_4);
+
+    // NOTE: Ideal state and external view are not used in the current implementation
+    IdealState idealState = Mockito.mock(IdealState.class);
+    ExternalView externalView = Mockito.mock(ExternalView.class);
+
+    ColumnValueSegmentPruner segmentPruner = new ColumnValueSegmentPruner(OFFLINE_TABLE_NAME,
+        Map.of(PARTITION_COLUMN_1, DataType.INT, PARTITION_COLUMN_2, DataType.STRING));
+    SegmentZkMetadataFetcher segmentZkMetadataFetcher =
+        new SegmentZkMetadataFetcher(OFFLINE_TABLE_NAME, _propertyStore);
+    segmentZkMetadataFetcher.register(segmentPruner);
+    Set<String> onlineSegments = new HashSet<>();
+    segmentZkMetadataFetcher.init(idealState, externalView, onlineSegments);
+    assertEquals(segmentPruner.prune(brokerRequest1, onlineSegments), onlineSegments);
+
+    // Segments without metadata (not updated yet) should not be pruned
+    String newSegment = "newSegment";
+    onlineSegments.add(newSegment);
+    segmentZkMetadataFetcher.onAssignmentChange(idealState, externalView, onlineSegments);
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments), onlineSegments);
+
+    // Segments without min/max values should not be pruned
+    String segmentWithoutValues = "segmentWithoutValues";
+    ZKMetadataProvider.setSegmentZKMetadata(_propertyStore, OFFLINE_TABLE_NAME,
+        new SegmentZKMetadata(segmentWithoutValues));
+    onlineSegments.add(segmentWithoutValues);
+    segmentZkMetadataFetcher.onAssignmentChange(idealState, externalView, onlineSegments);
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments), onlineSegments);
+
+    // Prune segments based on the min/max values
+    onlineSegments.clear();
+    String segment0 = "segment0";
+    setSegmentZKColumnValueMetadata(OFFLINE_TABLE_NAME, segment0, Map.of(PARTITION_COLUMN_1, "0"),
+        Map.of(PARTITION_COLUMN_1, "10"));
+    onlineSegments.add(segment0);
+    String segment1 = "segment1";
+    setSegmentZKColumnValueMetadata(OFFLINE_TABLE_NAME, segment1, Map.of(PARTITION_COLUMN_1, "1", PARTITION_COLUMN_2,
+        "abc"), Map.of(PARTITION_COLUMN_1, "2", PARTITION_COLUMN_2, "pqr"));
+    onlineSegments.add(segment1);
+    String segment2 = "segment2";
+    setSegmentZKColumnValueMetadata(OFFLINE_TABLE_NAME, segment2, Map.of(PARTITION_COLUMN_1, "20", PARTITION_COLUMN_2,
+        "xyz"), Map.of(PARTITION_COLUMN_1, "30", PARTITION_COLUMN_2, "xyz"));
+    onlineSegments.add(segment2);
+    segmentZkMetadataFetcher.onAssignmentChange(idealState, externalView, onlineSegments);
+    assertEquals(segmentPruner.prune(brokerRequest1, onlineSegments), Set.of(segment0, segment1, segment2));
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments), Set.of(segment0));
+    assertEquals(segmentPruner.prune(brokerRequest3, onlineSegments), Set.of(segment0, segment1));
+    assertEquals(segmentPruner.prune(brokerRequest4, onlineSegments), Set.of(segment0));
+    assertEquals(segmentPruner.prune(brokerRequest5, onlineSegments), Set.of(segment0, segment2));
+    assertEquals(segmentPruner.prune(brokerRequest6, onlineSegments), Set.of(segment0, segment1));
+    assertEquals(segmentPruner.prune(brokerRequest7, onlineSegments), Set.of(segment0, segment1, segment2));
+    assertEquals(segmentPruner.prune(brokerRequest8, onlineSegments), Set.of(segment0));
+
+    // Update metadata without external view change or refreshing should have no effect
+    setSegmentZKColumnValueMetadata(OFFLINE_TABLE_NAME, segment2, Map.of(PARTITION_COLUMN_1, "0"),
+        Map.of(PARTITION_COLUMN_1, "5"));
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments), Set.of(segment0));
+
+    // Refresh the changed segment should update the segment pruner
+    segmentZkMetadataFetcher.refreshSegment(segment2);
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments), Set.of(segment0, segment2));
+  }
+
   private void setSegmentZKPartitionMetadata(String tableNameWithType, String segment, String partitionFunction,
       int numPartitions, int partitionId) {
     SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segment);
@@ -696,6 +775,14 @@ public class SegmentPrunerTest extends ControllerTest {
     ZKMetadataProvider.setSegmentZKMetadata(_propertyStore, tableNameWithType, segmentZKMetadata);
   }
 
+  private void setSegmentZKColumnValueMetadata(String tableNameWithType, String segment,
+      Map<String, String> columnMinValues, Map<String, String> columnMaxValues) {
+    SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segment);
+    segmentZKMetadata.setColumnMinValues(columnMinValues);
+    segmentZKMetadata.setColumnMaxValues(columnMaxValues);
+    ZKMetadataProvider.setSegmentZKMetadata(_propertyStore, tableNameWithType, segmentZKMetadata);
+  }
+
   private void setSegmentZKTotalDocsMetadata(String tableNameWithType, String segment, long totalDocs) {
     SegmentZKMetadata segmentZKMetadata = new SegmentZKMetadata(segment);
     segmentZKMetadata.setTotalDocs(totalDocs);
@@ -19,6 +19,9 @@
 package org.apache.pinot.common.datatable;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -49,6 +52,16 @@ public interface DataTable {
   byte[] toBytes()
       throws IOException;
 
+  /**
+   * Serializes the data table into a {@link ByteBuf}. Implementations can write directly into a (pooled direct) buffer
+   * allocated from the given allocator to avoid the intermediate heap byte array. The caller owns the returned buffer
+   * and is responsible for releasing it (e.g. by writing it to a Netty channel).
+   */
+  default ByteBuf toByteBuf(ByteBufAllocator allocator)
+      throws IOException {
+    return Unpooled.wrappedBuffer(toBytes());
+  }
+
   Map<String, String> getMetadata();
 
   DataSchema getDataSchema();
@@ -138,11 +151,13 @@ public interface DataTable {
     OPERATOR_ID(31, "operatorId", MetadataValueType.STRING),
     OPERATOR_EXEC_START_TIME_MS(32, "operatorExecStartTimeMs", MetadataValueType.LONG),
     OPERATOR_EXEC_END_TIME_MS(33, "operatorExecEndTimeMs", MetadataValueType.LONG),
-    MAX_ROWS_IN_JOIN_REACHED(34, "maxRowsInJoinReached", MetadataValueType.STRING);
+    MAX_ROWS_IN_JOIN_REACHED(34, "maxRowsInJoinReached", MetadataValueType.STRING),
+    THREAD_MEM_ALLOCATED_BYTES(35, "threadMemAllocatedBytes", MetadataValueType.LONG),
+    RESPONSE_SER_MEM_ALLOCATED_BYTES(36, "responseSerMemAllocatedBytes", MetadataValueType.LONG);
 
     // We keep this constant to track the max id added so far for backward compatibility.
     // Increase it when adding new keys, but NEVER DECREASE IT!!!
-    private static final int MAX_ID = 34;
+    private static final int MAX_ID = 36;
 
     private static final MetadataKey[] ID_TO_ENUM_KEY_MAP = new MetadataKey[MAX_ID + 1];
     private static final Map<String, MetadataKey> NAME_TO_ENUM_KEY_MAP = new HashMap<>();
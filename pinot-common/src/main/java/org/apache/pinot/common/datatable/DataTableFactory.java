@@ -29,6 +29,7 @@ public class DataTableFactory {
   public static final int VERSION_2 = 2;
   public static final int VERSION_3 = 3;
   public static final int VERSION_4 = 4;
+  public static final int VERSION_5 = 5;
 
   public static DataTable getDataTable(ByteBuffer byteBuffer)
       throws IOException {
@@ -40,6 +41,8 @@ public class DataTableFactory {
         return new DataTableImplV3(byteBuffer);
       case VERSION_4:
         return new DataTableImplV4(byteBuffer);
+      case VERSION_5:
+        return new DataTableImplV5(byteBuffer);
       default:
         throw new IllegalStateException("Unsupported data table version: " + version);
     }
@@ -196,6 +196,12 @@ public class DataTableImplV3 extends BaseDataTable {
       long responseSerializationCpuTimeNs = threadResourceUsageProvider.getThreadTimeNs();
       getMetadata().put(MetadataKey.RESPONSE_SER_CPU_TIME_NS.getName(), String.valueOf(responseSerializationCpuTimeNs));
     }
+    // Add table serialization allocated bytes metadata if thread memory measurement is enabled.
+    if (ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled()) {
+      long responseSerializationAllocatedBytes = threadResourceUsageProvider.getThreadAllocatedBytes();
+      getMetadata().put(MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName(),
+          String.valueOf(responseSerializationAllocatedBytes));
+    }
 
     // Write metadata: length followed by actual metadata bytes.
     // NOTE: We ignore metadata serialization time in "responseSerializationCpuTimeNs" as it's negligible while
@@ -21,7 +21,11 @@ package org.apache.pinot.common.datatable;
 
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -52,6 +56,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class DataTableImplV4 implements DataTable {
 
   protected static final int HEADER_SIZE = Integer.BYTES * 13;
+  // Extra capacity reserved for the exceptions, dictionary, data schema and metadata sections when estimating the
+  // serialized size
+  private static final int SERIALIZED_SIZE_ESTIMATE_OVERHEAD = 1024;
   // _errCodeToExceptionMap stores exceptions as a map of errorCode->errorMessage
   protected Map<Integer, String> _errCodeToExceptionMap;
 
@@ -100,6 +107,10 @@ public class DataTableImplV4 implements DataTable {
     computeBlockObjectConstants();
   }
 
+  /**
+   * Deserializes the data table from the given buffer. The fixed size and variable size data sections are not copied,
+   * but read in place from the buffer, so the buffer must not be modified or released while the data table is in use.
+   */
   public DataTableImplV4(ByteBuffer byteBuffer)
       throws IOException {
     // Read header.
@@ -141,25 +152,20 @@ public class DataTableImplV4 implements DataTable {
     }
 
     // Read fixed size data.
+    // NOTE: The bytes are lazily materialized from the buffer when the data table is serialized again.
+    _fixedSizeDataBytes = null;
     if (fixedSizeDataLength != 0) {
-      _fixedSizeDataBytes = new byte[fixedSizeDataLength];
-      byteBuffer.position(fixedSizeDataStart);
-      byteBuffer.get(_fixedSizeDataBytes);
-      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+      _fixedSizeData = sliceSection(byteBuffer, fixedSizeDataStart, fixedSizeDataLength);
     } else {
-      _fixedSizeDataBytes = null;
       _fixedSizeData = null;
     }
 
     // Read variable size data.
-    _variableSizeDataBytes = new byte[variableSizeDataLength];
-    if (variableSizeDataLength != 0) {
-      byteBuffer.position(variableSizeDataStart);
-      byteBuffer.get(_variableSizeDataBytes);
-    }
-    _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+    _variableSizeDataBytes = null;
+    _variableSizeData = sliceSection(byteBuffer, variableSizeDataStart, variableSizeDataLength);
 
     // Read metadata.
+    byteBuffer.position(variableSizeDataStart + variableSizeDataLength);
     int metadataLength = byteBuffer.getInt();
     if (metadataLength != 0) {
       _metadata = deserializeMetadata(byteBuffer);
@@ -379,29 +385,112 @@ public class DataTableImplV4 implements DataTable {
   @Override
   public byte[] toBytes()
       throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(getSerializedSizeEstimate());
+    serialize(new DataOutputStream(byteArrayOutputStream));
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Serializes the data table directly into a direct buffer allocated from the given allocator, which can be written to
+   * the Netty channel without copying the fixed size and variable size data through an intermediate heap byte array.
+   */
+  @Override
+  public ByteBuf toByteBuf(ByteBufAllocator allocator)
+      throws IOException {
+    ByteBuf byteBuf = allocator.directBuffer(getSerializedSizeEstimate());
+    try {
+      serialize(new ByteBufOutputStream(byteBuf));
+      return byteBuf;
+    } catch (Exception e) {
+      byteBuf.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the estimated size of the serialized data table, which is used as the initial capacity of the output
+   * buffer to avoid growing (copying) the buffer while serializing the fixed size and variable size data.
+   */
+  protected int getSerializedSizeEstimate() {
+    int sizeEstimate = HEADER_SIZE + SERIALIZED_SIZE_ESTIMATE_OVERHEAD;
+    if (_fixedSizeData != null) {
+      sizeEstimate += _fixedSizeData.capacity();
+    }
+    if (_variableSizeData != null) {
+      sizeEstimate += _variableSizeData.capacity();
+    }
+    return sizeEstimate;
+  }
+
+  /**
+   * Returns the bytes of the fixed size data section. For a data table deserialized from a buffer, the bytes are copied
+   * out of the buffer on the first call.
+   */
+  @Nullable
+  protected byte[] getFixedSizeDataBytes() {
+    if (_fixedSizeDataBytes == null && _fixedSizeData != null) {
+      _fixedSizeDataBytes = copySection(_fixedSizeData);
+    }
+    return _fixedSizeDataBytes;
+  }
+
+  /**
+   * Returns the bytes of the variable size data section. For a data table deserialized from a buffer, the bytes are
+   * copied out of the buffer on the first call.
+   */
+  @Nullable
+  protected byte[] getVariableSizeDataBytes() {
+    if (_variableSizeDataBytes == null && _variableSizeData != null) {
+      _variableSizeDataBytes = copySection(_variableSizeData);
+    }
+    return _variableSizeDataBytes;
+  }
+
+  /**
+   * Returns a view of the section of the given length at the given (absolute) position of the buffer.
+   */
+  protected static ByteBuffer sliceSection(ByteBuffer byteBuffer, int start, int length) {
+    ByteBuffer section = byteBuffer.duplicate();
+    section.position(start);
+    section.limit(start + length);
+    return section.slice();
+  }
+
+  private static byte[] copySection(ByteBuffer section) {
+    byte[] bytes = new byte[section.capacity()];
+    ByteBuffer duplicate = section.duplicate();
+    duplicate.clear();
+    duplicate.get(bytes);
+    return bytes;
+  }
+
+  protected void serialize(DataOutput dataOutput)
+      throws IOException {
     ThreadResourceUsageProvider threadTimer = new ThreadResourceUsageProvider();
 
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-    writeLeadingSections(dataOutputStream);
+    writeLeadingSections(dataOutput);
 
     // Add table serialization time metadata if thread timer is enabled.
     if (ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled()) {
       long responseSerializationCpuTimeNs = threadTimer.getThreadTimeNs();
       getMetadata().put(MetadataKey.RESPONSE_SER_CPU_TIME_NS.getName(), String.valueOf(responseSerializationCpuTimeNs));
     }
+    // Add table serialization allocated bytes metadata if thread memory measurement is enabled.
+    if (ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled()) {
+      long responseSerializationAllocatedBytes = threadTimer.getThreadAllocatedBytes();
+      getMetadata().put(MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName(),
+          String.valueOf(responseSerializationAllocatedBytes));
+    }
 
     // Write metadata: length followed by actual metadata bytes.
     // NOTE: We ignore metadata serialization time in "responseSerializationCpuTimeNs" as it's negligible while
     // considering it will bring a lot code complexity.
     byte[] metadataBytes = serializeMetadata();
-    dataOutputStream.writeInt(metadataBytes.length);
-    dataOutputStream.write(metadataBytes);
-
-    return byteArrayOutputStream.toByteArray();
+    dataOutput.writeInt(metadataBytes.length);
+    dataOutput.write(metadataBytes);
   }
 
-  private void writeLeadingSections(DataOutputStream dataOutputStream)
+  protected void writeLeadingSections(DataOutput dataOutputStream)
       throws IOException {
     dataOutputStream.writeInt(getVersion());
     dataOutputStream.writeInt(_numRows);
@@ -439,17 +528,19 @@ public class DataTableImplV4 implements DataTable {
 
     // Write fixed size data section offset(START|SIZE).
     dataOutputStream.writeInt(dataOffset);
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.writeInt(_fixedSizeDataBytes.length);
-      dataOffset += _fixedSizeDataBytes.length;
+    byte[] fixedSizeDataBytes = getFixedSizeDataBytes();
+    if (fixedSizeDataBytes != null) {
+      dataOutputStream.writeInt(fixedSizeDataBytes.length);
+      dataOffset += fixedSizeDataBytes.length;
     } else {
       dataOutputStream.writeInt(0);
     }
 
     // Write variable size data section offset(START|SIZE).
     dataOutputStream.writeInt(dataOffset);
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.writeInt(_variableSizeDataBytes.length);
+    byte[] variableSizeDataBytes = getVariableSizeDataBytes();
+    if (variableSizeDataBytes != null) {
+      dataOutputStream.writeInt(variableSizeDataBytes.length);
     } else {
       dataOutputStream.writeInt(0);
     }
@@ -466,12 +557,12 @@ public class DataTableImplV4 implements DataTable {
       dataOutputStream.write(dataSchemaBytes);
     }
     // Write fixed size data bytes.
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.write(_fixedSizeDataBytes);
+    if (fixedSizeDataBytes != null) {
+      dataOutputStream.write(fixedSizeDataBytes);
     }
     // Write variable size data bytes.
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.write(_variableSizeDataBytes);
+    if (variableSizeDataBytes != null) {
+      dataOutputStream.write(variableSizeDataBytes);
     }
   }
 
@@ -487,7 +578,7 @@ public class DataTableImplV4 implements DataTable {
    * Unlike V2, where numeric metadata values (int and long) in V3 are encoded in UTF-8 in the wire format,
    * in V3 big endian representation is used.
    */
-  private byte[] serializeMetadata()
+  protected byte[] serializeMetadata()
       throws IOException {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
@@ -526,7 +617,7 @@ public class DataTableImplV4 implements DataTable {
    *
    * This method use relative operations on the ByteBuffer and expects the buffer's position to be set correctly.
    */
-  private Map<String, String> deserializeMetadata(ByteBuffer buffer)
+  protected Map<String, String> deserializeMetadata(ByteBuffer buffer)
       throws IOException {
     int numEntries = buffer.getInt();
     Map<String, String> metadata = new HashMap<>();
@@ -551,7 +642,7 @@ public class DataTableImplV4 implements DataTable {
     return metadata;
   }
 
-  private byte[] serializeExceptions()
+  protected byte[] serializeExceptions()
       throws IOException {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
@@ -570,7 +661,7 @@ public class DataTableImplV4 implements DataTable {
     return byteArrayOutputStream.toByteArray();
   }
 
-  private Map<Integer, String> deserializeExceptions(ByteBuffer buffer)
+  protected Map<Integer, String> deserializeExceptions(ByteBuffer buffer)
       throws IOException {
     int numExceptions = buffer.getInt();
     Map<Integer, String> exceptions = new HashMap<>(HashUtil.getHashMapCapacity(numExceptions));
@@ -624,7 +715,8 @@ public class DataTableImplV4 implements DataTable {
 
   @Override
   public DataTable toDataOnlyDataTable() {
-    return new DataTableImplV4(_numRows, _dataSchema, _stringDictionary, _fixedSizeDataBytes, _variableSizeDataBytes);
+    return new DataTableImplV4(_numRows, _dataSchema, _stringDictionary, getFixedSizeDataBytes(),
+        getVariableSizeDataBytes());
   }
 
   public int getRowSizeInBytes() {
@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.datatable;
+
+import com.github.luben.zstd.Zstd;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.spi.annotations.InterfaceStability;
+
+
+/**
+ * Datatable V5 Implementation stores the fixed size data in column-major format (same as the columnar data block), so
+ * that the values of a fixed width column are contiguous and can be read in bulk without computing the offset for
+ * each value. The fixed size data and variable size data sections can be compressed with LZ4 or ZSTANDARD.
+ *
+ * <p>Format of the serialized bytes (all ints in big endian):
+ * <ul>
+ *   <li>Header: version, numRows, numColumns, compressionType, (START|SIZE) of exceptions, dictionary, data schema,
+ *   fixed size data and variable size data sections, followed by the uncompressed size of the fixed size data and
+ *   variable size data sections</li>
+ *   <li>Sections in the same order as the header</li>
+ *   <li>Metadata: length followed by the metadata bytes (same as V4)</li>
+ * </ul>
+ * The fixed size data section contains the values of each column one after another, followed by the (offset|length) of
+ * the null bitmap of each column in the variable size data section.
+ */
+@InterfaceStability.Evolving
+public class DataTableImplV5 extends DataTableImplV4 {
+  private static final int V5_HEADER_SIZE = Integer.BYTES * 16;
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+  private ChunkCompressionType _compressionType = ChunkCompressionType.PASS_THROUGH;
+  private int[] _columnSizeInBytes;
+
+  public DataTableImplV5() {
+    super();
+  }
+
+  public DataTableImplV5(int numRows, DataSchema dataSchema, String[] stringDictionary, byte[] fixedSizeDataBytes,
+      byte[] variableSizeDataBytes, ChunkCompressionType compressionType) {
+    super(numRows, dataSchema, stringDictionary, fixedSizeDataBytes, variableSizeDataBytes);
+    _compressionType = compressionType;
+  }
+
+  public DataTableImplV5(ByteBuffer byteBuffer)
+      throws IOException {
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    _compressionType = ChunkCompressionType.valueOf(byteBuffer.getInt());
+    int exceptionsStart = byteBuffer.getInt();
+    int exceptionsLength = byteBuffer.getInt();
+    int dictionaryMapStart = byteBuffer.getInt();
+    int dictionaryMapLength = byteBuffer.getInt();
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    int fixedSizeDataStart = byteBuffer.getInt();
+    int fixedSizeDataLength = byteBuffer.getInt();
+    int variableSizeDataStart = byteBuffer.getInt();
+    int variableSizeDataLength = byteBuffer.getInt();
+    int fixedSizeDataUncompressedLength = byteBuffer.getInt();
+    int variableSizeDataUncompressedLength = byteBuffer.getInt();
+
+    // Read exceptions.
+    if (exceptionsLength != 0) {
+      byteBuffer.position(exceptionsStart);
+      _errCodeToExceptionMap = deserializeExceptions(byteBuffer);
+    }
+
+    // Read dictionary.
+    if (dictionaryMapLength != 0) {
+      byteBuffer.position(dictionaryMapStart);
+      _stringDictionary = deserializeStringDictionary(byteBuffer);
+    }
+
+    // Read data schema.
+    if (dataSchemaLength != 0) {
+      byteBuffer.position(dataSchemaStart);
+      _dataSchema = DataSchema.fromBytes(byteBuffer);
+    }
+
+    // Read fixed size data.
+    if (fixedSizeDataLength != 0) {
+      byteBuffer.position(fixedSizeDataStart);
+      _fixedSizeDataBytes =
+          decompress(_compressionType, byteBuffer, fixedSizeDataLength, fixedSizeDataUncompressedLength);
+      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+    }
+
+    // Read variable size data.
+    if (variableSizeDataLength != 0) {
+      byteBuffer.position(variableSizeDataStart);
+      _variableSizeDataBytes =
+          decompress(_compressionType, byteBuffer, variableSizeDataLength, variableSizeDataUncompressedLength);
+    } else {
+      _variableSizeDataBytes = new byte[0];
+    }
+    _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+
+    // Read metadata.
+    byteBuffer.position(variableSizeDataStart + variableSizeDataLength);
+    int metadataLength = byteBuffer.getInt();
+    if (metadataLength != 0) {
+      _metadata = deserializeMetadata(byteBuffer);
+    }
+
+    // Compute extra constants.
+    computeBlockObjectConstants();
+  }
+
+  @Override
+  public int getVersion() {
+    return DataTableFactory.VERSION_5;
+  }
+
+  public ChunkCompressionType getCompressionType() {
+    return _compressionType;
+  }
+
+  // --------------------------------------------------------------------------
+  // Whole column access for fixed width single-value columns.
+  // --------------------------------------------------------------------------
+
+  /**
+   * Returns all the values of an INT (or BOOLEAN) column.
+   */
+  public int[] getIntColumn(int colId) {
+    int[] values = new int[_numRows];
+    if (_numRows > 0) {
+      getColumnBuffer(colId).asIntBuffer().get(values);
+    }
+    return values;
+  }
+
+  /**
+   * Returns all the values of a LONG (or TIMESTAMP) column.
+   */
+  public long[] getLongColumn(int colId) {
+    long[] values = new long[_numRows];
+    if (_numRows > 0) {
+      getColumnBuffer(colId).asLongBuffer().get(values);
+    }
+    return values;
+  }
+
+  /**
+   * Returns all the values of a FLOAT column.
+   */
+  public float[] getFloatColumn(int colId) {
+    float[] values = new float[_numRows];
+    if (_numRows > 0) {
+      getColumnBuffer(colId).asFloatBuffer().get(values);
+    }
+    return values;
+  }
+
+  /**
+   * Returns all the values of a DOUBLE column.
+   */
+  public double[] getDoubleColumn(int colId) {
+    double[] values = new double[_numRows];
+    if (_numRows > 0) {
+      getColumnBuffer(colId).asDoubleBuffer().get(values);
+    }
+    return values;
+  }
+
+  /**
+   * Returns all the values of a STRING (or JSON) column. Values with the same dictionary id share the same instance.
+   */
+  public String[] getStringColumn(int colId) {
+    int[] dictIds = getIntColumn(colId);
+    String[] values = new String[_numRows];
+    for (int i = 0; i < _numRows; i++) {
+      values[i] = _stringDictionary[dictIds[i]];
+    }
+    return values;
+  }
+
+  /**
+   * Returns a buffer positioned at the first value of the given column. The buffer is independent of the shared
+   * {@code _fixedSizeData}, so the whole column access can be performed concurrently with the other accesses.
+   */
+  private ByteBuffer getColumnBuffer(int colId) {
+    ByteBuffer columnBuffer = _fixedSizeData.duplicate();
+    columnBuffer.position(getOffsetInFixedBuffer(0, colId));
+    return columnBuffer;
+  }
+
+  // --------------------------------------------------------------------------
+  // Ser/De
+  // --------------------------------------------------------------------------
+
+  @Override
+  protected int getSerializedSizeEstimate() {
+    // Uncompressed size is used as the estimate, which is an upper bound for compressible data
+    return super.getSerializedSizeEstimate() + V5_HEADER_SIZE - HEADER_SIZE;
+  }
+
+  @Override
+  protected void writeLeadingSections(DataOutput dataOutputStream)
+      throws IOException {
+    dataOutputStream.writeInt(getVersion());
+    dataOutputStream.writeInt(_numRows);
+    dataOutputStream.writeInt(_numColumns);
+    dataOutputStream.writeInt(_compressionType.getValue());
+    int dataOffset = V5_HEADER_SIZE;
+
+    // Write exceptions section offset(START|SIZE).
+    dataOutputStream.writeInt(dataOffset);
+    byte[] exceptionsBytes = serializeExceptions();
+    dataOutputStream.writeInt(exceptionsBytes.length);
+    dataOffset += exceptionsBytes.length;
+
+    // Write dictionary map section offset(START|SIZE).
+    dataOutputStream.writeInt(dataOffset);
+    byte[] dictionaryBytes = null;
+    if (_stringDictionary != null) {
+      dictionaryBytes = serializeStringDictionary();
+      dataOutputStream.writeInt(dictionaryBytes.length);
+      dataOffset += dictionaryBytes.length;
+    } else {
+      dataOutputStream.writeInt(0);
+    }
+
+    // Write data schema section offset(START|SIZE).
+    dataOutputStream.writeInt(dataOffset);
+    byte[] dataSchemaBytes = null;
+    if (_dataSchema != null) {
+      dataSchemaBytes = _dataSchema.toBytes();
+      dataOutputStream.writeInt(dataSchemaBytes.length);
+      dataOffset += dataSchemaBytes.length;
+    } else {
+      dataOutputStream.writeInt(0);
+    }
+
+    // Write fixed size data section offset(START|SIZE).
+    dataOutputStream.writeInt(dataOffset);
+    byte[] uncompressedFixedSizeDataBytes = getFixedSizeDataBytes();
+    byte[] fixedSizeDataBytes = compress(_compressionType, uncompressedFixedSizeDataBytes);
+    dataOutputStream.writeInt(fixedSizeDataBytes.length);
+    dataOffset += fixedSizeDataBytes.length;
+
+    // Write variable size data section offset(START|SIZE).
+    dataOutputStream.writeInt(dataOffset);
+    byte[] uncompressedVariableSizeDataBytes = getVariableSizeDataBytes();
+    byte[] variableSizeDataBytes = compress(_compressionType, uncompressedVariableSizeDataBytes);
+    dataOutputStream.writeInt(variableSizeDataBytes.length);
+
+    // Write uncompressed size of the fixed size data and variable size data sections.
+    dataOutputStream.writeInt(uncompressedFixedSizeDataBytes != null ? uncompressedFixedSizeDataBytes.length : 0);
+    dataOutputStream.writeInt(uncompressedVariableSizeDataBytes != null ? uncompressedVariableSizeDataBytes.length : 0);
+
+    // Write actual data.
+    dataOutputStream.write(exceptionsBytes);
+    if (dictionaryBytes != null) {
+      dataOutputStream.write(dictionaryBytes);
+    }
+    if (dataSchemaBytes != null) {
+      dataOutputStream.write(dataSchemaBytes);
+    }
+    dataOutputStream.write(fixedSizeDataBytes);
+    dataOutputStream.write(variableSizeDataBytes);
+  }
+
+  private static byte[] compress(ChunkCompressionType compressionType, byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return new byte[0];
+    }
+    switch (compressionType) {
+      case PASS_THROUGH:
+        return bytes;
+      case LZ4:
+        return LZ4_FACTORY.fastCompressor().compress(bytes);
+      case ZSTANDARD:
+        return Zstd.compress(bytes);
+      default:
+        throw new IllegalStateException("Unsupported compression type for data table: " + compressionType);
+    }
+  }
+
+  /**
+   * Reads the section of the given length from the current position of the buffer, and decompresses it. The compressed
+   * bytes are decompressed directly from the buffer (heap or direct) without being copied into a byte array first.
+   */
+  private static byte[] decompress(ChunkCompressionType compressionType, ByteBuffer byteBuffer, int length,
+      int uncompressedLength) {
+    int position = byteBuffer.position();
+    byte[] bytes;
+    switch (compressionType) {
+      case PASS_THROUGH:
+        bytes = new byte[length];
+        byteBuffer.get(bytes);
+        return bytes;
+      case LZ4:
+        bytes = new byte[uncompressedLength];
+        LZ4_FACTORY.fastDecompressor().decompress(byteBuffer, position, ByteBuffer.wrap(bytes), 0, uncompressedLength);
+        break;
+      case ZSTANDARD:
+        if (byteBuffer.hasArray()) {
+          bytes = new byte[uncompressedLength];
+          long decompressedSize = Zstd.decompressByteArray(bytes, 0, uncompressedLength, byteBuffer.array(),
+              byteBuffer.arrayOffset() + position, length);
+          if (Zstd.isError(decompressedSize)) {
+            throw new IllegalStateException(
+                "Failed to decompress data table section: " + Zstd.getErrorName(decompressedSize));
+          }
+        } else {
+          byte[] compressedBytes = new byte[length];
+          byteBuffer.get(compressedBytes);
+          return Zstd.decompress(compressedBytes, uncompressedLength);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported compression type for data table: " + compressionType);
+    }
+    byteBuffer.position(position + length);
+    return bytes;
+  }
+
+  @Override
+  protected void computeBlockObjectConstants() {
+    if (_dataSchema != null) {
+      _columnSizeInBytes = new int[_numColumns];
+      DataBlockUtils.computeColumnSizeInBytes(_dataSchema, _columnSizeInBytes);
+      // Column offsets are the start offsets of the columns in the fixed size data
+      _columnOffsets = new int[_numColumns];
+      int columnOffset = 0;
+      _rowSizeInBytes = 0;
+      for (int i = 0; i < _numColumns; i++) {
+        _columnOffsets[i] = columnOffset;
+        columnOffset += _columnSizeInBytes[i] * _numRows;
+        _rowSizeInBytes += _columnSizeInBytes[i];
+      }
+      _fixDataSize = columnOffset;
+    }
+  }
+
+  @Override
+  protected int getOffsetInFixedBuffer(int rowId, int colId) {
+    return _columnOffsets[colId] + _columnSizeInBytes[colId] * rowId;
+  }
+
+  @Override
+  public DataTable toMetadataOnlyDataTable() {
+    DataTableImplV5 metadataOnlyDataTable = new DataTableImplV5();
+    metadataOnlyDataTable._compressionType = _compressionType;
+    metadataOnlyDataTable._metadata.putAll(_metadata);
+    metadataOnlyDataTable._errCodeToExceptionMap.putAll(_errCodeToExceptionMap);
+    return metadataOnlyDataTable;
+  }
+
+  @Override
+  public DataTable toDataOnlyDataTable() {
+    return new DataTableImplV5(_numRows, _dataSchema, _stringDictionary, getFixedSizeDataBytes(),
+        getVariableSizeDataBytes(), _compressionType);
+  }
+}
@@ -19,16 +19,22 @@
 package org.apache.pinot.common.function;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Primitives;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.PinotDataType;
 
 
 /**
  * The {@code FunctionInvoker} is a wrapper on a java method which supports arguments type conversion and method
- * invocation via reflection.
+ * invocation. The method is invoked through a {@link MethodHandle} bound to the function instance, which avoids the
+ * per call access check and argument array copy of the reflective {@link Method#invoke}.
  */
 public class FunctionInvoker {
   private final Method _method;
@@ -37,8 +43,13 @@ public class FunctionInvoker {
   private final boolean _isNullIntolerant;
 
   private final Class<?>[] _parameterClasses;
+  // Wrapper classes of the parameter classes, used to check if the arguments can be passed to the method handle
+  private final Class<?>[] _boxedParameterClasses;
   private final PinotDataType[] _parameterTypes;
   private final Object _instance;
+  // Takes the arguments as an Object[] and returns the boxed result, or null if the method is not accessible through
+  // method handle
+  private final MethodHandle _methodHandle;
 
   public FunctionInvoker(FunctionInfo functionInfo) {
     _method = functionInfo.getMethod();
@@ -46,10 +57,12 @@ public class FunctionInvoker {
     Class<?>[] parameterClasses = _method.getParameterTypes();
     int numParameters = parameterClasses.length;
     _parameterClasses = new Class<?>[numParameters];
+    _boxedParameterClasses = new Class<?>[numParameters];
     _parameterTypes = new PinotDataType[numParameters];
     for (int i = 0; i < numParameters; i++) {
       Class<?> parameterClass = parameterClasses[i];
       _parameterClasses[i] = parameterClass;
+      _boxedParameterClasses[i] = Primitives.wrap(parameterClass);
       _parameterTypes[i] = FunctionUtils.getParameterType(parameterClass);
     }
     if (Modifier.isStatic(_method.getModifiers())) {
@@ -63,6 +76,23 @@ public class FunctionInvoker {
         throw new IllegalStateException("Caught exception while constructing class: " + clazz, e);
       }
     }
+    _methodHandle = getMethodHandle(_method, _instance, numParameters);
+  }
+
+  @Nullable
+  private static MethodHandle getMethodHandle(Method method, @Nullable Object instance, int numParameters) {
+    MethodHandle methodHandle;
+    try {
+      methodHandle = MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+    // Var-args methods take the var-args as an array, same as Method.invoke()
+    methodHandle = methodHandle.asFixedArity();
+    if (instance != null) {
+      methodHandle = methodHandle.bindTo(instance);
+    }
+    return methodHandle.asType(MethodType.genericMethodType(numParameters)).asSpreader(Object[].class, numParameters);
   }
 
   /**
@@ -135,6 +165,38 @@ public class FunctionInvoker {
         }
       }
     }
+    // The method handle does not apply the primitive widening conversion (e.g. Integer to double) on the arguments, so
+    // use the reflective invocation for such arguments
+    if (_methodHandle == null || !canInvokeExact(arguments)) {
+      return invokeReflectively(arguments);
+    }
+    try {
+      return (Object) _methodHandle.invokeExact(arguments);
+    } catch (Throwable t) {
+      throw new IllegalStateException(
+          "Caught exception while invoking method: " + _method + " with arguments: " + Arrays.toString(arguments), t);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the arguments can be passed to the method handle without conversion, i.e. each argument is
+   * an instance of the (boxed) parameter class, or {@code null} for a non-primitive parameter.
+   */
+  private boolean canInvokeExact(Object[] arguments) {
+    int numParameters = _boxedParameterClasses.length;
+    if (arguments.length != numParameters) {
+      return false;
+    }
+    for (int i = 0; i < numParameters; i++) {
+      Object argument = arguments[i];
+      if (argument == null ? _parameterClasses[i].isPrimitive() : !_boxedParameterClasses[i].isInstance(argument)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Object invokeReflectively(Object[] arguments) {
     try {
       return _method.invoke(_instance, arguments);
     } catch (Exception e) {
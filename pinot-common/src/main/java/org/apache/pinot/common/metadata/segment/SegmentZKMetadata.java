@@ -267,11 +267,39 @@ public class SegmentZKMetadata implements ZKMetadata {
   }
 
   public void setCustomMap(Map<String, String> customMap) {
+    setMapField(Segment.CUSTOM_MAP, customMap);
+  }
+
+  /**
+   * Returns the map from column to the min value of the column in the segment, only for the columns configured for the
+   * column value segment pruning.
+   */
+  public Map<String, String> getColumnMinValues() {
+    return _znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+  }
+
+  public void setColumnMinValues(Map<String, String> columnMinValues) {
+    setMapField(Segment.COLUMN_MIN_VALUES, columnMinValues);
+  }
+
+  /**
+   * Returns the map from column to the max value of the column in the segment, only for the columns configured for the
+   * column value segment pruning.
+   */
+  public Map<String, String> getColumnMaxValues() {
+    return _znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
+  }
+
+  public void setColumnMaxValues(Map<String, String> columnMaxValues) {
+    setMapField(Segment.COLUMN_MAX_VALUES, columnMaxValues);
+  }
+
+  private void setMapField(String key, Map<String, String> value) {
     Map<String, Map<String, String>> mapFields = _znRecord.getMapFields();
-    if (MapUtils.isNotEmpty(customMap)) {
-      mapFields.put(Segment.CUSTOM_MAP, customMap);
+    if (MapUtils.isNotEmpty(value)) {
+      mapFields.put(key, value);
     } else {
-      mapFields.remove(Segment.CUSTOM_MAP);
+      mapFields.remove(key);
     }
   }
 
@@ -108,6 +108,10 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
 
   QUERY_QUOTA_EXCEEDED("exceptions", false),
 
+  // Queries served from / missed in the broker query result cache
+  QUERY_RESULT_CACHE_HITS("queries", false),
+  QUERY_RESULT_CACHE_MISSES("queries", false),
+
   // tracks a case a segment is not hosted by any server
   // this is different from NO_SERVER_FOUND_EXCEPTIONS which tracks unavailability across all segments
   NO_SERVING_HOST_FOR_SEGMENT("badResponses", false),
@@ -115,6 +119,11 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Track the case where selected server is missing in RoutingManager
   SERVER_MISSING_FOR_ROUTING("badResponses", false),
 
+  // Aggregated bytes allocated on the heap by the query execution threads (and the response serialization) on the
+  // offline/realtime servers
+  OFFLINE_TOTAL_MEM_ALLOCATED_BYTES("bytes", false),
+  REALTIME_TOTAL_MEM_ALLOCATED_BYTES("bytes", false),
+
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
@@ -271,6 +271,40 @@ public interface BrokerResponse {
         + getRealtimeResponseSerializationCpuTimeNs();
   }
 
+  /**
+   * Returns the bytes allocated on the heap by the threads executing the query against offline table.
+   */
+  long getOfflineThreadMemAllocatedBytes();
+
+  /**
+   * Returns the bytes allocated on the heap by the threads executing the query against real-time table.
+   */
+  long getRealtimeThreadMemAllocatedBytes();
+
+  /**
+   * Returns the bytes allocated on the heap for response serialization against offline table.
+   */
+  long getOfflineResponseSerMemAllocatedBytes();
+
+  /**
+   * Returns the bytes allocated on the heap for response serialization against real-time table.
+   */
+  long getRealtimeResponseSerMemAllocatedBytes();
+
+  /**
+   * Returns the total bytes allocated on the heap (query execution + response serialization) against offline table.
+   */
+  default long getOfflineTotalMemAllocatedBytes() {
+    return getOfflineThreadMemAllocatedBytes() + getOfflineResponseSerMemAllocatedBytes();
+  }
+
+  /**
+   * Returns the total bytes allocated on the heap (query execution + response serialization) against real-time table.
+   */
+  default long getRealtimeTotalMemAllocatedBytes() {
+    return getRealtimeThreadMemAllocatedBytes() + getRealtimeResponseSerMemAllocatedBytes();
+  }
+
   /**
    * Returns the total number of segments with an EmptyFilterOperator when Explain Plan is called.
    */
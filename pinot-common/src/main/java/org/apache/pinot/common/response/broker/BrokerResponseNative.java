@@ -51,7 +51,9 @@ import org.apache.pinot.spi.utils.JsonUtils;
     "offlineThreadCpuTimeNs", "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs",
     "realtimeSystemActivitiesCpuTimeNs", "offlineResponseSerializationCpuTimeNs",
     "realtimeResponseSerializationCpuTimeNs", "offlineTotalCpuTimeNs", "realtimeTotalCpuTimeNs",
-    "explainPlanNumEmptyFilterSegments", "explainPlanNumMatchAllFilterSegments", "traceInfo"
+    "offlineThreadMemAllocatedBytes", "realtimeThreadMemAllocatedBytes", "offlineResponseSerMemAllocatedBytes",
+    "realtimeResponseSerMemAllocatedBytes", "offlineTotalMemAllocatedBytes", "realtimeTotalMemAllocatedBytes",
+    "explainPlanNumEmptyFilterSegments", "explainPlanNumMatchAllFilterSegments", "serverStats", "traceInfo"
 })
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BrokerResponseNative implements BrokerResponse {
@@ -94,8 +96,13 @@ public class BrokerResponseNative implements BrokerResponse {
   private long _realtimeSystemActivitiesCpuTimeNs = 0L;
   private long _offlineResponseSerializationCpuTimeNs = 0L;
   private long _realtimeResponseSerializationCpuTimeNs = 0L;
+  private long _offlineThreadMemAllocatedBytes = 0L;
+  private long _realtimeThreadMemAllocatedBytes = 0L;
+  private long _offlineResponseSerMemAllocatedBytes = 0L;
+  private long _realtimeResponseSerMemAllocatedBytes = 0L;
   private long _explainPlanNumEmptyFilterSegments = 0L;
   private long _explainPlanNumMatchAllFilterSegments = 0L;
+  private Map<String, Map<String, Long>> _serverStats = new HashMap<>();
   private Map<String, String> _traceInfo = new HashMap<>();
 
   public BrokerResponseNative() {
@@ -457,6 +464,42 @@ public class BrokerResponseNative implements BrokerResponse {
     _realtimeResponseSerializationCpuTimeNs = realtimeResponseSerializationCpuTimeNs;
   }
 
+  @Override
+  public long getOfflineThreadMemAllocatedBytes() {
+    return _offlineThreadMemAllocatedBytes;
+  }
+
+  public void setOfflineThreadMemAllocatedBytes(long offlineThreadMemAllocatedBytes) {
+    _offlineThreadMemAllocatedBytes = offlineThreadMemAllocatedBytes;
+  }
+
+  @Override
+  public long getRealtimeThreadMemAllocatedBytes() {
+    return _realtimeThreadMemAllocatedBytes;
+  }
+
+  public void setRealtimeThreadMemAllocatedBytes(long realtimeThreadMemAllocatedBytes) {
+    _realtimeThreadMemAllocatedBytes = realtimeThreadMemAllocatedBytes;
+  }
+
+  @Override
+  public long getOfflineResponseSerMemAllocatedBytes() {
+    return _offlineResponseSerMemAllocatedBytes;
+  }
+
+  public void setOfflineResponseSerMemAllocatedBytes(long offlineResponseSerMemAllocatedBytes) {
+    _offlineResponseSerMemAllocatedBytes = offlineResponseSerMemAllocatedBytes;
+  }
+
+  @Override
+  public long getRealtimeResponseSerMemAllocatedBytes() {
+    return _realtimeResponseSerMemAllocatedBytes;
+  }
+
+  public void setRealtimeResponseSerMemAllocatedBytes(long realtimeResponseSerMemAllocatedBytes) {
+    _realtimeResponseSerMemAllocatedBytes = realtimeResponseSerMemAllocatedBytes;
+  }
+
   @Override
   public long getExplainPlanNumEmptyFilterSegments() {
     return _explainPlanNumEmptyFilterSegments;
@@ -475,6 +518,19 @@ public class BrokerResponseNative implements BrokerResponse {
     _explainPlanNumMatchAllFilterSegments = explainPlanNumMatchAllFilterSegments;
   }
 
+  /**
+   * Returns the execution stats reported by each server (keyed by the server short name), such as the time used, the
+   * CPU time and the allocated bytes. CPU time and allocated bytes are only reported when the servers measure them.
+   */
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
+  public Map<String, Map<String, Long>> getServerStats() {
+    return _serverStats;
+  }
+
+  public void setServerStats(Map<String, Map<String, Long>> serverStats) {
+    _serverStats = serverStats;
+  }
+
   @Override
   public Map<String, String> getTraceInfo() {
     return _traceInfo;
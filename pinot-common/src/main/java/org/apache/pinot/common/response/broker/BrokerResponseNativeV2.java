@@ -45,7 +45,10 @@ import org.apache.pinot.common.response.ProcessingException;
     "numSegmentsPrunedByLimit", "numSegmentsPrunedByValue", "brokerReduceTimeMs", "offlineThreadCpuTimeNs",
     "realtimeThreadCpuTimeNs", "offlineSystemActivitiesCpuTimeNs", "realtimeSystemActivitiesCpuTimeNs",
     "offlineResponseSerializationCpuTimeNs", "realtimeResponseSerializationCpuTimeNs", "offlineTotalCpuTimeNs",
-    "realtimeTotalCpuTimeNs", "explainPlanNumEmptyFilterSegments", "explainPlanNumMatchAllFilterSegments", "traceInfo"
+    "realtimeTotalCpuTimeNs", "offlineThreadMemAllocatedBytes", "realtimeThreadMemAllocatedBytes",
+    "offlineResponseSerMemAllocatedBytes", "realtimeResponseSerMemAllocatedBytes", "offlineTotalMemAllocatedBytes",
+    "realtimeTotalMemAllocatedBytes", "explainPlanNumEmptyFilterSegments", "explainPlanNumMatchAllFilterSegments",
+    "traceInfo"
 })
 public class BrokerResponseNativeV2 implements BrokerResponse {
   private final StatMap<StatKey> _brokerStats = new StatMap<>(StatKey.class);
@@ -330,6 +333,26 @@ public class BrokerResponseNativeV2 implements BrokerResponse {
     return 0;
   }
 
+  @Override
+  public long getOfflineThreadMemAllocatedBytes() {
+    return _brokerStats.getLong(StatKey.OFFLINE_THREAD_MEM_ALLOCATED_BYTES);
+  }
+
+  @Override
+  public long getRealtimeThreadMemAllocatedBytes() {
+    return _brokerStats.getLong(StatKey.REALTIME_THREAD_MEM_ALLOCATED_BYTES);
+  }
+
+  @Override
+  public long getOfflineResponseSerMemAllocatedBytes() {
+    return _brokerStats.getLong(StatKey.OFFLINE_RESPONSE_SER_MEM_ALLOCATED_BYTES);
+  }
+
+  @Override
+  public long getRealtimeResponseSerMemAllocatedBytes() {
+    return _brokerStats.getLong(StatKey.REALTIME_RESPONSE_SER_MEM_ALLOCATED_BYTES);
+  }
+
   @Override
   public long getExplainPlanNumEmptyFilterSegments() {
     return 0;
@@ -371,7 +394,11 @@ public class BrokerResponseNativeV2 implements BrokerResponse {
     NUM_SEGMENTS_PRUNED_INVALID(StatMap.Type.INT),
     NUM_SEGMENTS_PRUNED_BY_LIMIT(StatMap.Type.INT),
     NUM_SEGMENTS_PRUNED_BY_VALUE(StatMap.Type.INT),
-    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN);
+    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN),
+    OFFLINE_THREAD_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    REALTIME_THREAD_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    OFFLINE_RESPONSE_SER_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    REALTIME_RESPONSE_SER_MEM_ALLOCATED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
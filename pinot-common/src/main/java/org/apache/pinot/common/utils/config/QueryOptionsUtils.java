@@ -135,6 +135,10 @@ public class QueryOptionsUtils {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.AND_SCAN_REORDERING));
   }
 
+  public static boolean isAdaptiveFilterReorderingEnabled(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ADAPTIVE_FILTER_REORDERING));
+  }
+
   public static boolean isSkipUpsert(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_UPSERT));
   }
@@ -269,10 +273,20 @@ public class QueryOptionsUtils {
     return groupByTrimThreshold != null ? Integer.parseInt(groupByTrimThreshold) : null;
   }
 
+  @Nullable
+  public static Integer getNumGroupByCombinePartitions(Map<String, String> queryOptions) {
+    String numPartitions = queryOptions.get(QueryOptionKey.NUM_GROUP_BY_COMBINE_PARTITIONS);
+    return numPartitions != null ? Integer.parseInt(numPartitions) : null;
+  }
+
   public static boolean shouldDropResults(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DROP_RESULTS));
   }
 
+  public static boolean isSkipResultCache(Map<String, String> queryOptions) {
+    return "false".equalsIgnoreCase(queryOptions.get(QueryOptionKey.USE_RESULT_CACHE));
+  }
+
   @Nullable
   public static Integer getMaxStreamingPendingBlocks(Map<String, String> queryOptions) {
     String maxStreamingPendingBlocks = queryOptions.get(QueryOptionKey.MAX_STREAMING_PENDING_BLOCKS);
@@ -291,6 +305,18 @@ public class QueryOptionsUtils {
     return joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
   }
 
+  @Nullable
+  public static Integer getNumJoinSpillPartitions(Map<String, String> queryOptions) {
+    String numJoinSpillPartitions = queryOptions.get(QueryOptionKey.NUM_JOIN_SPILL_PARTITIONS);
+    return numJoinSpillPartitions != null ? Integer.parseInt(numJoinSpillPartitions) : null;
+  }
+
+  @Nullable
+  public static Integer getMaxRowsInSort(Map<String, String> queryOptions) {
+    String maxRowsInSort = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_SORT);
+    return maxRowsInSort != null ? Integer.parseInt(maxRowsInSort) : null;
+  }
+
   @Nullable
   public static Integer getMaxRowsInWindow(Map<String, String> queryOptions) {
     String maxRowsInWindow = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_WINDOW);
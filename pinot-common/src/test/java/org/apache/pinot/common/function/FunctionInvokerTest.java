@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.function;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class FunctionInvokerTest {
+  private static int _numInvocations;
+
+  public static double plus(double a, double b) {
+    return a + b;
+  }
+
+  public static String concat(String a, String b) {
+    return a + b;
+  }
+
+  public static Object cast(Object value) {
+    _numInvocations++;
+    return (String) value;
+  }
+
+  private static FunctionInvoker getFunctionInvoker(String methodName, Class<?>... parameterClasses)
+      throws NoSuchMethodException {
+    return new FunctionInvoker(
+        new FunctionInfo(FunctionInvokerTest.class.getMethod(methodName, parameterClasses), FunctionInvokerTest.class,
+            false));
+  }
+
+  @Test
+  public void testInvoke()
+      throws NoSuchMethodException {
+    FunctionInvoker invoker = getFunctionInvoker("plus", double.class, double.class);
+    assertEquals(invoker.invoke(new Object[]{1.0, 2.0}), 3.0);
+    // Arguments requiring the primitive widening conversion are invoked reflectively
+    assertEquals(invoker.invoke(new Object[]{1, 2L}), 3.0);
+    assertNull(invoker.invoke(new Object[]{1.0, null}));
+
+    invoker = getFunctionInvoker("concat", String.class, String.class);
+    assertEquals(invoker.invoke(new Object[]{"a", "b"}), "ab");
+  }
+
+  @Test
+  public void testExceptionFromFunction()
+      throws NoSuchMethodException {
+    FunctionInvoker invoker = getFunctionInvoker("cast", Object.class);
+    _numInvocations = 0;
+    try {
+      invoker.invoke(new Object[]{1});
+      fail("Expected the ClassCastException from the function to be propagated");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getCause() instanceof ClassCastException);
+    }
+    // The function should not be invoked again after it throws
+    assertEquals(_numInvocations, 1);
+  }
+}
@@ -257,6 +257,8 @@ public class ZKOperator {
               segmentDownloadURIStr, crypterName, segmentSizeInBytes);
           segmentZKMetadata.setCustomMap(customMapModifier.modifyMap(segmentZKMetadata.getCustomMap()));
         }
+        ZKMetadataUtils.updateColumnMinMaxValues(segmentZKMetadata, segmentMetadata,
+            _pinotHelixResourceManager.getTableConfig(tableNameWithType));
         if (!_pinotHelixResourceManager.updateZkMetadata(tableNameWithType, segmentZKMetadata, expectedVersion)) {
           throw new RuntimeException(
               String.format("Failed to update ZK metadata for segment: %s, table: %s, expected version: %d",
@@ -306,6 +308,8 @@ public class ZKOperator {
       newSegmentZKMetadata =
           ZKMetadataUtils.createSegmentZKMetadata(tableNameWithType, segmentMetadata, segmentDownloadURIStr,
               crypterName, segmentSizeInBytes);
+      ZKMetadataUtils.updateColumnMinMaxValues(newSegmentZKMetadata, segmentMetadata,
+          _pinotHelixResourceManager.getTableConfig(tableNameWithType));
     } catch (IllegalArgumentException e) {
       throw new ControllerApplicationException(LOGGER,
           String.format("Got invalid segment metadata when adding segment: %s for table: %s, reason: %s", segmentName,
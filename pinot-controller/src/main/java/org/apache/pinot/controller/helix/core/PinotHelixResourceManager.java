@@ -2236,6 +2236,7 @@ public class PinotHelixResourceManager {
     // might need them to determine the partition of the segment, and server will need them to download the segment
     SegmentZKMetadata segmentZkmetadata =
         ZKMetadataUtils.createSegmentZKMetadata(tableNameWithType, segmentMetadata, downloadUrl, null, -1);
+    ZKMetadataUtils.updateColumnMinMaxValues(segmentZkmetadata, segmentMetadata, getTableConfig(tableNameWithType));
     ZNRecord znRecord = segmentZkmetadata.toZNRecord();
 
     String segmentName = segmentMetadata.getName();
@@ -2433,6 +2434,7 @@ public class PinotHelixResourceManager {
     // segment ZK metadata)
     ZKMetadataUtils.refreshSegmentZKMetadata(tableNameWithType, segmentZKMetadata, segmentMetadata, downloadUrl, null,
         -1);
+    ZKMetadataUtils.updateColumnMinMaxValues(segmentZKMetadata, segmentMetadata, getTableConfig(tableNameWithType));
     if (!ZKMetadataProvider.setSegmentZKMetadata(_propertyStore, tableNameWithType, segmentZKMetadata,
         expectedVersion)) {
       throw new RuntimeException(
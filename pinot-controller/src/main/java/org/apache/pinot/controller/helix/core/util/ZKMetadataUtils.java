@@ -20,7 +20,9 @@ package org.apache.pinot.controller.helix.core.util;
 
 import com.google.common.base.Preconditions;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
@@ -31,12 +33,17 @@ import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 
 public class ZKMetadataUtils {
+  // Max length of the column min/max value to be stored in the segment ZK metadata
+  private static final int MAX_COLUMN_VALUE_LENGTH = 128;
+
   private ZKMetadataUtils() {
   }
 
@@ -75,6 +82,40 @@ public class ZKMetadataUtils {
     }
   }
 
+  /**
+   * Updates the min/max values of the columns configured for the column value segment pruning from the segment
+   * metadata, which are used by the broker to prune the segments. Only single-value numeric and STRING columns with
+   * valid min/max values are recorded, and long STRING values are skipped to keep the ZK metadata small.
+   */
+  public static void updateColumnMinMaxValues(SegmentZKMetadata segmentZKMetadata, SegmentMetadata segmentMetadata,
+      @Nullable TableConfig tableConfig) {
+    Map<String, String> columnMinValues = new TreeMap<>();
+    Map<String, String> columnMaxValues = new TreeMap<>();
+    List<String> columns = tableConfig != null ? tableConfig.getIndexingConfig().getColumnValuePruningColumns() : null;
+    if (columns != null) {
+      for (String column : columns) {
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+        if (columnMetadata == null || !columnMetadata.isSingleValue() || columnMetadata.isMinMaxValueInvalid()
+            || columnMetadata.getMinValue() == null || columnMetadata.getMaxValue() == null) {
+          continue;
+        }
+        DataType storedType = columnMetadata.getDataType().getStoredType();
+        if (!storedType.isNumeric() && storedType != DataType.STRING) {
+          continue;
+        }
+        String minValue = columnMetadata.getMinValue().toString();
+        String maxValue = columnMetadata.getMaxValue().toString();
+        if (minValue.length() > MAX_COLUMN_VALUE_LENGTH || maxValue.length() > MAX_COLUMN_VALUE_LENGTH) {
+          continue;
+        }
+        columnMinValues.put(column, minValue);
+        columnMaxValues.put(column, maxValue);
+      }
+    }
+    segmentZKMetadata.setColumnMinValues(columnMinValues);
+    segmentZKMetadata.setColumnMaxValues(columnMaxValues);
+  }
+
   private static void updateSegmentZKMetadata(String tableNameWithType, SegmentZKMetadata segmentZKMetadata,
       SegmentMetadata segmentMetadata, String downloadUrl, @Nullable String crypterName, long segmentSizeInBytes,
       boolean newSegment) {
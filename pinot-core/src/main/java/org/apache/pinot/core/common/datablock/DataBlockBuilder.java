@@ -199,6 +199,18 @@ public class DataBlockBuilder {
   public static ColumnarDataBlock buildFromColumns(List<Object[]> columns, DataSchema dataSchema)
       throws IOException {
     int numRows = columns.isEmpty() ? 0 : columns.get(0).length;
+    return buildFromColumns(columns.toArray(), new RoaringBitmap[dataSchema.size()], numRows, dataSchema);
+  }
+
+  /**
+   * Builds a {@link ColumnarDataBlock} from the given columns. Besides {@code Object[]}, the single-value INT, LONG,
+   * FLOAT and DOUBLE columns can also be provided as primitive arrays ({@code int[]}, {@code long[]}, {@code float[]}
+   * and {@code double[]}) to avoid boxing the values. For primitive array columns, the null rows are read from
+   * {@code primitiveNullBitmaps} (entry can be {@code null} when the column has no null) instead of the column values.
+   */
+  public static ColumnarDataBlock buildFromColumns(Object[] columns, RoaringBitmap[] primitiveNullBitmaps, int numRows,
+      DataSchema dataSchema)
+      throws IOException {
     DataBlockBuilder columnarBuilder = new DataBlockBuilder(dataSchema, DataBlock.Type.COLUMNAR, numRows);
     // TODO: consolidate these null utils into data table utils.
     // Selection / Agg / Distinct all have similar code.
@@ -211,8 +223,16 @@ public class DataBlockBuilder {
       nullPlaceholders[colId] = storedTypes[colId].getNullPlaceholder();
     }
     for (int colId = 0; colId < numColumns; colId++) {
-      Object[] column = columns.get(colId);
       ByteBuffer byteBuffer = ByteBuffer.allocate(numRows * columnarBuilder._columnSizeInBytes[colId]);
+      if (!(columns[colId] instanceof Object[])) {
+        setPrimitiveColumn(byteBuffer, storedTypes[colId], columns[colId], numRows);
+        if (primitiveNullBitmaps[colId] != null) {
+          nullBitmaps[colId] = primitiveNullBitmaps[colId];
+        }
+        columnarBuilder._fixedSizeDataByteArrayOutputStream.write(byteBuffer.array(), 0, byteBuffer.position());
+        continue;
+      }
+      Object[] column = (Object[]) columns[colId];
       Object value;
 
       // NOTE:
@@ -371,6 +391,31 @@ public class DataBlockBuilder {
     return buildColumnarBlock(columnarBuilder);
   }
 
+  private static void setPrimitiveColumn(ByteBuffer byteBuffer, ColumnDataType storedType, Object column,
+      int numRows) {
+    switch (storedType) {
+      case INT:
+        byteBuffer.asIntBuffer().put((int[]) column, 0, numRows);
+        byteBuffer.position(numRows * Integer.BYTES);
+        break;
+      case LONG:
+        byteBuffer.asLongBuffer().put((long[]) column, 0, numRows);
+        byteBuffer.position(numRows * Long.BYTES);
+        break;
+      case FLOAT:
+        byteBuffer.asFloatBuffer().put((float[]) column, 0, numRows);
+        byteBuffer.position(numRows * Float.BYTES);
+        break;
+      case DOUBLE:
+        byteBuffer.asDoubleBuffer().put((double[]) column, 0, numRows);
+        byteBuffer.position(numRows * Double.BYTES);
+        break;
+      default:
+        throw new IllegalStateException(
+            String.format("Unsupported primitive column: %s for stored type: %s", column.getClass(), storedType));
+    }
+  }
+
   private static RowDataBlock buildRowBlock(DataBlockBuilder builder) {
     return new RowDataBlock(builder._numRows, builder._dataSchema, getReverseDictionary(builder._dictionary),
         builder._fixedSizeDataByteArrayOutputStream.toByteArray(),
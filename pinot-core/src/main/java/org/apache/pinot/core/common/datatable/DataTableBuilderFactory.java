@@ -23,7 +23,9 @@ import org.apache.pinot.common.datatable.DataTableFactory;
 import org.apache.pinot.common.datatable.DataTableImplV2;
 import org.apache.pinot.common.datatable.DataTableImplV3;
 import org.apache.pinot.common.datatable.DataTableImplV4;
+import org.apache.pinot.common.datatable.DataTableImplV5;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,8 +37,11 @@ public class DataTableBuilderFactory {
   private static final Logger LOGGER = LoggerFactory.getLogger(DataTableBuilderFactory.class);
 
   public static final int DEFAULT_VERSION = DataTableFactory.VERSION_4;
+  // Only applies to DataTable V5
+  public static final ChunkCompressionType DEFAULT_COMPRESSION_TYPE = ChunkCompressionType.LZ4;
 
   private static int _version = DEFAULT_VERSION;
+  private static ChunkCompressionType _compressionType = DEFAULT_COMPRESSION_TYPE;
 
   public static int getDataTableVersion() {
     return _version;
@@ -45,12 +50,25 @@ public class DataTableBuilderFactory {
   public static void setDataTableVersion(int version) {
     LOGGER.info("Setting DataTable version to: {}", version);
     if (version != DataTableFactory.VERSION_2 && version != DataTableFactory.VERSION_3
-        && version != DataTableFactory.VERSION_4) {
+        && version != DataTableFactory.VERSION_4 && version != DataTableFactory.VERSION_5) {
       throw new IllegalArgumentException("Unsupported version: " + version);
     }
     _version = version;
   }
 
+  public static ChunkCompressionType getDataTableCompressionType() {
+    return _compressionType;
+  }
+
+  public static void setDataTableCompressionType(ChunkCompressionType compressionType) {
+    LOGGER.info("Setting DataTable compression type to: {}", compressionType);
+    if (compressionType != ChunkCompressionType.PASS_THROUGH && compressionType != ChunkCompressionType.LZ4
+        && compressionType != ChunkCompressionType.ZSTANDARD) {
+      throw new IllegalArgumentException("Unsupported compression type: " + compressionType);
+    }
+    _compressionType = compressionType;
+  }
+
   public static DataTableBuilder getDataTableBuilder(DataSchema dataSchema) {
     switch (_version) {
       case DataTableFactory.VERSION_2:
@@ -58,6 +76,8 @@ public class DataTableBuilderFactory {
         return new DataTableBuilderV2V3(dataSchema, _version);
       case DataTableFactory.VERSION_4:
         return new DataTableBuilderV4(dataSchema);
+      case DataTableFactory.VERSION_5:
+        return new DataTableBuilderV5(dataSchema, _compressionType);
       default:
         throw new IllegalStateException("Unsupported data table version: " + _version);
     }
@@ -74,6 +94,8 @@ public class DataTableBuilderFactory {
         return new DataTableImplV3();
       case DataTableFactory.VERSION_4:
         return new DataTableImplV4();
+      case DataTableFactory.VERSION_5:
+        return new DataTableImplV5();
       default:
         throw new IllegalStateException("Unsupported data table version: " + _version);
     }
@@ -35,7 +35,11 @@ public class DataTableBuilderV4 extends BaseDataTableBuilder {
   private final Object2IntOpenHashMap<String> _dictionary = new Object2IntOpenHashMap<>();
 
   public DataTableBuilderV4(DataSchema dataSchema) {
-    super(dataSchema, DataTableFactory.VERSION_4);
+    this(dataSchema, DataTableFactory.VERSION_4);
+  }
+
+  protected DataTableBuilderV4(DataSchema dataSchema, int version) {
+    super(dataSchema, version);
   }
 
   @Override
@@ -82,11 +86,15 @@ public class DataTableBuilderV4 extends BaseDataTableBuilder {
 
   @Override
   public DataTable build() {
+    return new DataTableImplV4(_numRows, _dataSchema, getReverseDictionary(),
+        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+  }
+
+  protected String[] getReverseDictionary() {
     String[] reverseDictionary = new String[_dictionary.size()];
     for (Object2IntMap.Entry<String> entry : _dictionary.object2IntEntrySet()) {
       reverseDictionary[entry.getIntValue()] = entry.getKey();
     }
-    return new DataTableImplV4(_numRows, _dataSchema, reverseDictionary,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    return reverseDictionary;
   }
 }
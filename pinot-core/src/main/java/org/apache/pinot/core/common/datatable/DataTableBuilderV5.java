@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.common.datatable;
+
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.datatable.DataTableImplV5;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+
+
+/**
+ * DataTableBuilder for {@link DataTableImplV5}. The rows are buffered in the same row-major layout as V4, and the fixed
+ * size data is transposed into column-major layout when building the data table.
+ */
+public class DataTableBuilderV5 extends DataTableBuilderV4 {
+  private final ChunkCompressionType _compressionType;
+
+  public DataTableBuilderV5(DataSchema dataSchema, ChunkCompressionType compressionType) {
+    super(dataSchema, DataTableFactory.VERSION_5);
+    _compressionType = compressionType;
+  }
+
+  @Override
+  public DataTable build() {
+    byte[] rowMajorFixedSizeDataBytes = _fixedSizeDataByteArrayOutputStream.toByteArray();
+    byte[] fixedSizeDataBytes = new byte[rowMajorFixedSizeDataBytes.length];
+    int numColumns = _columnOffsets.length;
+    int offset = 0;
+    for (int colId = 0; colId < numColumns; colId++) {
+      int columnStart = _columnOffsets[colId];
+      int columnSize = (colId < numColumns - 1 ? _columnOffsets[colId + 1] : _rowSizeInBytes) - columnStart;
+      int rowMajorOffset = columnStart;
+      for (int rowId = 0; rowId < _numRows; rowId++) {
+        System.arraycopy(rowMajorFixedSizeDataBytes, rowMajorOffset, fixedSizeDataBytes, offset, columnSize);
+        rowMajorOffset += _rowSizeInBytes;
+        offset += columnSize;
+      }
+    }
+    // The null bitmap (offset|length) pairs are appended after the values, and are not transposed
+    System.arraycopy(rowMajorFixedSizeDataBytes, offset, fixedSizeDataBytes, offset,
+        rowMajorFixedSizeDataBytes.length - offset);
+    return new DataTableImplV5(_numRows, _dataSchema, getReverseDictionary(), fixedSizeDataBytes,
+        _variableSizeDataByteArrayOutputStream.toByteArray(), _compressionType);
+  }
+}
@@ -30,6 +30,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -93,7 +97,6 @@ import org.apache.pinot.spi.stream.RowMetadata;
 import org.apache.pinot.spi.stream.StreamConfig;
 import org.apache.pinot.spi.stream.StreamConsumerFactory;
 import org.apache.pinot.spi.stream.StreamConsumerFactoryProvider;
-import org.apache.pinot.spi.stream.StreamDataDecoder;
 import org.apache.pinot.spi.stream.StreamDataDecoderImpl;
 import org.apache.pinot.spi.stream.StreamDataDecoderResult;
 import org.apache.pinot.spi.stream.StreamMessage;
@@ -234,7 +237,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final SegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
   private final RealtimeTableDataManager _realtimeTableDataManager;
-  private final StreamDataDecoder _streamDataDecoder;
+  private final StreamDataDecoderImpl _streamDataDecoder;
   private final int _segmentMaxRowCount;
   private final String _resourceDataDir;
   private final IndexLoadingConfig _indexLoadingConfig;
@@ -250,6 +253,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final AtomicBoolean _acquiredConsumerSemaphore;
   private final ServerMetrics _serverMetrics;
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+  private final PartitionDedupMetadataManager _partitionDedupMetadataManager;
   private final BooleanSupplier _isReadyToConsumeData;
   private final MutableSegmentImpl _realtimeSegment;
   private volatile StreamPartitionMsgOffset _currentOffset; // Next offset to be consumed
@@ -318,6 +322,13 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final List<String> _filteredMessageOffsets = new ArrayList<>();
   private boolean _trackFilteredMessageOffsets = false;
 
+  // Pipelined consumption: the next message batch is fetched and decoded/transformed by the pipeline thread while the
+  // consumer thread indexes the current one. Indexing is always done by the consumer thread.
+  private boolean _pipelinedConsumptionEnabled = false;
+  private ExecutorService _pipelineExecutor;
+  private Future<PreparedMessageBatch> _prefetchFuture;
+  private StreamPartitionMsgOffset _prefetchStartOffset;
+
   // TODO each time this method is called, we print reason for stop. Good to print only once.
   private boolean endCriteriaReached() {
     Preconditions.checkState(_state.shouldConsume(), "Incorrect state %s", _state);
@@ -419,6 +430,22 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
 
   protected boolean consumeLoop()
       throws Exception {
+    if (!_pipelinedConsumptionEnabled) {
+      return consumeMessages();
+    }
+    _pipelineExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, _segmentNameStr + "-pipeline"));
+    try {
+      return consumeMessages();
+    } finally {
+      // The stream consumer must not be accessed by the pipeline thread after returning
+      discardPrefetchedMessageBatch();
+      _pipelineExecutor.shutdownNow();
+      _pipelineExecutor = null;
+    }
+  }
+
+  private boolean consumeMessages()
+      throws Exception {
     // At this point, we know that we can potentially move the offset, so the old saved segment file is not valid
     // anymore. Remove the file if it exists.
     removeSegmentFile();
@@ -437,8 +464,15 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
       // Update _currentOffset upon return from this method
       MessageBatch messageBatch;
+      PreparedMessage[] preparedMessages = null;
       try {
-        messageBatch = _partitionGroupConsumer.fetchMessages(_currentOffset, _streamConfig.getFetchTimeoutMillis());
+        if (_pipelineExecutor != null) {
+          PreparedMessageBatch preparedMessageBatch = getPreparedMessageBatch();
+          messageBatch = preparedMessageBatch._messageBatch;
+          preparedMessages = preparedMessageBatch._preparedMessages;
+        } else {
+          messageBatch = _partitionGroupConsumer.fetchMessages(_currentOffset, _streamConfig.getFetchTimeoutMillis());
+        }
         //track realtime rows fetched on a table level. This included valid + invalid rows
         _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.REALTIME_ROWS_FETCHED,
             messageBatch.getUnfilteredMessageCount());
@@ -470,7 +504,13 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
 
       reportDataLoss(messageBatch);
 
-      boolean endCriteriaReached = processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+      // Prefetch the next batch while indexing the current one. Skip it when the stream is idle to avoid hammering the
+      // stream.
+      if (_pipelineExecutor != null && messageBatch.getUnfilteredMessageCount() > 0 && !_endOfPartitionGroup) {
+        submitPrefetch(messageBatch.getOffsetOfNextBatch());
+      }
+
+      boolean endCriteriaReached = processStreamEvents(messageBatch, preparedMessages, idlePipeSleepTimeMillis);
 
       if (_currentOffset.compareTo(lastUpdatedOffset) != 0) {
         _idleTimer.markEventConsumed();
@@ -528,11 +568,14 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
 
   /**
    * @param messageBatch batch of messages to process
+   * @param preparedMessages decoded and transformed messages of the batch, or null if they need to be decoded and
+   *                         transformed here
    * @param idlePipeSleepTimeMillis wait time in case no messages were read
    * @return returns <code>true</code> if the process loop ended before processing the batch, <code>false</code>
    * otherwise
    */
-  private boolean processStreamEvents(MessageBatch messageBatch, long idlePipeSleepTimeMillis) {
+  private boolean processStreamEvents(MessageBatch messageBatch, @Nullable PreparedMessage[] preparedMessages,
+      long idlePipeSleepTimeMillis) {
     int messageCount = messageBatch.getMessageCount();
     _partitionRateLimiter.throttle(messageCount);
     _serverRateLimiter.throttle(messageCount);
@@ -578,9 +621,23 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
         throw new RuntimeException("Realtime segment full");
       }
 
-      // Decode message
+      // Decode and transform message
       StreamMessage streamMessage = messageBatch.getStreamMessage(index);
-      StreamDataDecoderResult decodedRow = _streamDataDecoder.decode(streamMessage);
+      StreamDataDecoderResult decodedRow;
+      TransformPipeline.Result transformResult;
+      Exception transformException = null;
+      if (preparedMessages != null) {
+        PreparedMessage preparedMessage = preparedMessages[index];
+        decodedRow = preparedMessage._decodedRow;
+        transformResult = preparedMessage._transformResult;
+        transformException = preparedMessage._transformException;
+      } else {
+        decodedRow = _streamDataDecoder.decode(streamMessage);
+        transformResult = reusedResult;
+        if (decodedRow.getException() == null) {
+          transformException = transformRow(decodedRow.getResult(), reusedResult);
+        }
+      }
       StreamMessageMetadata metadata = streamMessage.getMetadata();
       StreamPartitionMsgOffset offset = null;
       StreamPartitionMsgOffset nextOffset = null;
@@ -600,32 +657,28 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
                 realtimeRowsDroppedMeter);
         _numRowsErrored++;
       } else {
-        try {
-          _recordEnricherPipeline.run(decodedRow.getResult());
-          _transformPipeline.processRow(decodedRow.getResult(), reusedResult);
-        } catch (Exception e) {
+        if (transformException != null) {
           _numRowsErrored++;
-          // when exception happens we prefer abandoning the whole batch and not partially indexing some rows
-          reusedResult.getTransformedRows().clear();
           String errorMessage =
               String.format("Caught exception while transforming the record at offset: %s , row: %s", offset,
                   decodedRow.getResult());
-          _segmentLogger.error(errorMessage, e);
-          _realtimeTableDataManager.addSegmentError(_segmentNameStr, new SegmentErrorInfo(now(), errorMessage, e));
+          _segmentLogger.error(errorMessage, transformException);
+          _realtimeTableDataManager.addSegmentError(_segmentNameStr,
+              new SegmentErrorInfo(now(), errorMessage, transformException));
         }
-        if (reusedResult.getSkippedRowCount() > 0) {
+        if (transformResult.getSkippedRowCount() > 0) {
           realtimeRowsDroppedMeter = _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.REALTIME_ROWS_FILTERED,
-              reusedResult.getSkippedRowCount(), realtimeRowsDroppedMeter);
+              transformResult.getSkippedRowCount(), realtimeRowsDroppedMeter);
           if (_trackFilteredMessageOffsets) {
             _filteredMessageOffsets.add(offset.toString());
           }
         }
-        if (reusedResult.getIncompleteRowCount() > 0) {
+        if (transformResult.getIncompleteRowCount() > 0) {
           realtimeIncompleteRowsConsumedMeter =
               _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.INCOMPLETE_REALTIME_ROWS_CONSUMED,
-                  reusedResult.getIncompleteRowCount(), realtimeIncompleteRowsConsumedMeter);
+                  transformResult.getIncompleteRowCount(), realtimeIncompleteRowsConsumedMeter);
         }
-        List<GenericRow> transformedRows = reusedResult.getTransformedRows();
+        List<GenericRow> transformedRows = transformResult.getTransformedRows();
         for (GenericRow transformedRow : transformedRows) {
           try {
             canTakeMore = _realtimeSegment.index(transformedRow, metadata);
@@ -672,6 +725,119 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     return prematureExit;
   }
 
+  /**
+   * Enriches and transforms the decoded row into the given result. Returns the exception if the transform failed, in
+   * which case the result contains no transformed row.
+   */
+  @Nullable
+  private Exception transformRow(GenericRow decodedRow, TransformPipeline.Result result) {
+    try {
+      _recordEnricherPipeline.run(decodedRow);
+      _transformPipeline.processRow(decodedRow, result);
+      return null;
+    } catch (Exception e) {
+      // when exception happens we prefer abandoning the whole batch and not partially indexing some rows
+      result.getTransformedRows().clear();
+      return e;
+    }
+  }
+
+  /**
+   * Fetches the message batch starting at the given offset, then decodes and transforms all the messages in it. Runs
+   * on the pipeline thread, which is the only thread accessing the stream consumer, the decoder and the transformers
+   * while pipelined consumption is enabled.
+   */
+  private PreparedMessageBatch fetchAndPrepareMessageBatch(StreamPartitionMsgOffset startOffset)
+      throws Exception {
+    MessageBatch messageBatch =
+        _partitionGroupConsumer.fetchMessages(startOffset, _streamConfig.getFetchTimeoutMillis());
+    int messageCount = messageBatch.getMessageCount();
+    PreparedMessage[] preparedMessages = new PreparedMessage[messageCount];
+    for (int i = 0; i < messageCount; i++) {
+      // Decode into a new row because the rows are held until the batch is indexed
+      StreamDataDecoderResult decodedRow =
+          _streamDataDecoder.decode(messageBatch.getStreamMessage(i), new GenericRow());
+      PreparedMessage preparedMessage = new PreparedMessage(decodedRow);
+      if (decodedRow.getException() == null) {
+        preparedMessage._transformException = transformRow(decodedRow.getResult(), preparedMessage._transformResult);
+      }
+      preparedMessages[i] = preparedMessage;
+    }
+    return new PreparedMessageBatch(messageBatch, preparedMessages);
+  }
+
+  private void submitPrefetch(StreamPartitionMsgOffset startOffset) {
+    _prefetchStartOffset = startOffset;
+    _prefetchFuture = _pipelineExecutor.submit(() -> fetchAndPrepareMessageBatch(startOffset));
+  }
+
+  /**
+   * Returns the prepared message batch starting at the current offset. The prefetched batch is used when it starts at
+   * the current offset (i.e. the previous batch is fully processed), otherwise it is discarded and the batch is fetched
+   * again.
+   */
+  private PreparedMessageBatch getPreparedMessageBatch()
+      throws Exception {
+    if (_prefetchFuture != null && _prefetchStartOffset.compareTo(_currentOffset) != 0) {
+      discardPrefetchedMessageBatch();
+    }
+    if (_prefetchFuture == null) {
+      submitPrefetch(_currentOffset);
+    }
+    Future<PreparedMessageBatch> prefetchFuture = _prefetchFuture;
+    _prefetchFuture = null;
+    _prefetchStartOffset = null;
+    try {
+      return Uninterruptibles.getUninterruptibly(prefetchFuture);
+    } catch (ExecutionException e) {
+      // Rethrow the fetch exception to be handled the same way as non-pipelined consumption
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  /**
+   * Waits for the pending prefetch (if any) to finish and discards its result, so that the stream consumer is no longer
+   * accessed by the pipeline thread.
+   */
+  private void discardPrefetchedMessageBatch() {
+    if (_prefetchFuture != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(_prefetchFuture);
+      } catch (Exception e) {
+        _segmentLogger.debug("Discarding failed prefetch from offset: {}", _prefetchStartOffset, e);
+      }
+      _prefetchFuture = null;
+      _prefetchStartOffset = null;
+    }
+  }
+
+  /**
+   * Message batch with all the messages decoded and transformed ahead of indexing.
+   */
+  private static class PreparedMessageBatch {
+    final MessageBatch _messageBatch;
+    final PreparedMessage[] _preparedMessages;
+
+    PreparedMessageBatch(MessageBatch messageBatch, PreparedMessage[] preparedMessages) {
+      _messageBatch = messageBatch;
+      _preparedMessages = preparedMessages;
+    }
+  }
+
+  private static class PreparedMessage {
+    final StreamDataDecoderResult _decodedRow;
+    final TransformPipeline.Result _transformResult = new TransformPipeline.Result();
+    Exception _transformException;
+
+    PreparedMessage(StreamDataDecoderResult decodedRow) {
+      _decodedRow = decodedRow;
+    }
+  }
+
   public class PartitionConsumer implements Runnable {
     public void run() {
       long initialConsumptionEnd = 0L;
@@ -701,6 +867,11 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
           // If upsertTTL is enabled, we will remove expired primary keys from upsertMetadata after taking snapshot.
           _partitionUpsertMetadataManager.removeExpiredPrimaryKeys();
         }
+        // Same for dedup, where the snapshot covers the segments committed so far
+        if (_partitionDedupMetadataManager != null) {
+          _partitionDedupMetadataManager.takeSnapshot();
+          _partitionDedupMetadataManager.removeExpiredPrimaryKeys();
+        }
 
         while (!_state.isFinal()) {
           if (_state.shouldConsume()) {
@@ -1406,6 +1577,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     _schema = schema;
     _serverMetrics = serverMetrics;
     _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+    _partitionDedupMetadataManager = partitionDedupMetadataManager;
     _isReadyToConsumeData = isReadyToConsumeData;
     _segmentVersion = indexLoadingConfig.getSegmentVersion();
     _instanceId = _realtimeTableDataManager.getInstanceId();
@@ -1459,6 +1631,8 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
         && tableConfig.getIngestionConfig().getStreamIngestionConfig() != null) {
       _trackFilteredMessageOffsets =
           tableConfig.getIngestionConfig().getStreamIngestionConfig().isTrackFilteredMessageOffsets();
+      _pipelinedConsumptionEnabled =
+          tableConfig.getIngestionConfig().getStreamIngestionConfig().isPipelinedConsumptionEnabled();
     }
 
     List<String> sortedColumns = indexLoadingConfig.getSortedColumns();
@@ -1534,7 +1708,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     // Create message decoder
     Set<String> fieldsToRead = IngestionUtils.getFieldsForRecordExtractor(_tableConfig.getIngestionConfig(), _schema);
     RetryPolicy retryPolicy = RetryPolicies.exponentialBackoffRetryPolicy(5, 1000L, 1.2f);
-    AtomicReference<StreamDataDecoder> localStreamDataDecoder = new AtomicReference<>();
+    AtomicReference<StreamDataDecoderImpl> localStreamDataDecoder = new AtomicReference<>();
     try {
       retryPolicy.attempt(() -> {
         try {
@@ -1747,6 +1921,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
    * Assumes there is a valid instance of {@link PartitionGroupConsumer}
    */
   private void recreateStreamConsumer(String reason) {
+      discardPrefetchedMessageBatch();
       _segmentLogger.info("Recreating stream consumer for topic partition {}, reason: {}", _clientId, reason);
       _currentOffset = _partitionGroupConsumer.checkpoint(_currentOffset);
       closePartitionGroupConsumer();
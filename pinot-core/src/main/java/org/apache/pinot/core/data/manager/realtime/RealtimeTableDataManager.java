@@ -253,6 +253,15 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
       } catch (IOException e) {
         _logger.warn("Caught exception while closing upsert metadata manager", e);
       }
+    } else if (_tableDedupMetadataManager != null) {
+      // Stop the dedup metadata manager first to prevent removing metadata when destroying segments
+      _tableDedupMetadataManager.stop();
+      releaseAndRemoveAllSegments();
+      try {
+        _tableDedupMetadataManager.close();
+      } catch (IOException e) {
+        _logger.warn("Caught exception while closing dedup metadata manager", e);
+      }
     } else {
       releaseAndRemoveAllSegments();
     }
@@ -395,6 +404,8 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     Preconditions.checkState(partitionId != null,
         String.format("Failed to get partition id for segment: %s in upsert-enabled table: %s", segmentName,
             _tableNameWithType));
+    // Preload all the partitions of the table concurrently, then preload the partition in case it is not covered
+    _tableUpsertMetadataManager.preloadSegments(indexLoadingConfig);
     _tableUpsertMetadataManager.getOrCreatePartitionManager(partitionId).preloadSegments(indexLoadingConfig);
   }
 
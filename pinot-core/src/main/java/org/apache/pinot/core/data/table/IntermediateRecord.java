@@ -34,4 +34,12 @@ public class IntermediateRecord {
     _record = record;
     _values = values;
   }
+
+  /**
+   * Constructs an IntermediateRecord without the values to be ordered, which can only be used for merging but not for
+   * trimming.
+   */
+  public IntermediateRecord(Key key, Record record) {
+    this(key, record, null);
+  }
 }
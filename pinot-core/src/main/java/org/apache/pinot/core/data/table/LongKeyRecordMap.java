@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * Lookup map for the {@link IndexedTable} where the group key fits into a primitive long, i.e. one INT or LONG key
+ * column, or two INT key columns.
+ *
+ * <p>The records are stored in a primitive long keyed open-addressing map, so the lookup does not hash and compare the
+ * boxed key values, and the {@link Key} is not retained for each group. The key columns are always in the front of the
+ * record, so the {@link Key} is only materialized from the record when iterating the entries (e.g. when trimming the
+ * table).
+ */
+@NotThreadSafe
+class LongKeyRecordMap extends AbstractMap<Key, Record> {
+  private final int _numKeyColumns;
+  private final boolean _isLongKey;
+  private final Long2ObjectOpenHashMap<Record> _recordMap = new Long2ObjectOpenHashMap<>();
+
+  private LongKeyRecordMap(int numKeyColumns, boolean isLongKey) {
+    _numKeyColumns = numKeyColumns;
+    _isLongKey = isLongKey;
+  }
+
+  /**
+   * Returns a {@link LongKeyRecordMap} if the group key fits into a primitive long, or {@code null} otherwise. Null
+   * handling is not supported because null key values cannot be encoded.
+   */
+  @Nullable
+  static LongKeyRecordMap create(DataSchema dataSchema, QueryContext queryContext) {
+    if (queryContext.isNullHandlingEnabled()) {
+      return null;
+    }
+    assert queryContext.getGroupByExpressions() != null;
+    int numKeyColumns = queryContext.getGroupByExpressions().size();
+    ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    if (numKeyColumns == 1) {
+      if (columnDataTypes[0] == ColumnDataType.INT) {
+        return new LongKeyRecordMap(1, false);
+      }
+      if (columnDataTypes[0] == ColumnDataType.LONG) {
+        return new LongKeyRecordMap(1, true);
+      }
+    } else if (numKeyColumns == 2) {
+      if (columnDataTypes[0] == ColumnDataType.INT && columnDataTypes[1] == ColumnDataType.INT) {
+        return new LongKeyRecordMap(2, false);
+      }
+    }
+    return null;
+  }
+
+  private long toLongKey(Object[] keyValues) {
+    if (_numKeyColumns == 1) {
+      return _isLongKey ? ((Number) keyValues[0]).longValue() : ((Number) keyValues[0]).intValue();
+    } else {
+      return ((long) ((Number) keyValues[0]).intValue() << 32) | (((Number) keyValues[1]).intValue() & 0xFFFFFFFFL);
+    }
+  }
+
+  private long toLongKey(Object key) {
+    return toLongKey(((Key) key).getValues());
+  }
+
+  private Key toKey(Record record) {
+    return new Key(Arrays.copyOf(record.getValues(), _numKeyColumns));
+  }
+
+  @Override
+  public int size() {
+    return _recordMap.size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return _recordMap.containsKey(toLongKey(key));
+  }
+
+  @Override
+  public Record get(Object key) {
+    return _recordMap.get(toLongKey(key));
+  }
+
+  @Override
+  public Record put(Key key, Record record) {
+    return _recordMap.put(toLongKey(key), record);
+  }
+
+  @Override
+  public Record remove(Object key) {
+    return _recordMap.remove(toLongKey(key));
+  }
+
+  @Override
+  public void clear() {
+    _recordMap.clear();
+  }
+
+  @Override
+  public Record compute(Key key, BiFunction<? super Key, ? super Record, ? extends Record> remappingFunction) {
+    long longKey = toLongKey(key);
+    Record oldRecord = _recordMap.get(longKey);
+    Record newRecord = remappingFunction.apply(key, oldRecord);
+    if (newRecord == null) {
+      if (oldRecord != null) {
+        _recordMap.remove(longKey);
+      }
+    } else if (newRecord != oldRecord) {
+      _recordMap.put(longKey, newRecord);
+    }
+    return newRecord;
+  }
+
+  @Override
+  public Record computeIfPresent(Key key,
+      BiFunction<? super Key, ? super Record, ? extends Record> remappingFunction) {
+    long longKey = toLongKey(key);
+    Record oldRecord = _recordMap.get(longKey);
+    if (oldRecord == null) {
+      return null;
+    }
+    Record newRecord = remappingFunction.apply(key, oldRecord);
+    if (newRecord == null) {
+      _recordMap.remove(longKey);
+    } else if (newRecord != oldRecord) {
+      _recordMap.put(longKey, newRecord);
+    }
+    return newRecord;
+  }
+
+  @Override
+  public Collection<Record> values() {
+    return _recordMap.values();
+  }
+
+  @Override
+  public Set<Entry<Key, Record>> entrySet() {
+    return new AbstractSet<Entry<Key, Record>>() {
+      @Override
+      public Iterator<Entry<Key, Record>> iterator() {
+        Iterator<Long2ObjectMap.Entry<Record>> iterator = _recordMap.long2ObjectEntrySet().fastIterator();
+        return new Iterator<Entry<Key, Record>>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Entry<Key, Record> next() {
+            Record record = iterator.next().getValue();
+            return new SimpleImmutableEntry<>(toKey(record), record);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return _recordMap.size();
+      }
+    };
+  }
+}
@@ -0,0 +1,291 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.spi.accounting.ThreadExecutionContext;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
+import org.apache.pinot.spi.trace.Tracing;
+
+
+/**
+ * {@link IndexedTable} for the radix-partitioned group-by combine, which only applies to GROUP BY with ORDER BY.
+ *
+ * <p>Instead of upserting into a shared table, each worker thread upserts the records into its own
+ * {@link WorkerPartitions}, where the records are partitioned by the key hash into non-thread-safe tables. After all
+ * the worker threads finish, the tables for the same partition are merged in parallel by
+ * {@link #mergePartitions(ExecutorService, int, long)}. Keys in different partitions never collide, so the merged
+ * partitions are exposed as a single lookup map without copying the records.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class PartitionedIndexedTable extends IndexedTable {
+  public static final int MAX_NUM_PARTITIONS = 256;
+
+  private final QueryContext _queryContext;
+  private final int _numPartitions;
+  private final IndexedTable[] _mergedPartitions;
+  private final ConcurrentLinkedQueue<WorkerPartitions> _workerPartitions = new ConcurrentLinkedQueue<>();
+
+  private int _numPartitionResizes;
+  private long _partitionResizeTimeMs;
+
+  /**
+   * Constructor for the PartitionedIndexedTable. The number of partitions is rounded up to the next power of 2, and is
+   * bounded by {@link #MAX_NUM_PARTITIONS}.
+   */
+  public PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold, int numPartitions) {
+    this(dataSchema, queryContext, resultSize, trimSize, trimThreshold,
+        new IndexedTable[getNumPartitions(numPartitions)]);
+  }
+
+  private PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold, IndexedTable[] mergedPartitions) {
+    super(dataSchema, false, queryContext, resultSize, trimSize, trimThreshold,
+        new PartitionedLookupMap(mergedPartitions));
+    Preconditions.checkArgument(_hasOrderBy, "Partitioned indexed table only applies to GROUP BY with ORDER BY");
+    _queryContext = queryContext;
+    _numPartitions = mergedPartitions.length;
+    _mergedPartitions = mergedPartitions;
+  }
+
+  private static int getNumPartitions(int numPartitions) {
+    Preconditions.checkArgument(numPartitions > 0, "Invalid number of partitions: %s", numPartitions);
+    int powerOf2 = 1;
+    while (powerOf2 < numPartitions && powerOf2 < MAX_NUM_PARTITIONS) {
+      powerOf2 <<= 1;
+    }
+    return powerOf2;
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Returns the partition id for the given key. Takes the high bits of the mixed hash so that the partition id is not
+   * correlated with the bucket of the key within the partition.
+   */
+  private int getPartitionId(Key key) {
+    return ((key.hashCode() * 0x9E3779B9) >>> 24) & (_numPartitions - 1);
+  }
+
+  /**
+   * Creates the partitions for a worker thread to upsert the records into. The returned partitions are not thread
+   * safe, and should only be accessed by the worker thread.
+   */
+  public WorkerPartitions createWorkerPartitions() {
+    WorkerPartitions workerPartitions = new WorkerPartitions();
+    _workerPartitions.add(workerPartitions);
+    return workerPartitions;
+  }
+
+  /**
+   * Records should be upserted into the {@link WorkerPartitions}.
+   */
+  @Override
+  public boolean upsert(Key key, Record record) {
+    throw new UnsupportedOperationException("Records should be upserted into the worker partitions");
+  }
+
+  /**
+   * Merges the tables of the same partition from all the worker partitions. The partitions are merged in parallel by
+   * the tasks submitted to the executor service and the current thread, so that the merge makes progress even if the
+   * executor service is saturated. At most {@code maxNumTasks} threads (including the current thread) merge the
+   * partitions, which should be the number of tasks of the query so that the merge respects the max execution threads.
+   * Should be called after all the worker threads finish upserting, and before {@link #finish(boolean, boolean)}.
+   */
+  public void mergePartitions(ExecutorService executorService, int maxNumTasks, long endTimeMs)
+      throws Exception {
+    List<WorkerPartitions> workerPartitions = new ArrayList<>(_workerPartitions);
+    AtomicInteger nextPartitionId = new AtomicInteger();
+    CountDownLatch partitionLatch = new CountDownLatch(_numPartitions);
+    AtomicReference<Throwable> mergeException = new AtomicReference<>();
+    Runnable mergeTask = () -> {
+      int partitionId;
+      while ((partitionId = nextPartitionId.getAndIncrement()) < _numPartitions) {
+        try {
+          if (mergeException.get() == null) {
+            _mergedPartitions[partitionId] = mergePartition(workerPartitions, partitionId);
+          }
+        } catch (Throwable t) {
+          mergeException.compareAndSet(null, t);
+        } finally {
+          partitionLatch.countDown();
+        }
+      }
+    };
+    int numTasks = Math.min(_numPartitions, maxNumTasks) - 1;
+    List<Future> futures = new ArrayList<>(numTasks);
+    ThreadExecutionContext parentContext = Tracing.getThreadAccountant().getThreadExecutionContext();
+    try {
+      for (int i = 0; i < numTasks; i++) {
+        int taskId = i;
+        futures.add(executorService.submit(new TraceRunnable() {
+          @Override
+          public void runJob() {
+            Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
+            try {
+              mergeTask.run();
+            } finally {
+              Tracing.ThreadAccountantOps.clear();
+            }
+          }
+        }));
+      }
+      mergeTask.run();
+      long timeoutMs = endTimeMs - System.currentTimeMillis();
+      if (!partitionLatch.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new TimeoutException(
+            String.format("Timed out while merging %d group-by partitions after %dms", _numPartitions, timeoutMs));
+      }
+    } finally {
+      for (Future future : futures) {
+        future.cancel(true);
+      }
+    }
+    Throwable t = mergeException.get();
+    if (t != null) {
+      throw t instanceof Exception ? (Exception) t : new RuntimeException(t);
+    }
+
+    for (WorkerPartitions partitions : workerPartitions) {
+      for (IndexedTable table : partitions._tables) {
+        _numPartitionResizes += table.getNumResizes();
+        _partitionResizeTimeMs += table.getResizeTimeMs();
+      }
+    }
+  }
+
+  /**
+   * Merges the tables of the given partition into the largest one to save the rehashing.
+   */
+  private static IndexedTable mergePartition(List<WorkerPartitions> workerPartitions, int partitionId) {
+    IndexedTable mergedTable = null;
+    for (WorkerPartitions partitions : workerPartitions) {
+      IndexedTable table = partitions._tables[partitionId];
+      if (mergedTable == null || table.size() > mergedTable.size()) {
+        mergedTable = table;
+      }
+    }
+    int mergedKeys = 0;
+    for (WorkerPartitions partitions : workerPartitions) {
+      IndexedTable table = partitions._tables[partitionId];
+      if (table != mergedTable) {
+        for (Map.Entry<Key, Record> entry : table._lookupMap.entrySet()) {
+          mergedTable.upsert(entry.getKey(), entry.getValue());
+          Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
+          mergedKeys++;
+        }
+      }
+    }
+    return mergedTable;
+  }
+
+  @Override
+  public int getNumResizes() {
+    return super.getNumResizes() + _numPartitionResizes;
+  }
+
+  @Override
+  public long getResizeTimeMs() {
+    return super.getResizeTimeMs() + _partitionResizeTimeMs;
+  }
+
+  /**
+   * Partitions owned by a single worker thread.
+   */
+  @NotThreadSafe
+  public class WorkerPartitions {
+    private final IndexedTable[] _tables = new IndexedTable[_numPartitions];
+
+    private WorkerPartitions() {
+      for (int i = 0; i < _numPartitions; i++) {
+        _tables[i] = new SimpleIndexedTable(_dataSchema, _queryContext, _resultSize, _trimSize, _trimThreshold);
+      }
+    }
+
+    public void upsert(Key key, Record record) {
+      _tables[getPartitionId(key)].upsert(key, record);
+    }
+  }
+
+  /**
+   * Read-only view of the merged partitions as a single lookup map.
+   */
+  private static class PartitionedLookupMap extends AbstractMap<Key, Record> {
+    private final IndexedTable[] _partitions;
+
+    PartitionedLookupMap(IndexedTable[] partitions) {
+      _partitions = partitions;
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (IndexedTable partition : _partitions) {
+        if (partition != null) {
+          size += partition._lookupMap.size();
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public Set<Entry<Key, Record>> entrySet() {
+      return new AbstractSet<Entry<Key, Record>>() {
+        @Override
+        public Iterator<Entry<Key, Record>> iterator() {
+          List<Iterator<Entry<Key, Record>>> iterators = new ArrayList<>(_partitions.length);
+          for (IndexedTable partition : _partitions) {
+            if (partition != null) {
+              iterators.add(partition._lookupMap.entrySet().iterator());
+            }
+          }
+          return Iterators.unmodifiableIterator(Iterators.concat(iterators.iterator()));
+        }
+
+        @Override
+        public int size() {
+          return PartitionedLookupMap.this.size();
+        }
+      };
+    }
+  }
+}
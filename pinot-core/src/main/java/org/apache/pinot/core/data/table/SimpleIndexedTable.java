@@ -19,6 +19,7 @@
 package org.apache.pinot.core.data.table;
 
 import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -37,7 +38,17 @@ public class SimpleIndexedTable extends IndexedTable {
 
   public SimpleIndexedTable(DataSchema dataSchema, boolean hasFinalInput, QueryContext queryContext, int resultSize,
       int trimSize, int trimThreshold) {
-    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold, new HashMap<>());
+    super(dataSchema, hasFinalInput, queryContext, resultSize, trimSize, trimThreshold,
+        createLookupMap(dataSchema, queryContext));
+  }
+
+  /**
+   * Uses the primitive long keyed lookup map when the group key fits into a long, and falls back to the
+   * {@link HashMap} otherwise.
+   */
+  private static Map<Key, Record> createLookupMap(DataSchema dataSchema, QueryContext queryContext) {
+    LongKeyRecordMap longKeyRecordMap = LongKeyRecordMap.create(dataSchema, queryContext);
+    return longKeyRecordMap != null ? longKeyRecordMap : new HashMap<>();
   }
 
   /**
@@ -47,6 +47,7 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
 
   protected long _threadCpuTimeNs;
   protected long _systemActivitiesCpuTimeNs;
+  protected long _threadMemAllocatedBytes;
 
   public InstanceResponseOperator(BaseCombineOperator<?> combineOperator, List<SegmentContext> segmentContexts,
       List<FetchContext> fetchContexts, QueryContext queryContext) {
@@ -93,6 +94,8 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
     instanceResponseBlock.addMetadata(MetadataKey.THREAD_CPU_TIME_NS.getName(), String.valueOf(_threadCpuTimeNs));
     instanceResponseBlock.addMetadata(MetadataKey.SYSTEM_ACTIVITIES_CPU_TIME_NS.getName(),
         String.valueOf(_systemActivitiesCpuTimeNs));
+    instanceResponseBlock.addMetadata(MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName(),
+        String.valueOf(_threadMemAllocatedBytes));
     return instanceResponseBlock;
   }
 
@@ -103,6 +106,8 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
       ThreadResourceUsageProvider mainThreadResourceUsageProvider = new ThreadResourceUsageProvider();
       BaseResultsBlock resultsBlock = getCombinedResults();
       long mainThreadCpuTimeNs = mainThreadResourceUsageProvider.getThreadTimeNs();
+      _threadMemAllocatedBytes = mainThreadResourceUsageProvider.getThreadAllocatedBytes()
+          + resultsBlock.getExecutionThreadMemAllocatedBytes();
 
       long totalWallClockTimeNs = System.nanoTime() - startWallClockTimeNs;
       /*
@@ -117,6 +122,12 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
       _threadCpuTimeNs = mainThreadCpuTimeNs + multipleThreadCpuTimeNs;
 
       return resultsBlock;
+    } else if (ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled()) {
+      ThreadResourceUsageProvider mainThreadResourceUsageProvider = new ThreadResourceUsageProvider();
+      BaseResultsBlock resultsBlock = getCombinedResults();
+      _threadMemAllocatedBytes = mainThreadResourceUsageProvider.getThreadAllocatedBytes()
+          + resultsBlock.getExecutionThreadMemAllocatedBytes();
+      return resultsBlock;
     } else {
       return getCombinedResults();
     }
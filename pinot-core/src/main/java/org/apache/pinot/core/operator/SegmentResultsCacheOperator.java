@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.IndexSegment;
+
+
+/**
+ * A wrapper around the segment-level operator which serves the results from the {@link SegmentResultsCache} when
+ * available. Similar to {@link AcquireReleaseColumnsSegmentOperator}, it expects the PlanNode instead of the Operator,
+ * and only runs the plan on cache miss so that no index is accessed when the results are cached. When the results are
+ * already fetched from the cache while planning, it simply returns them without any plan to run.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentResultsCacheOperator extends BaseOperator<BaseResultsBlock> {
+  private static final String EXPLAIN_NAME = "SEGMENT_RESULTS_CACHE";
+
+  private final PlanNode _planNode;
+  private final IndexSegment _indexSegment;
+  private final QueryContext _queryContext;
+  private final SegmentResultsCache _segmentResultsCache;
+  private final String _cacheKey;
+  @Nullable
+  private final SegmentResultsCache.CachedResultsBlock _cachedResultsBlock;
+
+  private Operator<BaseResultsBlock> _childOperator;
+  private ExecutionStatistics _cachedExecutionStatistics;
+
+  public SegmentResultsCacheOperator(PlanNode planNode, IndexSegment indexSegment, QueryContext queryContext,
+      SegmentResultsCache segmentResultsCache, String cacheKey) {
+    _planNode = planNode;
+    _indexSegment = indexSegment;
+    _queryContext = queryContext;
+    _segmentResultsCache = segmentResultsCache;
+    _cacheKey = cacheKey;
+    _cachedResultsBlock = null;
+  }
+
+  public SegmentResultsCacheOperator(SegmentResultsCache.CachedResultsBlock cachedResultsBlock,
+      IndexSegment indexSegment) {
+    _planNode = null;
+    _indexSegment = indexSegment;
+    _queryContext = null;
+    _segmentResultsCache = null;
+    _cacheKey = null;
+    _cachedResultsBlock = cachedResultsBlock;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    SegmentResultsCache.CachedResultsBlock cachedResultsBlock =
+        _cachedResultsBlock != null ? _cachedResultsBlock : _segmentResultsCache.get(_cacheKey, _queryContext);
+    if (cachedResultsBlock != null) {
+      _cachedExecutionStatistics = cachedResultsBlock.getExecutionStatistics();
+      return cachedResultsBlock.getResultsBlock();
+    }
+    _childOperator = (Operator<BaseResultsBlock>) _planNode.run();
+    BaseResultsBlock resultsBlock = _childOperator.nextBlock();
+    // Put before returning the block because the combine operator merges the results in place
+    _segmentResultsCache.put(_cacheKey, resultsBlock, _childOperator.getExecutionStatistics());
+    return resultsBlock;
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return _childOperator != null ? Collections.singletonList(_childOperator) : Collections.emptyList();
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    if (_cachedExecutionStatistics != null) {
+      return _cachedExecutionStatistics;
+    }
+    return _childOperator == null ? new ExecutionStatistics(0, 0, 0, 0) : _childOperator.getExecutionStatistics();
+  }
+}
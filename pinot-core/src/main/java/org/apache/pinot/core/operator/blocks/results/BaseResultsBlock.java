@@ -47,6 +47,7 @@ public abstract class BaseResultsBlock implements Block {
   private int _numConsumingSegmentsProcessed;
   private int _numConsumingSegmentsMatched;
   private long _executionThreadCpuTimeNs;
+  private long _executionThreadMemAllocatedBytes;
   private int _numServerThreads;
 
   @Nullable
@@ -145,6 +146,14 @@ public abstract class BaseResultsBlock implements Block {
     _executionThreadCpuTimeNs = executionThreadCpuTimeNs;
   }
 
+  public long getExecutionThreadMemAllocatedBytes() {
+    return _executionThreadMemAllocatedBytes;
+  }
+
+  public void setExecutionThreadMemAllocatedBytes(long executionThreadMemAllocatedBytes) {
+    _executionThreadMemAllocatedBytes = executionThreadMemAllocatedBytes;
+  }
+
   public int getNumServerThreads() {
     return _numServerThreads;
   }
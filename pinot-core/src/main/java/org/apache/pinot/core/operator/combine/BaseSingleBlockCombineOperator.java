@@ -77,7 +77,7 @@ public abstract class BaseSingleBlockCombineOperator<T extends BaseResultsBlock>
      */
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(mergedBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
-        numServerThreads);
+        _totalWorkerThreadMemAllocatedBytes.get(), numServerThreads);
     return mergedBlock;
   }
 
@@ -26,12 +26,15 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
@@ -50,6 +53,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Combine operator for group-by queries.
+ *
+ * <p>For GROUP BY with ORDER BY, the radix-partitioned combine can be enabled with the query option
+ * {@code numGroupByCombinePartitions}, where each worker thread merges the segment results into its own partitions
+ * without locking, and the partitions are merged in parallel after all the segments are processed (see
+ * {@link PartitionedIndexedTable}).
  * TODO: Use CombineOperatorUtils.getNumThreadsForQuery() to get the parallelism of the query instead of using
  *       all threads
  */
@@ -65,6 +73,8 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
   private final int _numAggregationFunctions;
   private final int _numGroupByExpressions;
   private final int _numColumns;
+  // Number of partitions for the radix-partitioned combine, 0 if disabled
+  private final int _numPartitions;
   // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
   // _futures (try to interrupt the execution if it already started).
   private final CountDownLatch _operatorLatch;
@@ -99,6 +109,11 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     assert _queryContext.getGroupByExpressions() != null;
     _numGroupByExpressions = _queryContext.getGroupByExpressions().size();
     _numColumns = _numGroupByExpressions + _numAggregationFunctions;
+    Integer numPartitions = QueryOptionsUtils.getNumGroupByCombinePartitions(_queryContext.getQueryOptions());
+    // NOTE: Partitioned combine only applies to GROUP BY with ORDER BY. Without ORDER BY, the table stops accepting new
+    //       groups once it is full, and the per-thread tables could drop the records of the groups kept by others.
+    _numPartitions =
+        numPartitions != null && numPartitions > 1 && _queryContext.getOrderByExpressions() != null ? numPartitions : 0;
     _operatorLatch = new CountDownLatch(_numTasks);
   }
 
@@ -123,6 +138,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
    */
   @Override
   protected void processSegments() {
+    PartitionedIndexedTable.WorkerPartitions workerPartitions = null;
     int operatorId;
     while (_processingException.get() == null && (operatorId = _nextOperatorId.getAndIncrement()) < _numOperators) {
       Operator operator = _operators.get(operatorId);
@@ -136,7 +152,10 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
             if (_indexedTable == null) {
               DataSchema dataSchema = resultsBlock.getDataSchema();
               // NOTE: Use trimSize as resultSize on server size.
-              if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              if (_numPartitions > 0) {
+                _indexedTable = new PartitionedIndexedTable(dataSchema, _queryContext, _trimSize, _trimSize,
+                    _trimThreshold, _numPartitions);
+              } else if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
                 // special case of trim threshold where it is set to max value.
                 // there won't be any trimming during upsert in this case.
                 // thus we can avoid the overhead of read-lock and write-lock
@@ -150,6 +169,10 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
           }
         }
 
+        if (_numPartitions > 0 && workerPartitions == null) {
+          workerPartitions = ((PartitionedIndexedTable) _indexedTable).createWorkerPartitions();
+        }
+
         // Set groups limit reached flag.
         if (resultsBlock.isNumGroupsLimitReached()) {
           _numGroupsLimitReached = true;
@@ -175,7 +198,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
               for (int i = 0; i < _numAggregationFunctions; i++) {
                 values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
+              upsert(workerPartitions, new Key(keys), new Record(values));
               Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
               mergedKeys++;
             }
@@ -183,7 +206,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
         } else {
           for (IntermediateRecord intermediateResult : intermediateRecords) {
             //TODO: change upsert api so that it accepts intermediateRecord directly
-            _indexedTable.upsert(intermediateResult._key, intermediateResult._record);
+            upsert(workerPartitions, intermediateResult._key, intermediateResult._record);
             Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
             mergedKeys++;
           }
@@ -196,6 +219,14 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
   }
 
+  private void upsert(@Nullable PartitionedIndexedTable.WorkerPartitions workerPartitions, Key key, Record record) {
+    if (workerPartitions != null) {
+      workerPartitions.upsert(key, record);
+    } else {
+      _indexedTable.upsert(key, record);
+    }
+  }
+
   @Override
   public void onProcessSegmentsException(Throwable t) {
     _processingException.compareAndSet(null, t);
@@ -239,6 +270,15 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
 
     IndexedTable indexedTable = _indexedTable;
+    if (indexedTable instanceof PartitionedIndexedTable) {
+      try {
+        ((PartitionedIndexedTable) indexedTable).mergePartitions(_executorService, _numTasks,
+            _queryContext.getEndTimeMs());
+      } catch (TimeoutException e) {
+        LOGGER.error("{}, queryContext = {}", e.getMessage(), _queryContext);
+        return new ExceptionResultsBlock(e);
+      }
+    }
     if (_queryContext.isServerReturnFinalResult()) {
       indexedTable.finish(true, true);
     } else if (_queryContext.isServerReturnFinalResultKeyUnpartitioned()) {
@@ -18,10 +18,15 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.request.context.predicate.Predicate;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
@@ -152,7 +157,11 @@ public class FilterOperatorUtils {
         return childFilterOperators.get(0);
       } else {
         // Return the AND filter operator with re-ordered child filter operators
-        reorderAndFilterChildOperators(queryContext, childFilterOperators);
+        if (queryContext.isAdaptiveFilterReordering()) {
+          adaptAndFilterChildOperators(queryContext, childFilterOperators, numDocs);
+        } else {
+          reorderAndFilterChildOperators(queryContext, childFilterOperators);
+        }
         return new AndFilterOperator(childFilterOperators, queryContext.getQueryOptions(), numDocs,
             queryContext.isNullHandlingEnabled());
       }
@@ -250,6 +259,105 @@ public class FilterOperatorUtils {
       });
     }
 
+    /**
+     * Adaptive version of {@link #reorderAndFilterChildOperators(QueryContext, List)}, which takes the selectivity
+     * estimated on the segment into account (see {@link FilterSelectivityEstimator}):
+     * <ul>
+     *   <li>
+     *     The inverted index based child filter operators are evaluated by scanning the candidate documents matched by
+     *     the most selective index based child filter operator when it is estimated to be cheaper than collecting the
+     *     matching documents from the inverted index (e.g. NOT_IN or large IN predicates).
+     *   </li>
+     *   <li>
+     *     The scan based child filter operators are ordered by their estimated cost and selectivity instead of only
+     *     the column type, so that the cheap and selective ones are evaluated first, and the rest only scan the
+     *     documents matched by them.
+     *   </li>
+     * </ul>
+     * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
+     * removed from the list before calling this method.
+     */
+    protected void adaptAndFilterChildOperators(QueryContext queryContext, List<BaseFilterOperator> filterOperators,
+        int numDocs) {
+      int numFilterOperators = filterOperators.size();
+
+      // Pick the most selective index based child filter operator to provide the candidate documents
+      double[] selectivities = new double[numFilterOperators];
+      int candidateIndex = -1;
+      double candidateSelectivity = 1;
+      for (int i = 0; i < numFilterOperators; i++) {
+        BaseFilterOperator filterOperator = filterOperators.get(i);
+        if (filterOperator instanceof SortedIndexBasedFilterOperator
+            || filterOperator instanceof BitmapBasedFilterOperator
+            || filterOperator instanceof InvertedIndexFilterOperator) {
+          double selectivity = FilterSelectivityEstimator.estimateSelectivity(filterOperator, numDocs);
+          selectivities[i] = selectivity;
+          if (selectivity < candidateSelectivity) {
+            candidateIndex = i;
+            candidateSelectivity = selectivity;
+          }
+        }
+      }
+      if (candidateIndex >= 0) {
+        for (int i = 0; i < numFilterOperators; i++) {
+          BaseFilterOperator filterOperator = filterOperators.get(i);
+          if (i != candidateIndex && filterOperator instanceof InvertedIndexFilterOperator) {
+            ScanBasedFilterOperator scanBasedFilterOperator =
+                getScanBasedFilterOperator(queryContext, (InvertedIndexFilterOperator) filterOperator, numDocs,
+                    selectivities[i], candidateSelectivity);
+            if (scanBasedFilterOperator != null) {
+              filterOperators.set(i, scanBasedFilterOperator);
+            }
+          }
+        }
+      }
+
+      reorderAndFilterChildOperators(queryContext, filterOperators);
+
+      // Reorder the scan based child filter operators within their positions
+      List<ScanBasedFilterOperator> scanBasedFilterOperators = new ArrayList<>();
+      IntList positions = new IntArrayList();
+      for (int i = 0; i < numFilterOperators; i++) {
+        BaseFilterOperator filterOperator = filterOperators.get(i);
+        if (filterOperator instanceof ScanBasedFilterOperator) {
+          scanBasedFilterOperators.add((ScanBasedFilterOperator) filterOperator);
+          positions.add(i);
+        }
+      }
+      int numScanBasedFilterOperators = scanBasedFilterOperators.size();
+      if (numScanBasedFilterOperators > 1) {
+        Map<ScanBasedFilterOperator, Double> ranks = new IdentityHashMap<>();
+        for (ScanBasedFilterOperator scanBasedFilterOperator : scanBasedFilterOperators) {
+          ranks.put(scanBasedFilterOperator, FilterSelectivityEstimator.getScanRank(scanBasedFilterOperator, numDocs));
+        }
+        scanBasedFilterOperators.sort(Comparator.comparingDouble(ranks::get));
+        for (int i = 0; i < numScanBasedFilterOperators; i++) {
+          filterOperators.set(positions.getInt(i), scanBasedFilterOperators.get(i));
+        }
+      }
+    }
+
+    /**
+     * Returns a {@link ScanBasedFilterOperator} to replace the given {@link InvertedIndexFilterOperator} if scanning
+     * the candidate documents is estimated to be cheaper than collecting the matching documents from the inverted
+     * index, or {@code null} otherwise.
+     */
+    @Nullable
+    private static ScanBasedFilterOperator getScanBasedFilterOperator(QueryContext queryContext,
+        InvertedIndexFilterOperator filterOperator, int numDocs, double selectivity, double candidateSelectivity) {
+      // NOTE: Comparison with NaN (unknown selectivity) is always false.
+      if (filterOperator._dataSource.getForwardIndex() == null
+          || !(selectivity * FilterSelectivityEstimator.BITMAP_COST_PER_DOC > candidateSelectivity)) {
+        return null;
+      }
+      ScanBasedFilterOperator scanBasedFilterOperator =
+          new ScanBasedFilterOperator(queryContext, filterOperator.getPredicateEvaluator(), filterOperator._dataSource,
+              numDocs);
+      double scanCostPerDoc = FilterSelectivityEstimator.estimateScanCostPerDoc(scanBasedFilterOperator);
+      return selectivity * FilterSelectivityEstimator.BITMAP_COST_PER_DOC > candidateSelectivity * scanCostPerDoc
+          ? scanBasedFilterOperator : null;
+    }
+
     public static int getScanBasedFilterPriority(QueryContext queryContext,
         ScanBasedFilterOperator scanBasedFilterOperator, int basePriority) {
       if (queryContext.isSkipScanFilterReorder()) {
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Estimates the selectivity (fraction of the documents matched) and the evaluation cost of the filter operators on a
+ * single segment, which are used to adaptively order the children of the AND filter operator.
+ *
+ * <p>The cost is relative to scanning one document of a single-value dictionary-encoded column. The estimation
+ * should be cheap compared to evaluating the filter, so it only relies on the index metadata, the dictionary and a
+ * small sample of the documents.
+ */
+final class FilterSelectivityEstimator {
+  // Returned when the selectivity cannot be estimated
+  static final double UNKNOWN_SELECTIVITY = Double.NaN;
+
+  // When estimating the selectivity by scanning, sample NUM_SAMPLE_RANGES ranges of SAMPLE_RANGE_SIZE documents evenly
+  // distributed in the segment. Contiguous ranges are sampled to limit the number of chunks decompressed for the raw
+  // forward index.
+  static final int NUM_SAMPLE_RANGES = 8;
+  static final int SAMPLE_RANGE_SIZE = 128;
+
+  // Count the matching documents from the inverted index when the number of dictionary ids is within this limit;
+  // otherwise assume the values are evenly distributed
+  static final int MAX_NUM_DICT_IDS_TO_COUNT = 32;
+
+  // Cost of collecting one matching document from the inverted index bitmaps
+  static final double BITMAP_COST_PER_DOC = 0.1;
+  // Cost of scanning one document of a single-value raw variable width column
+  static final double VAR_WIDTH_RAW_SCAN_COST_PER_DOC = 4;
+  // Cost multiplier for the predicates that are evaluated on every raw value with regex
+  static final double RAW_REGEXP_COST_MULTIPLIER = 8;
+
+  private FilterSelectivityEstimator() {
+  }
+
+  /**
+   * Returns the estimated selectivity of the given filter operator, or {@link #UNKNOWN_SELECTIVITY} if it cannot be
+   * estimated.
+   */
+  static double estimateSelectivity(BaseFilterOperator filterOperator, int numDocs) {
+    if (numDocs <= 0) {
+      return UNKNOWN_SELECTIVITY;
+    }
+    if (filterOperator instanceof SortedIndexBasedFilterOperator
+        || filterOperator instanceof BitmapBasedFilterOperator) {
+      return (double) filterOperator.getNumMatchingDocs() / numDocs;
+    }
+    if (filterOperator instanceof InvertedIndexFilterOperator) {
+      return estimateInvertedIndexSelectivity((InvertedIndexFilterOperator) filterOperator, numDocs);
+    }
+    if (filterOperator instanceof ScanBasedFilterOperator) {
+      return estimateScanSelectivity((ScanBasedFilterOperator) filterOperator, numDocs);
+    }
+    if (filterOperator instanceof NotFilterOperator) {
+      return 1 - estimateSelectivity(((NotFilterOperator) filterOperator).getChildFilterOperator(), numDocs);
+    }
+    return UNKNOWN_SELECTIVITY;
+  }
+
+  private static double estimateInvertedIndexSelectivity(InvertedIndexFilterOperator filterOperator, int numDocs) {
+    PredicateEvaluator predicateEvaluator = filterOperator.getPredicateEvaluator();
+    boolean exclusive = predicateEvaluator.isExclusive();
+    int[] dictIds = exclusive ? predicateEvaluator.getNonMatchingDictIds() : predicateEvaluator.getMatchingDictIds();
+    double selectivity;
+    if (dictIds.length <= MAX_NUM_DICT_IDS_TO_COUNT) {
+      // NOTE: For multi-value column, the bitmaps can overlap, so the sum of the cardinalities is an upper bound.
+      InvertedIndexReader<ImmutableRoaringBitmap> invertedIndexReader = filterOperator.getInvertedIndexReader();
+      long numMatchingDocs = 0;
+      for (int dictId : dictIds) {
+        numMatchingDocs += invertedIndexReader.getDocIds(dictId).getCardinality();
+      }
+      selectivity = Math.min((double) numMatchingDocs / numDocs, 1);
+    } else {
+      int cardinality = filterOperator._dataSource.getDataSourceMetadata().getCardinality();
+      if (cardinality <= 0) {
+        return UNKNOWN_SELECTIVITY;
+      }
+      selectivity = Math.min((double) dictIds.length / cardinality, 1);
+    }
+    return exclusive ? 1 - selectivity : selectivity;
+  }
+
+  private static double estimateScanSelectivity(ScanBasedFilterOperator filterOperator, int numDocs) {
+    PredicateEvaluator predicateEvaluator = filterOperator.getPredicateEvaluator();
+    DataSourceMetadata dataSourceMetadata = filterOperator.getDataSourceMetadata();
+    int cardinality = dataSourceMetadata.getCardinality();
+    // For multi-value column, a document matches when any of its values matches, so the dictionary based estimation
+    // does not apply
+    if (predicateEvaluator.isDictionaryBased() && dataSourceMetadata.isSingleValue() && cardinality > 0) {
+      int numMatchingDictIds = getNumMatchingDictIds(predicateEvaluator);
+      if (numMatchingDictIds != Integer.MIN_VALUE) {
+        if (numMatchingDictIds < 0) {
+          numMatchingDictIds += cardinality;
+        }
+        return Math.min((double) numMatchingDictIds / cardinality, 1);
+      }
+    }
+    return sampleScanSelectivity(filterOperator, numDocs);
+  }
+
+  /**
+   * Returns the number of matching dictionary ids if it can be computed without iterating over the dictionary, or
+   * {@code Integer.MIN_VALUE} otherwise. Negative number indicates exclusive match.
+   */
+  private static int getNumMatchingDictIds(PredicateEvaluator predicateEvaluator) {
+    int numMatchingItems = predicateEvaluator.getNumMatchingItems();
+    if (numMatchingItems != Integer.MIN_VALUE) {
+      return numMatchingItems;
+    }
+    if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator) {
+      RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator rangePredicateEvaluator =
+          (RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator) predicateEvaluator;
+      // NOTE: End dictionary id is exclusive.
+      return rangePredicateEvaluator.getEndDictId() - rangePredicateEvaluator.getStartDictId();
+    }
+    if (predicateEvaluator.getPredicateType() == Predicate.Type.EQ) {
+      return 1;
+    }
+    return Integer.MIN_VALUE;
+  }
+
+  private static double sampleScanSelectivity(ScanBasedFilterOperator filterOperator, int numDocs) {
+    BlockDocIdIterator docIdIterator = filterOperator.getNextBlockWithoutNullHandling().iterator();
+    if (!(docIdIterator instanceof ScanBasedDocIdIterator)) {
+      return UNKNOWN_SELECTIVITY;
+    }
+    MutableRoaringBitmap sampledDocIds = new MutableRoaringBitmap();
+    int numSampledDocs;
+    if (numDocs <= NUM_SAMPLE_RANGES * SAMPLE_RANGE_SIZE) {
+      sampledDocIds.add(0L, numDocs);
+      numSampledDocs = numDocs;
+    } else {
+      long stride = numDocs / NUM_SAMPLE_RANGES;
+      for (int i = 0; i < NUM_SAMPLE_RANGES; i++) {
+        long startDocId = i * stride;
+        sampledDocIds.add(startDocId, startDocId + SAMPLE_RANGE_SIZE);
+      }
+      numSampledDocs = NUM_SAMPLE_RANGES * SAMPLE_RANGE_SIZE;
+    }
+    int numMatchingDocs = ((ScanBasedDocIdIterator) docIdIterator).applyAnd(sampledDocIds).getCardinality();
+    return (double) numMatchingDocs / numSampledDocs;
+  }
+
+  /**
+   * Returns the estimated cost of evaluating the given scan based filter operator on one document.
+   */
+  static double estimateScanCostPerDoc(ScanBasedFilterOperator filterOperator) {
+    PredicateEvaluator predicateEvaluator = filterOperator.getPredicateEvaluator();
+    DataSourceMetadata dataSourceMetadata = filterOperator.getDataSourceMetadata();
+    double cost = 1;
+    if (!predicateEvaluator.isDictionaryBased()) {
+      if (!dataSourceMetadata.getDataType().getStoredType().isFixedWidth()) {
+        cost = VAR_WIDTH_RAW_SCAN_COST_PER_DOC;
+      }
+      if (predicateEvaluator.getPredicateType() == Predicate.Type.REGEXP_LIKE) {
+        cost *= RAW_REGEXP_COST_MULTIPLIER;
+      }
+    }
+    if (!dataSourceMetadata.isSingleValue()) {
+      int numDocs = dataSourceMetadata.getNumDocs();
+      int numValues = dataSourceMetadata.getNumValues();
+      if (numDocs > 0 && numValues > 0) {
+        cost *= Math.max((double) numValues / numDocs, 1);
+      } else {
+        cost *= Math.max(dataSourceMetadata.getMaxNumValuesPerMVEntry(), 1);
+      }
+    }
+    return cost;
+  }
+
+  /**
+   * Returns the rank of the scan based filter operator for the AND filter. Scan based filter operators evaluated later
+   * only scan the documents matched by the previous ones, so ordering them by ascending
+   * {@code cost / (1 - selectivity)} minimizes the expected total cost. Operators with unknown selectivity are ranked
+   * last.
+   */
+  static double getScanRank(ScanBasedFilterOperator filterOperator, int numDocs) {
+    double selectivity = estimateSelectivity(filterOperator, numDocs);
+    if (Double.isNaN(selectivity) || selectivity >= 1) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return estimateScanCostPerDoc(filterOperator) / (1 - selectivity);
+  }
+}
@@ -93,6 +93,14 @@ public class InvertedIndexFilterOperator extends BaseColumnFilterOperator {
     }
   }
 
+  public PredicateEvaluator getPredicateEvaluator() {
+    return _predicateEvaluator;
+  }
+
+  InvertedIndexReader<ImmutableRoaringBitmap> getInvertedIndexReader() {
+    return _invertedIndexReader;
+  }
+
   @Override
   public boolean canOptimizeCount() {
     return true;
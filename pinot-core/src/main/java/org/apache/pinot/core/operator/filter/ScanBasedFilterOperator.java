@@ -77,6 +77,10 @@ public class ScanBasedFilterOperator extends BaseColumnFilterOperator {
     return stringBuilder.append(')').toString();
   }
 
+  public PredicateEvaluator getPredicateEvaluator() {
+    return _predicateEvaluator;
+  }
+
   /**
    * Returns the metadata of the data source associated with the scan filter.
    * TODO: Replace this with a priority method for all filter operators
@@ -26,6 +26,8 @@ import org.apache.pinot.core.operator.filter.predicate.traits.DoubleValue;
 import org.apache.pinot.core.operator.filter.predicate.traits.FloatValue;
 import org.apache.pinot.core.operator.filter.predicate.traits.IntValue;
 import org.apache.pinot.core.operator.filter.predicate.traits.LongValue;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.MultiValueVisitor;
@@ -39,6 +41,8 @@ import org.apache.pinot.spi.utils.TimestampUtils;
  * Factory for EQ predicate evaluators.
  */
 public class EqualsPredicateEvaluatorFactory {
+  private static final VectorOps VECTOR_OPS = VectorOpsProvider.getVectorOps();
+
   private EqualsPredicateEvaluatorFactory() {
   }
 
@@ -124,15 +128,7 @@ public class EqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _matchingDictId, _matchingDictId);
     }
 
     @Override
@@ -189,15 +185,7 @@ public class EqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _matchingValue, _matchingValue);
     }
 
     @Override
@@ -242,15 +230,7 @@ public class EqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, long[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        long value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _matchingValue, _matchingValue);
     }
 
     @Override
@@ -290,15 +270,7 @@ public class EqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, float[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        float value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _matchingValue, _matchingValue);
     }
 
     @Override
@@ -338,15 +310,7 @@ public class EqualsPredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, double[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        double value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _matchingValue, _matchingValue);
     }
 
     @Override
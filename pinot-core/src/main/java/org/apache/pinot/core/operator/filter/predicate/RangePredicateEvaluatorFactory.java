@@ -26,6 +26,8 @@ import org.apache.pinot.core.operator.filter.predicate.traits.DoubleRange;
 import org.apache.pinot.core.operator.filter.predicate.traits.FloatRange;
 import org.apache.pinot.core.operator.filter.predicate.traits.IntRange;
 import org.apache.pinot.core.operator.filter.predicate.traits.LongRange;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.BooleanUtils;
@@ -38,6 +40,8 @@ import org.apache.pinot.spi.utils.TimestampUtils;
  * Factory for RANGE predicate evaluators.
  */
 public class RangePredicateEvaluatorFactory {
+  private static final VectorOps VECTOR_OPS = VectorOpsProvider.getVectorOps();
+
   private RangePredicateEvaluatorFactory() {
   }
 
@@ -223,15 +227,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] dictIds) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int dictId = dictIds[i];
-        if (applySV(dictId)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, dictIds, _startDictId, _endDictId - 1);
     }
 
     @Override
@@ -367,15 +363,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, int[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        int value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _inclusiveLowerBound, _inclusiveUpperBound);
     }
   }
 
@@ -423,15 +411,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, long[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        long value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _inclusiveLowerBound, _inclusiveUpperBound);
     }
   }
 
@@ -479,15 +459,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, float[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        float value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _inclusiveLowerBound, _inclusiveUpperBound);
     }
   }
 
@@ -535,15 +507,7 @@ public class RangePredicateEvaluatorFactory {
 
     @Override
     public int applySV(int limit, int[] docIds, double[] values) {
-      // reimplemented here to ensure applySV can be inlined
-      int matches = 0;
-      for (int i = 0; i < limit; i++) {
-        double value = values[i];
-        if (applySV(value)) {
-          docIds[matches++] = docIds[i];
-        }
-      }
-      return matches;
+      return VECTOR_OPS.filterRange(limit, docIds, values, _inclusiveLowerBound, _inclusiveUpperBound);
     }
   }
 
@@ -109,7 +109,7 @@ public abstract class BaseStreamingCombineOperator<T extends BaseResultsBlock> e
     BaseResultsBlock finalBlock = new MetadataResultsBlock();
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(finalBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
-        numServerThreads);
+        _totalWorkerThreadMemAllocatedBytes.get(), numServerThreads);
     return finalBlock;
   }
 
@@ -126,7 +126,7 @@ public class StreamingGroupByCombineOperator extends BaseStreamingCombineOperato
     BaseResultsBlock finalBlock = new MetadataResultsBlock();
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils.setExecutionStatistics(finalBlock, _operators, _totalWorkerThreadCpuTimeNs.get(),
-        numServerThreads);
+        _totalWorkerThreadMemAllocatedBytes.get(), numServerThreads);
     return finalBlock;
   }
 
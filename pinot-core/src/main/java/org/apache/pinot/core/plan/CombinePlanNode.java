@@ -73,6 +73,10 @@ public class CombinePlanNode implements PlanNode {
     _streamer = streamer;
   }
 
+  public List<PlanNode> getPlanNodes() {
+    return _planNodes;
+  }
+
   @Override
   public BaseCombineOperator run() {
     try (InvocationScope ignored = Tracing.getTracer().createScope(CombinePlanNode.class)) {
@@ -39,6 +39,18 @@ public class InstanceResponsePlanNode implements PlanNode {
     _queryContext = queryContext;
   }
 
+  public CombinePlanNode getCombinePlanNode() {
+    return _combinePlanNode;
+  }
+
+  public List<SegmentContext> getSegmentContexts() {
+    return _segmentContexts;
+  }
+
+  public List<FetchContext> getFetchContexts() {
+    return _fetchContexts;
+  }
+
   @Override
   public InstanceResponseOperator run() {
     return new InstanceResponseOperator(_combinePlanNode.run(), _segmentContexts, _fetchContexts, _queryContext);
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.core.operator.SegmentResultsCacheOperator;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * A wrapper for the segment-level plan node which serves the results from the {@link SegmentResultsCache}.
+ * Similar to {@link AcquireReleaseColumnsSegmentPlanNode}, it does not run the child plan, but passes it to the
+ * {@link SegmentResultsCacheOperator} which only runs it on cache miss. When the results are already fetched from the
+ * cache while planning, there is no child plan, and the segment does not need to be wrapped with the
+ * {@link AcquireReleaseColumnsSegmentPlanNode}.
+ */
+public class SegmentResultsCachePlanNode implements PlanNode {
+  private final PlanNode _childPlanNode;
+  private final SegmentContext _segmentContext;
+  private final QueryContext _queryContext;
+  private final SegmentResultsCache _segmentResultsCache;
+  private final String _cacheKey;
+  @Nullable
+  private final SegmentResultsCache.CachedResultsBlock _cachedResultsBlock;
+
+  public SegmentResultsCachePlanNode(PlanNode childPlanNode, SegmentContext segmentContext, QueryContext queryContext,
+      SegmentResultsCache segmentResultsCache, String cacheKey) {
+    _childPlanNode = childPlanNode;
+    _segmentContext = segmentContext;
+    _queryContext = queryContext;
+    _segmentResultsCache = segmentResultsCache;
+    _cacheKey = cacheKey;
+    _cachedResultsBlock = null;
+  }
+
+  public SegmentResultsCachePlanNode(SegmentResultsCache.CachedResultsBlock cachedResultsBlock,
+      SegmentContext segmentContext) {
+    _childPlanNode = null;
+    _segmentContext = segmentContext;
+    _queryContext = null;
+    _segmentResultsCache = null;
+    _cacheKey = null;
+    _cachedResultsBlock = cachedResultsBlock;
+  }
+
+  @Override
+  public SegmentResultsCacheOperator run() {
+    if (_cachedResultsBlock != null) {
+      return new SegmentResultsCacheOperator(_cachedResultsBlock, _segmentContext.getIndexSegment());
+    }
+    return new SegmentResultsCacheOperator(_childPlanNode, _segmentContext.getIndexSegment(), _queryContext,
+        _segmentResultsCache, _cacheKey);
+  }
+}
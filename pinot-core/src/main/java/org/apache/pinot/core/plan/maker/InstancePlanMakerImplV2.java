@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -42,9 +43,11 @@ import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultsCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
@@ -86,6 +89,11 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for the max heap size of the segment level results cache for the immutable segments, where
+  // non-positive value disables the cache
+  // Set as pinot.server.query.executor.segment.results.cache.max.size.bytes
+  public static final String SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY = "segment.results.cache.max.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES = 0;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
@@ -98,6 +106,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private SegmentResultsCache _segmentResultsCache;
 
   public InstancePlanMakerImplV2() {
   }
@@ -128,10 +137,16 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
+    long segmentResultsCacheMaxSizeBytes = queryExecutorConfig.getProperty(SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY,
+        DEFAULT_SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES);
+    if (segmentResultsCacheMaxSizeBytes > 0) {
+      _segmentResultsCache = new SegmentResultsCache(segmentResultsCacheMaxSizeBytes);
+    }
     LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "segmentResultsCacheMaxSizeBytes: {}", _maxExecutionThreads, _maxInitialResultHolderCapacity,
+        _numGroupsLimit, _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold,
+        segmentResultsCacheMaxSizeBytes);
   }
 
   public Plan makeInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
@@ -140,27 +155,71 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
 
     int numSegments = segmentContexts.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
+    List<SegmentContext> fetchSegmentContexts;
     List<FetchContext> fetchContexts;
+    String segmentResultsCacheQueryKey =
+        _segmentResultsCache != null ? SegmentResultsCache.getQueryKey(queryContext) : null;
     if (queryContext.isEnablePrefetch()) {
+      // Segments served from the results cache do not access any index, so they are neither prefetched nor acquired
+      fetchSegmentContexts = new ArrayList<>(numSegments);
       fetchContexts = new ArrayList<>(numSegments);
       for (SegmentContext segmentContext : segmentContexts) {
+        String cacheKey = getSegmentResultsCacheKey(segmentContext, segmentResultsCacheQueryKey);
+        if (cacheKey != null) {
+          SegmentResultsCache.CachedResultsBlock cachedResultsBlock = _segmentResultsCache.get(cacheKey, queryContext);
+          if (cachedResultsBlock != null) {
+            planNodes.add(new SegmentResultsCachePlanNode(cachedResultsBlock, segmentContext));
+            continue;
+          }
+        }
         FetchContext fetchContext =
             _fetchPlanner.planFetchForProcessing(segmentContext.getIndexSegment(), queryContext);
+        fetchSegmentContexts.add(segmentContext);
         fetchContexts.add(fetchContext);
-        planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(segmentContext, queryContext), segmentContext,
-                fetchContext));
+        planNodes.add(new AcquireReleaseColumnsSegmentPlanNode(
+            makeCacheableSegmentPlanNode(segmentContext, queryContext, cacheKey), segmentContext, fetchContext));
       }
     } else {
+      fetchSegmentContexts = segmentContexts;
       fetchContexts = Collections.emptyList();
       for (SegmentContext segmentContext : segmentContexts) {
-        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext));
+        planNodes.add(makeCacheableSegmentPlanNode(segmentContext, queryContext,
+            getSegmentResultsCacheKey(segmentContext, segmentResultsCacheQueryKey)));
       }
     }
 
     CombinePlanNode combinePlanNode = new CombinePlanNode(planNodes, queryContext, executorService, null);
     return new GlobalPlanImplV0(
-        new InstanceResponsePlanNode(combinePlanNode, segmentContexts, fetchContexts, queryContext));
+        new InstanceResponsePlanNode(combinePlanNode, fetchSegmentContexts, fetchContexts, queryContext));
+  }
+
+  /**
+   * Returns the key of the segment in the {@link SegmentResultsCache}, or {@code null} if either the query or the
+   * segment is not cacheable.
+   */
+  @Nullable
+  private static String getSegmentResultsCacheKey(SegmentContext segmentContext,
+      @Nullable String segmentResultsCacheQueryKey) {
+    return segmentResultsCacheQueryKey != null ? SegmentResultsCache.getCacheKey(segmentResultsCacheQueryKey,
+        segmentContext) : null;
+  }
+
+  /**
+   * Wraps the segment plan node with the {@link SegmentResultsCachePlanNode} if the segment results cache key is
+   * provided.
+   */
+  private PlanNode makeCacheableSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext,
+      @Nullable String cacheKey) {
+    PlanNode planNode = makeSegmentPlanNode(segmentContext, queryContext);
+    if (cacheKey == null) {
+      return planNode;
+    }
+    return new SegmentResultsCachePlanNode(planNode, segmentContext, queryContext, _segmentResultsCache, cacheKey);
+  }
+
+  @VisibleForTesting
+  SegmentResultsCache getSegmentResultsCache() {
+    return _segmentResultsCache;
   }
 
   private void applyQueryOptions(QueryContext queryContext) {
@@ -175,6 +234,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     // Set skipScanFilterReorder
     queryContext.setSkipScanFilterReorder(QueryOptionsUtils.isSkipScanFilterReorder(queryOptions));
 
+    // Set adaptiveFilterReordering
+    queryContext.setAdaptiveFilterReordering(QueryOptionsUtils.isAdaptiveFilterReorderingEnabled(queryOptions));
+
     queryContext.setSkipIndexes(QueryOptionsUtils.getSkipIndexes(queryOptions));
 
     // Set maxExecutionThreads
@@ -30,12 +30,15 @@ import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.roaringbitmap.RoaringBitmap;
 
 
 public class MaxAggregationFunction extends BaseSingleInputAggregationFunction<Double, Double> {
   private static final double DEFAULT_INITIAL_VALUE = Double.NEGATIVE_INFINITY;
+  private static final VectorOps VECTOR_OPS = VectorOpsProvider.getVectorOps();
   private final boolean _nullHandlingEnabled;
 
   public MaxAggregationFunction(List<ExpressionContext> arguments, boolean nullHandlingEnabled) {
@@ -112,10 +115,7 @@ public class MaxAggregationFunction extends BaseSingleInputAggregationFunction<D
       }
       case DOUBLE: {
         double[] values = blockValSet.getDoubleValuesSV();
-        double max = values[0];
-        for (int i = 0; i < length & i < values.length; i++) {
-          max = Math.max(values[i], max);
-        }
+        double max = VECTOR_OPS.max(values[0], values, Math.min(length, values.length));
         aggregationResultHolder.setValue(Math.max(max, aggregationResultHolder.getDoubleResult()));
         break;
       }
@@ -30,12 +30,15 @@ import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.roaringbitmap.RoaringBitmap;
 
 
 public class MinAggregationFunction extends BaseSingleInputAggregationFunction<Double, Double> {
   private static final double DEFAULT_VALUE = Double.POSITIVE_INFINITY;
+  private static final VectorOps VECTOR_OPS = VectorOpsProvider.getVectorOps();
   private final boolean _nullHandlingEnabled;
 
   public MinAggregationFunction(List<ExpressionContext> arguments, boolean nullHandlingEnabled) {
@@ -111,10 +114,7 @@ public class MinAggregationFunction extends BaseSingleInputAggregationFunction<D
       }
       case DOUBLE: {
         double[] values = blockValSet.getDoubleValuesSV();
-        double min = values[0];
-        for (int i = 0; i < length & i < values.length; i++) {
-          min = Math.min(values[i], min);
-        }
+        double min = VECTOR_OPS.min(values[0], values, Math.min(length, values.length));
         aggregationResultHolder.setValue(Math.min(min, aggregationResultHolder.getDoubleResult()));
         break;
       }
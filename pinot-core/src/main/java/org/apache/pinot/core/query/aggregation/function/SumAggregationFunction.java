@@ -30,12 +30,15 @@ import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.DoubleGroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.roaringbitmap.RoaringBitmap;
 
 
 public class SumAggregationFunction extends BaseSingleInputAggregationFunction<Double, Double> {
   private static final double DEFAULT_VALUE = 0.0;
+  private static final VectorOps VECTOR_OPS = VectorOpsProvider.getVectorOps();
   private final boolean _nullHandlingEnabled;
 
   public SumAggregationFunction(List<ExpressionContext> arguments, boolean nullHandlingEnabled) {
@@ -106,9 +109,7 @@ public class SumAggregationFunction extends BaseSingleInputAggregationFunction<D
       }
       case DOUBLE: {
         double[] values = blockValSet.getDoubleValuesSV();
-        for (int i = 0; i < length & i < values.length; i++) {
-          sum += values[i];
-        }
+        sum = VECTOR_OPS.sum(sum, values, Math.min(length, values.length));
         break;
       }
       case BIG_DECIMAL: {
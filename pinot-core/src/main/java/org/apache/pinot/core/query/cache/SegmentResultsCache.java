@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.CustomObject;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * The {@code SegmentResultsCache} caches the segment level results of the aggregation and group-by queries on the
+ * immutable segments, so that repeated queries (e.g. dashboards refreshing every few seconds) only need to be executed
+ * on the consuming segments and the segments not cached yet.
+ *
+ * <p>The cache key consists of the segment name, the segment CRC and the parts of the query that can affect the
+ * segment level results (filter, aggregations, group-by, order-by, limit and the group limits). When a segment is
+ * replaced, the CRC changes and the stale entries are never hit again and are evicted as least recently used.
+ * Segments with valid doc ids (upsert) are not cached because the valid docs can change without changing the CRC.
+ *
+ * <p>The combine operators merge the segment results in place, so the intermediate results are stored serialized and
+ * deserialized on each hit. The cache is bounded by the estimated heap size of the cached results.
+ */
+@ThreadSafe
+public class SegmentResultsCache {
+  // Rough estimate of the per value and per row overhead on heap
+  private static final int VALUE_OVERHEAD_BYTES = 16;
+  private static final int ROW_OVERHEAD_BYTES = 16;
+
+  private final Cache<String, CachedResults> _cache;
+
+  public SegmentResultsCache(long maxSizeBytes) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes)
+        .weigher((String key, CachedResults value) -> (int) Math.min(2L * key.length() + value._sizeInBytes,
+            Integer.MAX_VALUE)).build();
+  }
+
+  /**
+   * Returns the segment independent part of the cache key for the query, or {@code null} if the query is not
+   * cacheable.
+   */
+  @Nullable
+  public static String getQueryKey(QueryContext queryContext) {
+    if (queryContext.isExplain() || !QueryContextUtils.isAggregationQuery(queryContext)
+        || QueryOptionsUtils.isSkipResultCache(queryContext.getQueryOptions())) {
+      return null;
+    }
+    StringBuilder keyBuilder = new StringBuilder();
+    keyBuilder.append(queryContext.getTableName()).append('|').append(queryContext.getSelectExpressions()).append('|')
+        .append(queryContext.getFilter()).append('|').append(queryContext.getHavingFilter()).append('|')
+        .append(queryContext.isNullHandlingEnabled()).append('|').append(queryContext.isSkipUpsert());
+    List<ExpressionContext> groupByExpressions = queryContext.getGroupByExpressions();
+    if (groupByExpressions != null) {
+      // Segment level group trim relies on the order-by expressions and the limit
+      keyBuilder.append('|').append(groupByExpressions).append('|').append(queryContext.getOrderByExpressions())
+          .append('|').append(queryContext.getLimit()).append('|').append(queryContext.getNumGroupsLimit())
+          .append('|').append(queryContext.getMinSegmentGroupTrimSize());
+    }
+    return keyBuilder.toString();
+  }
+
+  /**
+   * Returns the cache key for the segment, or {@code null} if the segment is not cacheable.
+   */
+  @Nullable
+  public static String getCacheKey(String queryKey, SegmentContext segmentContext) {
+    IndexSegment indexSegment = segmentContext.getIndexSegment();
+    if (!(indexSegment instanceof ImmutableSegment) || indexSegment.getValidDocIds() != null
+        || segmentContext.getQueryableDocIdsSnapshot() != null) {
+      return null;
+    }
+    String crc = indexSegment.getSegmentMetadata().getCrc();
+    if (crc == null || crc.equals(Long.toString(Long.MIN_VALUE))) {
+      return null;
+    }
+    return indexSegment.getSegmentName() + '|' + crc + '|' + queryKey;
+  }
+
+  /**
+   * Returns a new results block constructed from the cached results for the given key, or {@code null} if it does not
+   * exist. The returned block can be modified by the caller.
+   */
+  @Nullable
+  public CachedResultsBlock get(String key, QueryContext queryContext) {
+    CachedResults cachedResults = _cache.getIfPresent(key);
+    if (cachedResults == null) {
+      return null;
+    }
+    BaseResultsBlock resultsBlock;
+    if (queryContext.getGroupByExpressions() == null) {
+      List<Object> results = new ArrayList<>(Arrays.asList(deserializeRow(cachedResults._rows[0])));
+      resultsBlock = new AggregationResultsBlock(queryContext.getAggregationFunctions(), results, queryContext);
+    } else {
+      int numGroupByExpressions = queryContext.getGroupByExpressions().size();
+      List<IntermediateRecord> intermediateRecords = new ArrayList<>(cachedResults._rows.length);
+      for (Object[] row : cachedResults._rows) {
+        Object[] values = deserializeRow(row);
+        intermediateRecords.add(
+            new IntermediateRecord(new Key(Arrays.copyOf(values, numGroupByExpressions)), new Record(values)));
+      }
+      GroupByResultsBlock groupByResultsBlock =
+          new GroupByResultsBlock(cachedResults._dataSchema, intermediateRecords, queryContext);
+      groupByResultsBlock.setNumGroupsLimitReached(cachedResults._numGroupsLimitReached);
+      resultsBlock = groupByResultsBlock;
+    }
+    return new CachedResultsBlock(resultsBlock, cachedResults._executionStatistics);
+  }
+
+  /**
+   * Caches the segment level results block for the given key. Results that cannot be serialized are not cached.
+   */
+  public void put(String key, BaseResultsBlock resultsBlock, ExecutionStatistics executionStatistics) {
+    List<Object[]> rows;
+    DataSchema dataSchema = null;
+    boolean numGroupsLimitReached = false;
+    if (resultsBlock instanceof AggregationResultsBlock) {
+      rows = List.<Object[]>of(((AggregationResultsBlock) resultsBlock).getResults().toArray());
+    } else if (resultsBlock instanceof GroupByResultsBlock) {
+      GroupByResultsBlock groupByResultsBlock = (GroupByResultsBlock) resultsBlock;
+      rows = getGroupByRows(groupByResultsBlock);
+      dataSchema = groupByResultsBlock.getDataSchema();
+      numGroupsLimitReached = groupByResultsBlock.isNumGroupsLimitReached();
+    } else {
+      return;
+    }
+    int numRows = rows.size();
+    Object[][] serializedRows = new Object[numRows][];
+    long sizeInBytes = 0;
+    try {
+      for (int i = 0; i < numRows; i++) {
+        Object[] row = rows.get(i);
+        Object[] serializedRow = new Object[row.length];
+        sizeInBytes += ROW_OVERHEAD_BYTES;
+        for (int j = 0; j < row.length; j++) {
+          Object value = serializeValue(row[j]);
+          serializedRow[j] = value;
+          sizeInBytes += VALUE_OVERHEAD_BYTES + getSizeInBytes(value);
+        }
+        serializedRows[i] = serializedRow;
+      }
+    } catch (IllegalArgumentException e) {
+      // Intermediate result without serializer
+      return;
+    }
+    // Only keep the stats that describe the results, but not the work done to compute them
+    ExecutionStatistics cachedExecutionStatistics =
+        new ExecutionStatistics(executionStatistics.getNumDocsScanned(), 0, 0, executionStatistics.getNumTotalDocs());
+    _cache.put(key, new CachedResults(serializedRows, dataSchema, numGroupsLimitReached, cachedExecutionStatistics,
+        sizeInBytes));
+  }
+
+  private static List<Object[]> getGroupByRows(GroupByResultsBlock resultsBlock) {
+    Collection<IntermediateRecord> intermediateRecords = resultsBlock.getIntermediateRecords();
+    if (intermediateRecords != null) {
+      List<Object[]> rows = new ArrayList<>(intermediateRecords.size());
+      for (IntermediateRecord intermediateRecord : intermediateRecords) {
+        rows.add(intermediateRecord._record.getValues());
+      }
+      return rows;
+    }
+    List<Object[]> rows = new ArrayList<>();
+    AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+    if (aggregationGroupByResult == null) {
+      return rows;
+    }
+    AggregationFunction[] aggregationFunctions = resultsBlock.getQueryContext().getAggregationFunctions();
+    assert aggregationFunctions != null;
+    int numAggregationFunctions = aggregationFunctions.length;
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      Object[] keys = groupKey._keys;
+      int numKeys = keys.length;
+      Object[] values = Arrays.copyOf(keys, numKeys + numAggregationFunctions);
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        values[numKeys + i] = aggregationGroupByResult.getResultForGroupId(i, groupKey._groupId);
+      }
+      rows.add(values);
+    }
+    return rows;
+  }
+
+  private static Object serializeValue(@Nullable Object value) {
+    if (value == null || isImmutable(value)) {
+      return value;
+    }
+    ObjectSerDeUtils.ObjectType objectType = ObjectSerDeUtils.ObjectType.getObjectType(value);
+    return new SerializedValue(objectType.getValue(), ObjectSerDeUtils.serialize(value, objectType.getValue()));
+  }
+
+  private static boolean isImmutable(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Float || value instanceof Double
+        || value instanceof String || value instanceof BigDecimal || value instanceof ByteArray;
+  }
+
+  private static long getSizeInBytes(@Nullable Object value) {
+    if (value instanceof SerializedValue) {
+      return ((SerializedValue) value)._bytes.length;
+    }
+    if (value instanceof String) {
+      return 2L * ((String) value).length();
+    }
+    if (value instanceof ByteArray) {
+      return ((ByteArray) value).length();
+    }
+    return Long.BYTES;
+  }
+
+  private static Object[] deserializeRow(Object[] row) {
+    int numValues = row.length;
+    Object[] values = new Object[numValues];
+    for (int i = 0; i < numValues; i++) {
+      Object value = row[i];
+      if (value instanceof SerializedValue) {
+        SerializedValue serializedValue = (SerializedValue) value;
+        values[i] = ObjectSerDeUtils.deserialize(
+            new CustomObject(serializedValue._objectType, ByteBuffer.wrap(serializedValue._bytes)));
+      } else {
+        values[i] = value;
+      }
+    }
+    return values;
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Results block constructed from the cached results, and the execution statistics of the original execution.
+   */
+  public static class CachedResultsBlock {
+    private final BaseResultsBlock _resultsBlock;
+    private final ExecutionStatistics _executionStatistics;
+
+    private CachedResultsBlock(BaseResultsBlock resultsBlock, ExecutionStatistics executionStatistics) {
+      _resultsBlock = resultsBlock;
+      _executionStatistics = executionStatistics;
+    }
+
+    public BaseResultsBlock getResultsBlock() {
+      return _resultsBlock;
+    }
+
+    public ExecutionStatistics getExecutionStatistics() {
+      return _executionStatistics;
+    }
+  }
+
+  private static class CachedResults {
+    final Object[][] _rows;
+    final DataSchema _dataSchema;
+    final boolean _numGroupsLimitReached;
+    final ExecutionStatistics _executionStatistics;
+    final long _sizeInBytes;
+
+    CachedResults(Object[][] rows, @Nullable DataSchema dataSchema, boolean numGroupsLimitReached,
+        ExecutionStatistics executionStatistics, long sizeInBytes) {
+      _rows = rows;
+      _dataSchema = dataSchema;
+      _numGroupsLimitReached = numGroupsLimitReached;
+      _executionStatistics = executionStatistics;
+      _sizeInBytes = sizeInBytes;
+    }
+  }
+
+  private static class SerializedValue {
+    final int _objectType;
+    final byte[] _bytes;
+
+    SerializedValue(int objectType, byte[] bytes) {
+      _objectType = objectType;
+      _bytes = bytes;
+    }
+  }
+}
@@ -151,6 +151,13 @@ public class ServerQueryLogger {
           TimeUnit.NANOSECONDS);
     }
 
+    long threadMemAllocatedBytes = getLongValue(responseMetadata, MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName(), 0)
+        + getLongValue(responseMetadata, MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName(), 0);
+    if (threadMemAllocatedBytes > 0) {
+      _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.TOTAL_THREAD_MEM_ALLOCATED_BYTES,
+          threadMemAllocatedBytes);
+    }
+
     TimerContext timerContext = request.getTimerContext();
     long schedulerWaitMs = timerContext.getPhaseDurationMs(ServerQueryPhase.SCHEDULER_WAIT);
 
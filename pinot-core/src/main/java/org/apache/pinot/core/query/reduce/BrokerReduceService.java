@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
@@ -54,8 +55,12 @@ import org.slf4j.LoggerFactory;
 public class BrokerReduceService extends BaseReduceService {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerReduceService.class);
 
+  private final boolean _streamingReduceEnabled;
+
   public BrokerReduceService(PinotConfiguration config) {
     super(config);
+    _streamingReduceEnabled = config.getProperty(CommonConstants.Broker.CONFIG_OF_BROKER_ENABLE_STREAMING_REDUCE,
+        CommonConstants.Broker.DEFAULT_BROKER_ENABLE_STREAMING_REDUCE);
   }
 
   public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest,
@@ -141,20 +146,9 @@ public class BrokerReduceService extends BaseReduceService {
     QueryContext serverQueryContext = QueryContextConverterUtils.getQueryContext(serverBrokerRequest.getPinotQuery());
     DataTableReducer dataTableReducer = ResultReducerFactory.getResultReducer(serverQueryContext);
 
-    Integer minGroupTrimSizeQueryOption = null;
-    Integer groupTrimThresholdQueryOption = null;
-    if (queryOptions != null) {
-      minGroupTrimSizeQueryOption = QueryOptionsUtils.getMinBrokerGroupTrimSize(queryOptions);
-      groupTrimThresholdQueryOption = QueryOptionsUtils.getGroupTrimThreshold(queryOptions);
-    }
-    int minGroupTrimSize = minGroupTrimSizeQueryOption != null ? minGroupTrimSizeQueryOption : _minGroupTrimSize;
-    int groupTrimThreshold =
-        groupTrimThresholdQueryOption != null ? groupTrimThresholdQueryOption : _groupByTrimThreshold;
-
     try {
       dataTableReducer.reduceAndSetResults(rawTableName, cachedDataSchema, dataTableMap, brokerResponseNative,
-          new DataTableReducerContext(_reduceExecutorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
-              groupTrimThreshold, minGroupTrimSize), brokerMetrics);
+          getReducerContext(queryOptions, reduceTimeOutMs), brokerMetrics);
     } catch (EarlyTerminationException e) {
       brokerResponseNative.addException(
           new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE, e.toString()));
@@ -178,6 +172,48 @@ public class BrokerReduceService extends BaseReduceService {
     return brokerResponseNative;
   }
 
+  /**
+   * Returns a {@link StreamingBrokerReducer} to reduce the data tables incrementally as they arrive from the servers,
+   * or {@code null} if streaming reduce is not enabled or not supported for the query, in which case
+   * {@link #reduceOnDataTable} should be used after all the servers responded.
+   */
+  @Nullable
+  public StreamingBrokerReducer getStreamingBrokerReducer(BrokerRequest brokerRequest,
+      BrokerRequest serverBrokerRequest, long reduceTimeOutMs, BrokerMetrics brokerMetrics) {
+    // NOTE: Nested query (gapfill) requires post-processing on the reduced results, which is not supported.
+    if (!_streamingReduceEnabled || brokerRequest != serverBrokerRequest) {
+      return null;
+    }
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(serverBrokerRequest.getPinotQuery());
+    String tableName = serverBrokerRequest.getQuerySource().getTableName();
+    String rawTableName = TableNameBuilder.extractRawTableName(tableName);
+    StreamingReducer streamingReducer =
+        ResultReducerFactory.getIncrementalReducer(queryContext, rawTableName, brokerMetrics);
+    if (streamingReducer == null) {
+      return null;
+    }
+    Map<String, String> queryOptions = brokerRequest.getPinotQuery().getQueryOptions();
+    boolean enableTrace =
+        queryOptions != null && Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.TRACE));
+    return new StreamingBrokerReducer(queryContext, tableName, rawTableName, streamingReducer,
+        getReducerContext(queryOptions, reduceTimeOutMs), brokerMetrics, enableTrace);
+  }
+
+  private DataTableReducerContext getReducerContext(@Nullable Map<String, String> queryOptions,
+      long reduceTimeOutMs) {
+    Integer minGroupTrimSizeQueryOption = null;
+    Integer groupTrimThresholdQueryOption = null;
+    if (queryOptions != null) {
+      minGroupTrimSizeQueryOption = QueryOptionsUtils.getMinBrokerGroupTrimSize(queryOptions);
+      groupTrimThresholdQueryOption = QueryOptionsUtils.getGroupTrimThreshold(queryOptions);
+    }
+    int minGroupTrimSize = minGroupTrimSizeQueryOption != null ? minGroupTrimSizeQueryOption : _minGroupTrimSize;
+    int groupTrimThreshold =
+        groupTrimThresholdQueryOption != null ? groupTrimThresholdQueryOption : _groupByTrimThreshold;
+    return new DataTableReducerContext(_reduceExecutorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
+        groupTrimThreshold, minGroupTrimSize);
+  }
+
   public void shutDown() {
     _reduceExecutorService.shutdownNow();
   }
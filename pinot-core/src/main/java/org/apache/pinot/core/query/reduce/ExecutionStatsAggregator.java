@@ -35,8 +35,16 @@ import org.apache.pinot.spi.config.table.TableType;
 
 
 public class ExecutionStatsAggregator {
+  // Metadata reported per server in the broker response
+  private static final DataTable.MetadataKey[] SERVER_STATS_KEYS = {
+      DataTable.MetadataKey.TIME_USED_MS, DataTable.MetadataKey.THREAD_CPU_TIME_NS,
+      DataTable.MetadataKey.SYSTEM_ACTIVITIES_CPU_TIME_NS, DataTable.MetadataKey.RESPONSE_SER_CPU_TIME_NS,
+      DataTable.MetadataKey.THREAD_MEM_ALLOCATED_BYTES, DataTable.MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES
+  };
+
   private final List<QueryProcessingException> _processingExceptions = new ArrayList<>();
   private final Map<String, String> _traceInfo = new HashMap<>();
+  private final Map<String, Map<String, Long>> _serverStats = new HashMap<>();
   private final boolean _enableTrace;
 
   private long _numDocsScanned = 0L;
@@ -58,6 +66,10 @@ public class ExecutionStatsAggregator {
   private long _realtimeResponseSerializationCpuTimeNs = 0L;
   private long _offlineTotalCpuTimeNs = 0L;
   private long _realtimeTotalCpuTimeNs = 0L;
+  private long _offlineThreadMemAllocatedBytes = 0L;
+  private long _realtimeThreadMemAllocatedBytes = 0L;
+  private long _offlineResponseSerMemAllocatedBytes = 0L;
+  private long _realtimeResponseSerMemAllocatedBytes = 0L;
   private long _numSegmentsPrunedByServer = 0L;
   private long _numSegmentsPrunedInvalid = 0L;
   private long _numSegmentsPrunedByLimit = 0L;
@@ -172,6 +184,26 @@ public class ExecutionStatsAggregator {
     _realtimeTotalCpuTimeNs =
         _realtimeThreadCpuTimeNs + _realtimeSystemActivitiesCpuTimeNs + _realtimeResponseSerializationCpuTimeNs;
 
+    if (tableType != null) {
+      if (tableType == TableType.OFFLINE) {
+        withNotNullLongMetadata(metadata, DataTable.MetadataKey.THREAD_MEM_ALLOCATED_BYTES,
+            l -> _offlineThreadMemAllocatedBytes += l);
+        withNotNullLongMetadata(metadata, DataTable.MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES,
+            l -> _offlineResponseSerMemAllocatedBytes += l);
+      } else {
+        withNotNullLongMetadata(metadata, DataTable.MetadataKey.THREAD_MEM_ALLOCATED_BYTES,
+            l -> _realtimeThreadMemAllocatedBytes += l);
+        withNotNullLongMetadata(metadata, DataTable.MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES,
+            l -> _realtimeResponseSerMemAllocatedBytes += l);
+      }
+    }
+
+    // Streamed responses can carry the stats in several data tables from the same server, so sum them up.
+    for (DataTable.MetadataKey key : SERVER_STATS_KEYS) {
+      withNotNullLongMetadata(metadata, key,
+          l -> _serverStats.computeIfAbsent(instanceName, k -> new HashMap<>()).merge(key.getName(), l, Long::sum));
+    }
+
     withNotNullLongMetadata(metadata, DataTable.MetadataKey.NUM_SEGMENTS_PRUNED_BY_SERVER,
         l -> _numSegmentsPrunedByServer += l);
     withNotNullLongMetadata(metadata, DataTable.MetadataKey.NUM_SEGMENTS_PRUNED_INVALID,
@@ -211,6 +243,7 @@ public class ExecutionStatsAggregator {
     if (_enableTrace) {
       brokerResponseNative.getTraceInfo().putAll(_traceInfo);
     }
+    brokerResponseNative.getServerStats().putAll(_serverStats);
 
     // Set execution statistics.
     brokerResponseNative.setNumDocsScanned(_numDocsScanned);
@@ -227,6 +260,10 @@ public class ExecutionStatsAggregator {
     brokerResponseNative.setRealtimeSystemActivitiesCpuTimeNs(_realtimeSystemActivitiesCpuTimeNs);
     brokerResponseNative.setOfflineResponseSerializationCpuTimeNs(_offlineResponseSerializationCpuTimeNs);
     brokerResponseNative.setRealtimeResponseSerializationCpuTimeNs(_realtimeResponseSerializationCpuTimeNs);
+    brokerResponseNative.setOfflineThreadMemAllocatedBytes(_offlineThreadMemAllocatedBytes);
+    brokerResponseNative.setRealtimeThreadMemAllocatedBytes(_realtimeThreadMemAllocatedBytes);
+    brokerResponseNative.setOfflineResponseSerMemAllocatedBytes(_offlineResponseSerMemAllocatedBytes);
+    brokerResponseNative.setRealtimeResponseSerMemAllocatedBytes(_realtimeResponseSerMemAllocatedBytes);
     brokerResponseNative.setNumSegmentsPrunedByServer(_numSegmentsPrunedByServer);
     brokerResponseNative.setNumSegmentsPrunedInvalid(_numSegmentsPrunedInvalid);
     brokerResponseNative.setNumSegmentsPrunedByLimit(_numSegmentsPrunedByLimit);
@@ -263,6 +300,10 @@ public class ExecutionStatsAggregator {
         TimeUnit.NANOSECONDS);
     brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.REALTIME_TOTAL_CPU_TIME_NS, _realtimeTotalCpuTimeNs,
         TimeUnit.NANOSECONDS);
+    brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.OFFLINE_TOTAL_MEM_ALLOCATED_BYTES,
+        _offlineThreadMemAllocatedBytes + _offlineResponseSerMemAllocatedBytes);
+    brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REALTIME_TOTAL_MEM_ALLOCATED_BYTES,
+        _realtimeThreadMemAllocatedBytes + _realtimeResponseSerMemAllocatedBytes);
 
     if (_minConsumingFreshnessTimeMs != Long.MAX_VALUE) {
       brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.FRESHNESS_LAG_MS,
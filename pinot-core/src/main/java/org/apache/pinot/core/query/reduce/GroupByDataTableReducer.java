@@ -32,13 +32,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pinot.common.CustomObject;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableImplV5;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerGauge;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -150,6 +153,15 @@ public class GroupByDataTableReducer implements DataTableReducer {
       throws TimeoutException {
     // NOTE: This step will modify the data schema and also return final aggregate results.
     IndexedTable indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
+    setResultTable(brokerResponseNative, dataSchema, indexedTable, rawTableName, brokerMetrics);
+  }
+
+  /**
+   * Extracts the group by order by results from the finished {@link IndexedTable} and sets them into
+   * {@link ResultTable}.
+   */
+  void setResultTable(BrokerResponseNative brokerResponseNative, DataSchema dataSchema, IndexedTable indexedTable,
+      String rawTableName, @Nullable BrokerMetrics brokerMetrics) {
     if (brokerMetrics != null) {
       brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NUM_RESIZES, indexedTable.getNumResizes());
       brokerMetrics.addValueToTableGauge(rawTableName, BrokerGauge.RESIZE_TIME_MS, indexedTable.getResizeTimeMs());
@@ -237,30 +249,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
     // Get the number of threads to use for reducing.
     // In case of single reduce thread, fall back to SimpleIndexedTable to avoid redundant locking/unlocking calls.
     int numReduceThreadsToUse = getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
-    boolean hasFinalInput =
-        _queryContext.isServerReturnFinalResult() || _queryContext.isServerReturnFinalResultKeyUnpartitioned();
-    int limit = _queryContext.getLimit();
-    int trimSize = GroupByUtils.getTableCapacity(limit, reducerContext.getMinGroupTrimSize());
-    // NOTE: For query with HAVING clause, use trimSize as resultSize to ensure the result accuracy.
-    // TODO: Resolve the HAVING clause within the IndexedTable before returning the result
-    int resultSize = _queryContext.getHavingFilter() != null ? trimSize : limit;
-    int trimThreshold = reducerContext.getGroupByTrimThreshold();
-    IndexedTable indexedTable;
-    if (numReduceThreadsToUse == 1) {
-      indexedTable =
-          new SimpleIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
-    } else {
-      if (trimThreshold >= GroupByCombineOperator.MAX_TRIM_THRESHOLD) {
-        // special case of trim threshold where it is set to max value.
-        // there won't be any trimming during upsert in this case.
-        // thus we can avoid the overhead of read-lock and write-lock
-        // in the upsert method.
-        indexedTable = new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize);
-      } else {
-        indexedTable =
-            new ConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
-      }
-    }
+    IndexedTable indexedTable = createIndexedTable(dataSchema, numReduceThreadsToUse, reducerContext);
 
     // Create groups of data tables that each thread can process concurrently.
     // Given that numReduceThreads is <= numDataTables, each group will have at least one data table.
@@ -277,6 +266,9 @@ public class GroupByDataTableReducer implements DataTableReducer {
     Future[] futures = new Future[numReduceThreadsToUse];
     CountDownLatch countDownLatch = new CountDownLatch(numReduceThreadsToUse);
     AtomicReference<Throwable> exception = new AtomicReference<>();
+    // Tracks the running tasks so that the data tables are not accessed after the reduce returns (e.g. on timeout),
+    // because they might be backed by the response buffers which are released after the reduce
+    Phaser runningTasks = new Phaser(1);
     ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
     for (int i = 0; i < numReduceThreadsToUse; i++) {
       List<DataTable> reduceGroup = reduceGroups.get(i);
@@ -285,91 +277,21 @@ public class GroupByDataTableReducer implements DataTableReducer {
       futures[i] = reducerContext.getExecutorService().submit(new TraceRunnable() {
         @Override
         public void runJob() {
+          // Skip the task if the reduce already returned
+          if (runningTasks.register() < 0) {
+            return;
+          }
           Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
           try {
             for (DataTable dataTable : reduceGroup) {
-              boolean nullHandlingEnabled = _queryContext.isNullHandlingEnabled();
-              RoaringBitmap[] nullBitmaps = null;
-              if (nullHandlingEnabled) {
-                nullBitmaps = new RoaringBitmap[_numColumns];
-                for (int i = 0; i < _numColumns; i++) {
-                  nullBitmaps[i] = dataTable.getNullRowIds(i);
-                }
-              }
-
-              int numRows = dataTable.getNumberOfRows();
-              for (int rowId = 0; rowId < numRows; rowId++) {
-                // Terminate when thread is interrupted.
-                // This is expected when the query already fails in the main thread.
-                // The first check will always be performed when rowId = 0
-                Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
-                Object[] values = new Object[_numColumns];
-                for (int colId = 0; colId < _numColumns; colId++) {
-                  // NOTE: We need to handle data types for group key, intermediate and final aggregate result.
-                  switch (storedColumnDataTypes[colId]) {
-                    case INT:
-                      values[colId] = dataTable.getInt(rowId, colId);
-                      break;
-                    case LONG:
-                      values[colId] = dataTable.getLong(rowId, colId);
-                      break;
-                    case FLOAT:
-                      values[colId] = dataTable.getFloat(rowId, colId);
-                      break;
-                    case DOUBLE:
-                      values[colId] = dataTable.getDouble(rowId, colId);
-                      break;
-                    case BIG_DECIMAL:
-                      values[colId] = dataTable.getBigDecimal(rowId, colId);
-                      break;
-                    case STRING:
-                      values[colId] = dataTable.getString(rowId, colId);
-                      break;
-                    case BYTES:
-                      values[colId] = dataTable.getBytes(rowId, colId);
-                      break;
-                    case INT_ARRAY:
-                      values[colId] = IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
-                      break;
-                    case LONG_ARRAY:
-                      values[colId] = LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
-                      break;
-                    case FLOAT_ARRAY:
-                      values[colId] = FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
-                      break;
-                    case DOUBLE_ARRAY:
-                      values[colId] = DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
-                      break;
-                    case STRING_ARRAY:
-                      values[colId] = ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
-                      break;
-                    case OBJECT:
-                      // TODO: Move ser/de into AggregationFunction interface
-                      CustomObject customObject = dataTable.getCustomObject(rowId, colId);
-                      if (customObject != null) {
-                        values[colId] = ObjectSerDeUtils.deserialize(customObject);
-                      }
-                      break;
-                    // Add other aggregation intermediate result / group-by column type supports here
-                    default:
-                      throw new IllegalStateException();
-                  }
-                }
-                if (nullHandlingEnabled) {
-                  for (int colId = 0; colId < _numColumns; colId++) {
-                    if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
-                      values[colId] = null;
-                    }
-                  }
-                }
-                indexedTable.upsert(new Record(values));
-              }
+              upsertDataTable(indexedTable, dataTable, storedColumnDataTypes);
             }
           } catch (Throwable t) {
             exception.compareAndSet(null, t);
           } finally {
             countDownLatch.countDown();
             Tracing.ThreadAccountantOps.clear();
+            runningTasks.arriveAndDeregister();
           }
         }
       });
@@ -395,12 +317,188 @@ public class GroupByDataTableReducer implements DataTableReducer {
           future.cancel(true);
         }
       }
+      // Wait for the cancelled tasks to stop. Tasks not started yet are skipped after the phaser terminates.
+      runningTasks.awaitAdvance(runningTasks.arriveAndDeregister());
     }
 
     indexedTable.finish(true, true);
     return indexedTable;
   }
 
+  /**
+   * Creates the {@link IndexedTable} to merge the data tables into. In case of single reduce thread, use
+   * {@link SimpleIndexedTable} to avoid redundant locking/unlocking calls.
+   */
+  IndexedTable createIndexedTable(DataSchema dataSchema, int numReduceThreadsToUse,
+      DataTableReducerContext reducerContext) {
+    boolean hasFinalInput =
+        _queryContext.isServerReturnFinalResult() || _queryContext.isServerReturnFinalResultKeyUnpartitioned();
+    int limit = _queryContext.getLimit();
+    int trimSize = GroupByUtils.getTableCapacity(limit, reducerContext.getMinGroupTrimSize());
+    // NOTE: For query with HAVING clause, use trimSize as resultSize to ensure the result accuracy.
+    // TODO: Resolve the HAVING clause within the IndexedTable before returning the result
+    int resultSize = _queryContext.getHavingFilter() != null ? trimSize : limit;
+    int trimThreshold = reducerContext.getGroupByTrimThreshold();
+    if (numReduceThreadsToUse == 1) {
+      return new SimpleIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+    }
+    if (trimThreshold >= GroupByCombineOperator.MAX_TRIM_THRESHOLD) {
+      // special case of trim threshold where it is set to max value.
+      // there won't be any trimming during upsert in this case.
+      // thus we can avoid the overhead of read-lock and write-lock
+      // in the upsert method.
+      return new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize);
+    }
+    return new ConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+  }
+
+  /**
+   * Upserts the records from the given data table into the {@link IndexedTable}.
+   */
+  void upsertDataTable(IndexedTable indexedTable, DataTable dataTable, ColumnDataType[] storedColumnDataTypes) {
+    boolean nullHandlingEnabled = _queryContext.isNullHandlingEnabled();
+    RoaringBitmap[] nullBitmaps = null;
+    if (nullHandlingEnabled) {
+      nullBitmaps = new RoaringBitmap[_numColumns];
+      for (int i = 0; i < _numColumns; i++) {
+        nullBitmaps[i] = dataTable.getNullRowIds(i);
+      }
+    }
+
+    if (dataTable instanceof DataTableImplV5) {
+      upsertColumnarDataTable(indexedTable, (DataTableImplV5) dataTable, storedColumnDataTypes, nullBitmaps);
+      return;
+    }
+
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      // Terminate when thread is interrupted.
+      // This is expected when the query already fails in the main thread.
+      // The first check will always be performed when rowId = 0
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
+      Object[] values = new Object[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        values[colId] = getValue(dataTable, rowId, colId, storedColumnDataTypes[colId]);
+      }
+      if (nullHandlingEnabled) {
+        for (int colId = 0; colId < _numColumns; colId++) {
+          if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
+            values[colId] = null;
+          }
+        }
+      }
+      indexedTable.upsert(new Record(values));
+    }
+  }
+
+  /**
+   * Returns the value of the given row and column of the data table.
+   * NOTE: We need to handle data types for group key, intermediate and final aggregate result.
+   */
+  @Nullable
+  private static Object getValue(DataTable dataTable, int rowId, int colId, ColumnDataType storedColumnDataType) {
+    switch (storedColumnDataType) {
+      case INT:
+        return dataTable.getInt(rowId, colId);
+      case LONG:
+        return dataTable.getLong(rowId, colId);
+      case FLOAT:
+        return dataTable.getFloat(rowId, colId);
+      case DOUBLE:
+        return dataTable.getDouble(rowId, colId);
+      case BIG_DECIMAL:
+        return dataTable.getBigDecimal(rowId, colId);
+      case STRING:
+        return dataTable.getString(rowId, colId);
+      case BYTES:
+        return dataTable.getBytes(rowId, colId);
+      case INT_ARRAY:
+        return IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
+      case LONG_ARRAY:
+        return LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
+      case FLOAT_ARRAY:
+        return FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
+      case DOUBLE_ARRAY:
+        return DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
+      case STRING_ARRAY:
+        return ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
+      case OBJECT:
+        // TODO: Move ser/de into AggregationFunction interface
+        CustomObject customObject = dataTable.getCustomObject(rowId, colId);
+        return customObject != null ? ObjectSerDeUtils.deserialize(customObject) : null;
+      // Add other aggregation intermediate result / group-by column type supports here
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * Upserts the records from the columnar {@link DataTableImplV5}. The fixed width columns are read in bulk column by
+   * column instead of value by value, and each record is built from the column arrays right before it is upserted so
+   * that only one row is boxed at a time.
+   */
+  private void upsertColumnarDataTable(IndexedTable indexedTable, DataTableImplV5 dataTable,
+      ColumnDataType[] storedColumnDataTypes, @Nullable RoaringBitmap[] nullBitmaps) {
+    int numRows = dataTable.getNumberOfRows();
+    // Column arrays for the bulk read columns, null for the columns read value by value
+    Object[] columns = new Object[_numColumns];
+    for (int colId = 0; colId < _numColumns; colId++) {
+      switch (storedColumnDataTypes[colId]) {
+        case INT:
+          columns[colId] = dataTable.getIntColumn(colId);
+          break;
+        case LONG:
+          columns[colId] = dataTable.getLongColumn(colId);
+          break;
+        case FLOAT:
+          columns[colId] = dataTable.getFloatColumn(colId);
+          break;
+        case DOUBLE:
+          columns[colId] = dataTable.getDoubleColumn(colId);
+          break;
+        case STRING:
+          columns[colId] = dataTable.getStringColumn(colId);
+          break;
+        default:
+          break;
+      }
+    }
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      // Terminate when thread is interrupted.
+      // This is expected when the query already fails in the main thread.
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
+      Object[] values = new Object[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        if (nullBitmaps != null && nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
+          continue;
+        }
+        Object column = columns[colId];
+        ColumnDataType storedColumnDataType = storedColumnDataTypes[colId];
+        switch (storedColumnDataType) {
+          case INT:
+            values[colId] = ((int[]) column)[rowId];
+            break;
+          case LONG:
+            values[colId] = ((long[]) column)[rowId];
+            break;
+          case FLOAT:
+            values[colId] = ((float[]) column)[rowId];
+            break;
+          case DOUBLE:
+            values[colId] = ((double[]) column)[rowId];
+            break;
+          case STRING:
+            values[colId] = ((String[]) column)[rowId];
+            break;
+          default:
+            values[colId] = getValue(dataTable, rowId, colId, storedColumnDataType);
+            break;
+        }
+      }
+      indexedTable.upsert(new Record(values));
+    }
+  }
+
   /**
    * Computes the number of reduce threads to use per query.
    * <ul>
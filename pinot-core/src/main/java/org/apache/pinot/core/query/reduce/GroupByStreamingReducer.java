@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.IndexedTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+
+
+/**
+ * Streaming reducer for GROUP BY queries. The data tables are merged into a single-threaded {@link IndexedTable} one at
+ * a time as they arrive, and the indexed table is trimmed during the upsert whenever it grows beyond the trim
+ * threshold, so that the reduce cost overlaps with waiting for the other servers.
+ */
+public class GroupByStreamingReducer implements StreamingReducer {
+  private final QueryContext _queryContext;
+  private final GroupByDataTableReducer _dataTableReducer;
+  private final String _rawTableName;
+  private final BrokerMetrics _brokerMetrics;
+
+  private DataTableReducerContext _reducerContext;
+  private DataSchema _dataSchema;
+  private ColumnDataType[] _storedColumnDataTypes;
+  private IndexedTable _indexedTable;
+
+  public GroupByStreamingReducer(QueryContext queryContext, String rawTableName,
+      @Nullable BrokerMetrics brokerMetrics) {
+    _queryContext = queryContext;
+    _dataTableReducer = new GroupByDataTableReducer(queryContext);
+    _rawTableName = rawTableName;
+    _brokerMetrics = brokerMetrics;
+  }
+
+  @Override
+  public void init(DataTableReducerContext dataTableReducerContext) {
+    _reducerContext = dataTableReducerContext;
+  }
+
+  @Override
+  public synchronized void reduce(ServerRoutingInstance key, DataTable dataTable) {
+    if (_indexedTable == null) {
+      _dataSchema = ReducerDataSchemaUtils.canonicalizeDataSchemaForGroupBy(_queryContext, dataTable.getDataSchema());
+      _storedColumnDataTypes = _dataSchema.getStoredColumnDataTypes();
+      _indexedTable = _dataTableReducer.createIndexedTable(_dataSchema, 1, _reducerContext);
+    }
+    _dataTableReducer.upsertDataTable(_indexedTable, dataTable, _storedColumnDataTypes);
+  }
+
+  @Override
+  public synchronized BrokerResponseNative seal() {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    if (_indexedTable == null) {
+      return brokerResponse;
+    }
+    // NOTE: This step will modify the data schema and also return final aggregate results.
+    _indexedTable.finish(true, true);
+    _dataTableReducer.setResultTable(brokerResponse, _dataSchema, _indexedTable, _rawTableName, _brokerMetrics);
+    if (_brokerMetrics != null && brokerResponse.getResultTable() != null) {
+      _brokerMetrics.addMeteredTableValue(_rawTableName, BrokerMeter.GROUP_BY_SIZE,
+          brokerResponse.getResultTable().getRows().size());
+    }
+    return brokerResponse;
+  }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.core.query.reduce;
 
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 
@@ -50,6 +52,26 @@ public final class ResultReducerFactory {
     return new DistinctDataTableReducer(queryContext);
   }
 
+  /**
+   * Constructs the streaming reducer to reduce the data tables incrementally as they arrive from the servers, or
+   * returns {@code null} if the query cannot be reduced incrementally. Only GROUP BY queries and selection ORDER BY
+   * queries are supported.
+   */
+  @Nullable
+  public static StreamingReducer getIncrementalReducer(QueryContext queryContext, String rawTableName,
+      @Nullable BrokerMetrics brokerMetrics) {
+    if (queryContext.isExplain()) {
+      return null;
+    }
+    if (QueryContextUtils.isSelectionQuery(queryContext)) {
+      return queryContext.getOrderByExpressions() != null ? new SelectionOrderByStreamingReducer(queryContext) : null;
+    }
+    if (QueryContextUtils.isAggregationQuery(queryContext) && queryContext.getGroupByExpressions() != null) {
+      return new GroupByStreamingReducer(queryContext, rawTableName, brokerMetrics);
+    }
+    return null;
+  }
+
   public static StreamingReducer getStreamingReducer(QueryContext queryContext) {
     if (!QueryContextUtils.isSelectionQuery(queryContext) || queryContext.getOrderByExpressions() != null) {
       throw new UnsupportedOperationException("Only selection queries are supported");
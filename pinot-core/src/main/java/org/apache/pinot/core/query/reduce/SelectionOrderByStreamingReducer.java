@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.selection.SelectionOperatorService;
+import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+
+
+/**
+ * Streaming reducer for selection queries with ORDER BY. The rows of each data table are added into the bounded
+ * priority queue (offset + limit rows) as the data table arrives.
+ */
+public class SelectionOrderByStreamingReducer implements StreamingReducer {
+  private final QueryContext _queryContext;
+
+  private SelectionOperatorService _selectionService;
+
+  public SelectionOrderByStreamingReducer(QueryContext queryContext) {
+    _queryContext = queryContext;
+  }
+
+  @Override
+  public void init(DataTableReducerContext dataTableReducerContext) {
+  }
+
+  @Override
+  public synchronized void reduce(ServerRoutingInstance key, DataTable dataTable) {
+    if (_selectionService == null) {
+      Pair<DataSchema, int[]> pair =
+          SelectionOperatorUtils.getResultTableDataSchemaAndColumnIndices(_queryContext, dataTable.getDataSchema());
+      _selectionService = new SelectionOperatorService(_queryContext, pair.getLeft(), pair.getRight());
+    }
+    _selectionService.reduceWithOrdering(dataTable);
+  }
+
+  @Override
+  public synchronized BrokerResponseNative seal() {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    if (_selectionService != null) {
+      brokerResponse.setResultTable(_selectionService.renderResultTableWithOrdering());
+    }
+    return brokerResponse;
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.exception.EarlyTerminationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code StreamingBrokerReducer} reduces the data tables into the {@link BrokerResponseNative} incrementally as
+ * they arrive from the servers, instead of waiting for all the servers to respond before reducing. The reduce cost
+ * overlaps with waiting for the slower servers, and the intermediate results are trimmed as they are merged.
+ *
+ * <p>The per data table handling (execution stats, data schema conflict) is the same as
+ * {@link BrokerReduceService#reduceOnDataTable}. Use {@link BrokerReduceService#getStreamingBrokerReducer} to create
+ * it for the supported queries.
+ *
+ * <p>The reduce timeout starts when the reducer is created. Once it is exceeded, the following data tables only
+ * contribute to the metadata, and the broker response carries the broker timeout error instead of the results.
+ */
+@NotThreadSafe
+public class StreamingBrokerReducer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamingBrokerReducer.class);
+
+  private final QueryContext _queryContext;
+  private final String _tableName;
+  private final String _rawTableName;
+  private final StreamingReducer _streamingReducer;
+  private final DataTableReducerContext _reducerContext;
+  private final BrokerMetrics _brokerMetrics;
+  private final ExecutionStatsAggregator _aggregator;
+  private final long _reduceEndTimeMs;
+  private final List<ServerRoutingInstance> _serversWithConflictingDataSchema = new ArrayList<>();
+
+  private DataSchema _dataSchemaFromEmptyDataTable;
+  private DataSchema _dataSchemaFromNonEmptyDataTable;
+  private EarlyTerminationException _earlyTerminationException;
+  private boolean _timedOut;
+
+  StreamingBrokerReducer(QueryContext queryContext, String tableName, String rawTableName,
+      StreamingReducer streamingReducer, DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics,
+      boolean enableTrace) {
+    _queryContext = queryContext;
+    _tableName = tableName;
+    _rawTableName = rawTableName;
+    _streamingReducer = streamingReducer;
+    _reducerContext = reducerContext;
+    _brokerMetrics = brokerMetrics;
+    _aggregator = new ExecutionStatsAggregator(enableTrace);
+    _reduceEndTimeMs = System.currentTimeMillis() + reducerContext.getReduceTimeOutMs();
+    _streamingReducer.init(reducerContext);
+  }
+
+  /**
+   * Reduces the data table from the given server. Data tables without data rows only contribute to the metadata, and
+   * data tables with data schema conflicting with the first non-empty data table are dropped.
+   */
+  public void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    _aggregator.aggregate(serverRoutingInstance, dataTable);
+
+    DataSchema dataSchema = dataTable.getDataSchema();
+    if (dataSchema == null) {
+      return;
+    }
+    if (dataTable.getNumberOfRows() == 0) {
+      if (_dataSchemaFromEmptyDataTable == null) {
+        _dataSchemaFromEmptyDataTable = dataSchema;
+      }
+      return;
+    }
+    if (_dataSchemaFromNonEmptyDataTable == null) {
+      _dataSchemaFromNonEmptyDataTable = dataSchema;
+    } else if (!Arrays.equals(dataSchema.getColumnDataTypes(),
+        _dataSchemaFromNonEmptyDataTable.getColumnDataTypes())) {
+      // NOTE: Only compare the column data types, since the column names (string representation of expression) can
+      //       change across different versions.
+      _serversWithConflictingDataSchema.add(serverRoutingInstance);
+      return;
+    }
+    if (_earlyTerminationException == null && !isTimedOut()) {
+      try {
+        _streamingReducer.reduce(serverRoutingInstance, dataTable);
+      } catch (EarlyTerminationException e) {
+        // Stop reducing the following data tables, but keep aggregating the metadata
+        _earlyTerminationException = e;
+      }
+    }
+  }
+
+  /**
+   * Returns whether the reduce timeout is exceeded. The caller should stop waiting for more data tables once it
+   * returns {@code true}.
+   */
+  public boolean isTimedOut() {
+    if (!_timedOut && System.currentTimeMillis() >= _reduceEndTimeMs) {
+      _timedOut = true;
+    }
+    return _timedOut;
+  }
+
+  /**
+   * Finishes the reduce and returns the broker response. Should be called once after all the data tables are reduced.
+   */
+  public BrokerResponseNative seal() {
+    BrokerResponseNative brokerResponse;
+    if (isTimedOut()) {
+      brokerResponse = new BrokerResponseNative();
+      brokerResponse.addException(
+          new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, "Timed out in broker reduce phase"));
+    } else if (_dataSchemaFromNonEmptyDataTable != null) {
+      if (_earlyTerminationException == null) {
+        try {
+          brokerResponse = _streamingReducer.seal();
+        } catch (EarlyTerminationException e) {
+          _earlyTerminationException = e;
+          brokerResponse = new BrokerResponseNative();
+        }
+      } else {
+        brokerResponse = new BrokerResponseNative();
+      }
+      if (_earlyTerminationException != null) {
+        brokerResponse.addException(new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE,
+            _earlyTerminationException.toString()));
+      }
+    } else {
+      brokerResponse = new BrokerResponseNative();
+      // NOTE: When there is no data schema, that means all servers encountered exception. In such case, return the
+      //       response with metadata only.
+      if (_dataSchemaFromEmptyDataTable != null) {
+        ResultReducerFactory.getResultReducer(_queryContext)
+            .reduceAndSetResults(_rawTableName, _dataSchemaFromEmptyDataTable, Collections.emptyMap(),
+                brokerResponse, _reducerContext, _brokerMetrics);
+      }
+    }
+
+    // Set execution statistics and Update broker metrics.
+    _aggregator.setStats(_rawTableName, brokerResponse, _brokerMetrics);
+
+    // Report the servers with conflicting data schema.
+    if (!_serversWithConflictingDataSchema.isEmpty()) {
+      String errorMessage =
+          String.format("%s: responses for table: %s from servers: %s got dropped due to data schema inconsistency.",
+              QueryException.MERGE_RESPONSE_ERROR.getMessage(), _tableName, _serversWithConflictingDataSchema);
+      LOGGER.warn(errorMessage);
+      _brokerMetrics.addMeteredTableValue(_rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1);
+      brokerResponse.addException(
+          new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
+    }
+
+    BaseReduceService.updateAlias(_queryContext, brokerResponse);
+    return brokerResponse;
+  }
+}
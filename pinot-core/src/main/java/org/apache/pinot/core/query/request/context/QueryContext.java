@@ -108,6 +108,8 @@ public class QueryContext {
   private boolean _skipStarTree;
   // Whether to skip reordering scan filters for the query
   private boolean _skipScanFilterReorder;
+  // Whether to reorder the AND filter children based on the selectivity estimated on each segment
+  private boolean _adaptiveFilterReordering;
   // Maximum number of threads used to execute the query
   private int _maxExecutionThreads = InstancePlanMakerImplV2.DEFAULT_MAX_EXECUTION_THREADS;
   // The following properties apply to group-by queries
@@ -344,6 +346,14 @@ public class QueryContext {
     _skipScanFilterReorder = skipScanFilterReorder;
   }
 
+  public boolean isAdaptiveFilterReordering() {
+    return _adaptiveFilterReordering;
+  }
+
+  public void setAdaptiveFilterReordering(boolean adaptiveFilterReordering) {
+    _adaptiveFilterReordering = adaptiveFilterReordering;
+  }
+
   public int getMaxExecutionThreads() {
     return _maxExecutionThreads;
   }
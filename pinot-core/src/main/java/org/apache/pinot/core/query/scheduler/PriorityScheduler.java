@@ -26,6 +26,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.LongAccumulator;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.metrics.ServerQueryPhase;
@@ -62,7 +63,7 @@ public abstract class PriorityScheduler extends QueryScheduler {
   }
 
   @Override
-  public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
+  public ListenableFuture<DataTable> submit(ServerQueryRequest queryRequest) {
     if (!_isRunning) {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
     }
@@ -102,7 +103,7 @@ public abstract class PriorityScheduler extends QueryScheduler {
             ServerQueryRequest queryRequest = request.getQueryRequest();
             final QueryExecutorService executor =
                 _resourceManager.getExecutorService(queryRequest, request.getSchedulerGroup());
-            final ListenableFutureTask<byte[]> queryFutureTask = createQueryFutureTask(queryRequest, executor);
+            final ListenableFutureTask<DataTable> queryFutureTask = createQueryFutureTask(queryRequest, executor);
             queryFutureTask.addListener(new Runnable() {
               @Override
               public void run() {
@@ -27,13 +27,13 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.LongAccumulator;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.datatable.DataTable.MetadataKey;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.metrics.ServerQueryPhase;
 import org.apache.pinot.common.response.ProcessingException;
-import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
 import org.apache.pinot.core.operator.blocks.results.ExceptionResultsBlock;
 import org.apache.pinot.core.query.executor.QueryExecutor;
@@ -87,10 +87,11 @@ public abstract class QueryScheduler {
   /**
    * Submit a query for execution. The query will be scheduled for execution as per the scheduling algorithm
    * @param queryRequest query to schedule for execution
-   * @return Listenable future for query result representing serialized response. It is possible that the
-   *    future may return immediately or be scheduled for execution at a later time.
+   * @return Listenable future for query result representing the response data table. The data table is serialized by
+   *    the caller (e.g. directly into the Netty channel buffer). It is possible that the future may return immediately
+   *    or be scheduled for execution at a later time.
    */
-  public abstract ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest);
+  public abstract ListenableFuture<DataTable> submit(ServerQueryRequest queryRequest);
 
   /**
    * Query scheduler name for logging
@@ -119,19 +120,19 @@ public abstract class QueryScheduler {
    * @return Future task that can be scheduled for execution on an ExecutorService. Ideally, this future
    * should be executed on a different executor service than {@code e} to avoid deadlock.
    */
-  protected ListenableFutureTask<byte[]> createQueryFutureTask(ServerQueryRequest queryRequest,
+  protected ListenableFutureTask<DataTable> createQueryFutureTask(ServerQueryRequest queryRequest,
       ExecutorService executorService) {
-    return ListenableFutureTask.create(() -> processQueryAndSerialize(queryRequest, executorService));
+    return ListenableFutureTask.create(() -> processQuery(queryRequest, executorService));
   }
 
   /**
-   * Process query and serialize response
+   * Process query and build the response data table
    * @param queryRequest incoming query request
    * @param executorService Executor service to use for parallelizing query processing
-   * @return serialized query response
+   * @return query response data table
    */
   @Nullable
-  protected byte[] processQueryAndSerialize(ServerQueryRequest queryRequest, ExecutorService executorService) {
+  protected DataTable processQuery(ServerQueryRequest queryRequest, ExecutorService executorService) {
 
     //Start instrumentation context. This must not be moved further below interspersed into the code.
     Tracing.ThreadAccountantOps.setupRunner(queryRequest.getQueryId());
@@ -153,31 +154,14 @@ public abstract class QueryScheduler {
       long requestId = queryRequest.getRequestId();
       Map<String, String> responseMetadata = instanceResponse.getResponseMetadata();
       responseMetadata.put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
-      byte[] responseBytes = serializeResponse(queryRequest, instanceResponse);
+      DataTable responseDataTable = buildResponse(queryRequest, instanceResponse);
 
       // Log the statistics
       if (_queryLogger != null) {
         _queryLogger.logQuery(queryRequest, instanceResponse, name());
       }
 
-      // TODO: Perform this check sooner during the serialization of DataTable.
-      Map<String, String> queryOptions = queryRequest.getQueryContext().getQueryOptions();
-      Long maxResponseSizeBytes = QueryOptionsUtils.getMaxServerResponseSizeBytes(queryOptions);
-      if (maxResponseSizeBytes != null && responseBytes != null && responseBytes.length > maxResponseSizeBytes) {
-        String errMsg =
-            String.format("Serialized query response size %d exceeds threshold %d for requestId %d from broker %s",
-                responseBytes.length, maxResponseSizeBytes, queryRequest.getRequestId(), queryRequest.getBrokerId());
-        LOGGER.error(errMsg);
-        _serverMetrics.addMeteredTableValue(queryRequest.getTableNameWithType(),
-            ServerMeter.LARGE_QUERY_RESPONSE_SIZE_EXCEPTIONS, 1);
-
-        instanceResponse = new InstanceResponseBlock();
-        instanceResponse.addException(QueryException.getException(QueryException.QUERY_CANCELLATION_ERROR, errMsg));
-        instanceResponse.addMetadata(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
-        responseBytes = serializeResponse(queryRequest, instanceResponse);
-      }
-
-      return responseBytes;
+      return responseDataTable;
     } finally {
       Tracing.ThreadAccountantOps.clear();
     }
@@ -205,20 +189,21 @@ public abstract class QueryScheduler {
   }
 
   /**
-   * Serialize the instance response for query request
-   * @param queryRequest Server query request for which response is serialized
-   * @param instanceResponse instance response to serialize
-   * @return serialized response bytes
+   * Build the response data table from the instance response for query request. The data table is serialized when it
+   * is sent back to the broker.
+   * @param queryRequest Server query request for which response is built
+   * @param instanceResponse instance response to convert
+   * @return response data table
    */
   @Nullable
-  private byte[] serializeResponse(ServerQueryRequest queryRequest, InstanceResponseBlock instanceResponse) {
+  private DataTable buildResponse(ServerQueryRequest queryRequest, InstanceResponseBlock instanceResponse) {
     TimerContext timerContext = queryRequest.getTimerContext();
     TimerContext.Timer responseSerializationTimer =
         timerContext.startNewPhaseTimer(ServerQueryPhase.RESPONSE_SERIALIZATION);
 
-    byte[] responseByte = null;
+    DataTable responseDataTable = null;
     try {
-      responseByte = instanceResponse.toDataTable().toBytes();
+      responseDataTable = instanceResponse.toDataTable();
     } catch (EarlyTerminationException e) {
       Exception killedErrorMsg = Tracing.getThreadAccountant().getErrorStatus();
       String errMsg =
@@ -226,10 +211,10 @@ public abstract class QueryScheduler {
       LOGGER.error(errMsg);
       instanceResponse = new InstanceResponseBlock(new ExceptionResultsBlock(new QueryCancelledException(errMsg, e)));
       instanceResponse.addMetadata(MetadataKey.REQUEST_ID.getName(), Long.toString(queryRequest.getRequestId()));
-      return serializeResponse(queryRequest, instanceResponse);
+      return buildResponse(queryRequest, instanceResponse);
     } catch (Exception e) {
       _serverMetrics.addMeteredGlobalValue(ServerMeter.RESPONSE_SERIALIZATION_EXCEPTIONS, 1);
-      LOGGER.error("Caught exception while serializing response for requestId: {}, brokerId: {}",
+      LOGGER.error("Caught exception while building response for requestId: {}, brokerId: {}",
           queryRequest.getRequestId(), queryRequest.getBrokerId(), e);
     }
 
@@ -237,18 +222,18 @@ public abstract class QueryScheduler {
     timerContext.startNewPhaseTimer(ServerQueryPhase.TOTAL_QUERY_TIME, timerContext.getQueryArrivalTimeMs())
         .stopAndRecord();
 
-    return responseByte;
+    return responseDataTable;
   }
 
   /**
    * Error response future in case of internal error where query response is not available. This can happen if the
    * query can not be executed.
    */
-  protected ListenableFuture<byte[]> immediateErrorResponse(ServerQueryRequest queryRequest,
+  protected ListenableFuture<DataTable> immediateErrorResponse(ServerQueryRequest queryRequest,
       ProcessingException error) {
     InstanceResponseBlock instanceResponse = new InstanceResponseBlock();
     instanceResponse.addMetadata(MetadataKey.REQUEST_ID.getName(), Long.toString(queryRequest.getRequestId()));
     instanceResponse.addException(error);
-    return Futures.immediateFuture(serializeResponse(queryRequest, instanceResponse));
+    return Futures.immediateFuture(buildResponse(queryRequest, instanceResponse));
   }
 }
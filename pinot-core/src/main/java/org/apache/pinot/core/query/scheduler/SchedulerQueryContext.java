@@ -22,6 +22,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
 
 
@@ -31,7 +32,7 @@ import org.apache.pinot.core.query.request.ServerQueryRequest;
 public class SchedulerQueryContext {
 
   private final ServerQueryRequest _queryRequest;
-  private final SettableFuture<byte[]> _resultFuture;
+  private final SettableFuture<DataTable> _resultFuture;
   private SchedulerGroup _schedulerGroup;
 
   public SchedulerQueryContext(ServerQueryRequest queryRequest) {
@@ -44,11 +45,11 @@ public class SchedulerQueryContext {
     return _queryRequest;
   }
 
-  public SettableFuture<byte[]> getResultFuture() {
+  public SettableFuture<DataTable> getResultFuture() {
     return _resultFuture;
   }
 
-  public void setResultFuture(ListenableFuture<byte[]> f) {
+  public void setResultFuture(ListenableFuture<DataTable> f) {
     _resultFuture.setFuture(f);
   }
 
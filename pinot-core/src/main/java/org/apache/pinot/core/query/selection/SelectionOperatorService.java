@@ -83,28 +83,36 @@ public class SelectionOperatorService {
    */
   public void reduceWithOrdering(Collection<DataTable> dataTables) {
     for (DataTable dataTable : dataTables) {
-      int numRows = dataTable.getNumberOfRows();
-      if (_queryContext.isNullHandlingEnabled()) {
-        RoaringBitmap[] nullBitmaps = new RoaringBitmap[dataTable.getDataSchema().size()];
+      reduceWithOrdering(dataTable);
+    }
+  }
+
+  /**
+   * Reduces a single {@link DataTable} into the bounded selection rows for selection queries with
+   * <code>ORDER BY</code>. Can be called as the data tables arrive to reduce them incrementally.
+   */
+  public void reduceWithOrdering(DataTable dataTable) {
+    int numRows = dataTable.getNumberOfRows();
+    if (_queryContext.isNullHandlingEnabled()) {
+      RoaringBitmap[] nullBitmaps = new RoaringBitmap[dataTable.getDataSchema().size()];
+      for (int colId = 0; colId < nullBitmaps.length; colId++) {
+        nullBitmaps[colId] = dataTable.getNullRowIds(colId);
+      }
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
         for (int colId = 0; colId < nullBitmaps.length; colId++) {
-          nullBitmaps[colId] = dataTable.getNullRowIds(colId);
-        }
-        for (int rowId = 0; rowId < numRows; rowId++) {
-          Object[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
-          for (int colId = 0; colId < nullBitmaps.length; colId++) {
-            if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
-              row[colId] = null;
-            }
+          if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
+            row[colId] = null;
           }
-          SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
-          Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
-        }
-      } else {
-        for (int rowId = 0; rowId < numRows; rowId++) {
-          Object[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
-          SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
-          Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
         }
+        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+        Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
+      }
+    } else {
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object[] row = SelectionOperatorUtils.extractRowFromDataTable(dataTable, rowId);
+        SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+        Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
       }
     }
   }
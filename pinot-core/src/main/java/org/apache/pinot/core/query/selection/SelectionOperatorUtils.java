@@ -33,6 +33,7 @@ import java.util.PriorityQueue;
 import java.util.Set;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableImplV5;
 import org.apache.pinot.common.request.context.ExpressionContext;
 import org.apache.pinot.common.request.context.OrderByExpressionContext;
 import org.apache.pinot.common.response.broker.ResultTable;
@@ -45,6 +46,7 @@ import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.spi.trace.Tracing;
 import org.apache.pinot.spi.utils.ByteArray;
+import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
 
 
@@ -539,6 +541,113 @@ public class SelectionOperatorUtils {
     return row;
   }
 
+  /**
+   * Extracts the first {@code numRows} selection rows from the columnar {@link DataTableImplV5}. The fixed width
+   * columns are read in bulk column by column instead of value by value. (Broker side)
+   */
+  public static Object[][] extractRowsFromColumnarDataTable(DataTableImplV5 dataTable, int numRows,
+      boolean nullHandlingEnabled) {
+    DataSchema dataSchema = dataTable.getDataSchema();
+    ColumnDataType[] storedColumnDataTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedColumnDataTypes.length;
+    Object[][] rows = new Object[numRows][numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      switch (storedColumnDataTypes[colId]) {
+        case INT: {
+          int[] values = dataTable.getIntColumn(colId);
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = values[rowId];
+          }
+          break;
+        }
+        case LONG: {
+          long[] values = dataTable.getLongColumn(colId);
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = values[rowId];
+          }
+          break;
+        }
+        case FLOAT: {
+          float[] values = dataTable.getFloatColumn(colId);
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = values[rowId];
+          }
+          break;
+        }
+        case DOUBLE: {
+          double[] values = dataTable.getDoubleColumn(colId);
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = values[rowId];
+          }
+          break;
+        }
+        case STRING: {
+          String[] values = dataTable.getStringColumn(colId);
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = values[rowId];
+          }
+          break;
+        }
+        case BIG_DECIMAL:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getBigDecimal(rowId, colId);
+          }
+          break;
+        case BYTES:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getBytes(rowId, colId);
+          }
+          break;
+        case UNKNOWN:
+          break;
+        case INT_ARRAY:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getIntArray(rowId, colId);
+          }
+          break;
+        case LONG_ARRAY:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getLongArray(rowId, colId);
+          }
+          break;
+        case FLOAT_ARRAY:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getFloatArray(rowId, colId);
+          }
+          break;
+        case DOUBLE_ARRAY:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getDoubleArray(rowId, colId);
+          }
+          break;
+        case STRING_ARRAY:
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId][colId] = dataTable.getStringArray(rowId, colId);
+          }
+          break;
+        default:
+          throw new IllegalStateException(
+              String.format("Unsupported data type: %s for column: %s", storedColumnDataTypes[colId],
+                  dataSchema.getColumnName(colId)));
+      }
+      if (nullHandlingEnabled) {
+        RoaringBitmap nullBitmap = dataTable.getNullRowIds(colId);
+        if (nullBitmap != null) {
+          PeekableIntIterator iterator = nullBitmap.getIntIterator();
+          while (iterator.hasNext()) {
+            int rowId = iterator.next();
+            if (rowId >= numRows) {
+              break;
+            }
+            rows[rowId][colId] = null;
+          }
+        }
+      }
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(colId);
+    }
+    return rows;
+  }
+
   /**
    * Reduces a collection of {@link DataTable}s to selection rows for selection queries without <code>ORDER BY</code>.
    * (Broker side)
@@ -547,8 +656,17 @@ public class SelectionOperatorUtils {
       boolean nullHandlingEnabled) {
     List<Object[]> rows = new ArrayList<>(Math.min(limit, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY));
     for (DataTable dataTable : dataTables) {
+      if (rows.size() >= limit) {
+        break;
+      }
       int numColumns = dataTable.getDataSchema().size();
       int numRows = dataTable.getNumberOfRows();
+      if (dataTable instanceof DataTableImplV5) {
+        int numRowsToExtract = Math.min(numRows, limit - rows.size());
+        Collections.addAll(rows,
+            extractRowsFromColumnarDataTable((DataTableImplV5) dataTable, numRowsToExtract, nullHandlingEnabled));
+        continue;
+      }
       if (nullHandlingEnabled) {
         RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
         for (int coldId = 0; coldId < numColumns; coldId++) {
@@ -18,10 +18,13 @@
  */
 package org.apache.pinot.core.transport;
 
+import io.netty.util.ReferenceCounted;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -43,6 +46,8 @@ public class AsyncQueryResponse implements QueryResponse {
   private final AtomicInteger _numServersResponded = new AtomicInteger();
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
+  // Servers that responded (or failed) in the order of arrival, used to process the responses as they arrive
+  private final BlockingQueue<ServerRoutingInstance> _arrivedServers = new LinkedBlockingQueue<>();
   private final long _maxEndTimeMs;
   private final long _timeoutMs;
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
@@ -104,6 +109,47 @@ public class AsyncQueryResponse implements QueryResponse {
     }
   }
 
+  /**
+   * Waits for the next server that responded (or failed) since the last call, and returns it, or returns {@code null}
+   * when all the arrived servers have been returned and no more server is expected (all the servers responded or the
+   * query failed), or the query timed out. This allows the caller to process the server responses as they arrive.
+   * <p>NOTE: The returned server might not have a data table when the query failed on it. {@link #getFinalResponses()}
+   *          should still be called afterwards to finish the query.
+   */
+  @Nullable
+  public ServerRoutingInstance pollNextArrivedServer()
+      throws InterruptedException {
+    while (true) {
+      ServerRoutingInstance serverRoutingInstance = _arrivedServers.poll();
+      if (serverRoutingInstance != null) {
+        return serverRoutingInstance;
+      }
+      if (_countDownLatch.getCount() == 0) {
+        // NOTE: Server is added to the queue before counting down the latch, so poll again to not miss the last one
+        return _arrivedServers.poll();
+      }
+      long remainingTimeMs = _maxEndTimeMs - System.currentTimeMillis();
+      if (remainingTimeMs <= 0) {
+        return null;
+      }
+      serverRoutingInstance = _arrivedServers.poll(remainingTimeMs, TimeUnit.MILLISECONDS);
+      if (serverRoutingInstance != null) {
+        return serverRoutingInstance;
+      }
+    }
+  }
+
+  /**
+   * Releases the buffers backing the received data tables, which are deserialized in place from the buffers. This
+   * should be called after the query is reduced, and the data tables should not be accessed afterwards. Data tables
+   * arriving after this method is called are released immediately.
+   */
+  public void releaseDataTables() {
+    for (ServerResponse serverResponse : _responseMap.values()) {
+      serverResponse.releaseDataTable();
+    }
+  }
+
   @Override
   public String getServerStats() {
     StringBuilder stringBuilder = new StringBuilder(
@@ -148,10 +194,11 @@ public class AsyncQueryResponse implements QueryResponse {
     _responseMap.get(serverRoutingInstance).markRequestSent(requestSentLatencyMs);
   }
 
-  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
-      int deserializationTimeMs) {
+  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable,
+      @Nullable ReferenceCounted dataTableBuffer, int responseSize, int deserializationTimeMs) {
     ServerResponse response = _responseMap.get(serverRoutingInstance);
-    response.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+    response.receiveDataTable(dataTable, dataTableBuffer, responseSize, deserializationTimeMs);
+    _arrivedServers.offer(serverRoutingInstance);
 
     _numServersResponded.getAndIncrement();
     _countDownLatch.countDown();
@@ -161,6 +208,7 @@ public class AsyncQueryResponse implements QueryResponse {
     _status.set(Status.FAILED);
     _failedServer = serverRoutingInstance;
     _exception = exception;
+    _arrivedServers.offer(serverRoutingInstance);
     int count = (int) _countDownLatch.getCount();
     for (int i = 0; i < count; i++) {
       _countDownLatch.countDown();
@@ -67,8 +67,10 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
     _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_RECEIVED, responseSize);
     try {
       long deserializationStartTimeMs = System.currentTimeMillis();
+      // NOTE: The data table is deserialized in place from the message, which is retained by the query router until
+      //       the query is reduced.
       DataTable dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
-      _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
+      _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, msg, responseSize,
           (int) (System.currentTimeMillis() - deserializationStartTimeMs));
       long requestID = Long.parseLong(dataTable.getMetadata().get(DataTable.MetadataKey.REQUEST_ID.getName()));
       Tracing.ThreadAccountantOps.updateQueryUsageConcurrently(String.valueOf(requestID));
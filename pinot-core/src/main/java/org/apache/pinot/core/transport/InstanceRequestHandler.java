@@ -25,7 +25,6 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -46,6 +45,7 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.metrics.ServerQueryPhase;
 import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
@@ -78,7 +78,7 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
   private final QueryScheduler _queryScheduler;
   private final ServerMetrics _serverMetrics;
   private final AccessControl _accessControl;
-  private final Map<String, Future<byte[]>> _queryFuturesById;
+  private final Map<String, Future<DataTable>> _queryFuturesById;
 
   public InstanceRequestHandler(String instanceName, PinotConfiguration config, QueryScheduler queryScheduler,
       ServerMetrics serverMetrics, AccessControl accessControl) {
@@ -167,7 +167,7 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
   @VisibleForTesting
   void submitQuery(ServerQueryRequest queryRequest, ChannelHandlerContext ctx, String tableNameWithType,
       long queryArrivalTimeMs, InstanceRequest instanceRequest) {
-    ListenableFuture<byte[]> future = _queryScheduler.submit(queryRequest);
+    ListenableFuture<DataTable> future = _queryScheduler.submit(queryRequest);
     if (_queryFuturesById != null) {
       String queryId = queryRequest.getQueryId();
       // Track the running query for cancellation.
@@ -181,11 +181,11 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
         MoreExecutors.directExecutor());
   }
 
-  private FutureCallback<byte[]> createCallback(ChannelHandlerContext ctx, String tableNameWithType,
+  private FutureCallback<DataTable> createCallback(ChannelHandlerContext ctx, String tableNameWithType,
       long queryArrivalTimeMs, InstanceRequest instanceRequest, ServerQueryRequest queryRequest) {
-    return new FutureCallback<byte[]>() {
+    return new FutureCallback<DataTable>() {
       @Override
-      public void onSuccess(@Nullable byte[] responseBytes) {
+      public void onSuccess(@Nullable DataTable responseDataTable) {
         if (_queryFuturesById != null) {
           String queryId = queryRequest.getQueryId();
           if (LOGGER.isDebugEnabled()) {
@@ -193,9 +193,10 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
           }
           _queryFuturesById.remove(queryId);
         }
-        if (responseBytes != null) {
-          // responseBytes contains either query results or exception.
-          sendResponse(ctx, queryRequest.getTableNameWithType(), queryArrivalTimeMs, responseBytes);
+        if (responseDataTable != null) {
+          // responseDataTable contains either query results or exception.
+          sendQueryResponse(ctx, queryRequest, queryRequest.getTableNameWithType(), queryArrivalTimeMs,
+              responseDataTable);
         } else {
           // Send exception response.
           sendErrorResponse(ctx, queryRequest.getRequestId(), tableNameWithType, queryArrivalTimeMs,
@@ -251,7 +252,7 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
   public boolean cancelQuery(String queryId) {
     Preconditions.checkState(_queryFuturesById != null, "Query cancellation is not enabled on server");
     // Keep the future as it'll be cleaned up by the thread executing the query.
-    Future<byte[]> future = _queryFuturesById.get(queryId);
+    Future<DataTable> future = _queryFuturesById.get(queryId);
     if (future == null) {
       return false;
     }
@@ -289,8 +290,8 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
         dataTable.addException(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR,
             "Query execution error on: " + _instanceName + " " + e));
       }
-      byte[] serializedDataTable = dataTable.toBytes();
-      sendResponse(ctx, tableNameWithType, queryArrivalTimeMs, serializedDataTable);
+      // Serialize directly into a pooled direct buffer which can be written to the channel without extra copy
+      sendResponse(ctx, tableNameWithType, queryArrivalTimeMs, dataTable.toByteBuf(ctx.alloc()));
     } catch (Exception exception) {
       LOGGER.error("Exception while sending query processing error to Broker.", exception);
     } finally {
@@ -303,17 +304,64 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
   }
 
   /**
-   * Send a response (either query results or exception) back to broker as response to the query request.
+   * Serialize the query response (either query results or exception) directly into a pooled direct buffer allocated
+   * from the channel, and send it back to broker. If the serialized response exceeds the max server response size of
+   * the query, the buffer is released and an exception is sent back instead.
+   */
+  private void sendQueryResponse(ChannelHandlerContext ctx, ServerQueryRequest queryRequest, String tableNameWithType,
+      long queryArrivalTimeMs, DataTable responseDataTable) {
+    long requestId = queryRequest.getRequestId();
+    ByteBuf serializedDataTable;
+    try {
+      serializedDataTable = responseDataTable.toByteBuf(ctx.alloc());
+    } catch (Exception e) {
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.RESPONSE_SERIALIZATION_EXCEPTIONS, 1);
+      LOGGER.error("Caught exception while serializing response for requestId: {}, brokerId: {}", requestId,
+          queryRequest.getBrokerId(), e);
+      sendErrorResponse(ctx, requestId, tableNameWithType, queryArrivalTimeMs,
+          DataTableBuilderFactory.getEmptyDataTable(), e);
+      return;
+    }
+
+    // TODO: Perform this check sooner during the serialization of DataTable.
+    Long maxResponseSizeBytes =
+        QueryOptionsUtils.getMaxServerResponseSizeBytes(queryRequest.getQueryContext().getQueryOptions());
+    int responseSize = serializedDataTable.readableBytes();
+    if (maxResponseSizeBytes != null && responseSize > maxResponseSizeBytes) {
+      serializedDataTable.release();
+      String errMsg =
+          String.format("Serialized query response size %d exceeds threshold %d for requestId %d from broker %s",
+              responseSize, maxResponseSizeBytes, requestId, queryRequest.getBrokerId());
+      LOGGER.error(errMsg);
+      _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.LARGE_QUERY_RESPONSE_SIZE_EXCEPTIONS, 1);
+      DataTable errorDataTable = DataTableBuilderFactory.getEmptyDataTable();
+      errorDataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
+      errorDataTable.addException(QueryException.getException(QueryException.QUERY_CANCELLATION_ERROR, errMsg));
+      try {
+        serializedDataTable = errorDataTable.toByteBuf(ctx.alloc());
+      } catch (Exception e) {
+        LOGGER.error("Exception while sending query response size error to Broker.", e);
+        return;
+      }
+    }
+
+    sendResponse(ctx, tableNameWithType, queryArrivalTimeMs, serializedDataTable);
+  }
+
+  /**
+   * Send a response (either query results or exception) back to broker as response to the query request. The buffer is
+   * released after being written to the channel.
    */
   private void sendResponse(ChannelHandlerContext ctx, String tableNameWithType, long queryArrivalTimeMs,
-      byte[] serializedDataTable) {
+      ByteBuf serializedDataTable) {
     long sendResponseStartTimeMs = System.currentTimeMillis();
     int queryProcessingTimeMs = (int) (sendResponseStartTimeMs - queryArrivalTimeMs);
-    ctx.writeAndFlush(Unpooled.wrappedBuffer(serializedDataTable)).addListener(f -> {
+    int responseSize = serializedDataTable.readableBytes();
+    ctx.writeAndFlush(serializedDataTable).addListener(f -> {
       long sendResponseEndTimeMs = System.currentTimeMillis();
       int sendResponseLatencyMs = (int) (sendResponseEndTimeMs - sendResponseStartTimeMs);
       _serverMetrics.addMeteredGlobalValue(ServerMeter.NETTY_CONNECTION_RESPONSES_SENT, 1);
-      _serverMetrics.addMeteredGlobalValue(ServerMeter.NETTY_CONNECTION_BYTES_SENT, serializedDataTable.length);
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.NETTY_CONNECTION_BYTES_SENT, responseSize);
       _serverMetrics.addTimedTableValue(tableNameWithType, ServerTimer.NETTY_CONNECTION_SEND_RESPONSE_LATENCY,
           sendResponseLatencyMs, TimeUnit.MILLISECONDS);
 
@@ -322,9 +370,8 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
         LOGGER.info("Slow query: request handler processing time: {}, send response latency: {}, total time to handle "
             + "request: {}", queryProcessingTimeMs, sendResponseLatencyMs, totalQueryTimeMs);
       }
-      if (serializedDataTable.length > LARGE_RESPONSE_SIZE_THRESHOLD_BYTES) {
-        LOGGER.warn("Large query: response size in bytes: {}, table name {}",
-            serializedDataTable.length, tableNameWithType);
+      if (responseSize > LARGE_RESPONSE_SIZE_THRESHOLD_BYTES) {
+        LOGGER.warn("Large query: response size in bytes: {}, table name {}", responseSize, tableNameWithType);
         ServerMetrics.get().addMeteredTableValue(tableNameWithType, ServerMeter.LARGE_QUERY_RESPONSES_SENT, 1);
       }
     });
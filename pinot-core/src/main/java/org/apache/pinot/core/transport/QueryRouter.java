@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.transport;
 
+import io.netty.util.ReferenceCounted;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -177,14 +178,22 @@ public class QueryRouter {
     _serverChannels.shutDown();
   }
 
-  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
-      int deserializationTimeMs) {
+  /**
+   * Receives the data table deserialized (in place) from the given buffer. The buffer is retained until the query is
+   * reduced and the data tables are released (see {@link AsyncQueryResponse#releaseDataTables()}).
+   */
+  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable,
+      @Nullable ReferenceCounted dataTableBuffer, int responseSize, int deserializationTimeMs) {
     long requestId = Long.parseLong(dataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName()));
     AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
 
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
-      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+      if (dataTableBuffer != null) {
+        dataTableBuffer.retain();
+      }
+      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, dataTableBuffer, responseSize,
+          deserializationTimeMs);
     }
   }
 
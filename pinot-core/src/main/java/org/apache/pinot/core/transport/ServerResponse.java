@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.transport;
 
+import io.netty.util.ReferenceCounted;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
@@ -35,6 +36,9 @@ public class ServerResponse {
   private volatile DataTable _dataTable;
   private volatile int _responseSize;
   private volatile int _deserializationTimeMs;
+  // Buffer the data table is deserialized from (in place), which is released after the query is reduced
+  private ReferenceCounted _dataTableBuffer;
+  private boolean _dataTableReleased;
 
   public ServerResponse(long startTimeMs) {
     _startTimeMs = startTimeMs;
@@ -93,10 +97,36 @@ public class ServerResponse {
     _requestSentLatencyMs = requestSentLatencyMs;
   }
 
-  void receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs) {
+  /**
+   * Receives the data table from the server. The ownership of the (already retained) buffer backing the data table is
+   * transferred to the server response, and the buffer is released in {@link #releaseDataTable()}.
+   */
+  void receiveDataTable(DataTable dataTable, @Nullable ReferenceCounted dataTableBuffer, int responseSize,
+      int deserializationTimeMs) {
+    if (dataTableBuffer != null) {
+      synchronized (this) {
+        if (_dataTableReleased) {
+          // The data tables are already released after the query is reduced, drop the late response
+          dataTableBuffer.release();
+          return;
+        }
+        _dataTableBuffer = dataTableBuffer;
+      }
+    }
     _receiveDataTableTimeMs = System.currentTimeMillis();
     _dataTable = dataTable;
     _responseSize = responseSize;
     _deserializationTimeMs = deserializationTimeMs;
   }
+
+  /**
+   * Releases the buffer backing the data table. The data table should not be accessed after calling this method.
+   */
+  synchronized void releaseDataTable() {
+    _dataTableReleased = true;
+    if (_dataTableBuffer != null) {
+      _dataTableBuffer.release();
+      _dataTableBuffer = null;
+    }
+  }
 }
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+/**
+ * Scalar implementation of the {@link VectorOps}, which is used when the Vector API is not available.
+ */
+public class ScalarVectorOps implements VectorOps {
+  public static final ScalarVectorOps INSTANCE = new ScalarVectorOps();
+
+  private ScalarVectorOps() {
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, int[] values, int lowerBound, int upperBound) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      int value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, long[] values, long lowerBound, long upperBound) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      long value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, float[] values, float lowerBound, float upperBound) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      float value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, double[] values, double lowerBound, double upperBound) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      double value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public double sum(double initialSum, double[] values, int length) {
+    double sum = initialSum;
+    for (int i = 0; i < length; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double min(double initialMin, double[] values, int length) {
+    double min = initialMin;
+    for (int i = 0; i < length; i++) {
+      min = Math.min(values[i], min);
+    }
+    return min;
+  }
+
+  @Override
+  public double max(double initialMax, double[] values, int length) {
+    double max = initialMax;
+    for (int i = 0; i < length; i++) {
+      max = Math.max(values[i], max);
+    }
+    return max;
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+/**
+ * Operations over blocks of primitive values in the scan and aggregation hot paths, which can be accelerated with SIMD
+ * instructions. Use {@link VectorOpsProvider#getVectorOps()} to get the implementation for the current JVM.
+ *
+ * <p>The filter operations keep the doc ids with values within {@code [lowerBound, upperBound]} (both inclusive), and
+ * compact them into the front of the doc ids array in order. Equality can be evaluated as a range with the same lower
+ * and upper bound.
+ */
+public interface VectorOps {
+
+  int filterRange(int limit, int[] docIds, int[] values, int lowerBound, int upperBound);
+
+  int filterRange(int limit, int[] docIds, long[] values, long lowerBound, long upperBound);
+
+  int filterRange(int limit, int[] docIds, float[] values, float lowerBound, float upperBound);
+
+  int filterRange(int limit, int[] docIds, double[] values, double lowerBound, double upperBound);
+
+  /**
+   * Returns the initial sum plus the sum of the first {@code length} values. The vectorized implementation sums the
+   * values in a different order, so the result might differ from the scalar sum in the least significant bits.
+   */
+  double sum(double initialSum, double[] values, int length);
+
+  /**
+   * Returns the min of the initial min and the first {@code length} values, with the semantics of {@link Math#min}.
+   */
+  double min(double initialMin, double[] values, int length);
+
+  /**
+   * Returns the max of the initial max and the first {@code length} values, with the semantics of {@link Math#max}.
+   */
+  double max(double initialMax, double[] values, int length);
+}
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+/**
+ * Provides the {@link VectorOps} for the current JVM.
+ *
+ * <p>This is the base version of the class in the multi-release jar, which always provides the
+ * {@link ScalarVectorOps}. When built with JDK 21 (the {@code vector-api} profile), the JDK 21 version of this class
+ * under {@code META-INF/versions/21} provides the SIMD implementation if the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, and falls back to the scalar implementation otherwise. The SIMD
+ * implementation can be disabled with the system property {@code pinot.vectorOps.enabled=false}.
+ */
+public class VectorOpsProvider {
+  public static final String ENABLED_PROPERTY = "pinot.vectorOps.enabled";
+
+  private VectorOpsProvider() {
+  }
+
+  public static VectorOps getVectorOps() {
+    return ScalarVectorOps.INSTANCE;
+  }
+}
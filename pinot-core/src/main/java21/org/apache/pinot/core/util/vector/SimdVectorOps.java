@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * SIMD implementation of the {@link VectorOps} with the Vector API ({@code jdk.incubator.vector}).
+ *
+ * <p>The filter operations compare a vector of values with the bounds, then compress the matching doc ids with the
+ * mask into the front of the doc ids array. The compressed vector is written at the current number of matches, which
+ * never passes the current position, so it only overwrites the doc ids that have already been processed. The tail that
+ * does not fill a vector is processed by the scalar implementation.
+ */
+class SimdVectorOps implements VectorOps {
+  private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+  // Doc id species with the same number of lanes as the 64-bit value species
+  private static final VectorSpecies<Integer> HALF_INT_SPECIES =
+      VectorSpecies.of(int.class, VectorShape.forBitSize(LONG_SPECIES.vectorBitSize() / 2));
+
+  SimdVectorOps() {
+    // Fail fast if the vector shape is not supported
+    IntVector.zero(HALF_INT_SPECIES);
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, int[] values, int lowerBound, int upperBound) {
+    int matches = 0;
+    int i = 0;
+    int upperLimit = INT_SPECIES.loopBound(limit);
+    for (; i < upperLimit; i += INT_SPECIES.length()) {
+      IntVector valueVector = IntVector.fromArray(INT_SPECIES, values, i);
+      VectorMask<Integer> mask = valueVector.compare(VectorOperators.GE, lowerBound)
+          .and(valueVector.compare(VectorOperators.LE, upperBound));
+      matches = compress(docIds, i, mask, matches);
+    }
+    for (; i < limit; i++) {
+      int value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, long[] values, long lowerBound, long upperBound) {
+    int matches = 0;
+    int i = 0;
+    int upperLimit = LONG_SPECIES.loopBound(limit);
+    for (; i < upperLimit; i += LONG_SPECIES.length()) {
+      LongVector valueVector = LongVector.fromArray(LONG_SPECIES, values, i);
+      VectorMask<Long> mask = valueVector.compare(VectorOperators.GE, lowerBound)
+          .and(valueVector.compare(VectorOperators.LE, upperBound));
+      matches = compress(docIds, i, mask.cast(HALF_INT_SPECIES), matches);
+    }
+    for (; i < limit; i++) {
+      long value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, float[] values, float lowerBound, float upperBound) {
+    int matches = 0;
+    int i = 0;
+    int upperLimit = FLOAT_SPECIES.loopBound(limit);
+    for (; i < upperLimit; i += FLOAT_SPECIES.length()) {
+      FloatVector valueVector = FloatVector.fromArray(FLOAT_SPECIES, values, i);
+      VectorMask<Float> mask = valueVector.compare(VectorOperators.GE, lowerBound)
+          .and(valueVector.compare(VectorOperators.LE, upperBound));
+      matches = compress(docIds, i, mask.cast(INT_SPECIES), matches);
+    }
+    for (; i < limit; i++) {
+      float value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  @Override
+  public int filterRange(int limit, int[] docIds, double[] values, double lowerBound, double upperBound) {
+    int matches = 0;
+    int i = 0;
+    int upperLimit = DOUBLE_SPECIES.loopBound(limit);
+    for (; i < upperLimit; i += DOUBLE_SPECIES.length()) {
+      DoubleVector valueVector = DoubleVector.fromArray(DOUBLE_SPECIES, values, i);
+      VectorMask<Double> mask = valueVector.compare(VectorOperators.GE, lowerBound)
+          .and(valueVector.compare(VectorOperators.LE, upperBound));
+      matches = compress(docIds, i, mask.cast(HALF_INT_SPECIES), matches);
+    }
+    for (; i < limit; i++) {
+      double value = values[i];
+      if (value >= lowerBound && value <= upperBound) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Compresses the doc ids starting at the given position with the mask, writes them at the current number of matches,
+   * and returns the new number of matches.
+   */
+  private static int compress(int[] docIds, int position, VectorMask<Integer> mask, int matches) {
+    if (mask.allTrue()) {
+      if (matches != position) {
+        IntVector.fromArray(mask.vectorSpecies(), docIds, position).intoArray(docIds, matches);
+      }
+      return matches + mask.length();
+    }
+    if (mask.anyTrue()) {
+      IntVector.fromArray(mask.vectorSpecies(), docIds, position).compress(mask).intoArray(docIds, matches);
+      return matches + mask.trueCount();
+    }
+    return matches;
+  }
+
+  @Override
+  public double sum(double initialSum, double[] values, int length) {
+    DoubleVector sumVector = DoubleVector.zero(DOUBLE_SPECIES);
+    int i = 0;
+    int upperLimit = DOUBLE_SPECIES.loopBound(length);
+    for (; i < upperLimit; i += DOUBLE_SPECIES.length()) {
+      sumVector = sumVector.add(DoubleVector.fromArray(DOUBLE_SPECIES, values, i));
+    }
+    double sum = initialSum + sumVector.reduceLanes(VectorOperators.ADD);
+    for (; i < length; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double min(double initialMin, double[] values, int length) {
+    DoubleVector minVector = DoubleVector.broadcast(DOUBLE_SPECIES, initialMin);
+    int i = 0;
+    int upperLimit = DOUBLE_SPECIES.loopBound(length);
+    for (; i < upperLimit; i += DOUBLE_SPECIES.length()) {
+      minVector = minVector.min(DoubleVector.fromArray(DOUBLE_SPECIES, values, i));
+    }
+    double min = minVector.reduceLanes(VectorOperators.MIN);
+    for (; i < length; i++) {
+      min = Math.min(values[i], min);
+    }
+    return min;
+  }
+
+  @Override
+  public double max(double initialMax, double[] values, int length) {
+    DoubleVector maxVector = DoubleVector.broadcast(DOUBLE_SPECIES, initialMax);
+    int i = 0;
+    int upperLimit = DOUBLE_SPECIES.loopBound(length);
+    for (; i < upperLimit; i += DOUBLE_SPECIES.length()) {
+      maxVector = maxVector.max(DoubleVector.fromArray(DOUBLE_SPECIES, values, i));
+    }
+    double max = maxVector.reduceLanes(VectorOperators.MAX);
+    for (; i < length; i++) {
+      max = Math.max(values[i], max);
+    }
+    return max;
+  }
+}
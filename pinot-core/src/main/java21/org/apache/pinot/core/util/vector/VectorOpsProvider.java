@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Provides the {@link VectorOps} for the current JVM.
+ *
+ * <p>This is the JDK 21 version of the class in the multi-release jar, which provides the {@link SimdVectorOps} if the
+ * JVM is started with {@code --add-modules jdk.incubator.vector}, and falls back to the {@link ScalarVectorOps}
+ * otherwise. The SIMD implementation can be disabled with the system property {@code pinot.vectorOps.enabled=false}.
+ */
+public class VectorOpsProvider {
+  public static final String ENABLED_PROPERTY = "pinot.vectorOps.enabled";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(VectorOpsProvider.class);
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final VectorOps VECTOR_OPS = createVectorOps();
+
+  private VectorOpsProvider() {
+  }
+
+  public static VectorOps getVectorOps() {
+    return VECTOR_OPS;
+  }
+
+  private static VectorOps createVectorOps() {
+    if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+      LOGGER.info("Vector API is disabled, using scalar vector ops");
+      return ScalarVectorOps.INSTANCE;
+    }
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      LOGGER.info("Module: {} is not available, using scalar vector ops", VECTOR_MODULE);
+      return ScalarVectorOps.INSTANCE;
+    }
+    try {
+      VectorOps vectorOps = new SimdVectorOps();
+      LOGGER.info("Using SIMD vector ops");
+      return vectorOps;
+    } catch (Throwable t) {
+      LOGGER.warn("Caught exception while initializing SIMD vector ops, using scalar vector ops", t);
+      return ScalarVectorOps.INSTANCE;
+    }
+  }
+}
@@ -21,6 +21,9 @@ package org.apache.pinot.core.common.datatable;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -35,14 +38,17 @@ import org.apache.pinot.common.CustomObject;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.datatable.DataTable.MetadataKey;
 import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.datatable.DataTableImplV5;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.roaringbitmap.RoaringBitmap;
 import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -102,6 +108,12 @@ public class DataTableSerDeTest {
           .put(MetadataKey.NUM_RESIZES.getName(), String.valueOf(900L))
           .put(MetadataKey.RESIZE_TIME_MS.getName(), String.valueOf(1919199L)).build();
 
+  @BeforeClass
+  public void setUp() {
+    // Other tests in the same JVM might have enabled the memory measurement, which adds metadata on serialization
+    ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(false);
+  }
+
   @Test(dataProvider = "versionProvider")
   public void testException(int dataTableVersion)
       throws IOException {
@@ -341,6 +353,158 @@ public class DataTableSerDeTest {
     DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
   }
 
+  @Test(dataProvider = "versionProvider")
+  public void testResponseSerMemAllocatedBytes(int dataTableVersion)
+      throws IOException {
+    DataTableBuilderFactory.setDataTableVersion(dataTableVersion);
+    DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
+    int numColumns = columnDataTypes.length;
+    String[] columnNames = new String[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = columnDataTypes[i].name();
+    }
+
+    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    fillDataTableWithRandomData(dataTableBuilder, columnDataTypes, numColumns);
+
+    DataTable dataTable = dataTableBuilder.build();
+
+    // When ThreadMemoryMeasurement is disabled, no value for threadMemAllocatedBytes/responseSerMemAllocatedBytes.
+    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    Assert.assertNull(newDataTable.getMetadata().get(MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName()));
+    Assert.assertNull(newDataTable.getMetadata().get(MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName()));
+
+    // When ThreadMemoryMeasurement is enabled (and supported by the JVM), value of responseSerMemAllocatedBytes is
+    // not 0.
+    ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(true);
+    try {
+      newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+      Assert.assertNull(newDataTable.getMetadata().get(MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName()));
+      if (ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled()) {
+        Assert.assertTrue(
+            Long.parseLong(newDataTable.getMetadata().get(MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName())) > 0);
+      }
+    } finally {
+      ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(false);
+    }
+    DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
+  }
+
+  @Test(dataProvider = "compressionTypeProvider")
+  public void testV5ColumnAccess(ChunkCompressionType compressionType)
+      throws IOException {
+    ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(false);
+    DataTableBuilderFactory.setDataTableVersion(DataTableFactory.VERSION_5);
+    DataTableBuilderFactory.setDataTableCompressionType(compressionType);
+    DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
+    int numColumns = columnDataTypes.length;
+    String[] columnNames = new String[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = columnDataTypes[i].name();
+    }
+
+    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    fillDataTableWithRandomData(dataTableBuilder, columnDataTypes, numColumns);
+    DataTable dataTable = dataTableBuilder.build();
+    dataTable.getMetadata().putAll(EXPECTED_METADATA);
+
+    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    Assert.assertTrue(newDataTable instanceof DataTableImplV5, ERROR_MESSAGE);
+    DataTableImplV5 columnarDataTable = (DataTableImplV5) newDataTable;
+    Assert.assertEquals(columnarDataTable.getCompressionType(), compressionType, ERROR_MESSAGE);
+    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+    Assert.assertEquals(newDataTable.getMetadata(), EXPECTED_METADATA, ERROR_MESSAGE);
+    verifyDataIsSame(newDataTable, columnDataTypes, numColumns);
+
+    // Whole column access should return the same values as the value access
+    for (int colId = 0; colId < numColumns; colId++) {
+      switch (columnDataTypes[colId]) {
+        case INT:
+          Assert.assertEquals(columnarDataTable.getIntColumn(colId), INTS, ERROR_MESSAGE);
+          break;
+        case LONG:
+          Assert.assertEquals(columnarDataTable.getLongColumn(colId), LONGS, ERROR_MESSAGE);
+          break;
+        case FLOAT:
+          Assert.assertEquals(columnarDataTable.getFloatColumn(colId), FLOATS, 0f, ERROR_MESSAGE);
+          break;
+        case DOUBLE:
+          Assert.assertEquals(columnarDataTable.getDoubleColumn(colId), DOUBLES, 0.0, ERROR_MESSAGE);
+          break;
+        case BOOLEAN:
+          Assert.assertEquals(columnarDataTable.getIntColumn(colId), BOOLEANS, ERROR_MESSAGE);
+          break;
+        case TIMESTAMP:
+          Assert.assertEquals(columnarDataTable.getLongColumn(colId), TIMESTAMPS, ERROR_MESSAGE);
+          break;
+        case STRING:
+          Assert.assertEquals(columnarDataTable.getStringColumn(colId), STRINGS, ERROR_MESSAGE);
+          break;
+        case JSON:
+          Assert.assertEquals(columnarDataTable.getStringColumn(colId), JSONS, ERROR_MESSAGE);
+          break;
+        default:
+          break;
+      }
+    }
+    DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
+    DataTableBuilderFactory.setDataTableCompressionType(DataTableBuilderFactory.DEFAULT_COMPRESSION_TYPE);
+  }
+
+  @Test(dataProvider = "versionProvider")
+  public void testToByteBuf(int dataTableVersion)
+      throws IOException {
+    ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(false);
+    DataTableBuilderFactory.setDataTableVersion(dataTableVersion);
+    DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
+    int numColumns = columnDataTypes.length;
+    String[] columnNames = new String[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = columnDataTypes[i].name();
+    }
+
+    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+    // NOTE: Compression type only applies to V5
+    for (Object[] compressionType : provideCompressionType()) {
+      DataTableBuilderFactory.setDataTableCompressionType((ChunkCompressionType) compressionType[0]);
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      fillDataTableWithRandomData(dataTableBuilder, columnDataTypes, numColumns);
+      DataTable dataTable = dataTableBuilder.build();
+      dataTable.getMetadata().putAll(EXPECTED_METADATA);
+
+      // Serialized bytes should be the same as the byte array serialization
+      byte[] bytes = dataTable.toBytes();
+      ByteBuf byteBuf = dataTable.toByteBuf(PooledByteBufAllocator.DEFAULT);
+      try {
+        if (dataTableVersion >= DataTableFactory.VERSION_4) {
+          Assert.assertTrue(byteBuf.isDirect(), ERROR_MESSAGE);
+        }
+        Assert.assertEquals(ByteBufUtil.getBytes(byteBuf), bytes, ERROR_MESSAGE);
+
+        // Data table should be able to be deserialized (in place) from the direct buffer
+        DataTable newDataTable = DataTableFactory.getDataTable(byteBuf.nioBuffer());
+        Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
+        Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+        Assert.assertEquals(newDataTable.getMetadata(), EXPECTED_METADATA, ERROR_MESSAGE);
+        verifyDataIsSame(newDataTable, columnDataTypes, numColumns);
+
+        // Data table deserialized from the buffer should be able to be serialized again
+        newDataTable = DataTableFactory.getDataTable(newDataTable.toBytes());
+        Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
+        Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+        Assert.assertEquals(newDataTable.getMetadata(), EXPECTED_METADATA, ERROR_MESSAGE);
+        verifyDataIsSame(newDataTable, columnDataTypes, numColumns);
+      } finally {
+        byteBuf.release();
+      }
+    }
+    DataTableBuilderFactory.setDataTableCompressionType(DataTableBuilderFactory.DEFAULT_COMPRESSION_TYPE);
+    DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
+  }
+
   @Test
   public void testV3V4Compatibility()
       throws IOException {
@@ -931,8 +1095,18 @@ public class DataTableSerDeTest {
   @DataProvider(name = "versionProvider")
   public Object[][] provideVersion() {
     return new Object[][]{
+        new Object[]{DataTableFactory.VERSION_5},
         new Object[]{DataTableFactory.VERSION_4},
         new Object[]{DataTableFactory.VERSION_3},
     };
   }
+
+  @DataProvider(name = "compressionTypeProvider")
+  public Object[][] provideCompressionType() {
+    return new Object[][]{
+        new Object[]{ChunkCompressionType.PASS_THROUGH},
+        new Object[]{ChunkCompressionType.LZ4},
+        new Object[]{ChunkCompressionType.ZSTANDARD},
+    };
+  }
 }
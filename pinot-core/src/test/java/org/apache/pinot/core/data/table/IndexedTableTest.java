@@ -116,6 +116,55 @@ public class IndexedTableTest {
     }
   }
 
+  @Test
+  public void testPartitionedIndexedTable()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    PartitionedIndexedTable indexedTable =
+        new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, 1000, 6);
+    Assert.assertEquals(indexedTable.getNumPartitions(), 8);
+
+    // 4 threads upsert 100 groups each into their own partitions, where group i has sum 4 * i and max 3
+    int numThreads = 4;
+    int numGroups = 100;
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Callable<Void>> callables = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        int threadId = i;
+        callables.add(() -> {
+          PartitionedIndexedTable.WorkerPartitions workerPartitions = indexedTable.createWorkerPartitions();
+          for (int j = 0; j < numGroups; j++) {
+            workerPartitions.upsert(getKey(new Object[]{"k" + j, j}),
+                getRecord(new Object[]{"k" + j, j, (double) j, (double) threadId}));
+          }
+          return null;
+        });
+      }
+      for (Future<Void> future : executorService.invokeAll(callables)) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+
+      indexedTable.mergePartitions(executorService, numThreads, System.currentTimeMillis() + 10_000);
+      Assert.assertEquals(indexedTable.size(), numGroups);
+      indexedTable.finish(true);
+      Assert.assertEquals(indexedTable.size(), 5);
+      Iterator<Record> iterator = indexedTable.iterator();
+      for (int i = numGroups - 1; i >= numGroups - 5; i--) {
+        Object[] values = iterator.next().getValues();
+        Assert.assertEquals(values[0], "k" + i);
+        Assert.assertEquals(values[2], 4.0 * i);
+        Assert.assertEquals(values[3], 3.0);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
   @Test(dataProvider = "initDataProvider")
   public void testNonConcurrentIndexedTable(String orderBy, List<String> survivors) {
     QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
@@ -141,6 +190,58 @@ public class IndexedTableTest {
     checkSurvivors(indexedTable, survivors);
   }
 
+  @Test
+  public void testFixedWidthKeys() {
+    // Two INT key columns, where the negative key values should not collide with others after encoding
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    IndexedTable indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable._lookupMap instanceof LongKeyRecordMap);
+    for (int i = 0; i < 2; i++) {
+      for (int j = -15; j < 15; j++) {
+        indexedTable.upsert(getRecord(new Object[]{j, -j, (double) j, (double) i}));
+      }
+    }
+    // Trimmed to TRIM_SIZE every time reaching TRIM_THRESHOLD, where the groups with the largest sums are kept
+    Assert.assertEquals(indexedTable.size(), TRIM_SIZE);
+    indexedTable.finish(true);
+    Assert.assertEquals(indexedTable.size(), 5);
+    Iterator<Record> iterator = indexedTable.iterator();
+    for (int j = 14; j >= 10; j--) {
+      Object[] values = iterator.next().getValues();
+      Assert.assertEquals(values[0], j);
+      Assert.assertEquals(values[1], -j);
+      Assert.assertEquals(values[2], 2.0 * j);
+      Assert.assertEquals(values[3], 1.0);
+    }
+
+    // Single LONG key column
+    queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC");
+    dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.LONG, ColumnDataType.DOUBLE});
+    indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertTrue(indexedTable._lookupMap instanceof LongKeyRecordMap);
+    indexedTable.upsert(getRecord(new Object[]{Long.MAX_VALUE, 1.0}));
+    indexedTable.upsert(getRecord(new Object[]{Long.MIN_VALUE, 2.0}));
+    indexedTable.upsert(getRecord(new Object[]{Long.MAX_VALUE, 3.0}));
+    indexedTable.finish(true);
+    iterator = indexedTable.iterator();
+    Assert.assertEquals(iterator.next().getValues(), new Object[]{Long.MAX_VALUE, 4.0});
+    Assert.assertEquals(iterator.next().getValues(), new Object[]{Long.MIN_VALUE, 2.0});
+    Assert.assertFalse(iterator.hasNext());
+
+    // STRING key column falls back to the HashMap
+    queryContext = QueryContextConverterUtils.getQueryContext("SELECT SUM(m1) FROM testTable GROUP BY d1");
+    dataSchema = new DataSchema(new String[]{"d1", "sum(m1)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.DOUBLE});
+    indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
+    Assert.assertFalse(indexedTable._lookupMap instanceof LongKeyRecordMap);
+  }
+
   @DataProvider(name = "initDataProvider")
   public Object[][] initDataProvider() {
     List<Object[]> data = new ArrayList<>();
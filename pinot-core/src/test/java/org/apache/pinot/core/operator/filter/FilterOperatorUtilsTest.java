@@ -26,10 +26,19 @@ import java.util.List;
 import java.util.OptionalInt;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -175,6 +184,88 @@ public class FilterOperatorUtilsTest {
         + " should have more priority than filter " + lowerPriorty);
   }
 
+  @Test
+  public void testAdaptiveScanReordering() {
+    int numDocs = 10000;
+    // 1 out of 2 values match
+    ScanBasedFilterOperator nonSelective = mockScanBasedFilterOperator(2, 1);
+    // 1 out of 1000 values match
+    ScanBasedFilterOperator selective = mockScanBasedFilterOperator(1000, 1);
+
+    BaseFilterOperator filterOperator =
+        FilterOperatorUtils.getAndFilterOperator(QUERY_CONTEXT, Lists.newArrayList(nonSelective, selective), numDocs);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(filterOperator.getChildOperators(), Lists.newArrayList(nonSelective, selective));
+
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isAdaptiveFilterReordering()).thenReturn(true);
+    filterOperator =
+        FilterOperatorUtils.getAndFilterOperator(queryContext, Lists.newArrayList(nonSelective, selective), numDocs);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(filterOperator.getChildOperators(), Lists.newArrayList(selective, nonSelective));
+  }
+
+  @Test
+  public void testAdaptiveInvertedIndexToScan() {
+    int numDocs = 10000;
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.isAdaptiveFilterReordering()).thenReturn(true);
+
+    // 9 out of 10 values match, each value has 1000 documents
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    when(predicateEvaluator.getMatchingDictIds()).thenReturn(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8});
+    InvertedIndexReader<?> invertedIndexReader = mock(InvertedIndexReader.class);
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    docIds.add(0L, 1000L);
+    doReturn(docIds).when(invertedIndexReader).getDocIds(anyInt());
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    when(dataSourceMetadata.getCardinality()).thenReturn(10);
+    DataSource dataSource = mock(DataSource.class);
+    doReturn(invertedIndexReader).when(dataSource).getInvertedIndex();
+    when(dataSource.getForwardIndex()).thenReturn(mock(ForwardIndexReader.class));
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    InvertedIndexFilterOperator invertedIndex =
+        new InvertedIndexFilterOperator(queryContext, predicateEvaluator, dataSource, numDocs);
+
+    // Scan the documents matched by the selective bitmap instead of collecting 9000 documents from the inverted index
+    BitmapBasedFilterOperator selectiveBitmap =
+        new BitmapBasedFilterOperator(ImmutableRoaringBitmap.bitmapOf(1, 2, 3), false, numDocs);
+    BaseFilterOperator filterOperator =
+        FilterOperatorUtils.getAndFilterOperator(queryContext, Lists.newArrayList(invertedIndex, selectiveBitmap),
+            numDocs);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    List<Operator> childOperators = filterOperator.getChildOperators();
+    assertEquals(childOperators.size(), 2);
+    assertEquals(childOperators.get(0), selectiveBitmap);
+    assertTrue(childOperators.get(1) instanceof ScanBasedFilterOperator);
+    assertEquals(((ScanBasedFilterOperator) childOperators.get(1)).getPredicateEvaluator(), predicateEvaluator);
+
+    // Keep the inverted index when the bitmap is not selective
+    MutableRoaringBitmap nonSelectiveDocIds = new MutableRoaringBitmap();
+    nonSelectiveDocIds.add(0L, 5000L);
+    BitmapBasedFilterOperator nonSelectiveBitmap = new BitmapBasedFilterOperator(nonSelectiveDocIds, false, numDocs);
+    filterOperator =
+        FilterOperatorUtils.getAndFilterOperator(queryContext, Lists.newArrayList(invertedIndex, nonSelectiveBitmap),
+            numDocs);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(filterOperator.getChildOperators(), Lists.newArrayList(nonSelectiveBitmap, invertedIndex));
+  }
+
+  private static ScanBasedFilterOperator mockScanBasedFilterOperator(int cardinality, int numMatchingValues) {
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    when(predicateEvaluator.getNumMatchingItems()).thenReturn(numMatchingValues);
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(true);
+    when(dataSourceMetadata.getCardinality()).thenReturn(cardinality);
+    ScanBasedFilterOperator filterOperator = mock(ScanBasedFilterOperator.class);
+    when(filterOperator.getPredicateEvaluator()).thenReturn(predicateEvaluator);
+    when(filterOperator.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    return filterOperator;
+  }
+
   private void assertOrder(BaseFilterOperator first, BaseFilterOperator second) {
     BaseFilterOperator filterOperator =
         FilterOperatorUtils.getAndFilterOperator(QUERY_CONTEXT, Lists.newArrayList(second, first), NUM_DOCS);
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan.maker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.plan.AcquireReleaseColumnsSegmentPlanNode;
+import org.apache.pinot.core.plan.InstanceResponsePlanNode;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultsCachePlanNode;
+import org.apache.pinot.core.query.cache.SegmentResultsCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class InstancePlanMakerImplV2Test {
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable";
+
+  private static SegmentContext getSegmentContext(String segmentName, String crc) {
+    ImmutableSegment segment = mock(ImmutableSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(segment.getSegmentName()).thenReturn(segmentName);
+    return new SegmentContext(segment);
+  }
+
+  @Test
+  public void testPrefetchWithSegmentResultsCache() {
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    planMaker.init(new PinotConfiguration(
+        Map.of(InstancePlanMakerImplV2.SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY, 1_000_000L)));
+    SegmentContext cachedSegmentContext = getSegmentContext("cachedSegment", "123");
+    SegmentContext uncachedSegmentContext = getSegmentContext("uncachedSegment", "456");
+
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(QUERY);
+    String cacheKey =
+        SegmentResultsCache.getCacheKey(SegmentResultsCache.getQueryKey(queryContext), cachedSegmentContext);
+    List<Object> results = Collections.singletonList(10L);
+    planMaker.getSegmentResultsCache()
+        .put(cacheKey, new AggregationResultsBlock(queryContext.getAggregationFunctions(), results, queryContext),
+            new ExecutionStatistics(10, 0, 0, 10));
+
+    queryContext.setEnablePrefetch(true);
+    InstanceResponsePlanNode instanceResponsePlanNode = (InstanceResponsePlanNode) planMaker.makeInstancePlan(
+        List.of(cachedSegmentContext, uncachedSegmentContext), queryContext, mock(ExecutorService.class),
+        mock(ServerMetrics.class)).getPlanNode();
+
+    // The cached segment should be served from the cache without being prefetched or acquired
+    List<PlanNode> planNodes = instanceResponsePlanNode.getCombinePlanNode().getPlanNodes();
+    assertEquals(planNodes.size(), 2);
+    assertTrue(planNodes.get(0) instanceof SegmentResultsCachePlanNode);
+    assertTrue(planNodes.get(1) instanceof AcquireReleaseColumnsSegmentPlanNode);
+    assertEquals(instanceResponsePlanNode.getSegmentContexts(), List.of(uncachedSegmentContext));
+    assertEquals(instanceResponsePlanNode.getFetchContexts().size(), 1);
+    assertEquals(instanceResponsePlanNode.getFetchContexts().get(0).getSegmentName(), "uncachedSegment");
+
+    SegmentResultsCachePlanNode cachedPlanNode = (SegmentResultsCachePlanNode) planNodes.get(0);
+    AggregationResultsBlock resultsBlock = (AggregationResultsBlock) cachedPlanNode.run().nextBlock();
+    assertEquals(resultsBlock.getResults(), results);
+  }
+
+  @Test
+  public void testPrefetchWithoutCachedResults() {
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    planMaker.init(new PinotConfiguration(
+        Map.of(InstancePlanMakerImplV2.SEGMENT_RESULTS_CACHE_MAX_SIZE_BYTES_KEY, 1_000_000L)));
+    SegmentContext segmentContext = getSegmentContext("testSegment", "123");
+
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(QUERY);
+    queryContext.setEnablePrefetch(true);
+    InstanceResponsePlanNode instanceResponsePlanNode = (InstanceResponsePlanNode) planMaker.makeInstancePlan(
+        List.of(segmentContext), queryContext, mock(ExecutorService.class), mock(ServerMetrics.class)).getPlanNode();
+
+    // On cache miss, the segment should be acquired before looking up the cache again and running the plan
+    List<PlanNode> planNodes = instanceResponsePlanNode.getCombinePlanNode().getPlanNodes();
+    assertEquals(planNodes.size(), 1);
+    assertTrue(planNodes.get(0) instanceof AcquireReleaseColumnsSegmentPlanNode);
+    assertEquals(instanceResponsePlanNode.getSegmentContexts(), List.of(segmentContext));
+    assertEquals(instanceResponsePlanNode.getFetchContexts().size(), 1);
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.data.table.IntermediateRecord;
+import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.operator.blocks.results.GroupByResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.local.customobject.AvgPair;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class SegmentResultsCacheTest {
+  private static final String AGGREGATION_QUERY = "SELECT COUNT(*), AVG(m) FROM testTable WHERE d = 'a'";
+  private static final String GROUP_BY_QUERY = "SELECT d, AVG(m) FROM testTable GROUP BY d";
+
+  private static SegmentContext getSegmentContext(String crc) {
+    ImmutableSegment segment = mock(ImmutableSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(segment.getSegmentName()).thenReturn("testSegment");
+    return new SegmentContext(segment);
+  }
+
+  @Test
+  public void testCacheKey() {
+    String queryKey = SegmentResultsCache.getQueryKey(QueryContextConverterUtils.getQueryContext(AGGREGATION_QUERY));
+    assertNotNull(queryKey);
+    assertNotEquals(SegmentResultsCache.getQueryKey(QueryContextConverterUtils.getQueryContext(GROUP_BY_QUERY)),
+        queryKey);
+    assertNotEquals(SegmentResultsCache.getQueryKey(
+        QueryContextConverterUtils.getQueryContext("SELECT COUNT(*), AVG(m) FROM testTable WHERE d = 'b'")), queryKey);
+
+    // Non-aggregation query and query with result cache disabled are not cacheable
+    assertNull(SegmentResultsCache.getQueryKey(QueryContextConverterUtils.getQueryContext("SELECT * FROM testTable")));
+    assertNull(SegmentResultsCache.getQueryKey(
+        QueryContextConverterUtils.getQueryContext("SET useResultCache = false; " + AGGREGATION_QUERY)));
+
+    String cacheKey = SegmentResultsCache.getCacheKey(queryKey, getSegmentContext("123"));
+    assertNotNull(cacheKey);
+    assertNotEquals(SegmentResultsCache.getCacheKey(queryKey, getSegmentContext("456")), cacheKey);
+
+    // Segment without CRC, mutable segment and upsert segment are not cacheable
+    assertNull(SegmentResultsCache.getCacheKey(queryKey, getSegmentContext(Long.toString(Long.MIN_VALUE))));
+    assertNull(SegmentResultsCache.getCacheKey(queryKey, new SegmentContext(mock(MutableSegment.class))));
+    SegmentContext upsertSegmentContext = getSegmentContext("123");
+    when(upsertSegmentContext.getIndexSegment().getValidDocIds()).thenReturn(new ThreadSafeMutableRoaringBitmap());
+    assertNull(SegmentResultsCache.getCacheKey(queryKey, upsertSegmentContext));
+  }
+
+  @Test
+  public void testAggregation() {
+    SegmentResultsCache cache = new SegmentResultsCache(1_000_000);
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(AGGREGATION_QUERY);
+    String key = SegmentResultsCache.getCacheKey(SegmentResultsCache.getQueryKey(queryContext),
+        getSegmentContext("123"));
+    assertNull(cache.get(key, queryContext));
+
+    List<Object> results = Arrays.asList(10L, new AvgPair(20.0, 10));
+    cache.put(key, new AggregationResultsBlock(queryContext.getAggregationFunctions(), results, queryContext),
+        new ExecutionStatistics(10, 100, 20, 1000));
+    SegmentResultsCache.CachedResultsBlock cachedResultsBlock = cache.get(key, queryContext);
+    assertNotNull(cachedResultsBlock);
+    ExecutionStatistics executionStatistics = cachedResultsBlock.getExecutionStatistics();
+    assertEquals(executionStatistics.getNumDocsScanned(), 10);
+    assertEquals(executionStatistics.getNumEntriesScannedInFilter(), 0);
+    assertEquals(executionStatistics.getNumEntriesScannedPostFilter(), 0);
+    assertEquals(executionStatistics.getNumTotalDocs(), 1000);
+    List<Object> cachedResults = ((AggregationResultsBlock) cachedResultsBlock.getResultsBlock()).getResults();
+    assertEquals(cachedResults.get(0), 10L);
+    AvgPair avgPair = (AvgPair) cachedResults.get(1);
+    assertEquals(avgPair.getSum(), 20.0);
+    assertEquals(avgPair.getCount(), 10);
+
+    // Merging into the returned results should not modify the cached results
+    avgPair.apply(30.0, 10);
+    avgPair = (AvgPair) ((AggregationResultsBlock) cache.get(key, queryContext).getResultsBlock()).getResults().get(1);
+    assertEquals(avgPair.getSum(), 20.0);
+    assertEquals(avgPair.getCount(), 10);
+  }
+
+  @Test
+  public void testGroupBy() {
+    SegmentResultsCache cache = new SegmentResultsCache(1_000_000);
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(GROUP_BY_QUERY);
+    String key = SegmentResultsCache.getCacheKey(SegmentResultsCache.getQueryKey(queryContext),
+        getSegmentContext("123"));
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d", "avg(m)"}, new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.OBJECT});
+    List<IntermediateRecord> intermediateRecords = new ArrayList<>();
+    intermediateRecords.add(
+        new IntermediateRecord(new Key(new Object[]{"a"}), new Record(new Object[]{"a", new AvgPair(1.0, 1)})));
+    intermediateRecords.add(
+        new IntermediateRecord(new Key(new Object[]{"b"}), new Record(new Object[]{"b", new AvgPair(2.0, 2)})));
+    GroupByResultsBlock resultsBlock = new GroupByResultsBlock(dataSchema, intermediateRecords, queryContext);
+    resultsBlock.setNumGroupsLimitReached(true);
+    cache.put(key, resultsBlock, new ExecutionStatistics(3, 0, 6, 10));
+
+    GroupByResultsBlock cachedResultsBlock = (GroupByResultsBlock) cache.get(key, queryContext).getResultsBlock();
+    assertEquals(cachedResultsBlock.getDataSchema(), dataSchema);
+    assertTrue(cachedResultsBlock.isNumGroupsLimitReached());
+    List<IntermediateRecord> cachedRecords = new ArrayList<>(cachedResultsBlock.getIntermediateRecords());
+    assertEquals(cachedRecords.size(), 2);
+    for (int i = 0; i < 2; i++) {
+      IntermediateRecord cachedRecord = cachedRecords.get(i);
+      Object[] expectedValues = intermediateRecords.get(i)._record.getValues();
+      assertEquals(cachedRecord._key, new Key(new Object[]{expectedValues[0]}));
+      Object[] values = cachedRecord._record.getValues();
+      assertEquals(values[0], expectedValues[0]);
+      assertEquals(((AvgPair) values[1]).getSum(), ((AvgPair) expectedValues[1]).getSum());
+      assertEquals(((AvgPair) values[1]).getCount(), ((AvgPair) expectedValues[1]).getCount());
+    }
+  }
+
+  @Test
+  public void testEviction() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(AGGREGATION_QUERY);
+    String queryKey = SegmentResultsCache.getQueryKey(queryContext);
+    List<Object> results = Arrays.asList(10L, new AvgPair(20.0, 10));
+    // Each entry takes key size (2 bytes per char) plus 16 bytes row overhead, 24 bytes for the long and 32 bytes for
+    // the serialized AvgPair
+    String key = SegmentResultsCache.getCacheKey(queryKey, getSegmentContext("0"));
+    long entrySize = 2L * key.length() + 72;
+    SegmentResultsCache cache = new SegmentResultsCache(10 * entrySize);
+    int numEntries = 100;
+    for (int i = 0; i < numEntries; i++) {
+      key = SegmentResultsCache.getCacheKey(queryKey, getSegmentContext(Integer.toString(i % 10)));
+      cache.put(key, new AggregationResultsBlock(queryContext.getAggregationFunctions(), results, queryContext),
+          new ExecutionStatistics(10, 100, 20, 1000));
+    }
+    assertTrue(cache.size() > 0 && cache.size() <= 10);
+    assertNotNull(cache.get(key, queryContext));
+  }
+}
@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.datatable.DataTableImplV5;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -41,6 +43,9 @@ import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 
 public class BrokerReduceServiceTest {
@@ -79,4 +84,196 @@ public class BrokerReduceServiceTest {
     assertEquals(exceptions.size(), 1);
     assertEquals(exceptions.get(0).getErrorCode(), QueryException.BROKER_TIMEOUT_ERROR_CODE);
   }
+
+  @Test
+  public void testStreamingReduce()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(
+        new PinotConfiguration(Map.of(Broker.CONFIG_OF_BROKER_ENABLE_STREAMING_REDUCE, true)));
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"col1", "count(*)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    int numInstances = 10;
+    int numGroups = 100;
+    for (int i = 0; i < numInstances; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      for (int j = 0; j < numGroups; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, (i + j) % (2 * numGroups));
+        dataTableBuilder.setColumn(1, (long) j);
+        dataTableBuilder.finishRow();
+      }
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), dataTableBuilder.build());
+    }
+
+    for (String query : new String[]{
+        "SELECT col1, COUNT(*) FROM testTable GROUP BY col1 ORDER BY COUNT(*) DESC, col1 LIMIT 20",
+        "SELECT col1, COUNT(*) FROM testTable GROUP BY col1 ORDER BY col1 LIMIT 20"
+    }) {
+      BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(query);
+      BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+      StreamingBrokerReducer streamingBrokerReducer =
+          brokerReduceService.getStreamingBrokerReducer(brokerRequest, brokerRequest, 10_000L, brokerMetrics);
+      assertNotNull(streamingBrokerReducer);
+      for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+        streamingBrokerReducer.reduce(entry.getKey(), entry.getValue());
+      }
+      BrokerResponseNative streamingResponse = streamingBrokerReducer.seal();
+      BrokerResponseNative batchResponse =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, dataTableMap, 10_000L, brokerMetrics);
+      assertTrue(streamingResponse.getExceptions().isEmpty());
+      assertEquals(streamingResponse.getResultTable().getRows().size(), 20);
+      assertEquals(streamingResponse.getResultTable().getDataSchema(), batchResponse.getResultTable().getDataSchema());
+      List<Object[]> streamingRows = streamingResponse.getResultTable().getRows();
+      List<Object[]> batchRows = batchResponse.getResultTable().getRows();
+      for (int i = 0; i < streamingRows.size(); i++) {
+        assertEquals(streamingRows.get(i), batchRows.get(i));
+      }
+    }
+
+    // Data tables arriving after the reduce timeout should not be reduced
+    BrokerRequest groupByBrokerRequest =
+        CalciteSqlCompiler.compileToBrokerRequest("SELECT col1, COUNT(*) FROM testTable GROUP BY col1");
+    StreamingBrokerReducer streamingBrokerReducer =
+        brokerReduceService.getStreamingBrokerReducer(groupByBrokerRequest, groupByBrokerRequest, 0L,
+            mock(BrokerMetrics.class));
+    assertNotNull(streamingBrokerReducer);
+    assertTrue(streamingBrokerReducer.isTimedOut());
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      streamingBrokerReducer.reduce(entry.getKey(), entry.getValue());
+    }
+    BrokerResponseNative timedOutResponse = streamingBrokerReducer.seal();
+    assertNull(timedOutResponse.getResultTable());
+    assertEquals(timedOutResponse.getExceptions().size(), 1);
+    assertEquals(timedOutResponse.getExceptions().get(0).getErrorCode(), QueryException.BROKER_TIMEOUT_ERROR_CODE);
+
+    // Aggregation only query is not supported by the streaming reduce
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    assertNull(brokerReduceService.getStreamingBrokerReducer(brokerRequest, brokerRequest, 10_000L,
+        mock(BrokerMetrics.class)));
+    brokerReduceService.shutDown();
+  }
+
+  @Test
+  public void testReduceColumnarDataTable()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration());
+    BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+    DataSchema selectionDataSchema =
+        new DataSchema(new String[]{"col1", "col2"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+    DataSchema groupByDataSchema = new DataSchema(new String[]{"col1", "col2", "count(*)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.LONG});
+    try {
+      // Selection only query should stop extracting rows once the limit is reached
+      BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest("SELECT col1, col2 FROM testTable");
+      Map<ServerRoutingInstance, DataTable> columnarDataTableMap =
+          getDataTableMap(DataTableFactory.VERSION_5, selectionDataSchema, false);
+      Map<ServerRoutingInstance, DataTable> dataTableMap =
+          getDataTableMap(DataTableFactory.VERSION_4, selectionDataSchema, false);
+      BrokerResponseNative columnarResponse =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, columnarDataTableMap, 10_000L,
+              brokerMetrics);
+      BrokerResponseNative response =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, dataTableMap, 10_000L, brokerMetrics);
+      assertEquals(columnarResponse.getResultTable().getRows().size(), 10);
+      assertSameResult(columnarResponse, response);
+
+      // Group-by query
+      brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(
+          "SELECT col1, col2, COUNT(*) FROM testTable GROUP BY col1, col2 ORDER BY col1, col2 LIMIT 1000");
+      columnarDataTableMap = getDataTableMap(DataTableFactory.VERSION_5, groupByDataSchema, true);
+      dataTableMap = getDataTableMap(DataTableFactory.VERSION_4, groupByDataSchema, true);
+      columnarResponse =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, columnarDataTableMap, 10_000L,
+              brokerMetrics);
+      response =
+          brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, dataTableMap, 10_000L, brokerMetrics);
+      // 10 servers with 15 rows each, where the same (i + j) % 20 key is shared across the servers
+      assertEquals(columnarResponse.getResultTable().getRows().size(), 20);
+      assertSameResult(columnarResponse, response);
+      long totalCount = 0;
+      for (Object[] row : columnarResponse.getResultTable().getRows()) {
+        totalCount += (long) row[2];
+      }
+      assertEquals(totalCount, 150L);
+    } finally {
+      DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
+      brokerReduceService.shutDown();
+    }
+  }
+
+  @Test
+  public void testServerStats()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration());
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < 2; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, 1L);
+      dataTableBuilder.finishRow();
+      DataTable dataTable = dataTableBuilder.build();
+      dataTable.getMetadata().put(DataTable.MetadataKey.TIME_USED_MS.getName(), Long.toString(10 + i));
+      dataTable.getMetadata().put(DataTable.MetadataKey.THREAD_CPU_TIME_NS.getName(), Long.toString(100 + i));
+      dataTable.getMetadata().put(DataTable.MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName(), Long.toString(1000 + i));
+      dataTableMap.put(new ServerRoutingInstance("server" + i, 8000, TableType.OFFLINE), dataTable);
+    }
+    BrokerResponseNative brokerResponse =
+        brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, dataTableMap, 10_000L,
+            mock(BrokerMetrics.class));
+    brokerReduceService.shutDown();
+
+    Map<String, Map<String, Long>> serverStats = brokerResponse.getServerStats();
+    assertEquals(serverStats.size(), 2);
+    for (int i = 0; i < 2; i++) {
+      Map<String, Long> stats = serverStats.get("server" + i + "_O");
+      assertNotNull(stats);
+      assertEquals(stats.size(), 3);
+      assertEquals(stats.get(DataTable.MetadataKey.TIME_USED_MS.getName()), Long.valueOf(10 + i));
+      assertEquals(stats.get(DataTable.MetadataKey.THREAD_CPU_TIME_NS.getName()), Long.valueOf(100 + i));
+      assertEquals(stats.get(DataTable.MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName()), Long.valueOf(1000 + i));
+    }
+    assertEquals(brokerResponse.getOfflineThreadCpuTimeNs(), 201L);
+    assertEquals(brokerResponse.getOfflineThreadMemAllocatedBytes(), 2001L);
+  }
+
+  private static Map<ServerRoutingInstance, DataTable> getDataTableMap(int version, DataSchema dataSchema,
+      boolean isGroupBy)
+      throws IOException {
+    DataTableBuilderFactory.setDataTableVersion(version);
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    int numInstances = 10;
+    int numRows = 15;
+    for (int i = 0; i < numInstances; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      for (int j = 0; j < numRows; j++) {
+        int key = (i + j) % 20;
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, key);
+        dataTableBuilder.setColumn(1, "value_" + key);
+        if (isGroupBy) {
+          dataTableBuilder.setColumn(2, 1L);
+        }
+        dataTableBuilder.finishRow();
+      }
+      // Serialize and deserialize to get the data table received by the broker
+      DataTable dataTable = DataTableFactory.getDataTable(dataTableBuilder.build().toBytes());
+      assertEquals(dataTable instanceof DataTableImplV5, version == DataTableFactory.VERSION_5);
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), dataTable);
+    }
+    return dataTableMap;
+  }
+
+  private static void assertSameResult(BrokerResponseNative actual, BrokerResponseNative expected) {
+    assertTrue(actual.getExceptions().isEmpty());
+    assertEquals(actual.getResultTable().getDataSchema(), expected.getResultTable().getDataSchema());
+    List<Object[]> actualRows = actual.getResultTable().getRows();
+    List<Object[]> expectedRows = expected.getResultTable().getRows();
+    assertEquals(actualRows.size(), expectedRows.size());
+    for (int i = 0; i < actualRows.size(); i++) {
+      assertEquals(actualRows.get(i), expectedRows.get(i));
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class SelectionOrderByStreamingReducerTest {
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"col1", "col2"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.STRING});
+  private static final int NUM_SERVERS = 3;
+  private static final int NUM_ROWS_PER_SERVER = 10;
+
+  private static DataTable getDataTable(int serverId)
+      throws IOException {
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(DATA_SCHEMA);
+    for (int i = 0; i < NUM_ROWS_PER_SERVER; i++) {
+      // Interleave the values across the servers
+      int value = i * NUM_SERVERS + serverId;
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, value);
+      dataTableBuilder.setColumn(1, "value_" + value);
+      dataTableBuilder.finishRow();
+    }
+    return dataTableBuilder.build();
+  }
+
+  @Test
+  public void testReduce()
+      throws IOException {
+    SelectionOrderByStreamingReducer reducer = new SelectionOrderByStreamingReducer(
+        QueryContextConverterUtils.getQueryContext("SELECT col1, col2 FROM testTable ORDER BY col1 DESC LIMIT 5"));
+    reducer.init(mock(DataTableReducerContext.class));
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      reducer.reduce(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), getDataTable(i));
+    }
+    BrokerResponseNative brokerResponse = reducer.seal();
+
+    assertEquals(brokerResponse.getResultTable().getDataSchema(), DATA_SCHEMA);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 5);
+    int expectedValue = NUM_SERVERS * NUM_ROWS_PER_SERVER - 1;
+    for (Object[] row : rows) {
+      assertEquals(row, new Object[]{expectedValue, "value_" + expectedValue});
+      expectedValue--;
+    }
+  }
+
+  @Test
+  public void testReduceWithOffset()
+      throws IOException {
+    SelectionOrderByStreamingReducer reducer = new SelectionOrderByStreamingReducer(
+        QueryContextConverterUtils.getQueryContext("SELECT col1, col2 FROM testTable ORDER BY col1 LIMIT 10, 5"));
+    reducer.init(mock(DataTableReducerContext.class));
+    for (int i = NUM_SERVERS - 1; i >= 0; i--) {
+      reducer.reduce(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), getDataTable(i));
+    }
+    List<Object[]> rows = reducer.seal().getResultTable().getRows();
+
+    assertEquals(rows.size(), 5);
+    int expectedValue = 10;
+    for (Object[] row : rows) {
+      assertEquals(row, new Object[]{expectedValue, "value_" + expectedValue});
+      expectedValue++;
+    }
+  }
+
+  @Test
+  public void testSealWithoutDataTable() {
+    SelectionOrderByStreamingReducer reducer = new SelectionOrderByStreamingReducer(
+        QueryContextConverterUtils.getQueryContext("SELECT col1, col2 FROM testTable ORDER BY col1 LIMIT 5"));
+    reducer.init(mock(DataTableReducerContext.class));
+    assertNull(reducer.seal().getResultTable());
+  }
+}
@@ -20,7 +20,6 @@ package org.apache.pinot.core.query.scheduler;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.Uninterruptibles;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,7 +38,6 @@ import javax.annotation.Nullable;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.datatable.DataTable.MetadataKey;
-import org.apache.pinot.common.datatable.DataTableFactory;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
@@ -95,14 +93,14 @@ public class PrioritySchedulerTest {
 
   @Test
   public void testStartStopQueries()
-      throws ExecutionException, InterruptedException, IOException {
+      throws ExecutionException, InterruptedException {
     TestPriorityScheduler scheduler = TestPriorityScheduler.create();
     scheduler.start();
 
     PropertiesConfiguration conf = new PropertiesConfiguration();
     conf.setProperty(ResourceLimitPolicy.TABLE_THREADS_HARD_LIMIT, 5);
     conf.setProperty(MultiLevelPriorityQueue.MAX_PENDING_PER_GROUP_KEY, 5);
-    List<ListenableFuture<byte[]>> results = new ArrayList<>();
+    List<ListenableFuture<DataTable>> results = new ArrayList<>();
     results.add(scheduler.submit(createServerQueryRequest("1", METRICS)));
     TestSchedulerGroup group = TestPriorityScheduler._groupFactory._groupMap.get("1");
     group.addReservedThreads(10);
@@ -114,8 +112,8 @@ public class PrioritySchedulerTest {
     long sleepTimeMs = queueWakeTimeMicros >= 1000 ? queueWakeTimeMicros / 1000 + 10 : 10;
     Thread.sleep(sleepTimeMs);
     int hasServerShuttingDownError = 0;
-    for (ListenableFuture<byte[]> result : results) {
-      DataTable table = DataTableFactory.getDataTable(result.get());
+    for (ListenableFuture<DataTable> result : results) {
+      DataTable table = result.get();
       hasServerShuttingDownError +=
           table.getExceptions().containsKey(QueryException.SERVER_SCHEDULER_DOWN_ERROR.getErrorCode()) ? 1 : 0;
     }
@@ -124,7 +122,7 @@ public class PrioritySchedulerTest {
 
   @Test
   public void testOneQuery()
-      throws InterruptedException, ExecutionException, IOException, BrokenBarrierException {
+      throws InterruptedException, ExecutionException, BrokenBarrierException {
     Map<String, Object> properties = new HashMap<>();
     properties.put(ResourceLimitPolicy.THREADS_PER_QUERY_PCT, 50);
     properties.put(ResourceLimitPolicy.TABLE_THREADS_HARD_LIMIT, 40);
@@ -136,7 +134,7 @@ public class PrioritySchedulerTest {
     TestPriorityScheduler scheduler = TestPriorityScheduler.create(new PinotConfiguration(properties));
     int totalPermits = scheduler.getRunningQueriesSemaphore().availablePermits();
     scheduler.start();
-    ListenableFuture<byte[]> result = scheduler.submit(createServerQueryRequest("1", METRICS));
+    ListenableFuture<DataTable> result = scheduler.submit(createServerQueryRequest("1", METRICS));
     _startupBarrier.await();
     TestSchedulerGroup group = TestPriorityScheduler._groupFactory._groupMap.get("1");
     assertEquals(group.numRunning(), 1);
@@ -146,8 +144,7 @@ public class PrioritySchedulerTest {
     // number of segments. On servers with less cores, this can assign only 1 thread (less than total segments)
     assertTrue(group.totalReservedThreads() <= 2 /* 2: numSegments in request*/);
     _validationBarrier.await();
-    byte[] resultData = result.get();
-    DataTable table = DataTableFactory.getDataTable(resultData);
+    DataTable table = result.get();
     assertEquals(table.getMetadata().get(MetadataKey.TABLE.getName()), "1");
     // verify that accounting is handled right
     assertEquals(group.numPending(), 0);
@@ -174,7 +171,7 @@ public class PrioritySchedulerTest {
     final TestPriorityScheduler scheduler = TestPriorityScheduler.create(new PinotConfiguration(properties));
     scheduler.start();
     final Random random = new Random();
-    final ConcurrentLinkedQueue<ListenableFuture<byte[]>> results = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<ListenableFuture<DataTable>> results = new ConcurrentLinkedQueue<>();
     final int numThreads = 3;
     final int queriesPerThread = 10;
     _numQueries = new CountDownLatch(numThreads * queriesPerThread);
@@ -206,13 +203,13 @@ public class PrioritySchedulerTest {
     properties.put(MultiLevelPriorityQueue.MAX_PENDING_PER_GROUP_KEY, 1);
     TestPriorityScheduler scheduler = TestPriorityScheduler.create(new PinotConfiguration(properties));
     scheduler.start();
-    List<ListenableFuture<byte[]>> results = new ArrayList<>();
+    List<ListenableFuture<DataTable>> results = new ArrayList<>();
     results.add(scheduler.submit(createServerQueryRequest("1", METRICS)));
     TestSchedulerGroup group = TestPriorityScheduler._groupFactory._groupMap.get("1");
     group.addReservedThreads(10);
     group.addLast(createQueryRequest("1", METRICS));
     results.add(scheduler.submit(createServerQueryRequest("1", METRICS)));
-    DataTable dataTable = DataTableFactory.getDataTable(results.get(1).get());
+    DataTable dataTable = results.get(1).get();
     assertTrue(dataTable.getMetadata()
         .containsKey(DataTable.EXCEPTION_METADATA_KEY + QueryException.SERVER_OUT_OF_CAPACITY_ERROR.getErrorCode()));
     scheduler.stop();
@@ -220,11 +217,11 @@ public class PrioritySchedulerTest {
 
   @Test
   public void testSubmitBeforeRunning()
-      throws ExecutionException, InterruptedException, IOException {
+      throws ExecutionException, InterruptedException {
     TestPriorityScheduler scheduler = TestPriorityScheduler.create();
-    ListenableFuture<byte[]> result = scheduler.submit(createServerQueryRequest("1", METRICS));
+    ListenableFuture<DataTable> result = scheduler.submit(createServerQueryRequest("1", METRICS));
     // start is not called
-    DataTable response = DataTableFactory.getDataTable(result.get());
+    DataTable response = result.get();
     assertTrue(response.getExceptions().containsKey(QueryException.SERVER_SCHEDULER_DOWN_ERROR.getErrorCode()));
     assertFalse(response.getMetadata().containsKey(MetadataKey.TABLE.getName()));
     scheduler.stop();
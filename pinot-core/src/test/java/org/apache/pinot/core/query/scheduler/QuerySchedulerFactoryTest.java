@@ -20,6 +20,7 @@ package org.apache.pinot.core.query.scheduler;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.concurrent.atomic.LongAccumulator;
+import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
@@ -68,7 +69,7 @@ public class QuerySchedulerFactoryTest {
     }
 
     @Override
-    public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
+    public ListenableFuture<DataTable> submit(ServerQueryRequest queryRequest) {
       throw new UnsupportedOperationException();
     }
 
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTable.MetadataKey;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.transport.server.routing.stats.ServerRoutingStatsManager;
+import org.apache.pinot.spi.config.table.TableType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class AsyncQueryResponseTest {
+  private static final ServerRoutingInstance SERVER_1 = new ServerRoutingInstance("localhost", 1, TableType.OFFLINE);
+  private static final ServerRoutingInstance SERVER_2 = new ServerRoutingInstance("localhost", 2, TableType.OFFLINE);
+
+  private final ExecutorService _executorService = Executors.newSingleThreadExecutor();
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+  }
+
+  private static AsyncQueryResponse getAsyncQueryResponse(long timeoutMs) {
+    return new AsyncQueryResponse(mock(QueryRouter.class), 1L, Set.of(SERVER_1, SERVER_2), System.currentTimeMillis(),
+        timeoutMs, mock(ServerRoutingStatsManager.class));
+  }
+
+  @Test
+  public void testPollNextArrivedServer()
+      throws Exception {
+    AsyncQueryResponse asyncQueryResponse = getAsyncQueryResponse(60_000L);
+    DataTable dataTable = mock(DataTable.class);
+
+    // Servers should be returned in the order of arrival
+    asyncQueryResponse.receiveDataTable(SERVER_2, dataTable, null, 100, 1);
+    assertEquals(asyncQueryResponse.pollNextArrivedServer(), SERVER_2);
+    _executorService.submit(() -> {
+      Thread.sleep(100L);
+      asyncQueryResponse.receiveDataTable(SERVER_1, dataTable, null, 100, 1);
+      return null;
+    });
+    assertEquals(asyncQueryResponse.pollNextArrivedServer(), SERVER_1);
+    assertEquals(asyncQueryResponse.getCurrentResponses().get(SERVER_1).getDataTable(), dataTable);
+
+    // No more server is expected after all the servers responded
+    assertNull(asyncQueryResponse.pollNextArrivedServer());
+  }
+
+  @Test
+  public void testPollNextArrivedServerOnFailure()
+      throws Exception {
+    AsyncQueryResponse asyncQueryResponse = getAsyncQueryResponse(60_000L);
+
+    // The failed server should be returned without a data table, then no more server is expected
+    asyncQueryResponse.markQueryFailed(SERVER_1, new RuntimeException("test"));
+    assertEquals(asyncQueryResponse.pollNextArrivedServer(), SERVER_1);
+    assertNull(asyncQueryResponse.getCurrentResponses().get(SERVER_1).getDataTable());
+    assertNull(asyncQueryResponse.pollNextArrivedServer());
+  }
+
+  @Test
+  public void testPollNextArrivedServerOnTimeout()
+      throws Exception {
+    long timeoutMs = 200L;
+    AsyncQueryResponse asyncQueryResponse = getAsyncQueryResponse(timeoutMs);
+    asyncQueryResponse.receiveDataTable(SERVER_1, mock(DataTable.class), null, 100, 1);
+    assertEquals(asyncQueryResponse.pollNextArrivedServer(), SERVER_1);
+
+    // Should stop waiting for the remaining server when the query times out
+    long startTimeNs = System.nanoTime();
+    assertNull(asyncQueryResponse.pollNextArrivedServer());
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNs) < 10 * timeoutMs);
+  }
+
+  @Test
+  public void testReleaseDataTables()
+      throws Exception {
+    AsyncQueryResponse asyncQueryResponse = getAsyncQueryResponse(60_000L);
+    DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), "1");
+    ByteBuf buffer1 = dataTable.toByteBuf(PooledByteBufAllocator.DEFAULT);
+    ByteBuf buffer2 = dataTable.toByteBuf(PooledByteBufAllocator.DEFAULT);
+
+    // The buffer should be retained by the response, and the data table should be readable after the caller releases
+    // its own reference
+    asyncQueryResponse.receiveDataTable(SERVER_1, DataTableFactory.getDataTable(buffer1.nioBuffer()), buffer1.retain(),
+        buffer1.readableBytes(), 1);
+    buffer1.release();
+    assertEquals(buffer1.refCnt(), 1);
+    assertEquals(asyncQueryResponse.getCurrentResponses().get(SERVER_1).getDataTable().getMetadata()
+        .get(MetadataKey.REQUEST_ID.getName()), "1");
+
+    // The buffer should be released after the data tables are released
+    asyncQueryResponse.releaseDataTables();
+    assertEquals(buffer1.refCnt(), 0);
+
+    // Data table arriving after the data tables are released should be released immediately
+    asyncQueryResponse.receiveDataTable(SERVER_2, DataTableFactory.getDataTable(buffer2.nioBuffer()), buffer2.retain(),
+        buffer2.readableBytes(), 1);
+    buffer2.release();
+    assertEquals(buffer2.refCnt(), 0);
+    assertNull(asyncQueryResponse.getCurrentResponses().get(SERVER_2).getDataTable());
+
+    // Releasing the data tables again should be no-op
+    asyncQueryResponse.releaseDataTables();
+  }
+}
@@ -18,26 +18,43 @@
  */
 package org.apache.pinot.core.transport;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Function;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTable.MetadataKey;
+import org.apache.pinot.common.datatable.DataTableFactory;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
 import org.apache.pinot.server.access.AccessControl;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.mockito.ArgumentCaptor;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -46,7 +63,8 @@ public class InstanceRequestHandlerTest {
   public void testCancelQuery() {
     PinotConfiguration config = new PinotConfiguration();
     config.setProperty("pinot.server.enable.query.cancellation", "true");
-    QueryScheduler qs = createQueryScheduler(config);
+    // Create a FutureTask does nothing but waits to be cancelled and trigger callbacks.
+    QueryScheduler qs = createQueryScheduler(config, queryRequest -> ListenableFutureTask.create(() -> null));
     InstanceRequestHandler handler =
         new InstanceRequestHandler("server01", config, qs, mock(ServerMetrics.class), mock(AccessControl.class));
 
@@ -59,6 +77,7 @@ public class InstanceRequestHandlerTest {
       when(query.getQueryId()).thenReturn(id);
       ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
       ChannelFuture chFu = mock(ChannelFuture.class);
+      when(ctx.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
       when(ctx.writeAndFlush(any())).thenReturn(chFu);
       handler.submitQuery(query, ctx, "myTable01", System.currentTimeMillis(), mock(InstanceRequest.class));
     }
@@ -70,13 +89,73 @@ public class InstanceRequestHandlerTest {
     Assert.assertFalse(handler.cancelQuery("unknown"));
   }
 
-  private QueryScheduler createQueryScheduler(PinotConfiguration config) {
+  @Test
+  public void testSendResponseInDirectBuffer()
+      throws IOException {
+    DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), "123");
+    ByteBuf response = submitQueryAndGetResponse(dataTable, Collections.emptyMap());
+    try {
+      // Response should be serialized into a direct buffer allocated from the channel
+      Assert.assertTrue(response.isDirect());
+      Assert.assertEquals(response.refCnt(), 1);
+      DataTable receivedDataTable = DataTableFactory.getDataTable(response.nioBuffer());
+      Assert.assertEquals(receivedDataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName()), "123");
+      Assert.assertTrue(receivedDataTable.getExceptions().isEmpty());
+    } finally {
+      response.release();
+    }
+  }
+
+  @Test
+  public void testSendResponseExceedingMaxResponseSize()
+      throws IOException {
+    DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), "123");
+    ByteBuf response = submitQueryAndGetResponse(dataTable,
+        Collections.singletonMap(QueryOptionKey.MAX_SERVER_RESPONSE_SIZE_BYTES, "1"));
+    try {
+      // The oversized response should be replaced with an exception
+      Assert.assertTrue(response.isDirect());
+      DataTable receivedDataTable = DataTableFactory.getDataTable(response.nioBuffer());
+      Assert.assertEquals(receivedDataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName()), "123");
+      Assert.assertTrue(
+          receivedDataTable.getExceptions().containsKey(QueryException.QUERY_CANCELLATION_ERROR.getErrorCode()));
+    } finally {
+      response.release();
+    }
+  }
+
+  private ByteBuf submitQueryAndGetResponse(DataTable dataTable, Map<String, String> queryOptions) {
+    PinotConfiguration config = new PinotConfiguration();
+    QueryScheduler qs = createQueryScheduler(config, queryRequest -> Futures.immediateFuture(dataTable));
+    InstanceRequestHandler handler =
+        new InstanceRequestHandler("server01", config, qs, mock(ServerMetrics.class), mock(AccessControl.class));
+
+    ServerQueryRequest query = mock(ServerQueryRequest.class);
+    QueryContext queryContext = mock(QueryContext.class);
+    when(queryContext.getQueryOptions()).thenReturn(queryOptions);
+    when(query.getQueryId()).thenReturn("foo");
+    when(query.getRequestId()).thenReturn(123L);
+    when(query.getTableNameWithType()).thenReturn("myTable01_OFFLINE");
+    when(query.getQueryContext()).thenReturn(queryContext);
+    ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+    when(ctx.alloc()).thenReturn(PooledByteBufAllocator.DEFAULT);
+    when(ctx.writeAndFlush(any())).thenReturn(mock(ChannelFuture.class));
+    handler.submitQuery(query, ctx, "myTable01_OFFLINE", System.currentTimeMillis(), mock(InstanceRequest.class));
+
+    ArgumentCaptor<ByteBuf> responseCaptor = ArgumentCaptor.forClass(ByteBuf.class);
+    verify(ctx).writeAndFlush(responseCaptor.capture());
+    return responseCaptor.getValue();
+  }
+
+  private QueryScheduler createQueryScheduler(PinotConfiguration config,
+      Function<ServerQueryRequest, ListenableFuture<DataTable>> submitFunction) {
     return new QueryScheduler(config, mock(QueryExecutor.class), mock(ResourceManager.class), mock(ServerMetrics.class),
         new LongAccumulator(Long::max, 0)) {
       @Override
-      public ListenableFuture<byte[]> submit(ServerQueryRequest queryRequest) {
-        // Create a FutureTask does nothing but waits to be cancelled and trigger callbacks.
-        return ListenableFutureTask.create(() -> null);
+      public ListenableFuture<DataTable> submit(ServerQueryRequest queryRequest) {
+        return submitFunction.apply(queryRequest);
       }
 
       @Override
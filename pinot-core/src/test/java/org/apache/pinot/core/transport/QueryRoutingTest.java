@@ -19,6 +19,9 @@
 package org.apache.pinot.core.transport;
 
 import com.google.common.util.concurrent.Futures;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +29,7 @@ import java.util.Map;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.datatable.DataTable.MetadataKey;
+import org.apache.pinot.common.datatable.DataTableFactory;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -84,19 +88,19 @@ public class QueryRoutingTest {
     ServerMetrics.deregister();
   }
 
-  private QueryServer getQueryServer(int responseDelayMs, byte[] responseBytes) {
+  private QueryServer getQueryServer(int responseDelayMs, DataTable responseDataTable) {
     ServerMetrics serverMetrics = mock(ServerMetrics.class);
     InstanceRequestHandler handler = new InstanceRequestHandler("server01", new PinotConfiguration(),
-        mockQueryScheduler(responseDelayMs, responseBytes), serverMetrics, mock(AccessControl.class));
+        mockQueryScheduler(responseDelayMs, responseDataTable), serverMetrics, mock(AccessControl.class));
     ServerMetrics.register(serverMetrics);
     return new QueryServer(TEST_PORT, null, handler);
   }
 
-  private QueryScheduler mockQueryScheduler(int responseDelayMs, byte[] responseBytes) {
+  private QueryScheduler mockQueryScheduler(int responseDelayMs, DataTable responseDataTable) {
     QueryScheduler queryScheduler = mock(QueryScheduler.class);
     when(queryScheduler.submit(any())).thenAnswer(invocation -> {
       Thread.sleep(responseDelayMs);
-      return Futures.immediateFuture(responseBytes);
+      return Futures.immediateFuture(responseDataTable);
     });
     return queryScheduler;
   }
@@ -107,11 +111,11 @@ public class QueryRoutingTest {
     long requestId = 123;
     DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
     dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
-    byte[] responseBytes = dataTable.toBytes();
+    int responseSize = dataTable.toBytes().length;
     String serverId = SERVER_INSTANCE.getInstanceId();
 
     // Start the server
-    QueryServer queryServer = getQueryServer(0, responseBytes);
+    QueryServer queryServer = getQueryServer(0, dataTable);
     queryServer.start();
 
     // OFFLINE only
@@ -122,7 +126,10 @@ public class QueryRoutingTest {
     assertTrue(response.containsKey(OFFLINE_SERVER_ROUTING_INSTANCE));
     ServerResponse serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
     assertNotNull(serverResponse.getDataTable());
-    assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    assertEquals(serverResponse.getDataTable().getMetadata().get(MetadataKey.REQUEST_ID.getName()),
+        Long.toString(requestId));
+    assertEquals(serverResponse.getResponseSize(), responseSize);
+    asyncQueryResponse.releaseDataTables();
     // 2 requests - query submit and query response.
     _requestCount += 2;
     waitForStatsUpdate(_requestCount);
@@ -136,7 +143,8 @@ public class QueryRoutingTest {
     assertTrue(response.containsKey(REALTIME_SERVER_ROUTING_INSTANCE));
     serverResponse = response.get(REALTIME_SERVER_ROUTING_INSTANCE);
     assertNotNull(serverResponse.getDataTable());
-    assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    assertEquals(serverResponse.getResponseSize(), responseSize);
+    asyncQueryResponse.releaseDataTables();
     _requestCount += 2;
     waitForStatsUpdate(_requestCount);
     assertEquals(_serverRoutingStatsManager.fetchNumInFlightRequestsForServer(serverId).intValue(), 0);
@@ -150,11 +158,12 @@ public class QueryRoutingTest {
     assertTrue(response.containsKey(OFFLINE_SERVER_ROUTING_INSTANCE));
     serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
     assertNotNull(serverResponse.getDataTable());
-    assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    assertEquals(serverResponse.getResponseSize(), responseSize);
     assertTrue(response.containsKey(REALTIME_SERVER_ROUTING_INSTANCE));
     serverResponse = response.get(REALTIME_SERVER_ROUTING_INSTANCE);
     assertNotNull(serverResponse.getDataTable());
-    assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    assertEquals(serverResponse.getResponseSize(), responseSize);
+    asyncQueryResponse.releaseDataTables();
     _requestCount += 4;
     waitForStatsUpdate(_requestCount);
     assertEquals(_serverRoutingStatsManager.fetchNumInFlightRequestsForServer(serverId).intValue(), 0);
@@ -170,7 +179,10 @@ public class QueryRoutingTest {
     String serverId = SERVER_INSTANCE.getInstanceId();
 
     // Start the server
-    QueryServer queryServer = getQueryServer(0, new byte[0]);
+    // Send an empty response which cannot be deserialized
+    DataTable dataTable = mock(DataTable.class);
+    when(dataTable.toByteBuf(any())).thenReturn(Unpooled.EMPTY_BUFFER);
+    QueryServer queryServer = getQueryServer(0, dataTable);
     queryServer.start();
 
     long startTimeMs = System.currentTimeMillis();
@@ -200,11 +212,10 @@ public class QueryRoutingTest {
     long requestId = 123;
     DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
     dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
-    byte[] responseBytes = dataTable.toBytes();
     String serverId = SERVER_INSTANCE.getInstanceId();
 
     // Start the server
-    QueryServer queryServer = getQueryServer(0, responseBytes);
+    QueryServer queryServer = getQueryServer(0, dataTable);
     queryServer.start();
 
     long startTimeMs = System.currentTimeMillis();
@@ -237,11 +248,10 @@ public class QueryRoutingTest {
     long timeoutMs = 2000L;
     DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
     dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
-    byte[] responseBytes = dataTable.toBytes();
     String serverId = SERVER_INSTANCE.getInstanceId();
 
     // Start the server
-    QueryServer queryServer = getQueryServer(500, responseBytes);
+    QueryServer queryServer = getQueryServer(500, dataTable);
     queryServer.start();
 
     long startTimeMs = System.currentTimeMillis();
@@ -286,6 +296,22 @@ public class QueryRoutingTest {
     assertEquals(_serverRoutingStatsManager.fetchNumInFlightRequestsForServer(serverId).intValue(), 0);
   }
 
+  @Test
+  public void testReceiveDataTableAfterQueryDone()
+      throws Exception {
+    DataTable dataTable = DataTableBuilderFactory.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), "456");
+    ByteBuf buffer = dataTable.toByteBuf(PooledByteBufAllocator.DEFAULT);
+    try {
+      // The buffer should not be retained when there is no query waiting for the response
+      _queryRouter.receiveDataTable(OFFLINE_SERVER_ROUTING_INSTANCE, DataTableFactory.getDataTable(buffer.nioBuffer()),
+          buffer, buffer.readableBytes(), 1);
+      assertEquals(buffer.refCnt(), 1);
+    } finally {
+      buffer.release();
+    }
+  }
+
   private void waitForStatsUpdate(long taskCount) {
     TestUtils.waitForCondition(aVoid -> {
       return (_serverRoutingStatsManager.getCompletedTaskCount() == taskCount);
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+import java.util.Random;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class VectorOpsTest {
+  private static final Random RANDOM = new Random();
+  // Not a multiple of the vector length so that the tail is also tested
+  private static final int NUM_VALUES = 1003;
+
+  /**
+   * Returns the {@link VectorOps} to test, where the tests under src/test/java21 override it to test the SIMD
+   * implementation.
+   */
+  @DataProvider
+  public Object[][] vectorOps() {
+    return new Object[][]{new Object[]{ScalarVectorOps.INSTANCE}};
+  }
+
+  @Test(dataProvider = "vectorOps")
+  public void testFilterRange(VectorOps vectorOps) {
+    int[] intValues = new int[NUM_VALUES];
+    long[] longValues = new long[NUM_VALUES];
+    float[] floatValues = new float[NUM_VALUES];
+    double[] doubleValues = new double[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      intValues[i] = RANDOM.nextInt(100);
+      longValues[i] = intValues[i] - 50L;
+      floatValues[i] = intValues[i] / 10f;
+      doubleValues[i] = intValues[i] / 10.0;
+    }
+    // Range and equality, where the doc ids are not consecutive
+    int[][] bounds = new int[][]{{20, 60}, {0, 99}, {42, 42}, {100, 200}};
+    for (int[] bound : bounds) {
+      int lower = bound[0];
+      int upper = bound[1];
+      for (int limit : new int[]{0, 7, NUM_VALUES}) {
+        int[] expectedDocIds = new int[limit];
+        int numExpectedMatches = 0;
+        for (int i = 0; i < limit; i++) {
+          if (intValues[i] >= lower && intValues[i] <= upper) {
+            expectedDocIds[numExpectedMatches++] = 3 * i;
+          }
+        }
+        int[] docIds = getDocIds();
+        checkDocIds(vectorOps.filterRange(limit, docIds, intValues, lower, upper), docIds, expectedDocIds,
+            numExpectedMatches);
+        docIds = getDocIds();
+        checkDocIds(vectorOps.filterRange(limit, docIds, longValues, lower - 50L, upper - 50L), docIds,
+            expectedDocIds, numExpectedMatches);
+        docIds = getDocIds();
+        checkDocIds(vectorOps.filterRange(limit, docIds, floatValues, lower / 10f, upper / 10f), docIds,
+            expectedDocIds, numExpectedMatches);
+        docIds = getDocIds();
+        checkDocIds(vectorOps.filterRange(limit, docIds, doubleValues, lower / 10.0, upper / 10.0), docIds,
+            expectedDocIds, numExpectedMatches);
+      }
+    }
+  }
+
+  private static int[] getDocIds() {
+    int[] docIds = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      docIds[i] = 3 * i;
+    }
+    return docIds;
+  }
+
+  private static void checkDocIds(int numMatches, int[] docIds, int[] expectedDocIds, int numExpectedMatches) {
+    assertEquals(numMatches, numExpectedMatches);
+    for (int i = 0; i < numMatches; i++) {
+      assertEquals(docIds[i], expectedDocIds[i]);
+    }
+  }
+
+  @Test(dataProvider = "vectorOps")
+  public void testAggregation(VectorOps vectorOps) {
+    double[] values = new double[NUM_VALUES];
+    double expectedSum = 1.0;
+    double expectedMin = 0.0;
+    double expectedMax = 0.0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      // Integer values so that the sum is exact in any order
+      values[i] = RANDOM.nextInt(2000) - 1000;
+      expectedSum += values[i];
+      expectedMin = Math.min(expectedMin, values[i]);
+      expectedMax = Math.max(expectedMax, values[i]);
+    }
+    assertEquals(vectorOps.sum(1.0, values, NUM_VALUES), expectedSum);
+    assertEquals(vectorOps.min(0.0, values, NUM_VALUES), expectedMin);
+    assertEquals(vectorOps.max(0.0, values, NUM_VALUES), expectedMax);
+
+    // Empty block returns the initial value
+    assertEquals(vectorOps.sum(1.0, values, 0), 1.0);
+    assertEquals(vectorOps.min(Double.POSITIVE_INFINITY, values, 0), Double.POSITIVE_INFINITY);
+    assertEquals(vectorOps.max(Double.NEGATIVE_INFINITY, values, 0), Double.NEGATIVE_INFINITY);
+  }
+}
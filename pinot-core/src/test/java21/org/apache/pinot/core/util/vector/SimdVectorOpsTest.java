@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.util.vector;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Runs the {@link VectorOpsTest} against the {@link SimdVectorOps}, which requires the JVM to be started with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+public class SimdVectorOpsTest extends VectorOpsTest {
+
+  @DataProvider
+  @Override
+  public Object[][] vectorOps() {
+    return new Object[][]{new Object[]{new SimdVectorOps()}};
+  }
+
+  @Test
+  public void testVectorOpsProvider() {
+    assertTrue(VectorOpsProvider.getVectorOps() instanceof SimdVectorOps);
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.dedup.PartitionDedupMetadataManager;
+import org.apache.pinot.segment.local.dedup.TableDedupMetadataManager;
+import org.apache.pinot.segment.local.dedup.TableDedupMetadataManagerFactory;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImplTestUtils;
+import org.apache.pinot.spi.config.table.DedupConfig;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.metrics.PinotMetricUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks the dedup hot path of the ConcurrentMapPartitionDedupMetadataManager by indexing a synthetic stream into
+ * a {@link MutableSegmentImpl}, which checks each record against the metadata manager and drops the duplicates.
+ * <ul>
+ *   <li>Throughput is reported as records per second</li>
+ *   <li>Allocation rate is reported by the {@link GCProfiler} (gc.alloc.rate.norm is the bytes per record)</li>
+ *   <li>Retained heap of the metadata manager per million primary keys is reported as an auxiliary counter</li>
+ * </ul>
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BenchmarkDedupMetadataManager {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String PRIMARY_KEY_COLUMN = "pk";
+  private static final String VALUE_COLUMN = "value";
+  private static final String TIME_COLUMN = "ts";
+  private static final int NUM_RECORDS = 100_000;
+
+  // Number of distinct primary keys the non-duplicate records are drawn from
+  @Param({"10000", "100000", "1000000"})
+  private int _cardinality;
+  @Param({"0", "20", "80"})
+  private int _duplicatePercent;
+  @Param({"NONE", "MD5"})
+  private String _hashFunction;
+
+  private Schema _schema;
+  private TableConfig _tableConfig;
+  private GenericRow[] _rows;
+  private int _numPrimaryKeys;
+
+  private TableDedupMetadataManager _tableDedupMetadataManager;
+  private MutableSegmentImpl _mutableSegment;
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkDedupMetadataManager.class.getSimpleName())
+        .addProfiler(GCProfiler.class).build()).run();
+  }
+
+  @Setup
+  public void setUp() {
+    ServerMetrics.register(new ServerMetrics(PinotMetricUtils.getPinotMetricsRegistry()));
+    _schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(PRIMARY_KEY_COLUMN, DataType.LONG).addMetric(VALUE_COLUMN, DataType.INT)
+        .addDateTime(TIME_COLUMN, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS")
+        .setPrimaryKeyColumns(Collections.singletonList(PRIMARY_KEY_COLUMN)).build();
+    _tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME)
+        .setTimeColumnName(TIME_COLUMN).setDedupConfig(new DedupConfig(true, HashFunction.valueOf(_hashFunction)))
+        .build();
+
+    // Duplicate records reuse the primary key of a random previous record
+    Random random = new Random(42);
+    long[] primaryKeys = new long[NUM_RECORDS];
+    boolean[] seen = new boolean[_cardinality];
+    _rows = new GenericRow[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      int key;
+      if (i > 0 && random.nextInt(100) < _duplicatePercent) {
+        key = (int) primaryKeys[random.nextInt(i)];
+      } else {
+        key = random.nextInt(_cardinality);
+      }
+      primaryKeys[i] = key;
+      if (!seen[key]) {
+        seen[key] = true;
+        _numPrimaryKeys++;
+      }
+      GenericRow row = new GenericRow();
+      row.putValue(PRIMARY_KEY_COLUMN, (long) key);
+      row.putValue(VALUE_COLUMN, random.nextInt(1000));
+      row.putValue(TIME_COLUMN, (long) i);
+      _rows[i] = row;
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation(RetainedHeapCounters counters)
+      throws IOException {
+    if (_tableDedupMetadataManager != null) {
+      counters._retainedBytesPerMillionKeys = releaseMetadataManager() * 1_000_000 / _numPrimaryKeys;
+    }
+    _tableDedupMetadataManager = TableDedupMetadataManagerFactory.create(_tableConfig, _schema, null,
+        ServerMetrics.get());
+    PartitionDedupMetadataManager partitionDedupMetadataManager =
+        _tableDedupMetadataManager.getOrCreatePartitionManager(0);
+    _mutableSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, Collections.emptySet(), Collections.emptySet(),
+            Collections.emptySet(), false, false, null, TIME_COLUMN, null, partitionDedupMetadataManager);
+  }
+
+  /**
+   * Releases the metadata manager and the segment, and returns the heap retained by the metadata manager.
+   */
+  private long releaseMetadataManager()
+      throws IOException {
+    _mutableSegment.destroy();
+    _mutableSegment = null;
+    long usedHeap = getUsedHeapAfterGc();
+    _tableDedupMetadataManager.close();
+    _tableDedupMetadataManager = null;
+    return usedHeap - getUsedHeapAfterGc();
+  }
+
+  private static long getUsedHeapAfterGc() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @TearDown
+  public void tearDown()
+      throws IOException {
+    if (_tableDedupMetadataManager != null) {
+      releaseMetadataManager();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public int indexRecords(RetainedHeapCounters counters)
+      throws IOException {
+    for (GenericRow row : _rows) {
+      _mutableSegment.index(row, null);
+    }
+    return _mutableSegment.getNumDocsIndexed();
+  }
+
+  /**
+   * The retained heap is measured when the metadata manager is released before the next invocation, so the value
+   * reported for an iteration comes from the invocation before its last one. It is passed to the benchmark method so
+   * that it is reported with the results.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RetainedHeapCounters {
+    private long _retainedBytesPerMillionKeys;
+
+    public long retainedBytesPerMillionKeys() {
+      return _retainedBytesPerMillionKeys;
+    }
+  }
+}
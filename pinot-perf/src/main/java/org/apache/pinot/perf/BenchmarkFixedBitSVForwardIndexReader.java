@@ -26,6 +26,7 @@ import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -58,6 +59,8 @@ public class BenchmarkFixedBitSVForwardIndexReader {
   private PinotDataBuffer _dataBuffer;
   private FixedBitSVForwardIndexReader _reader;
   private FixedBitSVForwardIndexReaderV2 _readerV2;
+  // The reader context enables the bulk decode and gather for the near-dense doc ids
+  private ForwardIndexReaderContext _readerV2Context;
 
   private final int[] _sequentialDocIds = new int[NUM_DOC_IDS];
   private final int[] _denseDocIds = new int[NUM_DOC_IDS];
@@ -85,6 +88,7 @@ public class BenchmarkFixedBitSVForwardIndexReader {
     _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
     _reader = new FixedBitSVForwardIndexReader(_dataBuffer, NUM_VALUES, _numBits);
     _readerV2 = new FixedBitSVForwardIndexReaderV2(_dataBuffer, NUM_VALUES, _numBits);
+    _readerV2Context = _readerV2.createContext();
 
     int sequentialDocId = RANDOM.nextInt(32);
     int denseDocId = RANDOM.nextInt(32);
@@ -142,6 +146,18 @@ public class BenchmarkFixedBitSVForwardIndexReader {
     return _dictIdBuffer[0];
   }
 
+  @Benchmark
+  public int readerV2DenseWithContext() {
+    _readerV2.readDictIds(_denseDocIds, NUM_DOC_IDS, _dictIdBuffer, _readerV2Context);
+    return _dictIdBuffer[0];
+  }
+
+  @Benchmark
+  public int readerV2SparseWithContext() {
+    _readerV2.readDictIds(_sparseDocIds, NUM_DOC_IDS, _dictIdBuffer, _readerV2Context);
+    return _dictIdBuffer[0];
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkFixedBitSVForwardIndexReader.class.getSimpleName()).build()).run();
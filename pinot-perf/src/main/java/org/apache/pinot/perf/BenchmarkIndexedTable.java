@@ -63,6 +63,9 @@ public class BenchmarkIndexedTable {
 
   private QueryContext _queryContext;
   private DataSchema _dataSchema;
+  // Group by 2 INT columns, where the group key fits into a primitive long
+  private QueryContext _fixedWidthKeyQueryContext;
+  private DataSchema _fixedWidthKeyDataSchema;
 
   private List<String> _d1;
   private List<Integer> _d2;
@@ -93,6 +96,14 @@ public class BenchmarkIndexedTable {
         DataSchema.ColumnDataType.DOUBLE
     });
 
+    _fixedWidthKeyQueryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT sum(m1), max(m2) FROM testTable GROUP BY d2, d3 ORDER BY sum(m1) LIMIT 500");
+    _fixedWidthKeyDataSchema = new DataSchema(new String[]{"d2", "d3", "sum(m1)", "max(m2)"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.DOUBLE,
+            DataSchema.ColumnDataType.DOUBLE
+        });
+
     _executorService = Executors.newFixedThreadPool(10);
   }
 
@@ -109,6 +120,14 @@ public class BenchmarkIndexedTable {
     return new Record(columns);
   }
 
+  private Record getNewFixedWidthKeyRecord() {
+    Object[] columns = new Object[]{
+        _d2.get(RANDOM.nextInt(_d2.size())), _d2.get(RANDOM.nextInt(_d2.size())), (double) RANDOM.nextInt(1000),
+        (double) RANDOM.nextInt(1000)
+    };
+    return new Record(columns);
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -198,6 +217,24 @@ public class BenchmarkIndexedTable {
     mergedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void simpleIndexedTableFixedWidthKeys() {
+    int numSegments = 10;
+
+    // put 10k records with fixed-width keys into 1 indexed table, which uses the primitive long keyed lookup map
+    IndexedTable simpleIndexedTable =
+        new SimpleIndexedTable(_fixedWidthKeyDataSchema, _fixedWidthKeyQueryContext, TRIM_SIZE, TRIM_SIZE,
+            TRIM_THRESHOLD);
+    for (int i = 0; i < numSegments; i++) {
+      for (int r = 0; r < NUM_RECORDS; r++) {
+        simpleIndexedTable.upsert(getNewFixedWidthKeyRecord());
+      }
+    }
+    simpleIndexedTable.finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImplTestUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks indexing records into a {@link MutableSegmentImpl} one by one versus in columnar batches. The segment has
+ * dictionary-encoded dimensions (one of them with inverted index) and raw metrics.
+ * <p>Batch size 1 uses the row-at-a-time path. Throughput is reported as records per second.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BenchmarkMutableSegmentIndexing {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String INT_DIMENSION = "intDim";
+  private static final String LONG_DIMENSION = "longDim";
+  private static final String STRING_DIMENSION = "stringDim";
+  private static final String INT_METRIC = "intMetric";
+  private static final String DOUBLE_METRIC = "doubleMetric";
+  private static final int NUM_RECORDS = 100_000;
+
+  @Param({"1", "100", "1000"})
+  private int _batchSize;
+  @Param({"100", "10000"})
+  private int _cardinality;
+
+  private Schema _schema;
+  private GenericRow[] _rows;
+  private MutableSegmentImpl _mutableSegment;
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkMutableSegmentIndexing.class.getSimpleName()).build()).run();
+  }
+
+  @Setup
+  public void setUp() {
+    _schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(INT_DIMENSION, DataType.INT).addSingleValueDimension(LONG_DIMENSION, DataType.LONG)
+        .addSingleValueDimension(STRING_DIMENSION, DataType.STRING).addMetric(INT_METRIC, DataType.INT)
+        .addMetric(DOUBLE_METRIC, DataType.DOUBLE).build();
+
+    Random random = new Random(42);
+    _rows = new GenericRow[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow row = new GenericRow();
+      int key = random.nextInt(_cardinality);
+      row.putValue(INT_DIMENSION, key);
+      row.putValue(LONG_DIMENSION, (long) random.nextInt(_cardinality));
+      row.putValue(STRING_DIMENSION, "value-" + random.nextInt(_cardinality));
+      row.putValue(INT_METRIC, random.nextInt(1000));
+      row.putValue(DOUBLE_METRIC, random.nextDouble());
+      _rows[i] = row;
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    Set<String> noDictionaryColumns = Set.of(INT_METRIC, DOUBLE_METRIC);
+    _mutableSegment = MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, noDictionaryColumns,
+        Collections.emptySet(), Collections.singleton(INT_DIMENSION), false);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() {
+    _mutableSegment.destroy();
+    _mutableSegment = null;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public int indexRecords()
+      throws IOException {
+    if (_batchSize == 1) {
+      for (GenericRow row : _rows) {
+        _mutableSegment.index(row, null);
+      }
+    } else {
+      List<GenericRow> rows = Arrays.asList(_rows);
+      for (int i = 0; i < NUM_RECORDS; i += _batchSize) {
+        _mutableSegment.index(rows.subList(i, Math.min(i + _batchSize, NUM_RECORDS)), null);
+      }
+    }
+    return _mutableSegment.getNumDocsIndexed();
+  }
+}
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.segment.local.indexsegment.mutable.MutableSegmentImplTestUtils;
+import org.apache.pinot.segment.local.upsert.ConcurrentMapPartitionUpsertMetadataManager;
+import org.apache.pinot.segment.local.upsert.PartialUpsertHandler;
+import org.apache.pinot.segment.local.upsert.UpsertContext;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.config.table.UpsertConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.metrics.PinotMetricUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmarks the upsert hot path of the {@link ConcurrentMapPartitionUpsertMetadataManager} by indexing a synthetic
+ * stream into a {@link MutableSegmentImpl}, which updates (partial upsert only) and adds each record to the metadata
+ * manager.
+ * <ul>
+ *   <li>Throughput is reported as records per second</li>
+ *   <li>Allocation rate is reported by the {@link GCProfiler} (gc.alloc.rate.norm is the bytes per record)</li>
+ *   <li>Retained heap of the metadata manager per million primary keys is reported as an auxiliary counter</li>
+ * </ul>
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G"})
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BenchmarkUpsertMetadataManager {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkUpsertMetadataManager");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String PRIMARY_KEY_COLUMN = "pk";
+  private static final String VALUE_COLUMN = "value";
+  private static final String TIME_COLUMN = "ts";
+  private static final int NUM_RECORDS = 100_000;
+
+  @Param({"10000", "100000"})
+  private int _cardinality;
+  @Param({"0", "20"})
+  private int _outOfOrderPercent;
+  // NONE for full upsert, otherwise the default partial upsert strategy
+  @Param({"NONE", "OVERWRITE", "INCREMENT", "MAX"})
+  private String _partialUpsertStrategy;
+  @Param({"NONE", "MD5"})
+  private String _hashFunction;
+
+  private Schema _schema;
+  private UpsertConfig _upsertConfig;
+  private UpsertContext _upsertContext;
+  private long[] _primaryKeys;
+  private long[] _timestamps;
+  private int[] _values;
+  private GenericRow[] _rows;
+  private int _numPrimaryKeys;
+
+  private ConcurrentMapPartitionUpsertMetadataManager _upsertMetadataManager;
+  private MutableSegmentImpl _mutableSegment;
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkUpsertMetadataManager.class.getSimpleName())
+        .addProfiler(GCProfiler.class).build()).run();
+  }
+
+  @Setup
+  public void setUp()
+      throws IOException {
+    ServerMetrics.register(new ServerMetrics(PinotMetricUtils.getPinotMetricsRegistry()));
+    FileUtils.deleteQuietly(TEMP_DIR);
+    FileUtils.forceMkdir(TEMP_DIR);
+
+    _schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(PRIMARY_KEY_COLUMN, DataType.LONG).addMetric(VALUE_COLUMN, DataType.INT)
+        .addDateTime(TIME_COLUMN, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS")
+        .setPrimaryKeyColumns(Collections.singletonList(PRIMARY_KEY_COLUMN)).build();
+    List<String> comparisonColumns = Collections.singletonList(TIME_COLUMN);
+    HashFunction hashFunction = HashFunction.valueOf(_hashFunction);
+    PartialUpsertHandler partialUpsertHandler = null;
+    if (_partialUpsertStrategy.equals("NONE")) {
+      _upsertConfig = new UpsertConfig(UpsertConfig.Mode.FULL);
+    } else {
+      _upsertConfig = new UpsertConfig(UpsertConfig.Mode.PARTIAL);
+      _upsertConfig.setPartialUpsertStrategies(new HashMap<>());
+      _upsertConfig.setDefaultPartialUpsertStrategy(UpsertConfig.Strategy.valueOf(_partialUpsertStrategy));
+      partialUpsertHandler = new PartialUpsertHandler(_schema, comparisonColumns, _upsertConfig);
+    }
+    _upsertConfig.setComparisonColumns(comparisonColumns);
+    _upsertConfig.setHashFunction(hashFunction);
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME)
+        .setTimeColumnName(TIME_COLUMN).setUpsertConfig(_upsertConfig).build();
+    _upsertContext = new UpsertContext.Builder().setTableConfig(tableConfig).setSchema(_schema)
+        .setPrimaryKeyColumns(_schema.getPrimaryKeyColumns()).setComparisonColumns(comparisonColumns)
+        .setHashFunction(hashFunction).setPartialUpsertHandler(partialUpsertHandler).setTableIndexDir(TEMP_DIR)
+        .build();
+
+    // Out-of-order records are generated by reusing a smaller timestamp than the current one for the same key
+    Random random = new Random(42);
+    _primaryKeys = new long[NUM_RECORDS];
+    _timestamps = new long[NUM_RECORDS];
+    _values = new int[NUM_RECORDS];
+    long[] latestTimestamps = new long[_cardinality];
+    boolean[] seen = new boolean[_cardinality];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      int key = random.nextInt(_cardinality);
+      _primaryKeys[i] = key;
+      if (seen[key] && random.nextInt(100) < _outOfOrderPercent) {
+        _timestamps[i] = latestTimestamps[key] - 1;
+      } else {
+        _timestamps[i] = i;
+        latestTimestamps[key] = i;
+      }
+      if (!seen[key]) {
+        seen[key] = true;
+        _numPrimaryKeys++;
+      }
+      _values[i] = random.nextInt(1000);
+    }
+    _rows = new GenericRow[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      _rows[i] = new GenericRow();
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation(RetainedHeapCounters counters)
+      throws IOException {
+    if (_upsertMetadataManager != null) {
+      counters._retainedBytesPerMillionKeys = releaseMetadataManager() * 1_000_000 / _numPrimaryKeys;
+    }
+    _upsertMetadataManager = new ConcurrentMapPartitionUpsertMetadataManager(
+        RAW_TABLE_NAME + "_REALTIME", 0, _upsertContext);
+    _mutableSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, Collections.emptySet(), Collections.emptySet(),
+            Collections.emptySet(), false, true, _upsertConfig, TIME_COLUMN, _upsertMetadataManager, null);
+    // Partial upsert merges the previous record into the row, so reset the rows before each invocation
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow row = _rows[i];
+      row.clear();
+      row.putValue(PRIMARY_KEY_COLUMN, _primaryKeys[i]);
+      row.putValue(VALUE_COLUMN, _values[i]);
+      row.putValue(TIME_COLUMN, _timestamps[i]);
+    }
+  }
+
+  /**
+   * Releases the metadata manager and the segment, and returns the heap retained by the metadata manager.
+   */
+  private long releaseMetadataManager()
+      throws IOException {
+    _mutableSegment.destroy();
+    _mutableSegment = null;
+    long usedHeap = getUsedHeapAfterGc();
+    _upsertMetadataManager.close();
+    _upsertMetadataManager = null;
+    return usedHeap - getUsedHeapAfterGc();
+  }
+
+  private static long getUsedHeapAfterGc() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  @TearDown
+  public void tearDown()
+      throws IOException {
+    if (_upsertMetadataManager != null) {
+      releaseMetadataManager();
+    }
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_RECORDS)
+  public int indexRecords(RetainedHeapCounters counters)
+      throws IOException {
+    for (GenericRow row : _rows) {
+      _mutableSegment.index(row, null);
+    }
+    return _mutableSegment.getNumDocsIndexed();
+  }
+
+  /**
+   * The retained heap is measured when the metadata manager is released before the next invocation, so the value
+   * reported for an iteration comes from the invocation before its last one. It is passed to the benchmark method so
+   * that it is reported with the results.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class RetainedHeapCounters {
+    private long _retainedBytesPerMillionKeys;
+
+    public long retainedBytesPerMillionKeys() {
+      return _retainedBytesPerMillionKeys;
+    }
+  }
+}
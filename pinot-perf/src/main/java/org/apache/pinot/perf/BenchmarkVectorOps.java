@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.util.vector.ScalarVectorOps;
+import org.apache.pinot.core.util.vector.VectorOps;
+import org.apache.pinot.core.util.vector.VectorOpsProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the scalar and the SIMD {@link VectorOps} on the blocks of values processed by the scan based filters and
+ * the aggregations. The SIMD implementation is only used when running with JDK 21+ against the multi-release pinot-core
+ * jar, and the JVM is started with '--add-modules jdk.incubator.vector' (added by {@link #main} on JDK 21+).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class BenchmarkVectorOps {
+  // Same as the DocIdSetPlanNode.MAX_DOC_PER_CALL
+  private static final int BLOCK_SIZE = 10_000;
+
+  @Param({"SCALAR", "VECTOR"})
+  private String _implementation;
+
+  // Percentage of the values matching the range filter
+  @Param({"1", "50"})
+  private int _selectivity;
+
+  private VectorOps _vectorOps;
+  private int[] _intValues;
+  private long[] _longValues;
+  private double[] _doubleValues;
+  private int[] _docIds;
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkVectorOps.class.getSimpleName());
+    if (Runtime.version().feature() >= 21) {
+      opt.jvmArgsAppend("--add-modules", "jdk.incubator.vector");
+    }
+    new Runner(opt.build()).run();
+  }
+
+  @Setup
+  public void setUp() {
+    _vectorOps = _implementation.equals("SCALAR") ? ScalarVectorOps.INSTANCE : VectorOpsProvider.getVectorOps();
+    Random random = new Random(42);
+    _intValues = new int[BLOCK_SIZE];
+    _longValues = new long[BLOCK_SIZE];
+    _doubleValues = new double[BLOCK_SIZE];
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      _intValues[i] = random.nextInt(100);
+      _longValues[i] = _intValues[i];
+      _doubleValues[i] = random.nextDouble();
+    }
+    _docIds = new int[BLOCK_SIZE];
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    // The filter compacts the doc ids in place
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      _docIds[i] = i;
+    }
+  }
+
+  @Benchmark
+  public int filterRangeInt() {
+    return _vectorOps.filterRange(BLOCK_SIZE, _docIds, _intValues, 0, _selectivity - 1);
+  }
+
+  @Benchmark
+  public int filterRangeLong() {
+    return _vectorOps.filterRange(BLOCK_SIZE, _docIds, _longValues, 0L, _selectivity - 1L);
+  }
+
+  @Benchmark
+  public int filterEqualsInt() {
+    return _vectorOps.filterRange(BLOCK_SIZE, _docIds, _intValues, 42, 42);
+  }
+
+  @Benchmark
+  public double sum() {
+    return _vectorOps.sum(0.0, _doubleValues, BLOCK_SIZE);
+  }
+
+  @Benchmark
+  public double min() {
+    return _vectorOps.min(Double.POSITIVE_INFINITY, _doubleValues, BLOCK_SIZE);
+  }
+
+  @Benchmark
+  public double max() {
+    return _vectorOps.max(Double.NEGATIVE_INFINITY, _doubleValues, BLOCK_SIZE);
+  }
+}
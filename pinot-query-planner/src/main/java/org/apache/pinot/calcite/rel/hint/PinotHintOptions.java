@@ -91,11 +91,16 @@ public class PinotHintOptions {
      */
     public static final String MAX_ROWS_IN_JOIN = "max_rows_in_join";
     /**
-     * Mode when join overflow happens, supported values: THROW or BREAK.
+     * Mode when join overflow happens, supported values: THROW, BREAK or SPILL.
      *   THROW(default): Break right table build process, and throw exception, no JOIN with left table performed.
      *   BREAK: Break right table build process, continue to perform JOIN operation, results might be partial.
+     *   SPILL: Partition both tables to local disk, then perform JOIN operation partition by partition.
      */
     public static final String JOIN_OVERFLOW_MODE = "join_overflow_mode";
+    /**
+     * Number of partitions each table is split into when join overflow mode is SPILL.
+     */
+    public static final String NUM_SPILL_PARTITIONS = "num_spill_partitions";
     /**
      * Indicat that the join operator(s) within a certain selection scope are colocated
      */
@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -86,6 +87,14 @@ public class QueryRunner {
   @Nullable
   private JoinOverFlowMode _joinOverflowMode;
 
+  // Sort overflow settings
+  @Nullable
+  private Integer _maxRowsInSort;
+
+  // Local directory for operators spilling intermediate results
+  @Nullable
+  private File _spillDir;
+
   /**
    * Initializes the query executor.
    * <p>Should be called only once and before calling any other method.
@@ -114,6 +123,10 @@ public class QueryRunner {
     _maxRowsInJoin = maxRowsInJoinStr != null ? Integer.parseInt(maxRowsInJoinStr) : null;
     String joinOverflowModeStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_OVERFLOW_MODE);
     _joinOverflowMode = joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
+    String maxRowsInSortStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAX_ROWS_IN_SORT);
+    _maxRowsInSort = maxRowsInSortStr != null ? Integer.parseInt(maxRowsInSortStr) : null;
+    String spillDirStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
+    _spillDir = spillDirStr != null ? new File(spillDirStr) : null;
 
     //TODO: make this configurable
     _executorService = ExecutorServiceUtils.createDefault("query-runner-on-" + port);
@@ -196,7 +209,7 @@ public class QueryRunner {
     // run OpChain
     OpChainExecutionContext executionContext =
         new OpChainExecutionContext(_mailboxService, requestId, deadlineMs, opChainMetadata, stageMetadata,
-            workerMetadata, pipelineBreakerResult);
+            workerMetadata, pipelineBreakerResult, _spillDir);
     OpChain opChain;
     if (workerMetadata.isLeafStageWorker()) {
       opChain = ServerPlanRequestUtils.compileLeafStage(executionContext, stagePlan, _helixManager, _serverMetrics,
@@ -247,6 +260,14 @@ public class QueryRunner {
     if (joinOverflowMode != null) {
       opChainMetadata.put(QueryOptionKey.JOIN_OVERFLOW_MODE, joinOverflowMode.name());
     }
+
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(opChainMetadata);
+    if (maxRowsInSort == null) {
+      maxRowsInSort = _maxRowsInSort;
+    }
+    if (maxRowsInSort != null) {
+      opChainMetadata.put(QueryOptionKey.MAX_ROWS_IN_SORT, Integer.toString(maxRowsInSort));
+    }
     return opChainMetadata;
   }
 
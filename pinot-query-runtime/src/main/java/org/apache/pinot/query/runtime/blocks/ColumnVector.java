@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code ColumnVector} holds the values of a single column of a {@link ColumnarBatch}, using the same format as
+ * the columns of the batch: a primitive array for single-value INT, LONG, FLOAT and DOUBLE stored types with the null
+ * rows tracked in the null bitmap, or an {@code Object[]} with {@code null} for the null rows for other stored types.
+ */
+public class ColumnVector {
+  private final Object _values;
+  private final RoaringBitmap _nullBitmap;
+
+  /**
+   * @param values column values, see class javadoc for the format
+   * @param nullBitmap null bitmap of the column, or {@code null} if the column has no null
+   */
+  public ColumnVector(Object values, @Nullable RoaringBitmap nullBitmap) {
+    _values = values;
+    _nullBitmap = nullBitmap;
+  }
+
+  /**
+   * Creates a vector of the given stored type from boxed values, with {@code null} for the null values.
+   */
+  public static ColumnVector fromValues(ColumnDataType storedType, Object[] values) {
+    int numRows = values.length;
+    RoaringBitmap nullBitmap = new RoaringBitmap();
+    switch (storedType) {
+      case INT: {
+        int[] primitiveValues = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] != null) {
+            primitiveValues[i] = ((Number) values[i]).intValue();
+          } else {
+            nullBitmap.add(i);
+          }
+        }
+        return new ColumnVector(primitiveValues, nullBitmap.isEmpty() ? null : nullBitmap);
+      }
+      case LONG: {
+        long[] primitiveValues = new long[numRows];
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] != null) {
+            primitiveValues[i] = ((Number) values[i]).longValue();
+          } else {
+            nullBitmap.add(i);
+          }
+        }
+        return new ColumnVector(primitiveValues, nullBitmap.isEmpty() ? null : nullBitmap);
+      }
+      case FLOAT: {
+        float[] primitiveValues = new float[numRows];
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] != null) {
+            primitiveValues[i] = ((Number) values[i]).floatValue();
+          } else {
+            nullBitmap.add(i);
+          }
+        }
+        return new ColumnVector(primitiveValues, nullBitmap.isEmpty() ? null : nullBitmap);
+      }
+      case DOUBLE: {
+        double[] primitiveValues = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] != null) {
+            primitiveValues[i] = ((Number) values[i]).doubleValue();
+          } else {
+            nullBitmap.add(i);
+          }
+        }
+        return new ColumnVector(primitiveValues, nullBitmap.isEmpty() ? null : nullBitmap);
+      }
+      default: {
+        for (int i = 0; i < numRows; i++) {
+          if (values[i] == null) {
+            nullBitmap.add(i);
+          }
+        }
+        return new ColumnVector(values, nullBitmap.isEmpty() ? null : nullBitmap);
+      }
+    }
+  }
+
+  /**
+   * Creates a vector of the given primitive stored type from double values, casting the values as needed.
+   */
+  public static ColumnVector fromDoubles(ColumnDataType storedType, double[] values,
+      @Nullable RoaringBitmap nullBitmap) {
+    int numRows = values.length;
+    switch (storedType) {
+      case INT: {
+        int[] primitiveValues = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+          primitiveValues[i] = (int) values[i];
+        }
+        return new ColumnVector(primitiveValues, nullBitmap);
+      }
+      case LONG: {
+        long[] primitiveValues = new long[numRows];
+        for (int i = 0; i < numRows; i++) {
+          primitiveValues[i] = (long) values[i];
+        }
+        return new ColumnVector(primitiveValues, nullBitmap);
+      }
+      case FLOAT: {
+        float[] primitiveValues = new float[numRows];
+        for (int i = 0; i < numRows; i++) {
+          primitiveValues[i] = (float) values[i];
+        }
+        return new ColumnVector(primitiveValues, nullBitmap);
+      }
+      case DOUBLE:
+        return new ColumnVector(values, nullBitmap);
+      default:
+        throw new IllegalStateException("Cannot create vector of stored type: " + storedType + " from doubles");
+    }
+  }
+
+  public Object getValues() {
+    return _values;
+  }
+
+  @Nullable
+  public RoaringBitmap getNullBitmap() {
+    return _nullBitmap;
+  }
+
+  public boolean isNull(int rowId) {
+    return _nullBitmap != null && _nullBitmap.contains(rowId);
+  }
+
+  /**
+   * Returns the boxed value of the given row, or {@code null} for a null value.
+   */
+  @Nullable
+  public Object getValue(int rowId) {
+    if (isNull(rowId)) {
+      return null;
+    }
+    if (_values instanceof int[]) {
+      return ((int[]) _values)[rowId];
+    } else if (_values instanceof long[]) {
+      return ((long[]) _values)[rowId];
+    } else if (_values instanceof float[]) {
+      return ((float[]) _values)[rowId];
+    } else if (_values instanceof double[]) {
+      return ((double[]) _values)[rowId];
+    } else {
+      return ((Object[]) _values)[rowId];
+    }
+  }
+
+  /**
+   * Returns the values of an INT or LONG vector widened to long. The values of the null rows are undefined.
+   */
+  public long[] toLongs(int numRows) {
+    if (_values instanceof long[]) {
+      return (long[]) _values;
+    }
+    long[] values = new long[numRows];
+    int[] intValues = (int[]) _values;
+    for (int i = 0; i < numRows; i++) {
+      values[i] = intValues[i];
+    }
+    return values;
+  }
+
+  /**
+   * Returns the values of an INT, LONG or FLOAT vector widened to float. The values of the null rows are undefined.
+   */
+  public float[] toFloats(int numRows) {
+    if (_values instanceof float[]) {
+      return (float[]) _values;
+    }
+    float[] values = new float[numRows];
+    if (_values instanceof int[]) {
+      int[] intValues = (int[]) _values;
+      for (int i = 0; i < numRows; i++) {
+        values[i] = intValues[i];
+      }
+    } else {
+      long[] longValues = (long[]) _values;
+      for (int i = 0; i < numRows; i++) {
+        values[i] = longValues[i];
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the values of a primitive vector widened to double. The values of the null rows are undefined.
+   */
+  public double[] toDoubles(int numRows) {
+    if (_values instanceof double[]) {
+      return (double[]) _values;
+    }
+    double[] values = new double[numRows];
+    if (_values instanceof int[]) {
+      int[] intValues = (int[]) _values;
+      for (int i = 0; i < numRows; i++) {
+        values[i] = intValues[i];
+      }
+    } else if (_values instanceof long[]) {
+      long[] longValues = (long[]) _values;
+      for (int i = 0; i < numRows; i++) {
+        values[i] = longValues[i];
+      }
+    } else {
+      float[] floatValues = (float[]) _values;
+      for (int i = 0; i < numRows; i++) {
+        values[i] = floatValues[i];
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the union of the null bitmaps of the given vectors, or {@code null} if none of them has null.
+   */
+  @Nullable
+  public static RoaringBitmap unionNullBitmaps(ColumnVector... vectors) {
+    RoaringBitmap nullBitmap = null;
+    for (ColumnVector vector : vectors) {
+      if (vector._nullBitmap != null) {
+        if (nullBitmap == null) {
+          nullBitmap = vector._nullBitmap.clone();
+        } else {
+          nullBitmap.or(vector._nullBitmap);
+        }
+      }
+    }
+    return nullBitmap;
+  }
+}
@@ -0,0 +1,477 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.datablock.ColumnarDataBlock;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * The {@code ColumnarBatch} is the in-memory columnar representation of a batch of rows in the multi-stage engine.
+ *
+ * <p>Single-value columns with stored type INT, LONG, FLOAT and DOUBLE are kept as primitive arrays ({@code int[]},
+ * {@code long[]}, {@code float[]} and {@code double[]}), where the value of a null row is undefined and the null rows
+ * are tracked in a per column null bitmap. All the other columns are kept as {@code Object[]} with {@code null} for
+ * the null rows, using the same value representation as the row based container of {@link TransferableBlock}.
+ *
+ * <p>The batch is immutable once constructed. Operations such as {@link #select}, {@link #project} and {@link #slice}
+ * return new batches, and may share the underlying column arrays with this batch.
+ */
+public class ColumnarBatch {
+  private final DataSchema _dataSchema;
+  private final ColumnDataType[] _storedTypes;
+  private final int _numRows;
+  private final Object[] _columns;
+  private final RoaringBitmap[] _nullBitmaps;
+
+  /**
+   * @param dataSchema data schema of the batch
+   * @param numRows number of rows in the batch
+   * @param columns column values, see class javadoc for the format of each column
+   * @param nullBitmaps null bitmap for each column, where the entry is {@code null} if the column has no null
+   */
+  public ColumnarBatch(DataSchema dataSchema, int numRows, Object[] columns, RoaringBitmap[] nullBitmaps) {
+    _dataSchema = dataSchema;
+    _storedTypes = dataSchema.getStoredColumnDataTypes();
+    _numRows = numRows;
+    _columns = columns;
+    _nullBitmaps = nullBitmaps;
+  }
+
+  /**
+   * Returns whether the column with the given stored type is kept as a primitive array.
+   */
+  public static boolean isPrimitive(ColumnDataType storedType) {
+    switch (storedType) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public static ColumnarBatch fromRows(List<Object[]> rows, DataSchema dataSchema) {
+    ColumnDataType[] storedTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedTypes.length;
+    int numRows = rows.size();
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      RoaringBitmap nullBitmap = new RoaringBitmap();
+      switch (storedTypes[colId]) {
+        case INT: {
+          int[] values = new int[numRows];
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            Object value = rows.get(rowId)[colId];
+            if (value != null) {
+              values[rowId] = (int) value;
+            } else {
+              nullBitmap.add(rowId);
+            }
+          }
+          columns[colId] = values;
+          break;
+        }
+        case LONG: {
+          long[] values = new long[numRows];
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            Object value = rows.get(rowId)[colId];
+            if (value != null) {
+              values[rowId] = (long) value;
+            } else {
+              nullBitmap.add(rowId);
+            }
+          }
+          columns[colId] = values;
+          break;
+        }
+        case FLOAT: {
+          float[] values = new float[numRows];
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            Object value = rows.get(rowId)[colId];
+            if (value != null) {
+              values[rowId] = (float) value;
+            } else {
+              nullBitmap.add(rowId);
+            }
+          }
+          columns[colId] = values;
+          break;
+        }
+        case DOUBLE: {
+          double[] values = new double[numRows];
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            Object value = rows.get(rowId)[colId];
+            if (value != null) {
+              values[rowId] = (double) value;
+            } else {
+              nullBitmap.add(rowId);
+            }
+          }
+          columns[colId] = values;
+          break;
+        }
+        default: {
+          Object[] values = new Object[numRows];
+          for (int rowId = 0; rowId < numRows; rowId++) {
+            Object value = rows.get(rowId)[colId];
+            if (value != null) {
+              values[rowId] = value;
+            } else {
+              nullBitmap.add(rowId);
+            }
+          }
+          columns[colId] = values;
+          break;
+        }
+      }
+      nullBitmaps[colId] = nullBitmap.isEmpty() ? null : nullBitmap;
+    }
+    return new ColumnarBatch(dataSchema, numRows, columns, nullBitmaps);
+  }
+
+  /**
+   * Extracts the values from the given {@link DataBlock} (row or columnar) without boxing the primitive values.
+   */
+  public static ColumnarBatch fromDataBlock(DataBlock dataBlock) {
+    DataSchema dataSchema = dataBlock.getDataSchema();
+    ColumnDataType[] storedTypes = dataSchema.getStoredColumnDataTypes();
+    int numColumns = storedTypes.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      RoaringBitmap nullBitmap = dataBlock.getNullRowIds(colId);
+      if (nullBitmap != null && nullBitmap.isEmpty()) {
+        nullBitmap = null;
+      }
+      switch (storedTypes[colId]) {
+        case INT:
+          columns[colId] = DataBlockExtractUtils.extractIntColumn(DataType.INT, dataBlock, colId, nullBitmap);
+          break;
+        case LONG:
+          columns[colId] = DataBlockExtractUtils.extractLongColumn(DataType.LONG, dataBlock, colId, nullBitmap);
+          break;
+        case FLOAT:
+          columns[colId] = DataBlockExtractUtils.extractFloatColumn(DataType.FLOAT, dataBlock, colId, nullBitmap);
+          break;
+        case DOUBLE:
+          columns[colId] = DataBlockExtractUtils.extractDoubleColumn(DataType.DOUBLE, dataBlock, colId, nullBitmap);
+          break;
+        default:
+          columns[colId] = DataBlockExtractUtils.extractColumn(dataBlock, colId);
+          break;
+      }
+      nullBitmaps[colId] = nullBitmap;
+    }
+    return new ColumnarBatch(dataSchema, dataBlock.getNumberOfRows(), columns, nullBitmaps);
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public int getNumColumns() {
+    return _columns.length;
+  }
+
+  /**
+   * Returns the values of the column, which is a primitive array or an {@code Object[]} based on the stored type of the
+   * column.
+   */
+  public Object getColumn(int colId) {
+    return _columns[colId];
+  }
+
+  public int[] getIntColumn(int colId) {
+    return (int[]) _columns[colId];
+  }
+
+  public long[] getLongColumn(int colId) {
+    return (long[]) _columns[colId];
+  }
+
+  public float[] getFloatColumn(int colId) {
+    return (float[]) _columns[colId];
+  }
+
+  public double[] getDoubleColumn(int colId) {
+    return (double[]) _columns[colId];
+  }
+
+  public Object[] getObjectColumn(int colId) {
+    return (Object[]) _columns[colId];
+  }
+
+  /**
+   * Returns the null bitmap of the column, or {@code null} if the column has no null.
+   */
+  @Nullable
+  public RoaringBitmap getNullBitmap(int colId) {
+    return _nullBitmaps[colId];
+  }
+
+  public boolean isNull(int rowId, int colId) {
+    RoaringBitmap nullBitmap = _nullBitmaps[colId];
+    return nullBitmap != null && nullBitmap.contains(rowId);
+  }
+
+  /**
+   * Returns the boxed value of the given cell, or {@code null} for a null value.
+   */
+  @Nullable
+  public Object getValue(int rowId, int colId) {
+    if (isNull(rowId, colId)) {
+      return null;
+    }
+    switch (_storedTypes[colId]) {
+      case INT:
+        return ((int[]) _columns[colId])[rowId];
+      case LONG:
+        return ((long[]) _columns[colId])[rowId];
+      case FLOAT:
+        return ((float[]) _columns[colId])[rowId];
+      case DOUBLE:
+        return ((double[]) _columns[colId])[rowId];
+      default:
+        return ((Object[]) _columns[colId])[rowId];
+    }
+  }
+
+  /**
+   * Fills the given (reusable) row with the boxed values of the row with the given id.
+   */
+  public void fillRow(int rowId, Object[] row) {
+    int numColumns = _columns.length;
+    for (int colId = 0; colId < numColumns; colId++) {
+      row[colId] = getValue(rowId, colId);
+    }
+  }
+
+  /**
+   * Returns the boxed values of the column, with {@code null} for the null values.
+   */
+  public Object[] getValues(int colId) {
+    if (!isPrimitive(_storedTypes[colId])) {
+      return (Object[]) _columns[colId];
+    }
+    Object[] values = new Object[_numRows];
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      values[rowId] = getValue(rowId, colId);
+    }
+    return values;
+  }
+
+  /**
+   * Returns a batch with the rows in the given bitmap, in ascending row id order.
+   */
+  public ColumnarBatch select(RoaringBitmap rowIds) {
+    int numSelectedRows = rowIds.getCardinality();
+    if (numSelectedRows == _numRows) {
+      return this;
+    }
+    int[] selectedRowIds = new int[numSelectedRows];
+    PeekableIntIterator iterator = rowIds.getIntIterator();
+    for (int i = 0; i < numSelectedRows; i++) {
+      selectedRowIds[i] = iterator.next();
+    }
+    return select(selectedRowIds, numSelectedRows);
+  }
+
+  /**
+   * Returns a batch with the first {@code numSelectedRows} rows in the given row ids.
+   */
+  public ColumnarBatch select(int[] rowIds, int numSelectedRows) {
+    int numColumns = _columns.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      switch (_storedTypes[colId]) {
+        case INT: {
+          int[] srcValues = (int[]) _columns[colId];
+          int[] values = new int[numSelectedRows];
+          for (int i = 0; i < numSelectedRows; i++) {
+            values[i] = srcValues[rowIds[i]];
+          }
+          columns[colId] = values;
+          break;
+        }
+        case LONG: {
+          long[] srcValues = (long[]) _columns[colId];
+          long[] values = new long[numSelectedRows];
+          for (int i = 0; i < numSelectedRows; i++) {
+            values[i] = srcValues[rowIds[i]];
+          }
+          columns[colId] = values;
+          break;
+        }
+        case FLOAT: {
+          float[] srcValues = (float[]) _columns[colId];
+          float[] values = new float[numSelectedRows];
+          for (int i = 0; i < numSelectedRows; i++) {
+            values[i] = srcValues[rowIds[i]];
+          }
+          columns[colId] = values;
+          break;
+        }
+        case DOUBLE: {
+          double[] srcValues = (double[]) _columns[colId];
+          double[] values = new double[numSelectedRows];
+          for (int i = 0; i < numSelectedRows; i++) {
+            values[i] = srcValues[rowIds[i]];
+          }
+          columns[colId] = values;
+          break;
+        }
+        default: {
+          Object[] srcValues = (Object[]) _columns[colId];
+          Object[] values = new Object[numSelectedRows];
+          for (int i = 0; i < numSelectedRows; i++) {
+            values[i] = srcValues[rowIds[i]];
+          }
+          columns[colId] = values;
+          break;
+        }
+      }
+      RoaringBitmap srcNullBitmap = _nullBitmaps[colId];
+      if (srcNullBitmap != null) {
+        RoaringBitmap nullBitmap = new RoaringBitmap();
+        for (int i = 0; i < numSelectedRows; i++) {
+          if (srcNullBitmap.contains(rowIds[i])) {
+            nullBitmap.add(i);
+          }
+        }
+        nullBitmaps[colId] = nullBitmap.isEmpty() ? null : nullBitmap;
+      }
+    }
+    return new ColumnarBatch(_dataSchema, numSelectedRows, columns, nullBitmaps);
+  }
+
+  /**
+   * Returns a batch with the given columns of this batch. The column arrays are shared with this batch.
+   */
+  public ColumnarBatch project(int[] colIds, DataSchema dataSchema) {
+    int numColumns = colIds.length;
+    Object[] columns = new Object[numColumns];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columns[i] = _columns[colIds[i]];
+      nullBitmaps[i] = _nullBitmaps[colIds[i]];
+    }
+    return new ColumnarBatch(dataSchema, _numRows, columns, nullBitmaps);
+  }
+
+  /**
+   * Returns a batch with the rows in range [startRowId, endRowId).
+   */
+  public ColumnarBatch slice(int startRowId, int endRowId) {
+    if (startRowId == 0 && endRowId == _numRows) {
+      return this;
+    }
+    int numSelectedRows = endRowId - startRowId;
+    int[] rowIds = new int[numSelectedRows];
+    for (int i = 0; i < numSelectedRows; i++) {
+      rowIds[i] = startRowId + i;
+    }
+    return select(rowIds, numSelectedRows);
+  }
+
+  /**
+   * Converts the batch into the row based container format.
+   */
+  public List<Object[]> toRows() {
+    int numColumns = _columns.length;
+    List<Object[]> rows = new ArrayList<>(_numRows);
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      rows.add(new Object[numColumns]);
+    }
+    for (int colId = 0; colId < numColumns; colId++) {
+      RoaringBitmap nullBitmap = _nullBitmaps[colId];
+      switch (_storedTypes[colId]) {
+        case INT: {
+          int[] values = (int[]) _columns[colId];
+          for (int rowId = 0; rowId < _numRows; rowId++) {
+            rows.get(rowId)[colId] = values[rowId];
+          }
+          break;
+        }
+        case LONG: {
+          long[] values = (long[]) _columns[colId];
+          for (int rowId = 0; rowId < _numRows; rowId++) {
+            rows.get(rowId)[colId] = values[rowId];
+          }
+          break;
+        }
+        case FLOAT: {
+          float[] values = (float[]) _columns[colId];
+          for (int rowId = 0; rowId < _numRows; rowId++) {
+            rows.get(rowId)[colId] = values[rowId];
+          }
+          break;
+        }
+        case DOUBLE: {
+          double[] values = (double[]) _columns[colId];
+          for (int rowId = 0; rowId < _numRows; rowId++) {
+            rows.get(rowId)[colId] = values[rowId];
+          }
+          break;
+        }
+        default: {
+          Object[] values = (Object[]) _columns[colId];
+          for (int rowId = 0; rowId < _numRows; rowId++) {
+            rows.get(rowId)[colId] = values[rowId];
+          }
+          break;
+        }
+      }
+      if (nullBitmap != null) {
+        PeekableIntIterator iterator = nullBitmap.getIntIterator();
+        while (iterator.hasNext()) {
+          rows.get(iterator.next())[colId] = null;
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Serializes the batch into a {@link ColumnarDataBlock} without boxing the primitive values.
+   */
+  public ColumnarDataBlock toDataBlock()
+      throws IOException {
+    return DataBlockBuilder.buildFromColumns(_columns, _nullBitmaps, _numRows, _dataSchema);
+  }
+}
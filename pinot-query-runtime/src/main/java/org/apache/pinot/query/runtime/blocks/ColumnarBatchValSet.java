@@ -0,0 +1,324 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import java.math.BigDecimal;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.BytesUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * A {@link BlockValSet} implementation backed by a column of {@link ColumnarBatch}. When the requested value type
+ * matches the stored type of the column, the primitive array of the column is returned without copying.
+ *
+ * TODO: Support MV
+ */
+public class ColumnarBatchValSet implements BlockValSet {
+  private final DataType _dataType;
+  private final int _numRows;
+  private final Object _column;
+  private final RoaringBitmap _nullBitmap;
+
+  public ColumnarBatchValSet(ColumnarBatch batch, int colId) {
+    _dataType = batch.getDataSchema().getColumnDataType(colId).toDataType();
+    _numRows = batch.getNumRows();
+    _column = batch.getColumn(colId);
+    _nullBitmap = batch.getNullBitmap(colId);
+  }
+
+  @Nullable
+  @Override
+  public RoaringBitmap getNullBitmap() {
+    return _nullBitmap;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _dataType;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public Dictionary getDictionary() {
+    return null;
+  }
+
+  @Override
+  public int[] getDictionaryIdsSV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[] getIntValuesSV() {
+    if (_column instanceof int[]) {
+      return (int[]) _column;
+    }
+    int[] values = new int[_numRows];
+    if (_column instanceof long[]) {
+      long[] column = (long[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (int) column[i];
+      }
+    } else if (_column instanceof float[]) {
+      float[] column = (float[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (int) column[i];
+      }
+    } else if (_column instanceof double[]) {
+      double[] column = (double[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (int) column[i];
+      }
+    } else {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value != null) {
+          values[i] = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+        }
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public long[] getLongValuesSV() {
+    if (_column instanceof long[]) {
+      return (long[]) _column;
+    }
+    long[] values = new long[_numRows];
+    if (_column instanceof int[]) {
+      int[] column = (int[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else if (_column instanceof float[]) {
+      float[] column = (float[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (long) column[i];
+      }
+    } else if (_column instanceof double[]) {
+      double[] column = (double[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (long) column[i];
+      }
+    } else {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value != null) {
+          values[i] = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+        }
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public float[] getFloatValuesSV() {
+    if (_column instanceof float[]) {
+      return (float[]) _column;
+    }
+    float[] values = new float[_numRows];
+    if (_column instanceof int[]) {
+      int[] column = (int[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else if (_column instanceof long[]) {
+      long[] column = (long[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else if (_column instanceof double[]) {
+      double[] column = (double[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = (float) column[i];
+      }
+    } else {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value != null) {
+          values[i] = value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString());
+        }
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public double[] getDoubleValuesSV() {
+    if (_column instanceof double[]) {
+      return (double[]) _column;
+    }
+    double[] values = new double[_numRows];
+    if (_column instanceof int[]) {
+      int[] column = (int[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else if (_column instanceof long[]) {
+      long[] column = (long[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else if (_column instanceof float[]) {
+      float[] column = (float[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = column[i];
+      }
+    } else {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value != null) {
+          values[i] = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+        }
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public BigDecimal[] getBigDecimalValuesSV() {
+    BigDecimal[] values = new BigDecimal[_numRows];
+    if (_column instanceof Object[]) {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value != null) {
+          values[i] = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        }
+      }
+    } else if (_column instanceof int[] || _column instanceof long[]) {
+      long[] column = getLongValuesSV();
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = BigDecimal.valueOf(column[i]);
+      }
+    } else {
+      double[] column = getDoubleValuesSV();
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = BigDecimal.valueOf(column[i]);
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public String[] getStringValuesSV() {
+    String[] values = new String[_numRows];
+    if (_column instanceof Object[]) {
+      Object[] column = (Object[]) _column;
+      for (int i = 0; i < _numRows; i++) {
+        Object value = column[i];
+        if (value instanceof BigDecimal) {
+          values[i] = ((BigDecimal) value).toPlainString();
+        } else if (value != null) {
+          values[i] = value.toString();
+        }
+      }
+    } else {
+      for (int i = 0; i < _numRows; i++) {
+        values[i] = getPrimitiveValue(i).toString();
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public byte[][] getBytesValuesSV() {
+    if (!(_column instanceof Object[])) {
+      throw new IllegalStateException("Cannot read bytes values from data type: " + _dataType);
+    }
+    byte[][] values = new byte[_numRows][];
+    Object[] column = (Object[]) _column;
+    for (int i = 0; i < _numRows; i++) {
+      Object value = column[i];
+      if (value instanceof ByteArray) {
+        values[i] = ((ByteArray) value).getBytes();
+      } else if (value != null) {
+        values[i] = BytesUtils.toBytes(value.toString());
+      }
+    }
+    return values;
+  }
+
+  private Object getPrimitiveValue(int rowId) {
+    if (_column instanceof int[]) {
+      return ((int[]) _column)[rowId];
+    } else if (_column instanceof long[]) {
+      return ((long[]) _column)[rowId];
+    } else if (_column instanceof float[]) {
+      return ((float[]) _column)[rowId];
+    } else {
+      return ((double[]) _column)[rowId];
+    }
+  }
+
+  @Override
+  public int[][] getDictionaryIdsMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[][] getIntValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long[][] getLongValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float[][] getFloatValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double[][] getDoubleValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String[][] getStringValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[][][] getBytesValuesMV() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int[] getNumMVEntries() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -49,6 +49,7 @@ public class TransferableBlock implements Block {
   private final int _numRows;
 
   private List<Object[]> _container;
+  private ColumnarBatch _columnarBatch;
   private DataBlock _dataBlock;
   private Map<Integer, String> _errCodeToExceptionMap;
   @Nullable
@@ -65,6 +66,19 @@ public class TransferableBlock implements Block {
     _queryStats = null;
   }
 
+  /**
+   * Constructs a {@link DataBlock.Type#COLUMNAR} block backed by the given {@link ColumnarBatch}. The batch is
+   * serialized into a {@link ColumnarDataBlock} when the block is sent to a remote mailbox.
+   */
+  public TransferableBlock(ColumnarBatch columnarBatch) {
+    _columnarBatch = columnarBatch;
+    _dataSchema = columnarBatch.getDataSchema();
+    _type = DataBlock.Type.COLUMNAR;
+    _numRows = columnarBatch.getNumRows();
+    _errCodeToExceptionMap = new HashMap<>();
+    _queryStats = null;
+  }
+
   public TransferableBlock(DataBlock dataBlock) {
     _dataBlock = dataBlock;
     _dataSchema = dataBlock.getDataSchema();
@@ -126,20 +140,31 @@ public class TransferableBlock implements Block {
     return _container != null;
   }
 
+  /**
+   * Returns whether the {@link ColumnarBatch} is already constructed.
+   */
+  public boolean isColumnarBatchConstructed() {
+    return _columnarBatch != null;
+  }
+
   /**
    * Retrieve the extracted {@link TransferableBlock#_container} of the transferable block.
    * If not already constructed. It will use {@link DataBlockUtils} to extract the row/columnar data from the
-   * binary-packed format.
+   * binary-packed format, or convert the rows from the {@link ColumnarBatch}.
    *
    * @return data container.
    */
   public List<Object[]> getContainer() {
     if (_container == null) {
+      if (_columnarBatch != null) {
+        _container = _columnarBatch.toRows();
+        return _container;
+      }
       switch (_type) {
         case ROW:
+        case COLUMNAR:
           _container = DataBlockExtractUtils.extractRows(_dataBlock);
           break;
-        case COLUMNAR:
         case METADATA:
         default:
           throw new UnsupportedOperationException("Unable to extract from container with type: " + _type);
@@ -148,6 +173,25 @@ public class TransferableBlock implements Block {
     return _container;
   }
 
+  /**
+   * Retrieve the {@link ColumnarBatch} of the transferable block.
+   * If not already constructed. It will be extracted from the binary-packed format without boxing the primitive
+   * values, or converted from the row based {@link TransferableBlock#_container}.
+   *
+   * @return columnar batch.
+   */
+  public ColumnarBatch getColumnarBatch() {
+    if (_columnarBatch == null) {
+      Preconditions.checkState(_type != DataBlock.Type.METADATA, "Cannot extract columnar batch from metadata block");
+      if (_type == DataBlock.Type.ROW && _container != null) {
+        _columnarBatch = ColumnarBatch.fromRows(_container, _dataSchema);
+      } else {
+        _columnarBatch = ColumnarBatch.fromDataBlock(getDataBlock());
+      }
+    }
+    return _columnarBatch;
+  }
+
   /**
    * Retrieve the binary-packed version of the data block.
    * If not already constructed. It will use {@link DataBlockBuilder} to construct the binary-packed format from
@@ -163,7 +207,8 @@ public class TransferableBlock implements Block {
             _dataBlock = DataBlockBuilder.buildFromRows(_container, _dataSchema);
             break;
           case COLUMNAR:
-            _dataBlock = DataBlockBuilder.buildFromColumns(_container, _dataSchema);
+            _dataBlock = _columnarBatch != null ? _columnarBatch.toDataBlock()
+                : DataBlockBuilder.buildFromColumns(_container, _dataSchema);
             break;
           case METADATA:
             _dataBlock = new MetadataBlock(getSerializedStatsByStage());
@@ -67,7 +67,7 @@ public final class TransferableBlockUtils {
    *  Split a block into multiple block so that each block size is within maxBlockSize. Currently,
    *  <ul>
    *    <li>For row data block, we split for row type dataBlock.</li>
-   *    <li>For columnar data block, exceptions are thrown.</li>
+   *    <li>For columnar data block, we split the {@link ColumnarBatch} by row ranges.</li>
    *    <li>For metadata block, split is not supported.</li>
    *  </ul>
    *
@@ -93,6 +93,23 @@ public final class TransferableBlockUtils {
         blockChunks.add(new TransferableBlock(chunk, block.getDataSchema(), block.getType()));
       }
       return blockChunks.iterator();
+    } else if (type == DataBlock.Type.COLUMNAR) {
+      int estimatedRowSizeInBytes = block.getDataSchema().getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES;
+      int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
+      Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
+
+      int totalNumRows = block.getNumRows();
+      if (totalNumRows <= numRowsPerChunk) {
+        return Iterators.singletonIterator(block);
+      }
+      ColumnarBatch batch = block.getColumnarBatch();
+      int currentRow = 0;
+      while (currentRow < totalNumRows) {
+        int endRow = Math.min(currentRow + numRowsPerChunk, totalNumRows);
+        blockChunks.add(new TransferableBlock(batch.slice(currentRow, endRow)));
+        currentRow = endRow;
+      }
+      return blockChunks.iterator();
     } else if (type == DataBlock.Type.METADATA) {
       return Iterators.singletonIterator(block);
     } else {
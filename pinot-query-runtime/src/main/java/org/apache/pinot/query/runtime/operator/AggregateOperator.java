@@ -47,6 +47,8 @@ import org.apache.pinot.query.planner.logical.LiteralHintUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.AbstractPlanNode;
 import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatchValSet;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.segment.spi.AggregationFunctionType;
@@ -125,9 +127,11 @@ public class AggregateOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -349,6 +353,14 @@ public class AggregateOperator extends MultiStageOperator {
           matchedBitmap.add(rowId);
         }
       }
+    } else if (block.isColumnarBatchConstructed()) {
+      int[] values = block.getColumnarBatch().getIntColumn(filterArgId);
+      int numRows = values.length;
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        if (values[rowId] == 1) {
+          matchedBitmap.add(rowId);
+        }
+      }
     } else {
       DataBlock dataBlock = block.getDataBlock();
       int numRows = dataBlock.getNumberOfRows();
@@ -380,6 +392,14 @@ public class AggregateOperator extends MultiStageOperator {
               new RowBasedBlockValSet(dataSchema.getColumnDataType(colId), rows, colId, true));
         }
       }
+    } else if (block.isColumnarBatchConstructed()) {
+      ColumnarBatch batch = block.getColumnarBatch();
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          blockValSetMap.put(expression, new ColumnarBatchValSet(batch, fromIdentifierToColId(identifier)));
+        }
+      }
     } else {
       DataBlock dataBlock = block.getDataBlock();
       for (ExpressionContext expression : expressions) {
@@ -413,6 +433,14 @@ public class AggregateOperator extends MultiStageOperator {
                   matchedBitmap, true));
         }
       }
+    } else if (block.isColumnarBatchConstructed()) {
+      ColumnarBatch batch = block.getColumnarBatch().select(matchedBitmap);
+      for (ExpressionContext expression : expressions) {
+        String identifier = expression.getIdentifier();
+        if (identifier != null) {
+          blockValSetMap.put(expression, new ColumnarBatchValSet(batch, fromIdentifierToColId(identifier)));
+        }
+      }
     } else {
       DataBlock dataBlock = block.getDataBlock();
       for (ExpressionContext expression : expressions) {
@@ -441,6 +469,8 @@ public class AggregateOperator extends MultiStageOperator {
         values[rowId] = rows.get(rowId)[colId];
       }
       return values;
+    } else if (block.isColumnarBatchConstructed()) {
+      return block.getColumnarBatch().getValues(colId);
     } else {
       return DataBlockExtractUtils.extractColumn(block.getDataBlock(), colId);
     }
@@ -459,7 +489,9 @@ public class AggregateOperator extends MultiStageOperator {
         return true;
       }
     },
-    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN);
+    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN),
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
@@ -114,9 +114,11 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   private void addReceivingStats(StatMap<ReceivingMailbox.StatKey> from) {
@@ -221,7 +223,25 @@ public abstract class BaseMailboxReceiveOperator extends MultiStageOperator {
     /**
      * How long (in CPU time) it took to wait for the messages to be offered to downstream operator.
      */
-    UPSTREAM_WAIT_MS(StatMap.Type.LONG);
+    UPSTREAM_WAIT_MS(StatMap.Type.LONG),
+    /**
+     * How many rows have been spilled to disk by the sorted receive operator.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * How many bytes have been spilled to disk by the sorted receive operator.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG),
+    /**
+     * How much CPU time (in nanoseconds) the operator thread spent in this operator, including its children.
+     * Only measured when thread CPU time measurement is enabled.
+     */
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    /**
+     * How many bytes the operator thread allocated on the heap in this operator, including its children.
+     * Only measured when thread memory measurement is enabled.
+     */
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
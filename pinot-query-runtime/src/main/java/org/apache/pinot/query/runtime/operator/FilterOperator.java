@@ -28,11 +28,14 @@ import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.BooleanUtils;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,9 +74,11 @@ public class FilterOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -106,6 +111,9 @@ public class FilterOperator extends MultiStageOperator {
       }
       return updateEosBlock(block, _statMap);
     }
+    if (!block.isContainerConstructed()) {
+      return filterColumnarBatch(block.getColumnarBatch());
+    }
     List<Object[]> resultRows = new ArrayList<>();
     for (Object[] row : block.getContainer()) {
       Object filterResult = _filterOperand.apply(row);
@@ -116,6 +124,25 @@ public class FilterOperator extends MultiStageOperator {
     return new TransferableBlock(resultRows, _dataSchema, DataBlock.Type.ROW);
   }
 
+  /**
+   * Filters the block in columnar format. The filter is evaluated on the whole batch as a column vector, and the
+   * matched rows are selected from the primitive columns so that no row is materialized for the result.
+   */
+  private TransferableBlock filterColumnarBatch(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    ColumnVector filterResult = _filterOperand.apply(batch);
+    int[] values = (int[]) filterResult.getValues();
+    RoaringBitmap nullBitmap = filterResult.getNullBitmap();
+    int[] matchedRowIds = new int[numRows];
+    int numMatchedRows = 0;
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      if (values[rowId] == 1 && (nullBitmap == null || !nullBitmap.contains(rowId))) {
+        matchedRowIds[numMatchedRows++] = rowId;
+      }
+    }
+    return new TransferableBlock(numMatchedRows == numRows ? batch : batch.select(matchedRowIds, numMatchedRows));
+  }
+
   public enum StatKey implements StatMap.Key {
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
       @Override
@@ -128,7 +155,9 @@ public class FilterOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
@@ -21,14 +21,21 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
@@ -45,6 +52,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.BooleanUtils;
@@ -55,7 +63,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This basic {@code BroadcastJoinOperator} implement a basic broadcast join algorithm.
- * This algorithm assumes that the broadcast table has to fit in memory since we are not supporting any spilling.
+ * This algorithm assumes that the broadcast table fits in memory, unless the join overflow mode is SPILL.
  *
  * For left join, inner join, right join and full join,
  * <p>It takes the right table as the broadcast side and materialize a hash table. Then for each of the left table row,
@@ -64,6 +72,10 @@ import org.slf4j.LoggerFactory;
  * <p>For each of the data block received from the left table, it will generate a joint data block.
  * We currently support left join, inner join, right join and full join.
  * The output is in the format of [left_row, right_row]
+ *
+ * <p>When the right table exceeds the max rows allowed in the hash table and the join overflow mode is SPILL, the
+ * operator falls back to a grace hash join: both tables are hash partitioned into {@link SpillFile}s on local disk, and
+ * then joined partition by partition, where each right table partition has to fit into the hash table.
  */
 // TODO: Move inequi out of hashjoin. (https://github.com/apache/pinot/issues/9728)
 // TODO: Support memory size based resource limit.
@@ -74,6 +86,9 @@ public class HashJoinOperator extends MultiStageOperator {
   private static final int INITIAL_HEURISTIC_SIZE = 16;
   private static final int DEFAULT_MAX_ROWS_IN_JOIN = 1024 * 1024; // 2^20, around 1MM rows
   private static final JoinOverFlowMode DEFAULT_JOIN_OVERFLOW_MODE = JoinOverFlowMode.THROW;
+  private static final int DEFAULT_NUM_SPILL_PARTITIONS = 16;
+  // Max rows buffered for each spilled partition before they are written to disk as a block.
+  private static final int MAX_SPILL_BUFFER_ROWS = 4096;
 
   private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
       ImmutableSet.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI,
@@ -87,6 +102,7 @@ public class HashJoinOperator extends MultiStageOperator {
 
   private final MultiStageOperator _leftTableOperator;
   private final MultiStageOperator _rightTableOperator;
+  private final DataSchema _leftSchema;
   private final JoinRelType _joinType;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
@@ -118,6 +134,27 @@ public class HashJoinOperator extends MultiStageOperator {
 
   private int _currentRowsInHashTable = 0;
 
+  /**
+   * Number of partitions each table is split into when the join overflow mode is SPILL.
+   */
+  private final int _numSpillPartitions;
+  // Only set when the right table is spilled to disk.
+  @Nullable
+  private File _spillDir;
+  @Nullable
+  private SpilledTable _spilledRightTable;
+  @Nullable
+  private SpilledTable _spilledLeftTable;
+  private boolean _isLeftTableSpilled;
+  private int _nextSpilledPartitionId = 0;
+  // Blocks of the left table partition currently being joined, null when the next partition has not been loaded yet
+  @Nullable
+  private Iterator<List<Object[]>> _spilledLeftBlockIterator;
+  // The spill files are only accessed while holding this lock. cancel() and close() might be invoked from another
+  // thread while the operator thread is still using them, in which case the release is deferred to the operator thread
+  private final ReentrantLock _spillLock = new ReentrantLock();
+  private volatile boolean _isSpillReleaseRequested;
+
   @Nullable
   private MultiStageQueryStats _rightSideStats = null;
   @Nullable
@@ -132,6 +169,7 @@ public class HashJoinOperator extends MultiStageOperator {
     JoinNode.JoinKeys joinKeys = node.getJoinKeys();
     _leftKeySelector = KeySelectorFactory.getKeySelector(joinKeys.getLeftKeys());
     _rightKeySelector = KeySelectorFactory.getKeySelector(joinKeys.getRightKeys());
+    _leftSchema = leftSchema;
     _leftColumnSize = leftSchema.size();
     Preconditions.checkState(_leftColumnSize > 0, "leftColumnSize has to be greater than zero:" + _leftColumnSize);
     _resultSchema = node.getDataSchema();
@@ -155,12 +193,17 @@ public class HashJoinOperator extends MultiStageOperator {
     Map<String, String> metadata = context.getOpChainMetadata();
     _maxRowsInHashTable = getMaxRowInJoin(metadata, node.getJoinHints());
     _joinOverflowMode = getJoinOverflowMode(metadata, node.getJoinHints());
+    _numSpillPartitions = getNumSpillPartitions(metadata, node.getJoinHints());
+    Preconditions.checkArgument(_numSpillPartitions > 0, "Number of spill partitions must be positive, got: %s",
+        _numSpillPartitions);
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -202,6 +245,21 @@ public class HashJoinOperator extends MultiStageOperator {
     return joinOverflowMode != null ? joinOverflowMode : DEFAULT_JOIN_OVERFLOW_MODE;
   }
 
+  private int getNumSpillPartitions(Map<String, String> opChainMetadata,
+      @Nullable AbstractPlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint._hintOptions.get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String numSpillPartitionsStr = joinOptions.get(PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS);
+        if (numSpillPartitionsStr != null) {
+          return Integer.parseInt(numSpillPartitionsStr);
+        }
+      }
+    }
+    Integer numSpillPartitions = QueryOptionsUtils.getNumJoinSpillPartitions(opChainMetadata);
+    return numSpillPartitions != null ? numSpillPartitions : DEFAULT_NUM_SPILL_PARTITIONS;
+  }
+
   // TODO: Separate left and right table operator.
   @Override
   public List<MultiStageOperator> getChildOperators() {
@@ -216,7 +274,20 @@ public class HashJoinOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock getNextBlock()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
+    _spillLock.lock();
+    try {
+      return getNextBlockInternal();
+    } finally {
+      if (_isSpillReleaseRequested) {
+        releaseSpilledTables();
+      }
+      _spillLock.unlock();
+    }
+  }
+
+  private TransferableBlock getNextBlockInternal()
+      throws ProcessingException, IOException {
     if (_isTerminated) {
       assert _leftSideStats != null;
       return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
@@ -228,20 +299,25 @@ public class HashJoinOperator extends MultiStageOperator {
     if (_upstreamErrorBlock != null) {
       return _upstreamErrorBlock;
     }
+    if (_spilledRightTable != null) {
+      return getNextSpilledJoinBlock();
+    }
     TransferableBlock leftBlock = _leftTableOperator.nextBlock();
     // JOIN each left block with the constructed right hash table.
     return buildJoinedDataBlock(leftBlock);
   }
 
   private void buildBroadcastHashTable()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     long startTime = System.currentTimeMillis();
     TransferableBlock rightBlock = _rightTableOperator.nextBlock();
     while (!TransferableBlockUtils.isEndOfStream(rightBlock)) {
       List<Object[]> container = rightBlock.getContainer();
       // Row based overflow check.
-      if (container.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
-        if (_joinOverflowMode == JoinOverFlowMode.THROW) {
+      if (_spilledRightTable == null && container.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
+        if (_joinOverflowMode == JoinOverFlowMode.SPILL) {
+          spillHashTable(rightBlock.getDataSchema());
+        } else if (_joinOverflowMode == JoinOverFlowMode.THROW) {
           ProcessingException resourceLimitExceededException =
               new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
           resourceLimitExceededException.setMessage(
@@ -257,6 +333,11 @@ public class HashJoinOperator extends MultiStageOperator {
           _rightTableOperator.earlyTerminate();
         }
       }
+      if (_spilledRightTable != null) {
+        spillRows(_spilledRightTable, _rightKeySelector, container);
+        rightBlock = _rightTableOperator.nextBlock();
+        continue;
+      }
       // put all the rows into corresponding hash collections keyed by the key selector function.
       for (Object[] row : container) {
         ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row),
@@ -273,6 +354,9 @@ public class HashJoinOperator extends MultiStageOperator {
     if (rightBlock.isErrorBlock()) {
       _upstreamErrorBlock = rightBlock;
     } else {
+      if (_spilledRightTable != null) {
+        _spilledRightTable.flush();
+      }
       _isHashTableBuilt = true;
       _rightSideStats = rightBlock.getQueryStats();
       assert _rightSideStats != null;
@@ -294,48 +378,46 @@ public class HashJoinOperator extends MultiStageOperator {
       if (!needUnmatchedRightRows()) {
         return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
       }
-      // TODO: Moved to a different function.
       // Return remaining non-matched rows for non-inner join.
       List<Object[]> returnRows = new ArrayList<>();
-      for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
-        List<Object[]> rightRows = entry.getValue();
-        BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
-        if (matchedIndices == null) {
-          for (Object[] rightRow : rightRows) {
-            returnRows.add(joinRow(null, rightRow));
-          }
-        } else {
-          int numRightRows = rightRows.size();
-          int unmatchedIndex = 0;
-          while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
-            returnRows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
-          }
-        }
-      }
+      addUnmatchedRightRows(returnRows);
       _isTerminated = true;
       return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
     }
-    List<Object[]> rows;
+    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
+    return new TransferableBlock(joinRows(leftBlock.getContainer()), _resultSchema, DataBlock.Type.ROW);
+  }
+
+  private List<Object[]> joinRows(List<Object[]> container) {
     switch (_joinType) {
-      case SEMI: {
-        rows = buildJoinedDataBlockSemi(leftBlock);
-        break;
-      }
-      case ANTI: {
-        rows = buildJoinedDataBlockAnti(leftBlock);
-        break;
-      }
-      default: { // INNER, LEFT, RIGHT, FULL
-        rows = buildJoinedDataBlockDefault(leftBlock);
-        break;
+      case SEMI:
+        return buildJoinedDataBlockSemi(container);
+      case ANTI:
+        return buildJoinedDataBlockAnti(container);
+      default: // INNER, LEFT, RIGHT, FULL
+        return buildJoinedDataBlockDefault(container);
+    }
+  }
+
+  private void addUnmatchedRightRows(List<Object[]> rows) {
+    for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
+      List<Object[]> rightRows = entry.getValue();
+      BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
+      if (matchedIndices == null) {
+        for (Object[] rightRow : rightRows) {
+          rows.add(joinRow(null, rightRow));
+        }
+      } else {
+        int numRightRows = rightRows.size();
+        int unmatchedIndex = 0;
+        while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
+          rows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
+        }
       }
     }
-    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
-    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
   }
 
-  private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockSemi(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -349,8 +431,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockDefault(List<Object[]> container) {
     ArrayList<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -387,8 +468,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockAnti(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -401,6 +481,163 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
+  /**
+   * Moves the rows already in the hash table into the spilled right table. All the following right blocks are spilled
+   * directly.
+   */
+  private void spillHashTable(DataSchema rightSchema)
+      throws IOException {
+    File spillRootDir = _context.getSpillDir();
+    FileUtils.forceMkdir(spillRootDir);
+    _spillDir = Files.createTempDirectory(spillRootDir.toPath(), _context.getId() + "_join_").toFile();
+    LOGGER.info("Spilling join to: {} after reaching max rows in hash table: {}, number of partitions: {}", _spillDir,
+        _maxRowsInHashTable, _numSpillPartitions);
+    _spilledRightTable = new SpilledTable(new File(_spillDir, "right"), rightSchema, _numSpillPartitions);
+    _spilledLeftTable = new SpilledTable(new File(_spillDir, "left"), _leftSchema, _numSpillPartitions);
+    for (ArrayList<Object[]> rows : _broadcastRightTable.values()) {
+      spillRows(_spilledRightTable, _rightKeySelector, rows);
+    }
+    _broadcastRightTable.clear();
+    _currentRowsInHashTable = 0;
+  }
+
+  private void spillRows(SpilledTable spilledTable, KeySelector<?> keySelector, List<Object[]> rows)
+      throws IOException {
+    for (Object[] row : rows) {
+      spilledTable.add(getSpillPartitionId(keySelector.getKey(row)), row);
+    }
+  }
+
+  private int getSpillPartitionId(@Nullable Object key) {
+    // Scramble the hash code so that the partitioning is independent of the hash exchange feeding this operator
+    int hash = key != null ? key.hashCode() * 0x9E3779B9 : 0;
+    return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % _numSpillPartitions;
+  }
+
+  /**
+   * Returns the next block of the grace hash join. The first call spills the whole left table. Then the right table
+   * partitions are loaded into the hash table one at a time, and the corresponding left table partition is streamed
+   * through it one spilled block at a time, so that at most one right partition and one left block are on heap.
+   */
+  private TransferableBlock getNextSpilledJoinBlock()
+      throws ProcessingException, IOException {
+    assert _spilledRightTable != null && _spilledLeftTable != null;
+    if (!_isLeftTableSpilled) {
+      TransferableBlock leftBlock = _leftTableOperator.nextBlock();
+      while (!TransferableBlockUtils.isEndOfStream(leftBlock)) {
+        spillRows(_spilledLeftTable, _leftKeySelector, leftBlock.getContainer());
+        leftBlock = _leftTableOperator.nextBlock();
+      }
+      if (leftBlock.isErrorBlock()) {
+        _upstreamErrorBlock = leftBlock;
+        return _upstreamErrorBlock;
+      }
+      _spilledLeftTable.flush();
+      _isLeftTableSpilled = true;
+      _leftSideStats = leftBlock.getQueryStats();
+      assert _leftSideStats != null;
+    }
+    while (true) {
+      if (_spilledLeftBlockIterator == null) {
+        if (_nextSpilledPartitionId == _numSpillPartitions) {
+          break;
+        }
+        loadSpilledRightPartition(_nextSpilledPartitionId);
+        _spilledLeftBlockIterator = _spilledLeftTable.blockIterator(_nextSpilledPartitionId);
+      }
+      if (_spilledLeftBlockIterator.hasNext()) {
+        List<Object[]> rows = joinRows(_spilledLeftBlockIterator.next());
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+        continue;
+      }
+      // Finished the current partition
+      _spilledLeftBlockIterator = null;
+      _nextSpilledPartitionId++;
+      if (needUnmatchedRightRows()) {
+        List<Object[]> rows = new ArrayList<>();
+        addUnmatchedRightRows(rows);
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      }
+    }
+    _statMap.merge(StatKey.SPILLED_ROWS, _spilledRightTable.getNumRows() + _spilledLeftTable.getNumRows());
+    _statMap.merge(StatKey.SPILLED_BYTES, _spilledRightTable.getNumBytes() + _spilledLeftTable.getNumBytes());
+    releaseSpilledTables();
+    assert _rightSideStats != null && _leftSideStats != null;
+    _leftSideStats.mergeInOrder(_rightSideStats, getOperatorType(), _statMap);
+    _isTerminated = true;
+    return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
+  }
+
+  private void loadSpilledRightPartition(int partitionId)
+      throws ProcessingException {
+    assert _spilledRightTable != null && _spilledLeftTable != null;
+    int numRightRows = _spilledRightTable.getNumRows(partitionId);
+    if (numRightRows > _maxRowsInHashTable) {
+      ProcessingException resourceLimitExceededException =
+          new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+      resourceLimitExceededException.setMessage(
+          "Cannot build in memory hash table for spilled join partition: " + partitionId + " with " + numRightRows
+              + " rows, reach number of rows limit: " + _maxRowsInHashTable);
+      throw resourceLimitExceededException;
+    }
+    _broadcastRightTable.clear();
+    if (_matchedRightRows != null) {
+      _matchedRightRows.clear();
+    }
+    Iterator<Object[]> rowIterator = _spilledRightTable.rowIterator(partitionId);
+    while (rowIterator.hasNext()) {
+      Object[] row = rowIterator.next();
+      _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row), k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE))
+          .add(row);
+    }
+  }
+
+  /**
+   * Releases the spill files, or defers the release to the operator thread if it is currently accessing them.
+   */
+  private void requestReleaseSpilledTables() {
+    _isSpillReleaseRequested = true;
+    if (_spillLock.tryLock()) {
+      try {
+        releaseSpilledTables();
+      } finally {
+        _spillLock.unlock();
+      }
+    }
+  }
+
+  private void releaseSpilledTables() {
+    if (_spillDir == null) {
+      return;
+    }
+    _broadcastRightTable.clear();
+    if (_spilledRightTable != null) {
+      _spilledRightTable.close();
+    }
+    if (_spilledLeftTable != null) {
+      _spilledLeftTable.close();
+    }
+    _spilledLeftBlockIterator = null;
+    FileUtils.deleteQuietly(_spillDir);
+    _spillDir = null;
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    requestReleaseSpilledTables();
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    super.cancel(e);
+    requestReleaseSpilledTables();
+  }
+
   private Object[] joinRow(@Nullable Object[] leftRow, @Nullable Object[] rightRow) {
     Object[] resultRow = new Object[_resultColumnSize];
     int idx = 0;
@@ -444,7 +681,25 @@ public class HashJoinOperator extends MultiStageOperator {
     /**
      * How long (CPU time) has been spent on building the hash table.
      */
-    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG);
+    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG),
+    /**
+     * How many rows (from both tables) have been spilled to disk.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * How many bytes (from both tables) have been spilled to disk.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG),
+    /**
+     * How much CPU time (in nanoseconds) the operator thread spent in this operator, including its children.
+     * Only measured when thread CPU time measurement is enabled.
+     */
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    /**
+     * How many bytes the operator thread allocated on the heap in this operator, including its children.
+     * Only measured when thread memory measurement is enabled.
+     */
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
 
     private final StatMap.Type _type;
 
@@ -457,4 +712,80 @@ public class HashJoinOperator extends MultiStageOperator {
       return _type;
     }
   }
+
+  /**
+   * Rows of one table of the join, hash partitioned into one {@link SpillFile} per partition.
+   */
+  private static class SpilledTable implements Closeable {
+    private final SpillFile[] _partitions;
+    private final List<Object[]>[] _buffers;
+
+    @SuppressWarnings("unchecked")
+    SpilledTable(File dir, DataSchema dataSchema, int numPartitions)
+        throws IOException {
+      _partitions = new SpillFile[numPartitions];
+      _buffers = new List[numPartitions];
+      for (int i = 0; i < numPartitions; i++) {
+        _partitions[i] = new SpillFile(new File(dir, Integer.toString(i)), dataSchema);
+        _buffers[i] = new ArrayList<>();
+      }
+    }
+
+    void add(int partitionId, Object[] row)
+        throws IOException {
+      List<Object[]> buffer = _buffers[partitionId];
+      buffer.add(row);
+      if (buffer.size() >= MAX_SPILL_BUFFER_ROWS) {
+        _partitions[partitionId].write(buffer);
+        buffer.clear();
+      }
+    }
+
+    void flush()
+        throws IOException {
+      for (int i = 0; i < _partitions.length; i++) {
+        _partitions[i].write(_buffers[i]);
+        _buffers[i].clear();
+      }
+    }
+
+    int getNumRows(int partitionId) {
+      return _partitions[partitionId].getNumRows();
+    }
+
+    long getNumRows() {
+      long numRows = 0;
+      for (SpillFile partition : _partitions) {
+        numRows += partition.getNumRows();
+      }
+      return numRows;
+    }
+
+    long getNumBytes() {
+      long numBytes = 0;
+      for (SpillFile partition : _partitions) {
+        numBytes += partition.getNumBytes();
+      }
+      return numBytes;
+    }
+
+    Iterator<List<Object[]>> blockIterator(int partitionId) {
+      return _partitions[partitionId].blockIterator();
+    }
+
+    Iterator<Object[]> rowIterator(int partitionId) {
+      return _partitions[partitionId].rowIterator();
+    }
+
+    @Override
+    public void close() {
+      for (SpillFile partition : _partitions) {
+        try {
+          partition.close();
+        } catch (IOException e) {
+          LOGGER.warn("Failed to close spill file: {}", partition.getFile(), e);
+        }
+      }
+    }
+  }
 }
@@ -58,6 +58,7 @@ import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionValue;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -112,9 +113,11 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -161,7 +164,7 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     }
   }
 
-  private void mergeExecutionStats(@Nullable Map<String, String> executionStats) {
+  private void mergeExecutionStats(ServerQueryRequest request, @Nullable Map<String, String> executionStats) {
     if (executionStats != null) {
       for (Map.Entry<String, String> entry : executionStats.entrySet()) {
         DataTable.MetadataKey key = DataTable.MetadataKey.getByName(entry.getKey());
@@ -254,6 +257,14 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
           case NUM_CONSUMING_SEGMENTS_MATCHED:
             _statMap.merge(StatKey.NUM_CONSUMING_SEGMENTS_MATCHED, Integer.parseInt(entry.getValue()));
             break;
+          case THREAD_MEM_ALLOCATED_BYTES:
+            _statMap.merge(isRealtimeRequest(request) ? StatKey.REALTIME_THREAD_MEM_ALLOCATED_BYTES
+                : StatKey.OFFLINE_THREAD_MEM_ALLOCATED_BYTES, Long.parseLong(entry.getValue()));
+            break;
+          case RESPONSE_SER_MEM_ALLOCATED_BYTES:
+            _statMap.merge(isRealtimeRequest(request) ? StatKey.REALTIME_RESPONSE_SER_MEM_ALLOCATED_BYTES
+                : StatKey.OFFLINE_RESPONSE_SER_MEM_ALLOCATED_BYTES, Long.parseLong(entry.getValue()));
+            break;
           default: {
             throw new IllegalArgumentException("Unhandled V1 execution stat: " + entry.getKey());
           }
@@ -262,6 +273,10 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     }
   }
 
+  private static boolean isRealtimeRequest(ServerQueryRequest request) {
+    return TableNameBuilder.isRealtimeTableResource(request.getTableNameWithType());
+  }
+
   private TransferableBlock constructMetadataBlock() {
     MultiStageQueryStats multiStageQueryStats = MultiStageQueryStats.createLeaf(_context.getStageId(), _statMap);
     return TransferableBlockUtils.getEndOfStreamTransferableBlock(multiStageQueryStats);
@@ -292,7 +307,7 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
               addResultsBlock(resultsBlock);
             }
             // Collect the execution stats
-            mergeExecutionStats(instanceResponseBlock.getResponseMetadata());
+            mergeExecutionStats(request, instanceResponseBlock.getResponseMetadata());
           }
         } else {
           assert _requests.size() == 2;
@@ -336,10 +351,10 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
               throw new TimeoutException("Timed out waiting for leaf stage to finish");
             }
             // Propagate the exception thrown by the leaf stage
-            for (Future<Map<String, String>> future : futures) {
+            for (int i = 0; i < 2; i++) {
               Map<String, String> stats =
-                  future.get(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-              mergeExecutionStats(stats);
+                  futures[i].get(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+              mergeExecutionStats(_requests.get(i), stats);
             }
           } catch (TimeoutException e) {
             // Cancel all the futures and throw the exception
@@ -578,7 +593,13 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
       public String getStatName() {
         return "responseSerializationCpuTimeNs";
       }
-    };
+    },
+    OFFLINE_THREAD_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    REALTIME_THREAD_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    OFFLINE_RESPONSE_SER_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    REALTIME_RESPONSE_SER_MEM_ALLOCATED_BYTES(StatMap.Type.LONG),
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG, null),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG, null);
 
     private final StatMap.Type _type;
     @Nullable
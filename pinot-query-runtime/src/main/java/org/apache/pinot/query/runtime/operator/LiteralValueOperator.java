@@ -53,9 +53,11 @@ public class LiteralValueOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -108,7 +110,9 @@ public class LiteralValueOperator extends MultiStageOperator {
 
   public enum StatKey implements StatMap.Key {
     EXECUTION_TIME_MS(StatMap.Type.LONG),
-    EMITTED_ROWS(StatMap.Type.LONG);
+    EMITTED_ROWS(StatMap.Type.LONG),
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
@@ -112,9 +112,11 @@ public class MailboxSendOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -266,7 +268,17 @@ public class MailboxSendOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    },;
+    },
+    /**
+     * How much CPU time (in nanoseconds) the operator thread spent in this operator, including its children.
+     * Only measured when thread CPU time measurement is enabled.
+     */
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    /**
+     * How many bytes the operator thread allocated on the heap in this operator, including its children.
+     * Only measured when thread memory measurement is enabled.
+     */
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
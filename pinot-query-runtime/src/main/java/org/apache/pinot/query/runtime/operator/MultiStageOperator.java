@@ -31,6 +31,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerOperator;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.apache.pinot.spi.trace.InvocationScope;
 import org.apache.pinot.spi.trace.Tracing;
@@ -61,7 +62,14 @@ public abstract class MultiStageOperator
 
   public abstract Type getOperatorType();
 
-  public abstract void registerExecution(long time, int numRows);
+  /**
+   * Records the execution of one {@link #nextBlock()} call in the operator stats.
+   * <p>
+   * The time, CPU time and allocated bytes include the time spent in the children operators. CPU time and allocated
+   * bytes are 0 unless the thread CPU time and memory measurements are enabled in
+   * {@link ThreadResourceUsageProvider}.
+   */
+  public abstract void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes);
 
   @Override
   public TransferableBlock nextBlock() {
@@ -73,13 +81,15 @@ public abstract class MultiStageOperator
     }
     try (InvocationScope ignored = Tracing.getTracer().createScope(getClass())) {
       TransferableBlock nextBlock;
+      ThreadResourceUsageProvider resourceUsageProvider = new ThreadResourceUsageProvider();
       Stopwatch executeStopwatch = Stopwatch.createStarted();
       try {
         nextBlock = getNextBlock();
       } catch (Exception e) {
         nextBlock = TransferableBlockUtils.getErrorTransferableBlock(e);
       }
-      registerExecution(executeStopwatch.elapsed(TimeUnit.MILLISECONDS), nextBlock.getNumRows());
+      registerExecution(executeStopwatch.elapsed(TimeUnit.MILLISECONDS), nextBlock.getNumRows(),
+          resourceUsageProvider.getThreadTimeNs(), resourceUsageProvider.getThreadAllocatedBytes());
 
       if (logger().isDebugEnabled()) {
         logger().debug("Operator {}. Block of type {} ready to send", _operatorId, nextBlock.getType());
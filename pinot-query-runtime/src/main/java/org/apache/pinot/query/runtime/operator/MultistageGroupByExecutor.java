@@ -38,9 +38,14 @@ import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.util.DataBlockExtractUtils;
 import org.apache.pinot.query.planner.plannode.AbstractPlanNode;
 import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGeneratorFactory;
+import org.apache.pinot.query.runtime.operator.groupby.OneDoubleKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneFloatKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneIntKeyGroupIdGenerator;
+import org.apache.pinot.query.runtime.operator.groupby.OneLongKeyGroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
@@ -286,8 +291,13 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(TransferableBlock block) {
-    return block.isContainerConstructed() ? generateGroupByKeys(block.getContainer())
-        : generateGroupByKeys(block.getDataBlock());
+    if (block.isContainerConstructed()) {
+      return generateGroupByKeys(block.getContainer());
+    }
+    if (block.isColumnarBatchConstructed()) {
+      return generateGroupByKeys(block.getColumnarBatch());
+    }
+    return generateGroupByKeys(block.getDataBlock());
   }
 
   private int[] generateGroupByKeys(List<Object[]> rows) {
@@ -312,6 +322,57 @@ public class MultistageGroupByExecutor {
     return intKeys;
   }
 
+  private int[] generateGroupByKeys(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    int[] intKeys = new int[numRows];
+    int numKeys = _groupKeyIds.length;
+    if (numKeys == 1) {
+      int groupKeyId = _groupKeyIds[0];
+      Object column = batch.getColumn(groupKeyId);
+      boolean hasNull = batch.getNullBitmap(groupKeyId) != null;
+      // Look up the primitive keys directly to avoid boxing them
+      if (!hasNull && column instanceof int[] && _groupIdGenerator instanceof OneIntKeyGroupIdGenerator) {
+        OneIntKeyGroupIdGenerator groupIdGenerator = (OneIntKeyGroupIdGenerator) _groupIdGenerator;
+        int[] keys = (int[]) column;
+        for (int i = 0; i < numRows; i++) {
+          intKeys[i] = groupIdGenerator.getGroupId(keys[i]);
+        }
+      } else if (!hasNull && column instanceof long[] && _groupIdGenerator instanceof OneLongKeyGroupIdGenerator) {
+        OneLongKeyGroupIdGenerator groupIdGenerator = (OneLongKeyGroupIdGenerator) _groupIdGenerator;
+        long[] keys = (long[]) column;
+        for (int i = 0; i < numRows; i++) {
+          intKeys[i] = groupIdGenerator.getGroupId(keys[i]);
+        }
+      } else if (!hasNull && column instanceof float[] && _groupIdGenerator instanceof OneFloatKeyGroupIdGenerator) {
+        OneFloatKeyGroupIdGenerator groupIdGenerator = (OneFloatKeyGroupIdGenerator) _groupIdGenerator;
+        float[] keys = (float[]) column;
+        for (int i = 0; i < numRows; i++) {
+          intKeys[i] = groupIdGenerator.getGroupId(keys[i]);
+        }
+      } else if (!hasNull && column instanceof double[]
+          && _groupIdGenerator instanceof OneDoubleKeyGroupIdGenerator) {
+        OneDoubleKeyGroupIdGenerator groupIdGenerator = (OneDoubleKeyGroupIdGenerator) _groupIdGenerator;
+        double[] keys = (double[]) column;
+        for (int i = 0; i < numRows; i++) {
+          intKeys[i] = groupIdGenerator.getGroupId(keys[i]);
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          intKeys[i] = _groupIdGenerator.getGroupId(batch.getValue(i, groupKeyId));
+        }
+      }
+    } else {
+      Object[] key = new Object[numKeys];
+      for (int i = 0; i < numRows; i++) {
+        for (int j = 0; j < numKeys; j++) {
+          key[j] = batch.getValue(i, _groupKeyIds[j]);
+        }
+        intKeys[i] = _groupIdGenerator.getGroupId(key);
+      }
+    }
+    return intKeys;
+  }
+
   private int[] generateGroupByKeys(DataBlock dataBlock) {
     Object[] keys;
     if (_groupKeyIds.length == 1) {
@@ -332,8 +393,13 @@ public class MultistageGroupByExecutor {
    * GroupByAggregationResultHolders used in v1 aggregations.
    */
   private int[] generateGroupByKeys(TransferableBlock block, int numMatchedRows, RoaringBitmap matchedBitmap) {
-    return block.isContainerConstructed() ? generateGroupByKeys(block.getContainer(), numMatchedRows, matchedBitmap)
-        : generateGroupByKeys(block.getDataBlock(), numMatchedRows, matchedBitmap);
+    if (block.isContainerConstructed()) {
+      return generateGroupByKeys(block.getContainer(), numMatchedRows, matchedBitmap);
+    }
+    if (block.isColumnarBatchConstructed()) {
+      return generateGroupByKeys(block.getColumnarBatch().select(matchedBitmap));
+    }
+    return generateGroupByKeys(block.getDataBlock(), numMatchedRows, matchedBitmap);
   }
 
   private int[] generateGroupByKeys(List<Object[]> rows, int numMatchedRows, RoaringBitmap matchedBitmap) {
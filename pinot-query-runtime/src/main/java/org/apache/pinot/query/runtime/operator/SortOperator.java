@@ -21,18 +21,23 @@ package org.apache.pinot.query.runtime.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.utils.ExternalSorter;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
@@ -40,6 +45,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * The {@code SortOperator} sorts the input rows and applies the limit and offset.
+ *
+ * <p>When the number of rows to keep fits into the max rows in sort, the top rows are kept in a {@link PriorityQueue}.
+ * Otherwise, the rows are sorted with an {@link ExternalSorter} which spills sorted runs to disk, and the sorted rows
+ * are returned in blocks of at most max rows in sort.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
@@ -50,12 +62,23 @@ public class SortOperator extends MultiStageOperator {
   private final DataSchema _dataSchema;
   private final PriorityQueue<Object[]> _priorityQueue;
   private final ArrayList<Object[]> _rows;
+  // Only set when the rows to keep can exceed the max rows in sort
+  @Nullable
+  private final ExternalSorter _externalSorter;
+  // The external sorter is only accessed while holding this lock. cancel() and close() might be invoked from another
+  // thread while the operator thread is still using it, in which case the close is deferred to the operator thread
+  private final ReentrantLock _spillLock = new ReentrantLock();
+  private volatile boolean _isSpillReleaseRequested;
   private final int _numRowsToKeep;
+  private final int _maxRowsPerBlock;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   private boolean _hasConstructedSortedBlock;
   @Nullable
   private TransferableBlock _eosBlock = null;
+  @Nullable
+  private Iterator<Object[]> _sortedRowIterator;
+  private int _numRowsToEmit;
 
   public SortOperator(OpChainExecutionContext context, MultiStageOperator upstreamOperator,
       List<RexExpression> collationKeys, List<RelFieldCollation.Direction> collationDirections,
@@ -80,25 +103,37 @@ public class SortOperator extends MultiStageOperator {
     // Setting numRowsToKeep as default maximum on Broker if limit not set.
     // TODO: make this default behavior configurable.
     _numRowsToKeep = _fetch > 0 ? _fetch + _offset : defaultResponseLimit;
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(context.getOpChainMetadata());
+    _maxRowsPerBlock = maxRowsInSort != null ? maxRowsInSort : Integer.MAX_VALUE;
     // Under the following circumstances, the SortOperator is a simple selection with row trim on limit & offset:
     // - There are no collationKeys
     // - 'isInputSorted' is set to true indicating that the data was already sorted
     if (collationKeys.isEmpty() || isInputSorted) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
+      _externalSorter = null;
+    } else if (maxRowsInSort != null && _numRowsToKeep > maxRowsInSort) {
+      _priorityQueue = null;
+      _rows = null;
+      _externalSorter = new ExternalSorter(
+          new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, false),
+          dataSchema, maxRowsInSort, context.getSpillDir(), context.getId() + "_sort_");
     } else {
       // Use the opposite direction as specified by the collation directions since we need the PriorityQueue to decide
       // which elements to keep and which to remove based on the limits.
       _priorityQueue = new PriorityQueue<>(Math.min(defaultHolderCapacity, _numRowsToKeep),
           new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, true));
       _rows = null;
+      _externalSorter = null;
     }
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -116,8 +151,33 @@ public class SortOperator extends MultiStageOperator {
     return ImmutableList.of(_upstreamOperator);
   }
 
+  /**
+   * Closes the external sorter, or defers the close to the operator thread if it is currently accessing it.
+   */
+  private void requestReleaseExternalSorter() {
+    if (_externalSorter == null) {
+      return;
+    }
+    _isSpillReleaseRequested = true;
+    if (_spillLock.tryLock()) {
+      try {
+        _externalSorter.close();
+      } finally {
+        _spillLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    requestReleaseExternalSorter();
+  }
+
   @Override
   public void cancel(Throwable e) {
+    super.cancel(e);
+    requestReleaseExternalSorter();
   }
 
   @Nullable
@@ -127,24 +187,71 @@ public class SortOperator extends MultiStageOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
+  protected TransferableBlock getNextBlock()
+      throws IOException {
+    if (_externalSorter == null) {
+      return getNextBlockInternal();
+    }
+    _spillLock.lock();
+    try {
+      return getNextBlockInternal();
+    } finally {
+      if (_isSpillReleaseRequested) {
+        _externalSorter.close();
+      }
+      _spillLock.unlock();
+    }
+  }
+
+  private TransferableBlock getNextBlockInternal()
+      throws IOException {
     if (_hasConstructedSortedBlock) {
       assert _eosBlock != null;
       return _eosBlock;
     }
+    if (_sortedRowIterator != null) {
+      return produceExternalSortedBlock();
+    }
     TransferableBlock finalBlock = consumeInputBlocks();
     // returning upstream error block if finalBlock contains error.
     if (finalBlock.isErrorBlock()) {
       return finalBlock;
     }
-    _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null);
+    _statMap.merge(StatKey.REQUIRE_SORT, _rows == null);
+    if (_externalSorter != null) {
+      _statMap.merge(StatKey.SPILLED_ROWS, _externalSorter.getNumSpilledRows());
+      _statMap.merge(StatKey.SPILLED_BYTES, _externalSorter.getNumSpilledBytes());
+      _eosBlock = updateEosBlock(finalBlock, _statMap);
+      _sortedRowIterator = _externalSorter.sortedIterator();
+      for (int i = 0; i < _offset && _sortedRowIterator.hasNext(); i++) {
+        _sortedRowIterator.next();
+      }
+      _numRowsToEmit = _numRowsToKeep - _offset;
+      return produceExternalSortedBlock();
+    }
     _eosBlock = updateEosBlock(finalBlock, _statMap);
     return produceSortedBlock();
   }
 
+  private TransferableBlock produceExternalSortedBlock() {
+    assert _sortedRowIterator != null && _externalSorter != null;
+    int numRows = Math.min(_numRowsToEmit, _maxRowsPerBlock);
+    List<Object[]> rows = new ArrayList<>(Math.min(numRows, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY));
+    while (rows.size() < numRows && _sortedRowIterator.hasNext()) {
+      rows.add(_sortedRowIterator.next());
+    }
+    _numRowsToEmit -= rows.size();
+    if (rows.isEmpty()) {
+      _hasConstructedSortedBlock = true;
+      _externalSorter.close();
+      return _eosBlock;
+    }
+    return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+  }
+
   private TransferableBlock produceSortedBlock() {
     _hasConstructedSortedBlock = true;
-    if (_priorityQueue == null) {
+    if (_rows != null) {
       if (_rows.size() > _offset) {
         List<Object[]> row = _rows.subList(_offset, _rows.size());
         return new TransferableBlock(row, _dataSchema, DataBlock.Type.ROW);
@@ -165,11 +272,14 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
-  private TransferableBlock consumeInputBlocks() {
+  private TransferableBlock consumeInputBlocks()
+      throws IOException {
     TransferableBlock block = _upstreamOperator.nextBlock();
     while (block.isDataBlock()) {
       List<Object[]> container = block.getContainer();
-      if (_priorityQueue == null) {
+      if (_externalSorter != null) {
+        _externalSorter.addRows(container);
+      } else if (_rows != null) {
         // TODO: when push-down properly, we shouldn't get more than _numRowsToKeep
         int numRows = _rows.size();
         if (numRows < _numRowsToKeep) {
@@ -211,7 +321,25 @@ public class SortOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * How many rows have been spilled to disk by the external sort.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG),
+    /**
+     * How many bytes have been spilled to disk by the external sort.
+     */
+    SPILLED_BYTES(StatMap.Type.LONG),
+    /**
+     * How much CPU time (in nanoseconds) the operator thread spent in this operator, including its children.
+     * Only measured when thread CPU time measurement is enabled.
+     */
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    /**
+     * How many bytes the operator thread allocated on the heap in this operator, including its children.
+     * Only measured when thread memory measurement is enabled.
+     */
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
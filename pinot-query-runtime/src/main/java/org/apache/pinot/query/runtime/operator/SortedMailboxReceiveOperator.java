@@ -19,8 +19,11 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
@@ -28,9 +31,11 @@ import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.query.mailbox.ReceivingMailbox;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.operator.utils.ExternalSorter;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.slf4j.Logger;
@@ -41,8 +46,10 @@ import org.slf4j.LoggerFactory;
  * This {@code SortedMailboxReceiveOperator} receives data from a {@link ReceivingMailbox} and serve it out from the
  * {@link MultiStageOperator#getNextBlock()}()} API in a sorted manner.
  *
- *  TODO: Once sorting on the {@code MailboxSendOperator} is available, modify this to use a k-way merge instead of
- *        resorting via the PriorityQueue.
+ * <p>The rows are sorted with an {@link ExternalSorter}. When the sender side is sorted, each received block is
+ * treated as a sorted run, and the runs are k-way merged instead of being sorted again. When the max rows in sort is
+ * set, rows beyond the limit are spilled to disk as sorted runs, and the sorted rows are returned in blocks of at most
+ * max rows in sort.
  */
 public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   private static final Logger LOGGER = LoggerFactory.getLogger(SortedMailboxReceiveOperator.class);
@@ -50,13 +57,16 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   private static final String EXPLAIN_NAME = "SORTED_MAILBOX_RECEIVE";
 
   private final DataSchema _dataSchema;
-  private final List<RexExpression> _collationKeys;
-  private final List<Direction> _collationDirections;
-  private final List<NullDirection> _collationNullDirections;
   private final boolean _isSortOnSender;
-  private final List<Object[]> _rows = new ArrayList<>();
+  private final int _maxRowsPerBlock;
+  private final ExternalSorter _sorter;
+  // The sorter is only accessed while holding this lock. cancel() and close() might be invoked from another thread
+  // while the operator thread is still using it, in which case the close is deferred to the operator thread
+  private final ReentrantLock _spillLock = new ReentrantLock();
+  private volatile boolean _isSpillReleaseRequested;
 
   private TransferableBlock _eosBlock;
+  private Iterator<Object[]> _sortedRowIterator;
 
   public SortedMailboxReceiveOperator(OpChainExecutionContext context, RelDistribution.Type exchangeType,
       DataSchema dataSchema, List<RexExpression> collationKeys, List<Direction> collationDirections,
@@ -64,10 +74,12 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
     super(context, exchangeType, senderStageId);
     Preconditions.checkState(!CollectionUtils.isEmpty(collationKeys), "Collation keys must be set");
     _dataSchema = dataSchema;
-    _collationKeys = collationKeys;
-    _collationDirections = collationDirections;
-    _collationNullDirections = collationNullDirections;
     _isSortOnSender = isSortOnSender;
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(context.getOpChainMetadata());
+    _maxRowsPerBlock = maxRowsInSort != null ? maxRowsInSort : Integer.MAX_VALUE;
+    _sorter = new ExternalSorter(
+        new SortUtils.SortComparator(collationKeys, collationDirections, collationNullDirections, dataSchema, false),
+        dataSchema, _maxRowsPerBlock, context.getSpillDir(), context.getId() + "_sorted_receive_");
   }
 
   @Override
@@ -82,32 +94,70 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   }
 
   @Override
-  protected TransferableBlock getNextBlock() {
-    if (_eosBlock != null) {
-      return _eosBlock;
+  protected TransferableBlock getNextBlock()
+      throws IOException {
+    _spillLock.lock();
+    try {
+      return getNextBlockInternal();
+    } finally {
+      if (_isSpillReleaseRequested) {
+        _sorter.close();
+      }
+      _spillLock.unlock();
+    }
+  }
+
+  private TransferableBlock getNextBlockInternal()
+      throws IOException {
+    if (_sortedRowIterator != null) {
+      return produceSortedBlock();
     }
     // Collect all the rows from the mailbox and sort them
     while (true) {
       TransferableBlock block = _multiConsumer.readBlockBlocking();
       if (block.isDataBlock()) {
-        _rows.addAll(block.getContainer());
+        if (_isSortOnSender) {
+          _sorter.addSortedRun(block.getContainer());
+        } else {
+          _sorter.addRows(block.getContainer());
+        }
       } else if (block.isErrorBlock()) {
         return block;
       } else {
         assert block.isSuccessfulEndOfStreamBlock();
         // the multiConsumer has already merged stages from upstream, but doesn't know about this operator
         // specific stats.
+        _statMap.merge(StatKey.SPILLED_ROWS, _sorter.getNumSpilledRows());
+        _statMap.merge(StatKey.SPILLED_BYTES, _sorter.getNumSpilledBytes());
         _eosBlock = updateEosBlock(block, _statMap);
-        if (!_rows.isEmpty()) {
-          // TODO: This might not be efficient because we are sorting all the received rows. We should use a k-way merge
-          //       when sender side is sorted.
-          _rows.sort(
-              new SortUtils.SortComparator(_collationKeys, _collationDirections, _collationNullDirections, _dataSchema,
-                  false));
-          return new TransferableBlock(_rows, _dataSchema, DataBlock.Type.ROW);
-        } else {
-          return block;
-        }
+        _sortedRowIterator = _sorter.sortedIterator();
+        return produceSortedBlock();
+      }
+    }
+  }
+
+  private TransferableBlock produceSortedBlock() {
+    List<Object[]> rows = new ArrayList<>();
+    while (rows.size() < _maxRowsPerBlock && _sortedRowIterator.hasNext()) {
+      rows.add(_sortedRowIterator.next());
+    }
+    if (rows.isEmpty()) {
+      _sorter.close();
+      return _eosBlock;
+    }
+    return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+  }
+
+  /**
+   * Closes the sorter, or defers the close to the operator thread if it is currently accessing it.
+   */
+  private void requestReleaseSorter() {
+    _isSpillReleaseRequested = true;
+    if (_spillLock.tryLock()) {
+      try {
+        _sorter.close();
+      } finally {
+        _spillLock.unlock();
       }
     }
   }
@@ -115,12 +165,12 @@ public class SortedMailboxReceiveOperator extends BaseMailboxReceiveOperator {
   @Override
   public void close() {
     super.close();
-    _rows.clear();
+    requestReleaseSorter();
   }
 
   @Override
   public void cancel(Throwable t) {
     super.cancel(t);
-    _rows.clear();
+    requestReleaseSorter();
   }
 }
@@ -27,10 +27,13 @@ import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,6 +57,9 @@ public class TransformOperator extends MultiStageOperator {
   private final int _resultColumnSize;
   // TODO: Check type matching between resultSchema and the actual result.
   private final DataSchema _resultSchema;
+  // Whether the transforms can be evaluated on the columnar batch as column vectors, which requires the result stored
+  // type of each transform to match the result schema
+  private final boolean _batchEvaluable;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   public TransformOperator(OpChainExecutionContext context, MultiStageOperator upstreamOperator,
@@ -69,12 +75,26 @@ public class TransformOperator extends MultiStageOperator {
       _transformOperandsList.add(TransformOperandFactory.getTransformOperand(rexExpression, upstreamDataSchema));
     }
     _resultSchema = resultSchema;
+    _batchEvaluable = isBatchEvaluable(_transformOperandsList, resultSchema);
+  }
+
+  private static boolean isBatchEvaluable(List<TransformOperand> transformOperands, DataSchema resultSchema) {
+    int numColumns = transformOperands.size();
+    for (int i = 0; i < numColumns; i++) {
+      if (transformOperands.get(i).getResultType().getStoredType() != resultSchema.getColumnDataType(i)
+          .getStoredType()) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -108,6 +128,9 @@ public class TransformOperator extends MultiStageOperator {
         return block;
       }
     }
+    if (_batchEvaluable && !block.isContainerConstructed()) {
+      return transformColumnarBatch(block.getColumnarBatch());
+    }
     List<Object[]> container = block.getContainer();
     List<Object[]> resultRows = new ArrayList<>(container.size());
     for (Object[] row : container) {
@@ -120,6 +143,21 @@ public class TransformOperator extends MultiStageOperator {
     return new TransferableBlock(resultRows, _resultSchema, DataBlock.Type.ROW);
   }
 
+  /**
+   * Transforms the block in columnar format. Each transform is evaluated on the whole batch as a column vector, where
+   * input references are returned without copying the column.
+   */
+  private TransferableBlock transformColumnarBatch(ColumnarBatch batch) {
+    Object[] columns = new Object[_resultColumnSize];
+    RoaringBitmap[] nullBitmaps = new RoaringBitmap[_resultColumnSize];
+    for (int i = 0; i < _resultColumnSize; i++) {
+      ColumnVector vector = _transformOperandsList.get(i).apply(batch);
+      columns[i] = vector.getValues();
+      nullBitmaps[i] = vector.getNullBitmap();
+    }
+    return new TransferableBlock(new ColumnarBatch(_resultSchema, batch.getNumRows(), columns, nullBitmaps));
+  }
+
   public enum StatKey implements StatMap.Key {
     EXECUTION_TIME_MS(StatMap.Type.LONG) {
       @Override
@@ -127,7 +165,9 @@ public class TransformOperator extends MultiStageOperator {
         return true;
       }
     },
-    EMITTED_ROWS(StatMap.Type.LONG);
+    EMITTED_ROWS(StatMap.Type.LONG),
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
@@ -169,9 +169,11 @@ public class WindowAggregateOperator extends MultiStageOperator {
   }
 
   @Override
-  public void registerExecution(long time, int numRows) {
+  public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
     _statMap.merge(StatKey.EXECUTION_TIME_MS, time);
     _statMap.merge(StatKey.EMITTED_ROWS, numRows);
+    _statMap.merge(StatKey.EXECUTION_CPU_TIME_NS, cpuTimeNs);
+    _statMap.merge(StatKey.EXECUTION_ALLOCATED_BYTES, allocatedBytes);
   }
 
   @Override
@@ -432,7 +434,9 @@ public class WindowAggregateOperator extends MultiStageOperator {
         return true;
       }
     },
-    MAX_ROWS_IN_WINDOW_REACHED(StatMap.Type.BOOLEAN);
+    MAX_ROWS_IN_WINDOW_REACHED(StatMap.Type.BOOLEAN),
+    EXECUTION_CPU_TIME_NS(StatMap.Type.LONG),
+    EXECUTION_ALLOCATED_BYTES(StatMap.Type.LONG);
     private final StatMap.Type _type;
 
     StatKey(StatMap.Type type) {
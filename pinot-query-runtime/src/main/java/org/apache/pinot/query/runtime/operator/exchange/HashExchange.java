@@ -20,6 +20,7 @@ package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
@@ -62,7 +63,7 @@ class HashExchange extends BlockExchange {
     for (int i = 0; i < numMailboxes; i++) {
       if (!mailboxIdToRowsMap[i].isEmpty()) {
         sendBlock(destinations.get(i),
-            new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), block.getType()));
+            new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), DataBlock.Type.ROW));
       }
     }
   }
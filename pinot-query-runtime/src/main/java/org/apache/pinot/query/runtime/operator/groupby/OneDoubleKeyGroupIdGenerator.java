@@ -39,23 +39,27 @@ public class OneDoubleKeyGroupIdGenerator implements GroupIdGenerator {
 
   @Override
   public int getGroupId(Object key) {
-    if (_numGroups < _numGroupsLimit) {
-      if (key == null) {
-        if (_nullGroupId == INVALID_ID) {
-          _nullGroupId = _numGroups++;
-        }
-        return _nullGroupId;
+    if (key == null) {
+      if (_nullGroupId == INVALID_ID && _numGroups < _numGroupsLimit) {
+        _nullGroupId = _numGroups++;
       }
-      int groupId = _groupIdMap.computeIfAbsent((double) key, k -> _numGroups);
+      return _nullGroupId;
+    }
+    return getGroupId((double) key);
+  }
+
+  /**
+   * Returns the group id for the given non-null primitive key, see {@link #getGroupId(Object)}.
+   */
+  public int getGroupId(double key) {
+    if (_numGroups < _numGroupsLimit) {
+      int groupId = _groupIdMap.computeIfAbsent(key, k -> _numGroups);
       if (groupId == _numGroups) {
         _numGroups++;
       }
       return groupId;
     } else {
-      if (key == null) {
-        return _nullGroupId;
-      }
-      return _groupIdMap.get((double) key);
+      return _groupIdMap.get(key);
     }
   }
 
@@ -39,23 +39,27 @@ public class OneLongKeyGroupIdGenerator implements GroupIdGenerator {
 
   @Override
   public int getGroupId(Object key) {
-    if (_numGroups < _numGroupsLimit) {
-      if (key == null) {
-        if (_nullGroupId == INVALID_ID) {
-          _nullGroupId = _numGroups++;
-        }
-        return _nullGroupId;
+    if (key == null) {
+      if (_nullGroupId == INVALID_ID && _numGroups < _numGroupsLimit) {
+        _nullGroupId = _numGroups++;
       }
-      int groupId = _groupIdMap.computeIfAbsent((long) key, k -> _numGroups);
+      return _nullGroupId;
+    }
+    return getGroupId((long) key);
+  }
+
+  /**
+   * Returns the group id for the given non-null primitive key, see {@link #getGroupId(Object)}.
+   */
+  public int getGroupId(long key) {
+    if (_numGroups < _numGroupsLimit) {
+      int groupId = _groupIdMap.computeIfAbsent(key, k -> _numGroups);
       if (groupId == _numGroups) {
         _numGroups++;
       }
       return groupId;
     } else {
-      if (key == null) {
-        return _nullGroupId;
-      }
-      return _groupIdMap.get((long) key);
+      return _groupIdMap.get(key);
     }
   }
 
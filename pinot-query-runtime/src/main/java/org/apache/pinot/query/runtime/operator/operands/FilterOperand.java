@@ -21,12 +21,16 @@ package org.apache.pinot.query.runtime.operator.operands;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Ordering;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.IntPredicate;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
+import org.roaringbitmap.RoaringBitmap;
 
 
 /**
@@ -43,6 +47,49 @@ public abstract class FilterOperand implements TransformOperand {
   @Override
   public abstract Integer apply(Object[] row);
 
+  /**
+   * Returns a copy of the BOOLEAN values of the given vector, with the null rows set to the given value.
+   */
+  private static int[] getBooleanValues(ColumnVector vector, int numRows, int nullValue) {
+    int[] values = new int[numRows];
+    Object vectorValues = vector.getValues();
+    if (vectorValues instanceof int[]) {
+      System.arraycopy(vectorValues, 0, values, 0, numRows);
+    } else {
+      for (int i = 0; i < numRows; i++) {
+        Object value = vector.getValue(i);
+        if (value != null) {
+          values[i] = ((Number) value).intValue();
+        }
+      }
+    }
+    RoaringBitmap nullBitmap = vector.getNullBitmap();
+    if (nullBitmap != null) {
+      nullBitmap.forEach((int rowId) -> values[rowId] = nullValue);
+    }
+    return values;
+  }
+
+  /**
+   * Returns the null bitmap of the AND/OR result: rows with null child result, except the rows whose result is decided
+   * by a non-null child, i.e. the rows with the given decided value.
+   */
+  @Nullable
+  private static RoaringBitmap getNullBitmap(ColumnVector[] childVectors, int[] values, int decidedValue) {
+    RoaringBitmap nullBitmap = ColumnVector.unionNullBitmaps(childVectors);
+    if (nullBitmap == null) {
+      return null;
+    }
+    RoaringBitmap decidedRows = new RoaringBitmap();
+    nullBitmap.forEach((int rowId) -> {
+      if (values[rowId] == decidedValue) {
+        decidedRows.add(rowId);
+      }
+    });
+    nullBitmap.andNot(decidedRows);
+    return nullBitmap.isEmpty() ? null : nullBitmap;
+  }
+
   public static class And extends FilterOperand {
     List<TransformOperand> _childOperands;
 
@@ -67,6 +114,24 @@ public abstract class FilterOperand implements TransformOperand {
       }
       return hasNull ? null : 1;
     }
+
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      int numRows = batch.getNumRows();
+      int numChildren = _childOperands.size();
+      ColumnVector[] childVectors = new ColumnVector[numChildren];
+      int[] values = new int[numRows];
+      Arrays.fill(values, 1);
+      for (int i = 0; i < numChildren; i++) {
+        childVectors[i] = _childOperands.get(i).apply(batch);
+        // Treat null as TRUE so that it does not affect the result, and track it in the null bitmap
+        int[] childValues = getBooleanValues(childVectors[i], numRows, 1);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          values[rowId] &= childValues[rowId];
+        }
+      }
+      return new ColumnVector(values, getNullBitmap(childVectors, values, 0));
+    }
   }
 
   public static class Or extends FilterOperand {
@@ -93,6 +158,23 @@ public abstract class FilterOperand implements TransformOperand {
       }
       return hasNull ? null : 0;
     }
+
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      int numRows = batch.getNumRows();
+      int numChildren = _childOperands.size();
+      ColumnVector[] childVectors = new ColumnVector[numChildren];
+      int[] values = new int[numRows];
+      for (int i = 0; i < numChildren; i++) {
+        childVectors[i] = _childOperands.get(i).apply(batch);
+        // Treat null as FALSE so that it does not affect the result, and track it in the null bitmap
+        int[] childValues = getBooleanValues(childVectors[i], numRows, 0);
+        for (int rowId = 0; rowId < numRows; rowId++) {
+          values[rowId] |= childValues[rowId];
+        }
+      }
+      return new ColumnVector(values, getNullBitmap(childVectors, values, 1));
+    }
   }
 
   public static class Not extends FilterOperand {
@@ -108,6 +190,17 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? 1 - (int) result : null;
     }
+
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      int numRows = batch.getNumRows();
+      ColumnVector childVector = _childOperand.apply(batch);
+      int[] values = getBooleanValues(childVector, numRows, 1);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        values[rowId] = 1 - values[rowId];
+      }
+      return new ColumnVector(values, childVector.getNullBitmap());
+    }
   }
 
   public static class In extends FilterOperand {
@@ -154,6 +247,11 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? (Integer) result : 0;
     }
+
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      return new ColumnVector(getBooleanValues(_childOperand.apply(batch), batch.getNumRows(), 0), null);
+    }
   }
 
   public static class IsNotTrue extends FilterOperand {
@@ -168,6 +266,16 @@ public abstract class FilterOperand implements TransformOperand {
       Object result = _childOperand.apply(row);
       return result != null ? 1 - (int) result : 1;
     }
+
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      int numRows = batch.getNumRows();
+      int[] values = getBooleanValues(_childOperand.apply(batch), numRows, 0);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        values[rowId] = 1 - values[rowId];
+      }
+      return new ColumnVector(values, null);
+    }
   }
 
   public static class Predicate extends FilterOperand {
@@ -232,6 +340,65 @@ public abstract class FilterOperand implements TransformOperand {
       return _comparisonResultPredicate.test(v1.compareTo(v2)) ? 1 : 0;
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    @Override
+    public ColumnVector apply(ColumnarBatch batch) {
+      int numRows = batch.getNumRows();
+      ColumnVector lhs = _lhs.apply(batch);
+      ColumnVector rhs = _rhs.apply(batch);
+      RoaringBitmap nullBitmap = ColumnVector.unionNullBitmaps(lhs, rhs);
+      ColumnDataType compareType = _requireCasting ? _commonCastType : _lhs.getResultType().getStoredType();
+      int[] values = new int[numRows];
+      // The values of the null rows are compared as well, but they are masked by the null bitmap
+      switch (compareType) {
+        case INT: {
+          int[] lhsValues = (int[]) lhs.getValues();
+          int[] rhsValues = (int[]) rhs.getValues();
+          for (int i = 0; i < numRows; i++) {
+            values[i] = _comparisonResultPredicate.test(Integer.compare(lhsValues[i], rhsValues[i])) ? 1 : 0;
+          }
+          break;
+        }
+        case LONG: {
+          long[] lhsValues = lhs.toLongs(numRows);
+          long[] rhsValues = rhs.toLongs(numRows);
+          for (int i = 0; i < numRows; i++) {
+            values[i] = _comparisonResultPredicate.test(Long.compare(lhsValues[i], rhsValues[i])) ? 1 : 0;
+          }
+          break;
+        }
+        case FLOAT: {
+          float[] lhsValues = lhs.toFloats(numRows);
+          float[] rhsValues = rhs.toFloats(numRows);
+          for (int i = 0; i < numRows; i++) {
+            values[i] = _comparisonResultPredicate.test(Float.compare(lhsValues[i], rhsValues[i])) ? 1 : 0;
+          }
+          break;
+        }
+        case DOUBLE: {
+          double[] lhsValues = lhs.toDoubles(numRows);
+          double[] rhsValues = rhs.toDoubles(numRows);
+          for (int i = 0; i < numRows; i++) {
+            values[i] = _comparisonResultPredicate.test(Double.compare(lhsValues[i], rhsValues[i])) ? 1 : 0;
+          }
+          break;
+        }
+        default: {
+          Object[] lhsValues = (Object[]) lhs.getValues();
+          Object[] rhsValues = (Object[]) rhs.getValues();
+          for (int i = 0; i < numRows; i++) {
+            Comparable v1 = (Comparable) lhsValues[i];
+            Comparable v2 = (Comparable) rhsValues[i];
+            if (v1 != null && v2 != null) {
+              values[i] = _comparisonResultPredicate.test(v1.compareTo(v2)) ? 1 : 0;
+            }
+          }
+          break;
+        }
+      }
+      return new ColumnVector(values, nullBitmap);
+    }
+
     private static Comparable<?> cast(Object value, ColumnDataType type) {
       switch (type) {
         case INT:
@@ -19,29 +19,64 @@
 package org.apache.pinot.query.runtime.operator.operands;
 
 import com.google.common.base.Preconditions;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.UnaryOperator;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.function.FunctionInfo;
 import org.apache.pinot.common.function.FunctionInvoker;
 import org.apache.pinot.common.function.FunctionRegistry;
 import org.apache.pinot.common.function.FunctionUtils;
+import org.apache.pinot.common.function.scalar.ArithmeticFunctions;
+import org.apache.pinot.common.function.scalar.StringFunctions;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.common.utils.PinotDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 
 
 /*
  * FunctionOperands are generated from {@link RexExpression}s.
+ *
+ * When evaluated on a {@link ColumnarBatch}, the common arithmetic and string functions are evaluated with primitive
+ * specialized kernels over the operand vectors. Other functions are invoked row by row on the operand vectors.
  */
 public class FunctionOperand implements TransformOperand {
+  private static final Map<Method, DoubleBinaryOperator> DOUBLE_BINARY_KERNELS = new HashMap<>();
+  private static final Map<Method, UnaryOperator<String>> STRING_UNARY_KERNELS = new HashMap<>();
+
+  static {
+    DOUBLE_BINARY_KERNELS.put(getMethod(ArithmeticFunctions.class, "plus", double.class, double.class),
+        ArithmeticFunctions::plus);
+    DOUBLE_BINARY_KERNELS.put(getMethod(ArithmeticFunctions.class, "minus", double.class, double.class),
+        ArithmeticFunctions::minus);
+    DOUBLE_BINARY_KERNELS.put(getMethod(ArithmeticFunctions.class, "times", double.class, double.class),
+        ArithmeticFunctions::times);
+    DOUBLE_BINARY_KERNELS.put(getMethod(ArithmeticFunctions.class, "divide", double.class, double.class),
+        ArithmeticFunctions::divide);
+    DOUBLE_BINARY_KERNELS.put(getMethod(ArithmeticFunctions.class, "mod", double.class, double.class),
+        ArithmeticFunctions::mod);
+    STRING_UNARY_KERNELS.put(getMethod(StringFunctions.class, "upper", String.class), StringFunctions::upper);
+    STRING_UNARY_KERNELS.put(getMethod(StringFunctions.class, "lower", String.class), StringFunctions::lower);
+    STRING_UNARY_KERNELS.put(getMethod(StringFunctions.class, "trim", String.class), StringFunctions::trim);
+    STRING_UNARY_KERNELS.put(getMethod(StringFunctions.class, "reverse", String.class), StringFunctions::reverse);
+  }
+
   private final ColumnDataType _resultType;
   private final FunctionInvoker _functionInvoker;
   private final ColumnDataType _functionInvokerResultType;
   private final List<TransformOperand> _operands;
   private final Object[] _reusableOperandHolder;
+  // Kernels to evaluate the function on the operand vectors, null if not applicable
+  private final DoubleBinaryOperator _doubleBinaryKernel;
+  private final UnaryOperator<String> _stringUnaryKernel;
 
   public FunctionOperand(RexExpression.FunctionCall functionCall, String canonicalName, DataSchema dataSchema) {
     _resultType = functionCall.getDataType();
@@ -66,6 +101,45 @@ public class FunctionOperand implements TransformOperand {
       _operands.add(TransformOperandFactory.getTransformOperand(operand, dataSchema));
     }
     _reusableOperandHolder = new Object[numOperands];
+    _doubleBinaryKernel = getDoubleBinaryKernel();
+    _stringUnaryKernel = getStringUnaryKernel();
+  }
+
+  private static Method getMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+    try {
+      return clazz.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Cannot find method: " + name + " in class: " + clazz, e);
+    }
+  }
+
+  @Nullable
+  private DoubleBinaryOperator getDoubleBinaryKernel() {
+    DoubleBinaryOperator kernel = DOUBLE_BINARY_KERNELS.get(_functionInvoker.getMethod());
+    if (kernel == null || !isNumeric(_resultType.getStoredType())) {
+      return null;
+    }
+    for (TransformOperand operand : _operands) {
+      if (!isNumeric(operand.getResultType())) {
+        return null;
+      }
+    }
+    return kernel;
+  }
+
+  @Nullable
+  private UnaryOperator<String> getStringUnaryKernel() {
+    UnaryOperator<String> kernel = STRING_UNARY_KERNELS.get(_functionInvoker.getMethod());
+    if (kernel == null || _resultType.getStoredType() != ColumnDataType.STRING
+        || _operands.get(0).getResultType() != ColumnDataType.STRING) {
+      return null;
+    }
+    return kernel;
+  }
+
+  private static boolean isNumeric(ColumnDataType type) {
+    return type == ColumnDataType.INT || type == ColumnDataType.LONG || type == ColumnDataType.FLOAT
+        || type == ColumnDataType.DOUBLE;
   }
 
   @Override
@@ -81,6 +155,55 @@ public class FunctionOperand implements TransformOperand {
       Object value = operand.apply(row);
       _reusableOperandHolder[i] = value != null ? operand.getResultType().toExternal(value) : null;
     }
+    return invoke();
+  }
+
+  @Override
+  public ColumnVector apply(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    int numOperands = _operands.size();
+    ColumnVector[] operandVectors = new ColumnVector[numOperands];
+    for (int i = 0; i < numOperands; i++) {
+      operandVectors[i] = _operands.get(i).apply(batch);
+    }
+    if (_doubleBinaryKernel != null) {
+      double[] lhs = operandVectors[0].toDoubles(numRows);
+      double[] rhs = operandVectors[1].toDoubles(numRows);
+      double[] values = new double[numRows];
+      for (int i = 0; i < numRows; i++) {
+        values[i] = _doubleBinaryKernel.applyAsDouble(lhs[i], rhs[i]);
+      }
+      return ColumnVector.fromDoubles(_resultType.getStoredType(), values,
+          ColumnVector.unionNullBitmaps(operandVectors));
+    }
+    if (_stringUnaryKernel != null) {
+      Object[] inputs = (Object[]) operandVectors[0].getValues();
+      Object[] values = new Object[numRows];
+      for (int i = 0; i < numRows; i++) {
+        Object input = inputs[i];
+        if (input != null) {
+          values[i] = _stringUnaryKernel.apply((String) input);
+        }
+      }
+      return new ColumnVector(values, operandVectors[0].getNullBitmap());
+    }
+    Object[] values = new Object[numRows];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      for (int i = 0; i < numOperands; i++) {
+        Object value = operandVectors[i].getValue(rowId);
+        _reusableOperandHolder[i] = value != null ? _operands.get(i).getResultType().toExternal(value) : null;
+      }
+      values[rowId] = invoke();
+    }
+    return ColumnVector.fromValues(_resultType.getStoredType(), values);
+  }
+
+  /**
+   * Invokes the function on the external operand values in {@link #_reusableOperandHolder}, and returns the result
+   * converted to the internal stored type.
+   */
+  @Nullable
+  private Object invoke() {
     // TODO: Optimize per record conversion
     Object result;
     if (_functionInvoker.getMethod().isVarArgs()) {
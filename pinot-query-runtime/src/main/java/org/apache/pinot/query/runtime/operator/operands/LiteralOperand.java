@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.query.runtime.operator.operands;
 
+import java.util.Arrays;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.query.planner.logical.RexExpression;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 
 
 public class LiteralOperand implements TransformOperand {
@@ -40,4 +43,11 @@ public class LiteralOperand implements TransformOperand {
   public Object apply(Object[] row) {
     return _value;
   }
+
+  @Override
+  public ColumnVector apply(ColumnarBatch batch) {
+    Object[] values = new Object[batch.getNumRows()];
+    Arrays.fill(values, _value);
+    return ColumnVector.fromValues(_resultType.getStoredType(), values);
+  }
 }
@@ -21,6 +21,8 @@ package org.apache.pinot.query.runtime.operator.operands;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 
 
 public class ReferenceOperand implements TransformOperand {
@@ -32,6 +34,10 @@ public class ReferenceOperand implements TransformOperand {
     _resultType = dataSchema.getColumnDataType(index);
   }
 
+  public int getIndex() {
+    return _index;
+  }
+
   @Override
   public ColumnDataType getResultType() {
     return _resultType;
@@ -42,4 +48,9 @@ public class ReferenceOperand implements TransformOperand {
   public Object apply(Object[] row) {
     return row[_index];
   }
+
+  @Override
+  public ColumnVector apply(ColumnarBatch batch) {
+    return new ColumnVector(batch.getColumn(_index), batch.getNullBitmap(_index));
+  }
 }
@@ -20,6 +20,8 @@ package org.apache.pinot.query.runtime.operator.operands;
 
 import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.query.runtime.blocks.ColumnVector;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 
 
 public interface TransformOperand {
@@ -28,4 +30,22 @@ public interface TransformOperand {
 
   @Nullable
   Object apply(Object[] row);
+
+  /**
+   * Evaluates the operand on all the rows of the given batch, and returns the results as a vector of the stored type
+   * of {@link #getResultType()}.
+   *
+   * <p>The default implementation evaluates the rows one by one with {@link #apply(Object[])}. Operands should
+   * override it with a vectorized implementation when possible.
+   */
+  default ColumnVector apply(ColumnarBatch batch) {
+    int numRows = batch.getNumRows();
+    Object[] values = new Object[numRows];
+    Object[] row = new Object[batch.getNumColumns()];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      batch.fillRow(rowId, row);
+      values[rowId] = apply(row);
+    }
+    return ColumnVector.fromValues(getResultType().getStoredType(), values);
+  }
 }
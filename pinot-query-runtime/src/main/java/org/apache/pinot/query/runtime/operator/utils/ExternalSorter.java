@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code ExternalSorter} sorts rows with a bounded number of rows kept on heap.
+ *
+ * <p>Rows are buffered in memory either as unsorted rows or as already sorted runs. Once adding more rows would exceed
+ * the max rows in memory, the buffered rows are sorted (merged for the sorted runs) and written into a
+ * {@link SpillFile} as a sorted run, so a spilled run never holds more than the max rows in memory. The final sorted
+ * result is produced by a k-way merge of all the spilled runs and the rows still in memory.
+ *
+ * <p>The spilled runs are written in small blocks so that the merge only keeps a small buffer per run on heap. When
+ * there are more runs than the max merge fan-in, the runs are first merged into fewer (larger) spilled runs in
+ * multiple passes, which bounds both the rows on heap and the open runs during the final merge.
+ *
+ * <p>This class is not thread safe. All the spilled files are deleted on {@link #close()}.
+ */
+public class ExternalSorter implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExternalSorter.class);
+  // Max rows written into a spilled run as a single block, which is also the max rows buffered per run during merge.
+  private static final int MAX_ROWS_PER_SPILLED_BLOCK = 10_000;
+  private static final int DEFAULT_MAX_MERGE_FAN_IN = 64;
+
+  private final Comparator<Object[]> _comparator;
+  private final DataSchema _dataSchema;
+  private final int _maxRowsInMemory;
+  private final File _spillRootDir;
+  private final String _spillDirPrefix;
+  private final int _maxMergeFanIn;
+  private final int _maxRowsPerSpilledBlock;
+
+  private final List<List<Object[]>> _sortedRuns = new ArrayList<>();
+  private final List<SpillFile> _spilledRuns = new ArrayList<>();
+  private List<Object[]> _unsortedRows = new ArrayList<>();
+  private int _numRowsInMemory;
+  private int _numSpillFilesCreated;
+  private long _numSpilledRows;
+  private long _numSpilledBytes;
+  @Nullable
+  private File _spillDir;
+
+  /**
+   * @param comparator comparator to sort the rows on
+   * @param dataSchema data schema of the rows
+   * @param maxRowsInMemory max rows kept on heap before spilling them to disk
+   * @param spillRootDir directory under which the spilled runs are written
+   * @param spillDirPrefix prefix of the directory holding the spilled runs of this sorter
+   */
+  public ExternalSorter(Comparator<Object[]> comparator, DataSchema dataSchema, int maxRowsInMemory,
+      File spillRootDir, String spillDirPrefix) {
+    this(comparator, dataSchema, maxRowsInMemory, spillRootDir, spillDirPrefix, DEFAULT_MAX_MERGE_FAN_IN);
+  }
+
+  @VisibleForTesting
+  ExternalSorter(Comparator<Object[]> comparator, DataSchema dataSchema, int maxRowsInMemory, File spillRootDir,
+      String spillDirPrefix, int maxMergeFanIn) {
+    Preconditions.checkArgument(maxRowsInMemory > 0, "Max rows in memory must be positive, got: %s", maxRowsInMemory);
+    Preconditions.checkArgument(maxMergeFanIn > 1, "Max merge fan-in must be larger than 1, got: %s", maxMergeFanIn);
+    _comparator = comparator;
+    _dataSchema = dataSchema;
+    _maxRowsInMemory = maxRowsInMemory;
+    _spillRootDir = spillRootDir;
+    _spillDirPrefix = spillDirPrefix;
+    _maxMergeFanIn = maxMergeFanIn;
+    // Keep the rows buffered by the final merge (one block per spilled run) within the max rows in memory
+    _maxRowsPerSpilledBlock = Math.max(Math.min(maxRowsInMemory / maxMergeFanIn, MAX_ROWS_PER_SPILLED_BLOCK), 1);
+  }
+
+  /**
+   * Adds unsorted rows.
+   */
+  public void addRows(List<Object[]> rows)
+      throws IOException {
+    int numRows = rows.size();
+    int startIndex = 0;
+    while (startIndex < numRows) {
+      int endIndex = Math.min(startIndex + reserveRowsInMemory(), numRows);
+      _unsortedRows.addAll(rows.subList(startIndex, endIndex));
+      _numRowsInMemory += endIndex - startIndex;
+      startIndex = endIndex;
+    }
+  }
+
+  /**
+   * Adds rows which are already sorted based on the comparator of this sorter.
+   */
+  public void addSortedRun(List<Object[]> sortedRows)
+      throws IOException {
+    int numRows = sortedRows.size();
+    int startIndex = 0;
+    while (startIndex < numRows) {
+      int endIndex = Math.min(startIndex + reserveRowsInMemory(), numRows);
+      // Copy the rows when splitting the run to not hold the whole run with the sub-list
+      _sortedRuns.add(endIndex - startIndex == numRows ? sortedRows
+          : new ArrayList<>(sortedRows.subList(startIndex, endIndex)));
+      _numRowsInMemory += endIndex - startIndex;
+      startIndex = endIndex;
+    }
+  }
+
+  public int getNumSpilledRuns() {
+    return _spilledRuns.size();
+  }
+
+  /**
+   * Returns the number of rows spilled to disk when the max rows in memory is reached, excluding the rows rewritten
+   * when merging the spilled runs.
+   */
+  public long getNumSpilledRows() {
+    return _numSpilledRows;
+  }
+
+  /**
+   * Returns the number of bytes spilled to disk when the max rows in memory is reached, excluding the bytes rewritten
+   * when merging the spilled runs.
+   */
+  public long getNumSpilledBytes() {
+    return _numSpilledBytes;
+  }
+
+  /**
+   * Returns an iterator over all the added rows in sorted order. No more rows should be added after calling this
+   * method.
+   */
+  public Iterator<Object[]> sortedIterator()
+      throws IOException {
+    sortUnsortedRows();
+    // The rows in memory are merged as a single run
+    int numRunsInMemory = _sortedRuns.isEmpty() ? 0 : 1;
+    while (_spilledRuns.size() + numRunsInMemory > _maxMergeFanIn) {
+      mergeSpilledRuns();
+    }
+    List<Iterator<Object[]>> sortedIterators = new ArrayList<>(_spilledRuns.size() + numRunsInMemory);
+    for (SpillFile spilledRun : _spilledRuns) {
+      sortedIterators.add(spilledRun.rowIterator());
+    }
+    if (numRunsInMemory > 0) {
+      sortedIterators.add(getSortedRunsIterator());
+    }
+    if (sortedIterators.isEmpty()) {
+      return Collections.emptyIterator();
+    }
+    return SortUtils.mergeSorted(sortedIterators, _comparator);
+  }
+
+  /**
+   * Returns the number of rows that can be added to memory, spilling the rows in memory first if the max rows in memory
+   * is already reached.
+   */
+  private int reserveRowsInMemory()
+      throws IOException {
+    if (_numRowsInMemory >= _maxRowsInMemory) {
+      spill();
+    }
+    return _maxRowsInMemory - _numRowsInMemory;
+  }
+
+  private Iterator<Object[]> getSortedRunsIterator() {
+    List<Iterator<Object[]>> sortedIterators = new ArrayList<>(_sortedRuns.size());
+    for (List<Object[]> sortedRun : _sortedRuns) {
+      sortedIterators.add(sortedRun.iterator());
+    }
+    return SortUtils.mergeSorted(sortedIterators, _comparator);
+  }
+
+  private void sortUnsortedRows() {
+    if (!_unsortedRows.isEmpty()) {
+      _unsortedRows.sort(_comparator);
+      _sortedRuns.add(_unsortedRows);
+      _unsortedRows = new ArrayList<>();
+    }
+  }
+
+  private void spill()
+      throws IOException {
+    if (_spillDir == null) {
+      FileUtils.forceMkdir(_spillRootDir);
+      _spillDir = Files.createTempDirectory(_spillRootDir.toPath(), _spillDirPrefix).toFile();
+      LOGGER.info("Spilling sort to: {} after reaching max rows in memory: {}", _spillDir, _maxRowsInMemory);
+    }
+    sortUnsortedRows();
+    SpillFile spilledRun = writeSpilledRun(getSortedRunsIterator());
+    _spilledRuns.add(spilledRun);
+    _numSpilledRows += spilledRun.getNumRows();
+    _numSpilledBytes += spilledRun.getNumBytes();
+    _sortedRuns.clear();
+    _numRowsInMemory = 0;
+  }
+
+  /**
+   * Merges the first max merge fan-in spilled runs into a single spilled run.
+   */
+  private void mergeSpilledRuns()
+      throws IOException {
+    List<SpillFile> runsToMerge = new ArrayList<>(_spilledRuns.subList(0, _maxMergeFanIn));
+    List<Iterator<Object[]>> sortedIterators = new ArrayList<>(_maxMergeFanIn);
+    for (SpillFile spilledRun : runsToMerge) {
+      sortedIterators.add(spilledRun.rowIterator());
+    }
+    SpillFile mergedRun = writeSpilledRun(SortUtils.mergeSorted(sortedIterators, _comparator));
+    _spilledRuns.subList(0, _maxMergeFanIn).clear();
+    _spilledRuns.add(mergedRun);
+    for (SpillFile spilledRun : runsToMerge) {
+      spilledRun.close();
+    }
+  }
+
+  private SpillFile writeSpilledRun(Iterator<Object[]> sortedIterator)
+      throws IOException {
+    SpillFile spilledRun = new SpillFile(new File(_spillDir, Integer.toString(_numSpillFilesCreated++)), _dataSchema);
+    try {
+      List<Object[]> block = new ArrayList<>(_maxRowsPerSpilledBlock);
+      while (sortedIterator.hasNext()) {
+        block.add(sortedIterator.next());
+        if (block.size() == _maxRowsPerSpilledBlock) {
+          spilledRun.write(block);
+          block.clear();
+        }
+      }
+      spilledRun.write(block);
+    } catch (Exception e) {
+      spilledRun.close();
+      throw e;
+    }
+    return spilledRun;
+  }
+
+  @Override
+  public void close() {
+    _unsortedRows.clear();
+    _sortedRuns.clear();
+    for (SpillFile spilledRun : _spilledRuns) {
+      try {
+        spilledRun.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to close spill file: {}", spilledRun.getFile(), e);
+      }
+    }
+    _spilledRuns.clear();
+    if (_spillDir != null) {
+      FileUtils.deleteQuietly(_spillDir);
+      _spillDir = null;
+    }
+  }
+}
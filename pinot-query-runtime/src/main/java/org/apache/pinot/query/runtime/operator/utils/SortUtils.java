@@ -19,7 +19,10 @@
 package org.apache.pinot.query.runtime.operator.utils;
 
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.utils.DataSchema;
@@ -93,4 +96,59 @@ public class SortUtils {
       return 0;
     }
   }
+
+  /**
+   * Returns an iterator merging the given sorted iterators (k-way merge), where each of them is sorted based on the
+   * given comparator.
+   */
+  public static Iterator<Object[]> mergeSorted(List<Iterator<Object[]>> sortedIterators,
+      Comparator<Object[]> comparator) {
+    if (sortedIterators.size() == 1) {
+      return sortedIterators.get(0);
+    }
+    return new MergingIterator(sortedIterators, comparator);
+  }
+
+  private static class MergingIterator implements Iterator<Object[]> {
+    private final List<Iterator<Object[]>> _sortedIterators;
+    // Each entry is the index of an iterator, ordered by the current head row of the iterator
+    private final PriorityQueue<Integer> _heap;
+    private final Object[][] _heads;
+
+    MergingIterator(List<Iterator<Object[]>> sortedIterators, Comparator<Object[]> comparator) {
+      int numIterators = sortedIterators.size();
+      _sortedIterators = sortedIterators;
+      _heads = new Object[numIterators][];
+      _heap = new PriorityQueue<>(Math.max(numIterators, 1), (i1, i2) -> comparator.compare(_heads[i1], _heads[i2]));
+      for (int i = 0; i < numIterators; i++) {
+        advance(i);
+      }
+    }
+
+    private void advance(int index) {
+      Iterator<Object[]> iterator = _sortedIterators.get(index);
+      if (iterator.hasNext()) {
+        _heads[index] = iterator.next();
+        _heap.add(index);
+      } else {
+        _heads[index] = null;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !_heap.isEmpty();
+    }
+
+    @Override
+    public Object[] next() {
+      Integer index = _heap.poll();
+      if (index == null) {
+        throw new NoSuchElementException();
+      }
+      Object[] row = _heads[index];
+      advance(index);
+      return row;
+    }
+  }
 }
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+
+
+/**
+ * The {@code SpillFile} is an append-only local file holding rows serialized as {@link
+ * org.apache.pinot.common.datablock.RowDataBlock}s. It is used by the multi-stage operators to move intermediate
+ * results out of the heap when they exceed the configured in-memory limits.
+ *
+ * <p>Each block is stored as a 4 bytes length followed by the serialized block. Blocks are read back by memory mapping
+ * one block at a time, so a file can grow beyond 2GB and only a single block is materialized on heap at any time.
+ *
+ * <p>This class is not thread safe. The file is deleted on {@link #close()}.
+ */
+public class SpillFile implements Closeable {
+  private static final int BLOCK_HEADER_SIZE = Integer.BYTES;
+
+  private final File _file;
+  private final DataSchema _dataSchema;
+  private final FileChannel _fileChannel;
+  private int _numRows;
+  private int _numBlocks;
+  private long _numBytes;
+
+  public SpillFile(File file, DataSchema dataSchema)
+      throws IOException {
+    FileUtils.forceMkdirParent(file);
+    _file = file;
+    _dataSchema = dataSchema;
+    _fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  public File getFile() {
+    return _file;
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  public long getNumBytes() {
+    return _numBytes;
+  }
+
+  /**
+   * Appends the given rows as a single block to the end of the file. Empty row lists are ignored.
+   */
+  public void write(List<Object[]> rows)
+      throws IOException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    byte[] bytes = DataBlockBuilder.buildFromRows(rows, _dataSchema).toBytes();
+    ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    header.putInt(bytes.length).flip();
+    ByteBuffer[] buffers = new ByteBuffer[]{header, ByteBuffer.wrap(bytes)};
+    long numBytesToWrite = BLOCK_HEADER_SIZE + bytes.length;
+    long numBytesWritten = 0;
+    while (numBytesWritten < numBytesToWrite) {
+      numBytesWritten += _fileChannel.write(buffers);
+    }
+    _numRows += rows.size();
+    _numBlocks++;
+    _numBytes += numBytesToWrite;
+  }
+
+  /**
+   * Returns an iterator over the blocks in the file, in the order they were written. The iterator reflects the blocks
+   * written before it is created.
+   */
+  public Iterator<List<Object[]>> blockIterator() {
+    return new BlockIterator(_numBytes);
+  }
+
+  /**
+   * Returns an iterator over the rows in the file, in the order they were written. Only the block containing the
+   * current row is kept on heap.
+   */
+  public Iterator<Object[]> rowIterator() {
+    Iterator<List<Object[]>> blockIterator = blockIterator();
+    return new Iterator<Object[]>() {
+      private Iterator<Object[]> _currentBlock = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!_currentBlock.hasNext()) {
+          if (!blockIterator.hasNext()) {
+            return false;
+          }
+          _currentBlock = blockIterator.next().iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public Object[] next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return _currentBlock.next();
+      }
+    };
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      _fileChannel.close();
+    } finally {
+      FileUtils.deleteQuietly(_file);
+    }
+  }
+
+  private class BlockIterator implements Iterator<List<Object[]>> {
+    private final long _endOffset;
+    private final ByteBuffer _header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    private long _offset;
+
+    BlockIterator(long endOffset) {
+      _endOffset = endOffset;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _offset < _endOffset;
+    }
+
+    @Override
+    public List<Object[]> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        _header.clear();
+        while (_header.hasRemaining()) {
+          if (_fileChannel.read(_header, _offset + _header.position()) < 0) {
+            throw new IOException("Unexpected end of spill file: " + _file);
+          }
+        }
+        int blockSize = _header.getInt(0);
+        MappedByteBuffer blockBuffer =
+            _fileChannel.map(FileChannel.MapMode.READ_ONLY, _offset + BLOCK_HEADER_SIZE, blockSize);
+        _offset += BLOCK_HEADER_SIZE + blockSize;
+        return DataBlockExtractUtils.extractRows(DataBlockUtils.getDataBlock(blockBuffer));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -18,9 +18,11 @@
  */
 package org.apache.pinot.query.runtime.plan;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.routing.StageMetadata;
 import org.apache.pinot.query.routing.VirtualServerAddress;
@@ -48,12 +50,20 @@ public class OpChainExecutionContext {
   @Nullable
   private final PipelineBreakerResult _pipelineBreakerResult;
   private final boolean _traceEnabled;
+  private final File _spillDir;
 
   private ServerPlanRequestContext _leafStageContext;
 
   public OpChainExecutionContext(MailboxService mailboxService, long requestId, long deadlineMs,
       Map<String, String> opChainMetadata, StageMetadata stageMetadata, WorkerMetadata workerMetadata,
       @Nullable PipelineBreakerResult pipelineBreakerResult) {
+    this(mailboxService, requestId, deadlineMs, opChainMetadata, stageMetadata, workerMetadata, pipelineBreakerResult,
+        null);
+  }
+
+  public OpChainExecutionContext(MailboxService mailboxService, long requestId, long deadlineMs,
+      Map<String, String> opChainMetadata, StageMetadata stageMetadata, WorkerMetadata workerMetadata,
+      @Nullable PipelineBreakerResult pipelineBreakerResult, @Nullable File spillDir) {
     _mailboxService = mailboxService;
     _requestId = requestId;
     _deadlineMs = deadlineMs;
@@ -65,6 +75,8 @@ public class OpChainExecutionContext {
     _id = new OpChainId(requestId, workerMetadata.getWorkerId(), stageMetadata.getStageId());
     _pipelineBreakerResult = pipelineBreakerResult;
     _traceEnabled = Boolean.parseBoolean(opChainMetadata.get(CommonConstants.Broker.Request.TRACE));
+    _spillDir = spillDir != null ? spillDir
+        : new File(FileUtils.getTempDirectory(), CommonConstants.MultiStageQueryRunner.DEFAULT_SPILL_DIR_NAME);
   }
 
   public MailboxService getMailboxService() {
@@ -116,6 +128,13 @@ public class OpChainExecutionContext {
     return _traceEnabled;
   }
 
+  /**
+   * Returns the local directory under which operators of this OpChain can spill intermediate results.
+   */
+  public File getSpillDir() {
+    return _spillDir;
+  }
+
   public ServerPlanRequestContext getLeafStageContext() {
     return _leafStageContext;
   }
@@ -22,7 +22,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.PinotQuery;
 import org.apache.pinot.common.utils.DataSchema;
@@ -140,7 +139,7 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
       List<Object[]> resultDataContainer = new ArrayList<>();
       DataSchema dataSchema = dynamicSide.getDataSchema();
       for (TransferableBlock block : transferableBlocks) {
-        if (block.getType() == DataBlock.Type.ROW) {
+        if (block.isDataBlock()) {
           resultDataContainer.addAll(block.getContainer());
         }
       }
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.blocks;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.pinot.common.datablock.ColumnarDataBlock;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ColumnarBatchTest {
+  private static final DataSchema DATA_SCHEMA = new DataSchema(
+      new String[]{"intCol", "longCol", "floatCol", "doubleCol", "bigDecimalCol", "stringCol", "booleanCol"},
+      new ColumnDataType[]{
+          ColumnDataType.INT, ColumnDataType.LONG, ColumnDataType.FLOAT, ColumnDataType.DOUBLE,
+          ColumnDataType.BIG_DECIMAL, ColumnDataType.STRING, ColumnDataType.BOOLEAN
+      });
+
+  private static List<Object[]> getRows() {
+    return Arrays.asList(
+        new Object[]{1, 10L, 1.5f, 2.5, new BigDecimal("1.1"), "a", 1},
+        new Object[]{null, null, null, null, null, null, null},
+        new Object[]{3, 30L, 3.5f, 4.5, new BigDecimal("3.3"), "c", 0}
+    );
+  }
+
+  private static void assertRowsEqual(List<Object[]> actual, List<Object[]> expected) {
+    assertEquals(actual.size(), expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(actual.get(i), expected.get(i));
+    }
+  }
+
+  @Test
+  public void shouldConvertRowsWithPrimitiveColumns() {
+    ColumnarBatch batch = ColumnarBatch.fromRows(getRows(), DATA_SCHEMA);
+
+    assertEquals(batch.getNumRows(), 3);
+    assertEquals(batch.getIntColumn(0)[2], 3);
+    assertEquals(batch.getLongColumn(1)[0], 10L);
+    assertEquals(batch.getFloatColumn(2)[2], 3.5f);
+    assertEquals(batch.getDoubleColumn(3)[0], 2.5);
+    assertEquals(batch.getIntColumn(6)[0], 1);
+    assertEquals(batch.getObjectColumn(5)[2], "c");
+    for (int colId = 0; colId < DATA_SCHEMA.size(); colId++) {
+      assertTrue(batch.isNull(1, colId));
+      assertFalse(batch.isNull(0, colId));
+      assertNull(batch.getValue(1, colId));
+    }
+    assertRowsEqual(batch.toRows(), getRows());
+  }
+
+  @Test
+  public void shouldRoundTripThroughColumnarDataBlock()
+      throws Exception {
+    ColumnarBatch batch = ColumnarBatch.fromRows(getRows(), DATA_SCHEMA);
+
+    DataBlock dataBlock = DataBlockUtils.getDataBlock(ByteBuffer.wrap(batch.toDataBlock().toBytes()));
+    assertTrue(dataBlock instanceof ColumnarDataBlock);
+
+    ColumnarBatch deserialized = ColumnarBatch.fromDataBlock(dataBlock);
+    assertTrue(deserialized.getColumn(0) instanceof int[]);
+    assertTrue(deserialized.getColumn(3) instanceof double[]);
+    assertRowsEqual(deserialized.toRows(), getRows());
+    assertRowsEqual(new TransferableBlock(dataBlock).getContainer(), getRows());
+  }
+
+  @Test
+  public void shouldSelectProjectAndSliceRows() {
+    ColumnarBatch batch = ColumnarBatch.fromRows(getRows(), DATA_SCHEMA);
+
+    ColumnarBatch selected = batch.select(new int[]{1, 2}, 2);
+    assertRowsEqual(selected.toRows(), getRows().subList(1, 3));
+    assertRowsEqual(batch.slice(0, 2).toRows(), getRows().subList(0, 2));
+
+    DataSchema projectedSchema =
+        new DataSchema(new String[]{"stringCol", "intCol"}, new ColumnDataType[]{
+            ColumnDataType.STRING, ColumnDataType.INT
+        });
+    ColumnarBatch projected = batch.project(new int[]{5, 0}, projectedSchema);
+    assertRowsEqual(projected.toRows(),
+        Arrays.asList(new Object[]{"a", 1}, new Object[]{null, null}, new Object[]{"c", 3}));
+  }
+
+  @Test
+  public void shouldSplitColumnarBlockByRows() {
+    TransferableBlock block = new TransferableBlock(ColumnarBatch.fromRows(getRows(), DATA_SCHEMA));
+
+    // Each row is estimated to be 7 columns * 8 bytes = 56 bytes
+    Iterator<TransferableBlock> splits = TransferableBlockUtils.splitBlock(block, DataBlock.Type.COLUMNAR, 112);
+    TransferableBlock first = splits.next();
+    TransferableBlock second = splits.next();
+    assertFalse(splits.hasNext());
+    assertEquals(first.getType(), DataBlock.Type.COLUMNAR);
+    assertRowsEqual(first.getContainer(), getRows().subList(0, 2));
+    assertRowsEqual(second.getContainer(), getRows().subList(2, 3));
+  }
+}
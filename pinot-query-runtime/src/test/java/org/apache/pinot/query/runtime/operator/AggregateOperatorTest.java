@@ -20,7 +20,9 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.hint.RelHint;
@@ -33,10 +35,12 @@ import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.planner.plannode.AbstractPlanNode;
 import org.apache.pinot.query.planner.plannode.AggregateNode.AggType;
 import org.apache.pinot.query.routing.VirtualServerAddress;
+import org.apache.pinot.query.runtime.blocks.ColumnarBatch;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -208,6 +212,37 @@ public class AggregateOperatorTest {
     Assert.assertTrue(block2.isEndOfStreamBlock(), "Second block is EOS (done processing)");
   }
 
+  @Test
+  public void testAggregateWithFilterOnColumnarBatch() {
+    // Given:
+    List<RexExpression> calls =
+        ImmutableList.of(getSum(new RexExpression.InputRef(1)), getSum(new RexExpression.InputRef(1)));
+    List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+    List<Integer> filterArgIds = ImmutableList.of(-1, 2);
+
+    DataSchema inSchema =
+        new DataSchema(new String[]{"group", "arg", "filterArg"}, new ColumnDataType[]{INT, DOUBLE, BOOLEAN});
+    Mockito.when(_input.nextBlock())
+        .thenReturn(new TransferableBlock(ColumnarBatch.fromRows(
+            Arrays.asList(new Object[]{2, 1.0, 0}, new Object[]{2, 2.0, 1}, new Object[]{3, 3.0, 1}), inSchema)))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    DataSchema outSchema =
+        new DataSchema(new String[]{"group", "sum", "sumWithFilter"}, new ColumnDataType[]{INT, DOUBLE, DOUBLE});
+    AggregateOperator operator =
+        new AggregateOperator(OperatorTestUtil.getTracingContext(), _input, outSchema, calls, group, AggType.DIRECT,
+            filterArgIds, null);
+
+    // When:
+    List<Object[]> resultRows = operator.nextBlock().getContainer();
+    resultRows.sort(Comparator.comparingInt(row -> (int) row[0]));
+
+    // Then:
+    Assert.assertEquals(resultRows.size(), 2);
+    Assert.assertEquals(resultRows.get(0), new Object[]{2, 3.0, 2.0});
+    Assert.assertEquals(resultRows.get(1), new Object[]{3, 3.0, 3.0});
+  }
+
   @Test
   public void testGroupByAggregateWithHashCollision() {
     MultiStageOperator upstreamOperator = OperatorTestUtil.getOperator(OperatorTestUtil.OP_1);
@@ -305,6 +340,48 @@ public class AggregateOperatorTest {
         "num groups limit should be reached");
   }
 
+  @Test
+  public void shouldRecordCpuTimeAndAllocatedBytes() {
+    boolean cpuTimeMeasurementEnabled = ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled();
+    boolean memoryMeasurementEnabled = ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled();
+    ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(true);
+    ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(true);
+    try {
+      // Given:
+      List<RexExpression> calls = ImmutableList.of(getSum(new RexExpression.InputRef(1)));
+      List<RexExpression> group = ImmutableList.of(new RexExpression.InputRef(0));
+
+      DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+      Mockito.when(_input.nextBlock())
+          .thenReturn(OperatorTestUtil.block(inSchema, new Object[]{2, 1.0}, new Object[]{3, 2.0}))
+          .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+      DataSchema outSchema = new DataSchema(new String[]{"group", "sum"}, new ColumnDataType[]{INT, DOUBLE});
+      AggregateOperator operator =
+          new AggregateOperator(OperatorTestUtil.getTracingContext(), _input, outSchema, calls, group,
+              AggType.DIRECT, Collections.singletonList(-1), null);
+
+      // When:
+      TransferableBlock block1 = operator.nextBlock();
+      TransferableBlock block2 = operator.nextBlock();
+
+      // Then:
+      Assert.assertEquals(block1.getNumRows(), 2);
+      Assert.assertTrue(block2.isEndOfStreamBlock(), "Second block is EOS (done processing)");
+      StatMap<AggregateOperator.StatKey> aggrStats =
+          OperatorTestUtil.getStatMap(AggregateOperator.StatKey.class, block2);
+      if (ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled()) {
+        Assert.assertTrue(aggrStats.getLong(AggregateOperator.StatKey.EXECUTION_CPU_TIME_NS) > 0);
+      }
+      if (ThreadResourceUsageProvider.isThreadMemoryMeasurementEnabled()) {
+        Assert.assertTrue(aggrStats.getLong(AggregateOperator.StatKey.EXECUTION_ALLOCATED_BYTES) > 0);
+      }
+    } finally {
+      ThreadResourceUsageProvider.setThreadCpuTimeMeasurementEnabled(cpuTimeMeasurementEnabled);
+      ThreadResourceUsageProvider.setThreadMemoryMeasurementEnabled(memoryMeasurementEnabled);
+    }
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(SqlKind.SUM, ColumnDataType.INT, "SUM", ImmutableList.of(arg));
   }
@@ -19,11 +19,13 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
@@ -223,6 +225,29 @@ public class FilterOperatorTest {
     Assert.assertEquals(result.get(0)[1], 0);
   }
 
+  @Test
+  public void shouldFilterSerializedBlockInColumnarFormat()
+      throws Exception {
+    DataSchema inputSchema = new DataSchema(new String[]{"int0", "int1"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.INT
+    });
+    TransferableBlock inputBlock = TransferableBlockUtils.wrap(
+        DataBlockBuilder.buildFromRows(Arrays.asList(new Object[]{1, 2}, new Object[]{3, 2}, new Object[]{1, null}),
+            inputSchema));
+    Mockito.when(_upstreamOperator.nextBlock()).thenReturn(inputBlock);
+    RexExpression.FunctionCall greaterThan =
+        new RexExpression.FunctionCall(SqlKind.GREATER_THAN, ColumnDataType.BOOLEAN, "greaterThan",
+            ImmutableList.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1)));
+    FilterOperator op =
+        new FilterOperator(OperatorTestUtil.getTracingContext(), _upstreamOperator, inputSchema, greaterThan);
+    TransferableBlock dataBlock = op.getNextBlock();
+    Assert.assertTrue(dataBlock.isColumnarBatchConstructed());
+    Assert.assertEquals(dataBlock.getColumnarBatch().getIntColumn(0), new int[]{3});
+    List<Object[]> result = dataBlock.getContainer();
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(result.get(0), new Object[]{3, 2});
+  }
+
   @Test
   public void shouldHandleGreaterThanFilter() {
     DataSchema inputSchema = new DataSchema(new String[]{"int0", "int1"}, new ColumnDataType[]{
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -452,7 +453,7 @@ public class HashJoinOperatorTest {
     Assert.assertEquals(resultRows.get(0), expectedRows.get(0));
     Assert.assertEquals(resultRows.get(1), expectedRows.get(1));
     result = join.nextBlock();
-    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock());
+    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock(), String.valueOf(result.getExceptions()));
   }
 
   @Test
@@ -527,7 +528,7 @@ public class HashJoinOperatorTest {
     Assert.assertEquals(resultRows.size(), expectedRows.size());
     Assert.assertEquals(resultRows.get(0), expectedRows.get(0));
     result = join.nextBlock();
-    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock());
+    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock(), String.valueOf(result.getExceptions()));
   }
 
   @Test
@@ -661,5 +662,162 @@ public class HashJoinOperatorTest {
      Assert.assertTrue(joinStats.getBoolean(HashJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED),
         "Max rows in join should be reached");
   }
+
+  @Test
+  public void shouldSpillJoinWhenHitDataRowsLimit() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Mockito.when(_leftOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{4, "CC"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    Mockito.when(_rightOperator.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(OperatorTestUtil.block(rightSchema, new Object[]{3, "BB"}, new Object[]{1, "DD"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    List<RexExpression> joinClauses = new ArrayList<>();
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    Map<String, String> hintsMap = ImmutableMap.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+        PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "3", PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS,
+        "4");
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.FULL,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), joinClauses, getJoinHints(hintsMap));
+    HashJoinOperator join =
+        new HashJoinOperator(OperatorTestUtil.getTracingContext(), _leftOperator, _rightOperator, leftSchema, node);
+
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock result = join.nextBlock();
+    while (!result.isEndOfStreamBlock()) {
+      resultRows.addAll(result.getContainer());
+      result = join.nextBlock();
+    }
+    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock());
+    resultRows.sort(Comparator.comparing(Arrays::toString));
+    List<Object[]> expectedRows =
+        Arrays.asList(new Object[]{1, "Aa", 1, "DD"}, new Object[]{2, "BB", 2, "Aa"}, new Object[]{2, "BB", 2, "BB"},
+            new Object[]{4, "CC", null, null}, new Object[]{null, null, 3, "BB"});
+    expectedRows.sort(Comparator.comparing(Arrays::toString));
+    Assert.assertEquals(resultRows.size(), expectedRows.size());
+    for (int i = 0; i < expectedRows.size(); i++) {
+      Assert.assertEquals(resultRows.get(i), expectedRows.get(i));
+    }
+    StatMap<HashJoinOperator.StatKey> joinStats = OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, result);
+    Assert.assertEquals(joinStats.getLong(HashJoinOperator.StatKey.SPILLED_ROWS), 7);
+    Assert.assertFalse(joinStats.getBoolean(HashJoinOperator.StatKey.MAX_ROWS_IN_JOIN_REACHED));
+    join.close();
+  }
+
+  @Test
+  public void shouldStreamSkewedSpilledPartitionInBoundedBlocks() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    int numLeftRows = 10_000;
+    Object[][] leftRows = new Object[numLeftRows][];
+    for (int i = 0; i < numLeftRows; i++) {
+      leftRows[i] = new Object[]{1, "left" + i};
+    }
+    Mockito.when(_leftOperator.nextBlock()).thenReturn(OperatorTestUtil.block(leftSchema, leftRows))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    Mockito.when(_rightOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(rightSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    List<RexExpression> joinClauses = new ArrayList<>();
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    // Keys 1 and 2 are hashed into different partitions, so each right partition fits into the hash table
+    Map<String, String> hintsMap = ImmutableMap.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+        PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "1", PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS,
+        "16");
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), joinClauses, getJoinHints(hintsMap));
+    HashJoinOperator join =
+        new HashJoinOperator(OperatorTestUtil.getTracingContext(), _leftOperator, _rightOperator, leftSchema, node);
+
+    int numResultRows = 0;
+    int numDataBlocks = 0;
+    TransferableBlock result = join.nextBlock();
+    while (!result.isEndOfStreamBlock()) {
+      // The skewed left partition is read back one spilled block at a time instead of as a single block
+      Assert.assertTrue(result.getNumRows() < numLeftRows);
+      numResultRows += result.getNumRows();
+      numDataBlocks++;
+      result = join.nextBlock();
+    }
+    Assert.assertTrue(result.isSuccessfulEndOfStreamBlock());
+    Assert.assertEquals(numResultRows, numLeftRows);
+    Assert.assertTrue(numDataBlocks > 1);
+    join.close();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveNumSpillPartitions() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    Map<String, String> hintsMap = ImmutableMap.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+        PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS, "0");
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(0), Arrays.asList(0)), new ArrayList<>(), getJoinHints(hintsMap));
+    new HashJoinOperator(OperatorTestUtil.getTracingContext(), _leftOperator, _rightOperator, leftSchema, node);
+  }
+
+  @Test
+  public void shouldThrowOnSpilledPartitionExceedingDataRowsLimit() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Mockito.when(_leftOperator.nextBlock())
+        .thenReturn(OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    Mockito.when(_rightOperator.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "BB"}, new Object[]{3, "BB"}, new Object[]{4, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    List<RexExpression> joinClauses = new ArrayList<>();
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    Map<String, String> hintsMap = ImmutableMap.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+        PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "2");
+    JoinNode node = new JoinNode(1, resultSchema, leftSchema, rightSchema, JoinRelType.INNER,
+        getJoinKeys(Arrays.asList(1), Arrays.asList(1)), joinClauses, getJoinHints(hintsMap));
+    HashJoinOperator join =
+        new HashJoinOperator(OperatorTestUtil.getTracingContext(), _leftOperator, _rightOperator, leftSchema, node);
+
+    TransferableBlock result = join.nextBlock();
+    while (result.isDataBlock()) {
+      result = join.nextBlock();
+    }
+    Assert.assertTrue(result.isErrorBlock());
+    Assert.assertTrue(result.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("reach number of rows limit"));
+    join.cancel(new RuntimeException());
+  }
 }
 // TODO: Add more inequi join tests.
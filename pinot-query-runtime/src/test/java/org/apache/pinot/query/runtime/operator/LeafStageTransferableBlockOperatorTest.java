@@ -25,7 +25,9 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
+import org.apache.pinot.common.datatable.DataTable.MetadataKey;
 import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.broker.BrokerResponseNativeV2;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
@@ -37,6 +39,7 @@ import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -264,4 +267,46 @@ public class LeafStageTransferableBlockOperatorTest {
 
     operator.close();
   }
+
+  @Test
+  public void shouldReportMemAllocatedBytesPerTableType() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"strCol", "intCol"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.INT});
+    List<ServerQueryRequest> queryRequests = mockQueryRequests(2);
+    when(queryRequests.get(0).getTableNameWithType()).thenReturn("tbl_OFFLINE");
+    when(queryRequests.get(1).getTableNameWithType()).thenReturn("tbl_REALTIME");
+    QueryExecutor queryExecutor = mock(QueryExecutor.class);
+    when(queryExecutor.execute(any(), any(), any())).thenAnswer(invocation -> {
+      ServerQueryRequest request = invocation.getArgument(0);
+      long memAllocatedBytes = request == queryRequests.get(0) ? 100L : 200L;
+      InstanceResponseBlock metadataBlock = new InstanceResponseBlock(new MetadataResultsBlock());
+      metadataBlock.addMetadata(MetadataKey.THREAD_MEM_ALLOCATED_BYTES.getName(), Long.toString(memAllocatedBytes));
+      metadataBlock.addMetadata(MetadataKey.RESPONSE_SER_MEM_ALLOCATED_BYTES.getName(),
+          Long.toString(memAllocatedBytes + 1));
+      return metadataBlock;
+    });
+    LeafStageTransferableBlockOperator operator =
+        new LeafStageTransferableBlockOperator(OperatorTestUtil.getTracingContext(), queryRequests, schema,
+            queryExecutor, _executorService);
+    _operatorRef.set(operator);
+
+    // When:
+    TransferableBlock resultBlock = operator.nextBlock();
+
+    // Then:
+    Assert.assertTrue(resultBlock.isEndOfStreamBlock());
+    MultiStageQueryStats queryStats = resultBlock.getQueryStats();
+    Assert.assertNotNull(queryStats);
+    MultiStageQueryStats.StageStats.Open stageStats = queryStats.getCurrentStats();
+    Assert.assertEquals(stageStats.getLastType(), MultiStageOperator.Type.LEAF);
+    BrokerResponseNativeV2 brokerResponse = new BrokerResponseNativeV2();
+    stageStats.getLastType().mergeInto(brokerResponse, stageStats.getLastOperatorStats());
+    Assert.assertEquals(brokerResponse.getOfflineThreadMemAllocatedBytes(), 100L);
+    Assert.assertEquals(brokerResponse.getRealtimeThreadMemAllocatedBytes(), 200L);
+    Assert.assertEquals(brokerResponse.getOfflineResponseSerMemAllocatedBytes(), 101L);
+    Assert.assertEquals(brokerResponse.getRealtimeResponseSerMemAllocatedBytes(), 201L);
+
+    operator.close();
+  }
 }
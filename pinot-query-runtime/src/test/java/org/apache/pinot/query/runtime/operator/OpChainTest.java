@@ -244,7 +244,7 @@ public class OpChainTest {
     }
 
     @Override
-    public void registerExecution(long time, int numRows) {
+    public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
       _statMap.merge(LiteralValueOperator.StatKey.EXECUTION_TIME_MS, time);
       _statMap.merge(LiteralValueOperator.StatKey.EMITTED_ROWS, numRows);
     }
@@ -295,7 +295,7 @@ public class OpChainTest {
     }
 
     @Override
-    public void registerExecution(long time, int numRows) {
+    public void registerExecution(long time, int numRows, long cpuTimeNs, long allocatedBytes) {
       _statMap.merge(TransformOperator.StatKey.EXECUTION_TIME_MS, time);
       _statMap.merge(TransformOperator.StatKey.EMITTED_ROWS, numRows);
     }
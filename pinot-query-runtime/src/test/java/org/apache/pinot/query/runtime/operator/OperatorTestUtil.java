@@ -82,7 +82,12 @@ public class OperatorTestUtil {
 
   public static OpChainExecutionContext getOpChainContext(MailboxService mailboxService, long deadlineMs,
       StageMetadata stageMetadata) {
-    return new OpChainExecutionContext(mailboxService, 0, deadlineMs, ImmutableMap.of(), stageMetadata,
+    return getOpChainContext(mailboxService, deadlineMs, stageMetadata, ImmutableMap.of());
+  }
+
+  public static OpChainExecutionContext getOpChainContext(MailboxService mailboxService, long deadlineMs,
+      StageMetadata stageMetadata, Map<String, String> opChainMetadata) {
+    return new OpChainExecutionContext(mailboxService, 0, deadlineMs, opChainMetadata, stageMetadata,
         stageMetadata.getWorkerMetadataList().get(0), null);
   }
 
@@ -94,7 +99,7 @@ public class OperatorTestUtil {
     return getTracingContext(ImmutableMap.of());
   }
 
-  private static OpChainExecutionContext getTracingContext(Map<String, String> opChainMetadata) {
+  public static OpChainExecutionContext getTracingContext(Map<String, String> opChainMetadata) {
     MailboxService mailboxService = mock(MailboxService.class);
     when(mailboxService.getHostname()).thenReturn("localhost");
     when(mailboxService.getPort()).thenReturn(1234);
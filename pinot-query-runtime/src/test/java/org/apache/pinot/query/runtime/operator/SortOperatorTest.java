@@ -19,19 +19,30 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -647,6 +658,89 @@ public class SortOperatorTest {
     Assert.assertTrue(block2.isEndOfStreamBlock(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldSpillAndMergeSortedRunsWhenExceedingMaxRowsInSort() {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.DESCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    OpChainExecutionContext context = OperatorTestUtil.getTracingContext(
+        ImmutableMap.of(CommonConstants.Broker.Request.TRACE, "true", QueryOptionKey.MAX_ROWS_IN_SORT, "2"));
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 5, 1, schema, false);
+
+    Mockito.when(_input.nextBlock()).thenReturn(block(schema, new Object[]{3}, new Object[]{7}, new Object[]{1}))
+        .thenReturn(block(schema, new Object[]{5}, new Object[]{2}))
+        .thenReturn(block(schema, new Object[]{6}, new Object[]{4}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    // When:
+    List<Object[]> rows = new ArrayList<>();
+    TransferableBlock block = op.nextBlock();
+    while (block.isDataBlock()) {
+      Assert.assertTrue(block.getNumRows() <= 2, "expected blocks of at most max rows in sort");
+      rows.addAll(block.getContainer());
+      block = op.nextBlock();
+    }
+
+    // Then:
+    List<Object[]> expectedRows =
+        Arrays.asList(new Object[]{6}, new Object[]{5}, new Object[]{4}, new Object[]{3}, new Object[]{2});
+    Assert.assertEquals(rows.size(), expectedRows.size());
+    for (int i = 0; i < expectedRows.size(); i++) {
+      Assert.assertEquals(rows.get(i), expectedRows.get(i));
+    }
+    StatMap<SortOperator.StatKey> stats = OperatorTestUtil.getStatMap(SortOperator.StatKey.class, block);
+    Assert.assertTrue(stats.getLong(SortOperator.StatKey.SPILLED_ROWS) > 0, "expected rows to be spilled");
+    op.close();
+  }
+
+  @Test
+  public void shouldDeferClosingExternalSorterWhenCancelledDuringNextBlock()
+      throws Exception {
+    // Given:
+    List<RexExpression> collation = collation(0);
+    List<Direction> directions = ImmutableList.of(Direction.ASCENDING);
+    List<NullDirection> nullDirections = ImmutableList.of(NullDirection.LAST);
+    DataSchema schema = new DataSchema(new String[]{"sort"}, new DataSchema.ColumnDataType[]{INT});
+    OpChainExecutionContext context = OperatorTestUtil.getTracingContext(
+        ImmutableMap.of(CommonConstants.Broker.Request.TRACE, "true", QueryOptionKey.MAX_ROWS_IN_SORT, "2"));
+    SortOperator op = new SortOperator(context, _input, collation, directions, nullDirections, 5, 0, schema, false);
+    int numSpillDirs = getNumSortSpillDirs(context);
+
+    CountDownLatch upstreamBlocked = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    Mockito.when(_input.nextBlock()).thenReturn(block(schema, new Object[]{3}, new Object[]{1}, new Object[]{2}))
+        .thenAnswer(invocation -> {
+          upstreamBlocked.countDown();
+          cancelled.await();
+          return TransferableBlockUtils.getErrorTransferableBlock(new RuntimeException("cancelled"));
+        });
+
+    // When:
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      Future<TransferableBlock> future = executorService.submit(op::nextBlock);
+      Assert.assertTrue(upstreamBlocked.await(10, TimeUnit.SECONDS));
+      op.cancel(new RuntimeException("cancelled"));
+
+      // Then:
+      Assert.assertEquals(getNumSortSpillDirs(context), numSpillDirs + 1,
+          "spill dir should not be removed while the operator thread is using it");
+      cancelled.countDown();
+      Assert.assertTrue(future.get(10, TimeUnit.SECONDS).isErrorBlock());
+      Assert.assertEquals(getNumSortSpillDirs(context), numSpillDirs,
+          "spill dir should be removed when the operator thread returns");
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static int getNumSortSpillDirs(OpChainExecutionContext context) {
+    String[] spillDirs = context.getSpillDir().list((dir, name) -> name.startsWith(context.getId() + "_sort_"));
+    return spillDirs != null ? spillDirs.length : 0;
+  }
+
   private static List<RexExpression> collation(int... indexes) {
     return Arrays.stream(indexes).mapToObj(RexExpression.InputRef::new).collect(Collectors.toList());
   }
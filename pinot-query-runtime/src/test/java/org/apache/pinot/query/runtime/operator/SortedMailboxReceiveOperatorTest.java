@@ -20,6 +20,7 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +45,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.AfterMethod;
@@ -288,4 +290,39 @@ public class SortedMailboxReceiveOperatorTest {
       assertTrue(receiveOp.nextBlock().isEndOfStreamBlock());
     }
   }
+
+  @Test
+  public void shouldSpillAndMergeSortedRunsWhenExceedingMaxRowsInSort() {
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_1))).thenReturn(_mailbox1);
+    Object[] row1 = new Object[]{3, 30};
+    Object[] row2 = new Object[]{1, 10};
+    Object[] row3 = new Object[]{5, 50};
+    when(_mailbox1.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, row1, row2),
+        OperatorTestUtil.block(DATA_SCHEMA, row3), TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_mailboxService.getReceivingMailbox(eq(MAILBOX_ID_2))).thenReturn(_mailbox2);
+    Object[] row4 = new Object[]{2, 20};
+    Object[] row5 = new Object[]{4, 40};
+    when(_mailbox2.poll()).thenReturn(OperatorTestUtil.block(DATA_SCHEMA, row4, row5),
+        TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+
+    OpChainExecutionContext context = OperatorTestUtil.getOpChainContext(_mailboxService, Long.MAX_VALUE,
+        _stageMetadataBoth, ImmutableMap.of(QueryOptionKey.MAX_ROWS_IN_SORT, "2"));
+    try (SortedMailboxReceiveOperator receiveOp = new SortedMailboxReceiveOperator(context,
+        RelDistribution.Type.HASH_DISTRIBUTED, DATA_SCHEMA, COLLATION_KEYS, COLLATION_DIRECTIONS,
+        COLLATION_NULL_DIRECTIONS, false, 1)) {
+      List<Object[]> rows = new ArrayList<>();
+      TransferableBlock block = receiveOp.nextBlock();
+      while (block.isDataBlock()) {
+        assertTrue(block.getNumRows() <= 2, "expected blocks of at most max rows in sort");
+        rows.addAll(block.getContainer());
+        block = receiveOp.nextBlock();
+      }
+      assertTrue(block.isSuccessfulEndOfStreamBlock());
+      List<Object[]> expectedRows = Arrays.asList(row2, row4, row1, row5, row3);
+      assertEquals(rows.size(), expectedRows.size());
+      for (int i = 0; i < expectedRows.size(); i++) {
+        assertEquals(rows.get(i), expectedRows.get(i));
+      }
+    }
+  }
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
 import org.apache.pinot.query.planner.logical.RexExpression;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
@@ -37,6 +38,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import static org.apache.calcite.sql.SqlKind.MINUS;
+import static org.apache.calcite.sql.SqlKind.OTHER_FUNCTION;
 import static org.apache.calcite.sql.SqlKind.PLUS;
 
 
@@ -133,6 +135,35 @@ public class TransformOperatorTest {
     Assert.assertEquals(resultRows.get(1), expectedRows.get(1));
   }
 
+  @Test
+  public void shouldHandleFuncTransformOnSerializedBlockInColumnarFormat()
+      throws Exception {
+    DataSchema upStreamSchema = new DataSchema(new String[]{"intCol", "doubleCol", "strCol"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.STRING
+    });
+    TransferableBlock inputBlock = TransferableBlockUtils.wrap(DataBlockBuilder.buildFromRows(
+        Arrays.asList(new Object[]{1, 1.5, "a"}, new Object[]{null, 2.0, "b"}, new Object[]{3, 0.5, null}),
+        upStreamSchema));
+    Mockito.when(_upstreamOp.nextBlock()).thenReturn(inputBlock);
+    // Run a plus function on mixed numeric columns and an upper function on a string column.
+    RexExpression.FunctionCall plus01 = new RexExpression.FunctionCall(PLUS, ColumnDataType.DOUBLE, "plus",
+        ImmutableList.of(new RexExpression.InputRef(0), new RexExpression.InputRef(1)));
+    RexExpression.FunctionCall upper2 = new RexExpression.FunctionCall(OTHER_FUNCTION, ColumnDataType.STRING, "upper",
+        ImmutableList.of(new RexExpression.InputRef(2)));
+    DataSchema resultSchema = new DataSchema(new String[]{"plusR", "upperR"},
+        new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.STRING});
+    TransformOperator op = new TransformOperator(OperatorTestUtil.getTracingContext(), _upstreamOp, resultSchema,
+        ImmutableList.of(plus01, upper2), upStreamSchema);
+    TransferableBlock result = op.nextBlock();
+    Assert.assertTrue(!result.isErrorBlock());
+    Assert.assertTrue(result.isColumnarBatchConstructed());
+    List<Object[]> resultRows = result.getContainer();
+    Assert.assertEquals(resultRows.size(), 3);
+    Assert.assertEquals(resultRows.get(0), new Object[]{2.5, "A"});
+    Assert.assertEquals(resultRows.get(1), new Object[]{null, "B"});
+    Assert.assertEquals(resultRows.get(2), new Object[]{3.5, null});
+  }
+
   @Test
   public void shouldThrowOnTypeMismatchFuncTransform() {
     DataSchema upStreamSchema = new DataSchema(new String[]{"string1", "string2"}, new ColumnDataType[]{
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class ExternalSorterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ExternalSorterTest");
+  private static final DataSchema DATA_SCHEMA = new DataSchema(new String[]{"value"}, new ColumnDataType[]{
+      ColumnDataType.INT
+  });
+  private static final Comparator<Object[]> COMPARATOR = Comparator.comparingInt(row -> (Integer) row[0]);
+
+  @BeforeMethod
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testMultiPassMerge()
+      throws IOException {
+    Random random = new Random();
+    List<Integer> values = new ArrayList<>();
+    try (ExternalSorter sorter = new ExternalSorter(COMPARATOR, DATA_SCHEMA, 3, TEMP_DIR, "sort_", 2)) {
+      for (int i = 0; i < 10; i++) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int j = 0; j < 5; j++) {
+          int value = random.nextInt(100);
+          values.add(value);
+          rows.add(new Object[]{value});
+        }
+        sorter.addRows(rows);
+      }
+      // 50 rows with max 3 rows in memory are spilled into 16 runs, each with at most 3 rows
+      assertEquals(sorter.getNumSpilledRuns(), 16);
+      assertEquals(sorter.getNumSpilledRows(), 48);
+
+      Iterator<Object[]> sortedIterator = sorter.sortedIterator();
+      // The spilled runs are merged until they can be merged with the rows in memory within the max merge fan-in
+      assertEquals(sorter.getNumSpilledRuns(), 1);
+      values.sort(null);
+      for (int value : values) {
+        assertTrue(sortedIterator.hasNext());
+        assertEquals(sortedIterator.next()[0], value);
+      }
+      assertFalse(sortedIterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testSplitLargeSortedRun()
+      throws IOException {
+    List<Object[]> sortedRun = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      sortedRun.add(new Object[]{2 * i});
+    }
+    List<Object[]> unsortedRows = new ArrayList<>();
+    for (int i = 9; i >= 0; i--) {
+      unsortedRows.add(new Object[]{2 * i + 1});
+    }
+    try (ExternalSorter sorter = new ExternalSorter(COMPARATOR, DATA_SCHEMA, 4, TEMP_DIR, "sort_")) {
+      sorter.addSortedRun(sortedRun);
+      // Spilled runs should never exceed the max rows in memory
+      assertEquals(sorter.getNumSpilledRuns(), 2);
+      assertEquals(sorter.getNumSpilledRows(), 8);
+      sorter.addRows(unsortedRows);
+      assertEquals(sorter.getNumSpilledRuns(), 4);
+      assertEquals(sorter.getNumSpilledRows(), 16);
+
+      Iterator<Object[]> sortedIterator = sorter.sortedIterator();
+      for (int i = 0; i < 20; i++) {
+        assertTrue(sortedIterator.hasNext());
+        assertEquals(sortedIterator.next()[0], i);
+      }
+      assertFalse(sortedIterator.hasNext());
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidMaxMergeFanIn() {
+    new ExternalSorter(COMPARATOR, DATA_SCHEMA, 3, TEMP_DIR, "sort_", 1);
+  }
+}
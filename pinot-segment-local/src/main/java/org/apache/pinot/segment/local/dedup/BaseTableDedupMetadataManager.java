@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.dedup;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,4 +63,19 @@ abstract class BaseTableDedupMetadataManager implements TableDedupMetadataManage
    * Create PartitionDedupMetadataManager for given partition id.
    */
   abstract protected PartitionDedupMetadataManager createPartitionDedupMetadataManager(Integer partitionId);
+
+  @Override
+  public void stop() {
+    for (PartitionDedupMetadataManager metadataManager : _partitionMetadataManagerMap.values()) {
+      metadataManager.stop();
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (PartitionDedupMetadataManager metadataManager : _partitionMetadataManagerMap.values()) {
+      metadataManager.close();
+    }
+  }
 }
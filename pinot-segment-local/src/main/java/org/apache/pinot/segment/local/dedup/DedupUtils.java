@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import java.util.Iterator;
+import java.util.List;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+class DedupUtils {
+  private DedupUtils() {
+  }
+
+  /**
+   * Returns an iterator of the primary keys for all the documents from the segment.
+   */
+  static Iterator<PrimaryKey> getPrimaryKeyIterator(IndexSegment segment, List<String> primaryKeyColumns) {
+    int numPrimaryKeyColumns = primaryKeyColumns.size();
+    PinotSegmentColumnReader[] columnReaders = new PinotSegmentColumnReader[numPrimaryKeyColumns];
+    for (int i = 0; i < numPrimaryKeyColumns; i++) {
+      columnReaders[i] = new PinotSegmentColumnReader(segment, primaryKeyColumns.get(i));
+    }
+    int numTotalDocs = segment.getSegmentMetadata().getTotalDocs();
+    return new Iterator<PrimaryKey>() {
+      private int _docId = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _docId < numTotalDocs;
+      }
+
+      @Override
+      public PrimaryKey next() {
+        Object[] values = new Object[numPrimaryKeyColumns];
+        for (int i = 0; i < numPrimaryKeyColumns; i++) {
+          Object value = columnReaders[i].getValue(_docId);
+          if (value instanceof byte[]) {
+            value = new ByteArray((byte[]) value);
+          }
+          values[i] = value;
+        }
+        _docId++;
+        return new PrimaryKey(values);
+      }
+    };
+  }
+}
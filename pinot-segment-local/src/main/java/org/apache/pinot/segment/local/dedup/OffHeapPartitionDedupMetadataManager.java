@@ -0,0 +1,485 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.local.upsert.OffHeapRecordLocationMap;
+import org.apache.pinot.segment.local.upsert.OffHeapRecordLocationMap.RecordLocation;
+import org.apache.pinot.segment.local.utils.HashUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implementation of {@link PartitionDedupMetadataManager} that is backed by an {@link OffHeapRecordLocationMap}, which
+ * keeps the primary keys out of the heap for dedup tables with large number of primary keys.
+ *
+ * <p>The map stores the 128-bit hash of the primary key (MD5 when configured, MURMUR3 otherwise), the id of the segment
+ * that owns the key, and the value of the dedup time column (in millis) of the first record with the key. When the
+ * metadata TTL is configured, a key whose time is older than the largest seen time minus the TTL is no longer treated
+ * as duplicate, and is removed from the map by {@link #removeExpiredPrimaryKeys()}. Because the TTL is based on the
+ * record time instead of the wall clock, it is not reset when the map is rebuilt from the segments.
+ *
+ * <p>When the snapshot file is configured, the map is persisted into it by {@link #takeSnapshot()} (invoked before the
+ * next consuming segment starts, i.e. after each commit) and when the manager is stopped, and is loaded back when the
+ * manager is created. An immutable segment whose name and CRC match a segment in the snapshot is bound to the loaded
+ * keys without reading its primary keys. Only the keys of the immutable segments are persisted because the consuming
+ * segment is re-consumed after restart.
+ */
+@ThreadSafe
+class OffHeapPartitionDedupMetadataManager implements PartitionDedupMetadataManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapPartitionDedupMetadataManager.class);
+  // Version 2 stores the dedup time of the keys instead of the time when they are tracked
+  private static final int SNAPSHOT_VERSION = 2;
+
+  private final String _tableNameWithType;
+  private final List<String> _primaryKeyColumns;
+  private final int _partitionId;
+  private final ServerMetrics _serverMetrics;
+  private final HashFunction _hashFunction;
+  private final long _metadataTTLMs;
+  private final String _dedupTimeColumn;
+  private final DateTimeFormatSpec _dedupTimeFormatSpec;
+  private final File _snapshotFile;
+
+  @VisibleForTesting
+  final OffHeapRecordLocationMap _primaryKeyMap;
+  private final Map<IndexSegment, Integer> _segmentToIdMap = new ConcurrentHashMap<>();
+  private final Map<Integer, IndexSegment> _idToSegmentMap = new ConcurrentHashMap<>();
+  // Segments loaded from the snapshot but not added yet, keyed by the segment name
+  private final Map<String, SnapshotSegment> _snapshotSegmentMap = new ConcurrentHashMap<>();
+  private final Set<Integer> _snapshotSegmentIds = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger _nextSegmentId = new AtomicInteger(OffHeapRecordLocationMap.EMPTY_SEGMENT_ID + 1);
+  // Largest dedup time (in millis) seen so far, used as the reference time of the metadata TTL
+  private final AtomicLong _largestSeenTimeMs = new AtomicLong(Long.MIN_VALUE);
+
+  private volatile boolean _stopped;
+
+  OffHeapPartitionDedupMetadataManager(String tableNameWithType, List<String> primaryKeyColumns, int partitionId,
+      ServerMetrics serverMetrics, HashFunction hashFunction, int initialCapacity, long metadataTTLMs,
+      @Nullable String dedupTimeColumn, @Nullable DateTimeFormatSpec dedupTimeFormatSpec, @Nullable File snapshotFile) {
+    Preconditions.checkArgument(metadataTTLMs <= 0 || (dedupTimeColumn != null && dedupTimeFormatSpec != null),
+        "Dedup time column must be configured when metadata TTL is enabled for table: %s", tableNameWithType);
+    _tableNameWithType = tableNameWithType;
+    _primaryKeyColumns = primaryKeyColumns;
+    _partitionId = partitionId;
+    _serverMetrics = serverMetrics;
+    _hashFunction = hashFunction;
+    _metadataTTLMs = metadataTTLMs;
+    _dedupTimeColumn = dedupTimeColumn;
+    _dedupTimeFormatSpec = dedupTimeFormatSpec;
+    _snapshotFile = snapshotFile;
+    _primaryKeyMap =
+        new OffHeapRecordLocationMap(initialCapacity, "DedupPrimaryKeyMap: " + tableNameWithType + "_" + partitionId);
+    if (snapshotFile != null && snapshotFile.exists()) {
+      loadSnapshot();
+    }
+  }
+
+  @Override
+  public void addSegment(IndexSegment segment) {
+    String segmentName = segment.getSegmentName();
+    if (_stopped) {
+      LOGGER.info("Skip adding segment: {} because dedup metadata manager is already stopped", segmentName);
+      return;
+    }
+    if (!bindSnapshotSegment(segment)) {
+      int segmentId = getOrCreateSegmentId(segment);
+      Iterator<PrimaryKey> primaryKeyIterator = getPrimaryKeyIterator(segment);
+      Iterator<?> dedupTimeIterator = getDedupTimeIterator(segment);
+      while (primaryKeyIterator.hasNext()) {
+        ByteBuffer keyHash = hashPrimaryKey(primaryKeyIterator.next());
+        long dedupTimeMs = dedupTimeIterator != null ? toTimeMs(dedupTimeIterator.next()) : Long.MIN_VALUE;
+        _largestSeenTimeMs.accumulateAndGet(dedupTimeMs, Math::max);
+        // Keep the time of the first record with the key so that the TTL is not extended
+        _primaryKeyMap.compute(keyHash.getLong(0), keyHash.getLong(8), recordLocation -> {
+          long trackedTimeMs = recordLocation != null && isTracked(recordLocation.getSegmentId())
+              ? recordLocation.getComparisonValue() : dedupTimeMs;
+          return new RecordLocation(segmentId, 0, trackedTimeMs);
+        });
+      }
+      // The committed segment replaces the consuming segment with the same name, and all the keys of the consuming
+      // segment are now owned by the committed segment
+      for (IndexSegment trackedSegment : _segmentToIdMap.keySet()) {
+        if (trackedSegment instanceof MutableSegment && segmentName.equals(trackedSegment.getSegmentName())) {
+          releaseSegmentId(trackedSegment);
+        }
+      }
+    }
+    updatePrimaryKeyGauge();
+  }
+
+  @Override
+  public void removeSegment(IndexSegment segment) {
+    if (_stopped) {
+      LOGGER.info("Skip removing segment: {} because dedup metadata manager is already stopped",
+          segment.getSegmentName());
+      return;
+    }
+    Integer segmentId = _segmentToIdMap.get(segment);
+    if (segmentId == null) {
+      return;
+    }
+    Iterator<PrimaryKey> primaryKeyIterator = getPrimaryKeyIterator(segment);
+    while (primaryKeyIterator.hasNext()) {
+      ByteBuffer keyHash = hashPrimaryKey(primaryKeyIterator.next());
+      _primaryKeyMap.compute(keyHash.getLong(0), keyHash.getLong(8),
+          recordLocation -> recordLocation != null && recordLocation.getSegmentId() == segmentId ? null
+              : recordLocation);
+    }
+    releaseSegmentId(segment);
+    updatePrimaryKeyGauge();
+  }
+
+  @Override
+  public boolean checkRecordPresentOrUpdate(PrimaryKey pk, IndexSegment indexSegment) {
+    return checkRecordPresentOrUpdate(pk, null, indexSegment);
+  }
+
+  @Override
+  public boolean checkRecordPresentOrUpdate(PrimaryKey pk, @Nullable GenericRow record, IndexSegment indexSegment) {
+    long dedupTimeMs;
+    if (record != null && _dedupTimeColumn != null) {
+      dedupTimeMs = toTimeMs(record.getValue(_dedupTimeColumn));
+    } else {
+      // Without the record time, track the key as of the largest seen time
+      dedupTimeMs = _largestSeenTimeMs.get();
+    }
+    long largestSeenTimeMs = _largestSeenTimeMs.accumulateAndGet(dedupTimeMs, Math::max);
+    if (isExpired(dedupTimeMs, largestSeenTimeMs)) {
+      // The record is already out of the TTL, so it cannot be a duplicate of any tracked key
+      return false;
+    }
+    int segmentId = getOrCreateSegmentId(indexSegment);
+    ByteBuffer keyHash = hashPrimaryKey(pk);
+    boolean[] present = new boolean[1];
+    _primaryKeyMap.compute(keyHash.getLong(0), keyHash.getLong(8), recordLocation -> {
+      if (recordLocation != null && isTracked(recordLocation.getSegmentId()) && !isExpired(
+          recordLocation.getComparisonValue(), largestSeenTimeMs)) {
+        present[0] = true;
+        return recordLocation;
+      }
+      return new RecordLocation(segmentId, 0, dedupTimeMs);
+    });
+    if (!present[0]) {
+      updatePrimaryKeyGauge();
+    }
+    return present[0];
+  }
+
+  @VisibleForTesting
+  Iterator<PrimaryKey> getPrimaryKeyIterator(IndexSegment segment) {
+    return DedupUtils.getPrimaryKeyIterator(segment, _primaryKeyColumns);
+  }
+
+  /**
+   * Returns an iterator of the dedup time values for all the documents from the segment, or {@code null} if the dedup
+   * time column is not configured.
+   */
+  @VisibleForTesting
+  @Nullable
+  Iterator<?> getDedupTimeIterator(IndexSegment segment) {
+    if (_dedupTimeColumn == null) {
+      return null;
+    }
+    PinotSegmentColumnReader columnReader = new PinotSegmentColumnReader(segment, _dedupTimeColumn);
+    int numTotalDocs = segment.getSegmentMetadata().getTotalDocs();
+    return new Iterator<Object>() {
+      private int _docId = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _docId < numTotalDocs;
+      }
+
+      @Override
+      public Object next() {
+        return columnReader.getValue(_docId++);
+      }
+    };
+  }
+
+  /**
+   * Removes the keys that are expired or owned by a segment no longer tracked.
+   * <p>This is invoked before the consuming segment starts, which only happens after all the existing segments of the
+   * table are added, so the segments loaded from the snapshot but not added by then are purged as well.
+   */
+  @Override
+  public void removeExpiredPrimaryKeys() {
+    if (!_snapshotSegmentMap.isEmpty()) {
+      LOGGER.info("Purging {} segments from dedup metadata snapshot that are not added for table: {}",
+          _snapshotSegmentMap.size(), _tableNameWithType);
+      _snapshotSegmentMap.clear();
+      _snapshotSegmentIds.clear();
+    }
+    long largestSeenTimeMs = _largestSeenTimeMs.get();
+    _primaryKeyMap.removeIf(recordLocation -> !isTracked(recordLocation.getSegmentId()) || isExpired(
+        recordLocation.getComparisonValue(), largestSeenTimeMs));
+    updatePrimaryKeyGauge();
+  }
+
+  @Override
+  public void takeSnapshot() {
+    if (_snapshotFile == null || _stopped) {
+      return;
+    }
+    try {
+      persistSnapshot();
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while persisting dedup metadata snapshot: {} for table: {}", _snapshotFile,
+          _tableNameWithType, e);
+      FileUtils.deleteQuietly(_snapshotFile);
+    }
+  }
+
+  @Override
+  public void stop() {
+    _stopped = true;
+    if (_snapshotFile != null) {
+      try {
+        persistSnapshot();
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while persisting dedup metadata snapshot: {} for table: {}", _snapshotFile,
+            _tableNameWithType, e);
+        FileUtils.deleteQuietly(_snapshotFile);
+      }
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _primaryKeyMap.close();
+  }
+
+  private ByteBuffer hashPrimaryKey(PrimaryKey primaryKey) {
+    byte[] bytes = primaryKey.asBytes();
+    return ByteBuffer.wrap(_hashFunction == HashFunction.MD5 ? HashUtils.hashMD5(bytes) : HashUtils.hashMurmur3(bytes));
+  }
+
+  private int getOrCreateSegmentId(IndexSegment segment) {
+    return _segmentToIdMap.computeIfAbsent(segment, k -> {
+      int segmentId = _nextSegmentId.getAndIncrement();
+      _idToSegmentMap.put(segmentId, k);
+      return segmentId;
+    });
+  }
+
+  private void releaseSegmentId(IndexSegment segment) {
+    Integer segmentId = _segmentToIdMap.remove(segment);
+    if (segmentId != null) {
+      _idToSegmentMap.remove(segmentId);
+    }
+  }
+
+  private boolean isTracked(int segmentId) {
+    return _idToSegmentMap.containsKey(segmentId) || _snapshotSegmentIds.contains(segmentId);
+  }
+
+  private boolean isExpired(long dedupTimeMs, long largestSeenTimeMs) {
+    return _metadataTTLMs > 0 && largestSeenTimeMs != Long.MIN_VALUE
+        && dedupTimeMs < largestSeenTimeMs - _metadataTTLMs;
+  }
+
+  private long toTimeMs(@Nullable Object value) {
+    if (value == null) {
+      return _largestSeenTimeMs.get();
+    }
+    if (value instanceof Number) {
+      return _dedupTimeFormatSpec.fromFormatToMillis(((Number) value).longValue());
+    }
+    return _dedupTimeFormatSpec.fromFormatToMillis(value.toString());
+  }
+
+  private void updatePrimaryKeyGauge() {
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.DEDUP_PRIMARY_KEYS_COUNT,
+        _primaryKeyMap.size());
+  }
+
+  /**
+   * Returns the CRC of the segment if its keys can be persisted into the snapshot, or {@code null} otherwise.
+   */
+  @Nullable
+  private static String getSnapshotCrc(IndexSegment segment) {
+    if (!(segment instanceof ImmutableSegment)) {
+      return null;
+    }
+    SegmentMetadata segmentMetadata = segment.getSegmentMetadata();
+    return segmentMetadata != null ? segmentMetadata.getCrc() : null;
+  }
+
+  /**
+   * Binds the segment to the keys loaded from the snapshot if the segment is not changed since the snapshot is taken.
+   * Returns {@code true} if the segment is bound, in which case there is no need to read its primary keys.
+   */
+  private boolean bindSnapshotSegment(IndexSegment segment) {
+    SnapshotSegment snapshotSegment = _snapshotSegmentMap.remove(segment.getSegmentName());
+    if (snapshotSegment == null) {
+      return false;
+    }
+    int segmentId = snapshotSegment._segmentId;
+    boolean bound = snapshotSegment._crc.equals(getSnapshotCrc(segment));
+    if (bound) {
+      _segmentToIdMap.put(segment, segmentId);
+      _idToSegmentMap.put(segmentId, segment);
+    }
+    // Keys of the changed segment are no longer tracked, and will be removed with the expired keys
+    _snapshotSegmentIds.remove(segmentId);
+    return bound;
+  }
+
+  /**
+   * Snapshot format:
+   * <ul>
+   *   <li>Version (int)</li>
+   *   <li>Number of segments (int), followed by the id (int), name (UTF) and CRC (UTF) of each segment</li>
+   *   <li>Segment id (int), primary key hash (2 longs) and dedup time (long) of each key, terminated by the empty
+   *   segment id</li>
+   * </ul>
+   */
+  private void persistSnapshot()
+      throws IOException {
+    long startTimeMs = System.currentTimeMillis();
+    removeExpiredPrimaryKeys();
+    Map<Integer, IndexSegment> snapshotSegments = new HashMap<>();
+    for (Map.Entry<Integer, IndexSegment> entry : _idToSegmentMap.entrySet()) {
+      if (getSnapshotCrc(entry.getValue()) != null) {
+        snapshotSegments.put(entry.getKey(), entry.getValue());
+      }
+    }
+    File tmpFile = new File(_snapshotFile.getPath() + ".tmp");
+    long[] numPrimaryKeys = new long[1];
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+      outputStream.writeInt(SNAPSHOT_VERSION);
+      outputStream.writeInt(snapshotSegments.size());
+      for (Map.Entry<Integer, IndexSegment> entry : snapshotSegments.entrySet()) {
+        outputStream.writeInt(entry.getKey());
+        outputStream.writeUTF(entry.getValue().getSegmentName());
+        outputStream.writeUTF(getSnapshotCrc(entry.getValue()));
+      }
+      _primaryKeyMap.forEach((keyHigh, keyLow, recordLocation) -> {
+        if (snapshotSegments.containsKey(recordLocation.getSegmentId())) {
+          try {
+            outputStream.writeInt(recordLocation.getSegmentId());
+            outputStream.writeLong(keyHigh);
+            outputStream.writeLong(keyLow);
+            outputStream.writeLong(recordLocation.getComparisonValue());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          numPrimaryKeys[0]++;
+        }
+      });
+      outputStream.writeInt(OffHeapRecordLocationMap.EMPTY_SEGMENT_ID);
+    }
+    Files.move(tmpFile.toPath(), _snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    LOGGER.info("Persisted {} primary keys of {} segments into dedup metadata snapshot: {} for table: {} in {}ms",
+        numPrimaryKeys[0], snapshotSegments.size(), _snapshotFile, _tableNameWithType,
+        System.currentTimeMillis() - startTimeMs);
+  }
+
+  private void loadSnapshot() {
+    long startTimeMs = System.currentTimeMillis();
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(_snapshotFile)))) {
+      int version = inputStream.readInt();
+      Preconditions.checkState(version == SNAPSHOT_VERSION, "Unsupported dedup metadata snapshot version: %s",
+          version);
+      int numSegments = inputStream.readInt();
+      int maxSegmentId = OffHeapRecordLocationMap.EMPTY_SEGMENT_ID;
+      for (int i = 0; i < numSegments; i++) {
+        int segmentId = inputStream.readInt();
+        String segmentName = inputStream.readUTF();
+        String crc = inputStream.readUTF();
+        _snapshotSegmentMap.put(segmentName, new SnapshotSegment(segmentId, crc));
+        _snapshotSegmentIds.add(segmentId);
+        maxSegmentId = Math.max(maxSegmentId, segmentId);
+      }
+      _nextSegmentId.set(maxSegmentId + 1);
+      long numPrimaryKeys = 0;
+      long largestSeenTimeMs = Long.MIN_VALUE;
+      int segmentId;
+      while ((segmentId = inputStream.readInt()) != OffHeapRecordLocationMap.EMPTY_SEGMENT_ID) {
+        long keyHigh = inputStream.readLong();
+        long keyLow = inputStream.readLong();
+        long dedupTimeMs = inputStream.readLong();
+        _primaryKeyMap.put(keyHigh, keyLow, new RecordLocation(segmentId, 0, dedupTimeMs));
+        largestSeenTimeMs = Math.max(largestSeenTimeMs, dedupTimeMs);
+        numPrimaryKeys++;
+      }
+      _largestSeenTimeMs.accumulateAndGet(largestSeenTimeMs, Math::max);
+      LOGGER.info("Loaded {} primary keys of {} segments from dedup metadata snapshot: {} for table: {} in {}ms",
+          numPrimaryKeys, numSegments, _snapshotFile, _tableNameWithType, System.currentTimeMillis() - startTimeMs);
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while loading dedup metadata snapshot: {} for table: {}, rebuilding from segments",
+          _snapshotFile, _tableNameWithType, e);
+      _snapshotSegmentMap.clear();
+      _snapshotSegmentIds.clear();
+      _primaryKeyMap.removeIf(recordLocation -> true);
+    }
+    FileUtils.deleteQuietly(_snapshotFile);
+  }
+
+  private static class SnapshotSegment {
+    final int _segmentId;
+    final String _crc;
+
+    SnapshotSegment(int segmentId, String crc) {
+      _segmentId = segmentId;
+      _crc = crc;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.util.Map;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.DateTimeFieldSpec;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * Implementation of {@link TableDedupMetadataManager} that keeps the primary keys off-heap. It can be enabled by
+ * setting the {@code metadataManagerClass} in the dedup config to the name of this class, and configured with the
+ * following {@code metadataManagerConfigs}:
+ * <ul>
+ *   <li>{@code initialCapacity}: initial capacity of the primary key map for each partition</li>
+ *   <li>{@code metadataTTLMs}: time in millis after which a tracked primary key is no longer treated as duplicate,
+ *   where non-positive value (default) means never. The time of a key is the value of the dedup time column of the
+ *   first record with the key, and the TTL is relative to the largest dedup time seen</li>
+ *   <li>{@code dedupTimeColumn}: the date time column used as the dedup time (default the time column of the table)
+ *   </li>
+ *   <li>{@code enableSnapshot}: whether to persist the primary key map into the table data directory after each commit
+ *   and on shutdown so that it can be loaded on restart instead of reading the primary keys from all the segments
+ *   (default true)</li>
+ * </ul>
+ */
+@ThreadSafe
+public class OffHeapTableDedupMetadataManager extends BaseTableDedupMetadataManager {
+  public static final String INITIAL_CAPACITY_KEY = "initialCapacity";
+  public static final int DEFAULT_INITIAL_CAPACITY = 64 * 1024;
+  public static final String METADATA_TTL_MS_KEY = "metadataTTLMs";
+  public static final String DEDUP_TIME_COLUMN_KEY = "dedupTimeColumn";
+  public static final String ENABLE_SNAPSHOT_KEY = "enableSnapshot";
+  public static final String SNAPSHOT_FILE_PREFIX = "dedup_metadata_snapshot.partition_";
+
+  private int _initialCapacity = DEFAULT_INITIAL_CAPACITY;
+  private long _metadataTTLMs;
+  private String _dedupTimeColumn;
+  private DateTimeFormatSpec _dedupTimeFormatSpec;
+  private File _snapshotDir;
+
+  @Override
+  public void init(TableConfig tableConfig, Schema schema, TableDataManager tableDataManager,
+      ServerMetrics serverMetrics) {
+    super.init(tableConfig, schema, tableDataManager, serverMetrics);
+    boolean enableSnapshot = true;
+    _dedupTimeColumn = tableConfig.getValidationConfig().getTimeColumnName();
+    Map<String, String> metadataManagerConfigs = tableConfig.getDedupConfig().getMetadataManagerConfigs();
+    if (metadataManagerConfigs != null) {
+      if (metadataManagerConfigs.containsKey(INITIAL_CAPACITY_KEY)) {
+        _initialCapacity = Integer.parseInt(metadataManagerConfigs.get(INITIAL_CAPACITY_KEY));
+      }
+      if (metadataManagerConfigs.containsKey(METADATA_TTL_MS_KEY)) {
+        _metadataTTLMs = Long.parseLong(metadataManagerConfigs.get(METADATA_TTL_MS_KEY));
+      }
+      if (metadataManagerConfigs.containsKey(DEDUP_TIME_COLUMN_KEY)) {
+        _dedupTimeColumn = metadataManagerConfigs.get(DEDUP_TIME_COLUMN_KEY);
+      }
+      if (metadataManagerConfigs.containsKey(ENABLE_SNAPSHOT_KEY)) {
+        enableSnapshot = Boolean.parseBoolean(metadataManagerConfigs.get(ENABLE_SNAPSHOT_KEY));
+      }
+    }
+    if (_dedupTimeColumn != null) {
+      DateTimeFieldSpec dedupTimeFieldSpec = schema.getSpecForTimeColumn(_dedupTimeColumn);
+      Preconditions.checkArgument(dedupTimeFieldSpec != null,
+          "Failed to find dedup time column: %s in schema for table: %s", _dedupTimeColumn, _tableNameWithType);
+      _dedupTimeFormatSpec = dedupTimeFieldSpec.getFormatSpec();
+    }
+    if (enableSnapshot) {
+      _snapshotDir = tableDataManager.getTableDataDir();
+    }
+  }
+
+  @Override
+  protected PartitionDedupMetadataManager createPartitionDedupMetadataManager(Integer partitionId) {
+    File snapshotFile = _snapshotDir != null ? new File(_snapshotDir, SNAPSHOT_FILE_PREFIX + partitionId) : null;
+    return new OffHeapPartitionDedupMetadataManager(_tableNameWithType, _primaryKeyColumns, partitionId,
+        _serverMetrics, _hashFunction, _initialCapacity, _metadataTTLMs, _dedupTimeColumn, _dedupTimeFormatSpec,
+        snapshotFile);
+  }
+}
@@ -18,11 +18,14 @@
  */
 package org.apache.pinot.segment.local.dedup;
 
+import java.io.Closeable;
+import java.io.IOException;
 import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 
 
-public interface PartitionDedupMetadataManager {
+public interface PartitionDedupMetadataManager extends Closeable {
   /**
    * Initializes the dedup metadata for the given immutable segment.
    */
@@ -38,4 +41,35 @@ public interface PartitionDedupMetadataManager {
    * Returns true if the key was already present.
    */
   boolean checkRecordPresentOrUpdate(PrimaryKey pk, IndexSegment indexSegment);
+
+  /**
+   * Same as {@link #checkRecordPresentOrUpdate(PrimaryKey, IndexSegment)}, with the record the primary key is extracted
+   * from, so that other fields of the record (e.g. the dedup time column) can be tracked along with the key.
+   */
+  default boolean checkRecordPresentOrUpdate(PrimaryKey pk, GenericRow record, IndexSegment indexSegment) {
+    return checkRecordPresentOrUpdate(pk, indexSegment);
+  }
+
+  /**
+   * Takes a snapshot of the dedup metadata so that it can be loaded on restart instead of being rebuilt from segments.
+   */
+  default void takeSnapshot() {
+  }
+
+  /**
+   * Removes the expired primary keys from the metadata when TTL is enabled.
+   */
+  default void removeExpiredPrimaryKeys() {
+  }
+
+  /**
+   * Stops the metadata manager. After invoking this method, the segments added or removed are no longer tracked.
+   */
+  default void stop() {
+  }
+
+  @Override
+  default void close()
+      throws IOException {
+  }
 }
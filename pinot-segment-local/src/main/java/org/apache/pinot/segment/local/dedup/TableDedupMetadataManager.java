@@ -18,13 +18,15 @@
  */
 package org.apache.pinot.segment.local.dedup;
 
+import java.io.Closeable;
+import java.io.IOException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
 
 
-public interface TableDedupMetadataManager {
+public interface TableDedupMetadataManager extends Closeable {
   /**
    * Initialize TableDedupMetadataManager.
    */
@@ -34,4 +36,15 @@ public interface TableDedupMetadataManager {
    * Create a new PartitionDedupMetadataManager if not present already, otherwise return existing one.
    */
   PartitionDedupMetadataManager getOrCreatePartitionManager(int partitionId);
+
+  /**
+   * Stops the metadata manager. After invoking this method, the segments added or removed are no longer tracked.
+   */
+  default void stop() {
+  }
+
+  @Override
+  default void close()
+      throws IOException {
+  }
 }
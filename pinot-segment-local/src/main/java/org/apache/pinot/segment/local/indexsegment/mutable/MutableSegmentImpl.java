@@ -492,7 +492,7 @@ public class MutableSegmentImpl implements MutableSegment {
 
     if (isDedupEnabled()) {
       PrimaryKey primaryKey = row.getPrimaryKey(_schema.getPrimaryKeyColumns());
-      if (_partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, this)) {
+      if (_partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, row, this)) {
         if (_serverMetrics != null) {
           _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_DEDUP_DROPPED, 1);
         }
@@ -550,6 +550,166 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
+  /**
+   * Indexes a batch of records column by column: the values of the batch are first inserted into the dictionaries of
+   * all the columns in bulk, and then appended to each mutable index with a single {@link MutableIndex#addBatch} call.
+   * <p>Falls back to indexing the records one by one when dedup, upsert or metrics aggregation is enabled (they need to
+   * look at each record before assigning the doc id), when a record misses a value (to keep the error accounting of
+   * the row-at-a-time path), or when a value cannot be inserted into the dictionary. Since nothing is appended to the
+   * indexes before all the dictionary inserts succeed, the columns never end up with different number of docs.
+   */
+  @Override
+  public boolean index(List<GenericRow> rows, @Nullable RowMetadata rowMetadata)
+      throws IOException {
+    int numRows = rows.size();
+    int startDocId = _numDocsIndexed;
+    if (numRows == 0) {
+      return startDocId < _capacity;
+    }
+    if (isDedupEnabled() || isUpsertEnabled() || isAggregateMetricsEnabled() || !fillBatchValues(rows)
+        || !updateDictionaryBatch(numRows)) {
+      return MutableSegment.super.index(rows, rowMetadata);
+    }
+
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      addNewColumnBatch(entry.getKey(), entry.getValue(), rows, startDocId);
+    }
+    int numDocsIndexed = startDocId + numRows;
+    // Update number of documents indexed at last to make the batch queryable
+    _numDocsIndexed = numDocsIndexed;
+
+    // Update last indexed time and latest ingestion time
+    _lastIndexedTimeMs = System.currentTimeMillis();
+    if (rowMetadata != null) {
+      _latestIngestionTimeMs = Math.max(_latestIngestionTimeMs, rowMetadata.getRecordIngestionTimeMs());
+    }
+
+    // Same as indexing the last record of the batch with the row-at-a-time path
+    return numDocsIndexed - 1 < _capacity;
+  }
+
+  /**
+   * Transposes the batch into the per-column value buffers. Returns {@code false} if any value is missing.
+   */
+  private boolean fillBatchValues(List<GenericRow> rows) {
+    int numRows = rows.size();
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      String column = entry.getKey();
+      IndexContainer indexContainer = entry.getValue();
+      Object[] values = indexContainer._batchValues;
+      if (values == null || values.length != numRows) {
+        values = new Object[numRows];
+        indexContainer._batchValues = values;
+      }
+      for (int i = 0; i < numRows; i++) {
+        Object value = rows.get(i).getValue(column);
+        if (value == null) {
+          return false;
+        }
+        values[i] = value;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Inserts the batch values into the dictionaries of all the columns. Returns {@code false} if any value cannot be
+   * inserted, in which case the batch should be indexed with the row-at-a-time path, which indexes the records before
+   * the bad one and reports the failure the same way as indexing the records one by one. Re-inserting the values
+   * already inserted into the dictionaries is a no-op.
+   */
+  private boolean updateDictionaryBatch(int numRows) {
+    for (IndexContainer indexContainer : _indexContainerMap.values()) {
+      MutableDictionary dictionary = indexContainer._dictionary;
+      if (dictionary == null) {
+        continue;
+      }
+      Object[] values = indexContainer._batchValues;
+      try {
+        if (indexContainer._fieldSpec.isSingleValueField()) {
+          indexContainer._batchDictIds = dictionary.indexBatch(values);
+        } else {
+          int[][] batchMVDictIds = new int[numRows][];
+          for (int i = 0; i < numRows; i++) {
+            batchMVDictIds[i] = dictionary.index((Object[]) values[i]);
+          }
+          indexContainer._batchMVDictIds = batchMVDictIds;
+        }
+      } catch (Exception e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addNewColumnBatch(String column, IndexContainer indexContainer, List<GenericRow> rows,
+      int startDocId) {
+    Object[] values = indexContainer._batchValues;
+    int numRows = values.length;
+    FieldSpec fieldSpec = indexContainer._fieldSpec;
+    DataType dataType = fieldSpec.getDataType();
+    MutableDictionary dictionary = indexContainer._dictionary;
+
+    if (indexContainer._nullValueVector != null) {
+      for (int i = 0; i < numRows; i++) {
+        if (rows.get(i).isNullValue(column)) {
+          indexContainer._nullValueVector.setNull(startDocId + i);
+        }
+      }
+    }
+
+    if (fieldSpec.isSingleValueField()) {
+      int[] dictIds = null;
+      if (dictionary != null) {
+        dictIds = indexContainer._batchDictIds;
+        indexContainer._minValue = dictionary.getMinVal();
+        indexContainer._maxValue = dictionary.getMaxVal();
+      }
+
+      if (column.equals(_partitionColumn)) {
+        for (Object value : values) {
+          checkPartition(indexContainer, column, dataType, value);
+        }
+      }
+
+      indexContainer._valuesInfo.updateSVNumValues(numRows);
+
+      for (Map.Entry<IndexType, MutableIndex> indexEntry : indexContainer._mutableIndexes.entrySet()) {
+        try {
+          indexEntry.getValue().addBatch(values, dictIds, startDocId, numRows);
+        } catch (Exception e) {
+          recordIndexingError(indexEntry.getKey(), e);
+        }
+      }
+
+      if (dictIds == null) {
+        for (Object value : values) {
+          updateMinMaxValue(indexContainer, dataType, value);
+        }
+      }
+    } else {
+      // Multi-value column, where the values are indexed per record
+      for (int i = 0; i < numRows; i++) {
+        Object[] mvValues = (Object[]) values[i];
+        int[] dictIds = dictionary != null ? indexContainer._batchMVDictIds[i] : null;
+        indexContainer._valuesInfo.updateVarByteMVMaxRowLengthInBytes(mvValues, dataType.getStoredType());
+        int docId = startDocId + i;
+        for (Map.Entry<IndexType, MutableIndex> indexEntry : indexContainer._mutableIndexes.entrySet()) {
+          try {
+            indexEntry.getValue().add(mvValues, dictIds, docId);
+          } catch (Exception e) {
+            recordIndexingError(indexEntry.getKey(), e);
+          }
+        }
+        indexContainer._valuesInfo.updateMVNumValues(mvValues.length);
+      }
+      if (dictionary != null) {
+        indexContainer._minValue = dictionary.getMinVal();
+        indexContainer._maxValue = dictionary.getMaxVal();
+      }
+    }
+  }
+
   private boolean isUpsertEnabled() {
     return _partitionUpsertMetadataManager != null;
   }
@@ -682,19 +842,7 @@ public class MutableSegmentImpl implements MutableSegment {
       if (fieldSpec.isSingleValueField()) {
         // Check partitions
         if (column.equals(_partitionColumn)) {
-          String stringValue = dataType.toString(value);
-          int partition = _partitionFunction.getPartition(stringValue);
-          if (partition != _mainPartitionId) {
-            if (indexContainer._partitions.add(partition)) {
-              // for every partition other than mainPartitionId, log a warning once
-              _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column,
-                  stringValue);
-            }
-            // always emit a metric when a partition other than mainPartitionId is detected
-            if (_serverMetrics != null) {
-              _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
-            }
-          }
+          checkPartition(indexContainer, column, dataType, value);
         }
 
         // Update numValues info
@@ -714,23 +862,7 @@ public class MutableSegmentImpl implements MutableSegment {
           // Update min/max value from raw value
           // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
           if (!isAggregateMetricsEnabled() || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
-            Comparable comparable;
-            if (dataType == BYTES) {
-              comparable = new ByteArray((byte[]) value);
-            } else {
-              comparable = (Comparable) value;
-            }
-            if (indexContainer._minValue == null) {
-              indexContainer._minValue = comparable;
-              indexContainer._maxValue = comparable;
-            } else {
-              if (comparable.compareTo(indexContainer._minValue) < 0) {
-                indexContainer._minValue = comparable;
-              }
-              if (comparable.compareTo(indexContainer._maxValue) > 0) {
-                indexContainer._maxValue = comparable;
-              }
-            }
+            updateMinMaxValue(indexContainer, dataType, value);
           }
         }
       } else {
@@ -751,6 +883,41 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  private void checkPartition(IndexContainer indexContainer, String column, DataType dataType, Object value) {
+    String stringValue = dataType.toString(value);
+    int partition = _partitionFunction.getPartition(stringValue);
+    if (partition != _mainPartitionId) {
+      if (indexContainer._partitions.add(partition)) {
+        // for every partition other than mainPartitionId, log a warning once
+        _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column, stringValue);
+      }
+      // always emit a metric when a partition other than mainPartitionId is detected
+      if (_serverMetrics != null) {
+        _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
+      }
+    }
+  }
+
+  private static void updateMinMaxValue(IndexContainer indexContainer, DataType dataType, Object value) {
+    Comparable comparable;
+    if (dataType == BYTES) {
+      comparable = new ByteArray((byte[]) value);
+    } else {
+      comparable = (Comparable) value;
+    }
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = comparable;
+      indexContainer._maxValue = comparable;
+    } else {
+      if (comparable.compareTo(indexContainer._minValue) < 0) {
+        indexContainer._minValue = comparable;
+      }
+      if (comparable.compareTo(indexContainer._maxValue) > 0) {
+        indexContainer._maxValue = comparable;
+      }
+    }
+  }
+
   private void recordIndexingError(IndexType<?, ?, ?> indexType, Exception exception) {
     _logger.error("failed to index value with {}", indexType, exception);
     if (_serverMetrics != null) {
@@ -1199,6 +1366,10 @@ public class MutableSegmentImpl implements MutableSegment {
       _numValues++;
     }
 
+    void updateSVNumValues(int numValues) {
+      _numValues += numValues;
+    }
+
     void updateMVNumValues(int numValuesInMVEntry) {
       _numValues += numValuesInMVEntry;
       _maxNumValuesPerMVEntry = Math.max(_maxNumValuesPerMVEntry, numValuesInMVEntry);
@@ -1317,6 +1488,24 @@ public class MutableSegmentImpl implements MutableSegment {
      * It is set on {@link #updateDictionary(GenericRow)} and read in {@link #addNewRow(int, GenericRow)}
      */
     int[] _dictIds;
+    /**
+     * The values of the column for the batch being indexed.
+     * It is set on {@link #fillBatchValues(List)} and read in {@link #addNewColumnBatch(String, IndexContainer, List,
+     * int)}
+     */
+    Object[] _batchValues;
+    /**
+     * The dictionary ids of the single-value column for the batch being indexed.
+     * It is set on {@link #updateDictionaryBatch(int)} and read in {@link #addNewColumnBatch(String, IndexContainer,
+     * List, int)}
+     */
+    int[] _batchDictIds;
+    /**
+     * The dictionary ids of the multi-value column for the batch being indexed.
+     * It is set on {@link #updateDictionaryBatch(int)} and read in {@link #addNewColumnBatch(String, IndexContainer,
+     * List, int)}
+     */
+    int[][] _batchMVDictIds;
 
     IndexContainer(FieldSpec fieldSpec, @Nullable PartitionFunction partitionFunction,
         @Nullable Set<Integer> partitions, ValuesInfo valuesInfo, Map<IndexType, MutableIndex> mutableIndexes,
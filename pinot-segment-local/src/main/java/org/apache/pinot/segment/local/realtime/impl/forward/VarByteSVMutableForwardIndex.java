@@ -20,6 +20,7 @@ package org.apache.pinot.segment.local.realtime.impl.forward;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.io.writer.impl.MutableOffHeapByteArrayStore;
 import org.apache.pinot.segment.spi.index.mutable.MutableForwardIndex;
 import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
@@ -104,6 +105,34 @@ public class VarByteSVMutableForwardIndex implements MutableForwardIndex {
     _lengthOfShortestElement = Math.min(_lengthOfShortestElement, value.length);
   }
 
+  @Override
+  public void addBatch(Object[] values, @Nullable int[] dictIds, int startDocId, int numDocs) {
+    int lengthOfShortestElement = _lengthOfShortestElement;
+    int lengthOfLongestElement = _lengthOfLongestElement;
+    for (int i = 0; i < numDocs; i++) {
+      Object value = values[i];
+      byte[] bytes;
+      switch (_storedType) {
+        case BIG_DECIMAL:
+          bytes = value instanceof byte[] ? (byte[]) value : BigDecimalUtils.serialize((BigDecimal) value);
+          break;
+        case STRING:
+          bytes = ((String) value).getBytes(UTF_8);
+          break;
+        case BYTES:
+          bytes = (byte[]) value;
+          break;
+        default:
+          throw new IllegalStateException("Unsupported stored type: " + _storedType);
+      }
+      _byteArrayStore.add(bytes);
+      lengthOfShortestElement = Math.min(lengthOfShortestElement, bytes.length);
+      lengthOfLongestElement = Math.max(lengthOfLongestElement, bytes.length);
+    }
+    _lengthOfShortestElement = lengthOfShortestElement;
+    _lengthOfLongestElement = lengthOfLongestElement;
+  }
+
   @Override
   public void close()
       throws IOException {
@@ -61,6 +61,32 @@ public class RealtimeInvertedIndex implements MutableInvertedIndex {
     }
   }
 
+  /**
+   * Adds a batch of consecutive document ids. Runs of the same dictionary id are added to the bitmap as a range so that
+   * the bitmap is locked once per run instead of once per document.
+   */
+  @Override
+  public void addBatch(Object[] values, int[] dictIds, int startDocId, int numDocs) {
+    int runStart = 0;
+    while (runStart < numDocs) {
+      int dictId = dictIds[runStart];
+      int runEnd = runStart + 1;
+      while (runEnd < numDocs && dictIds[runEnd] == dictId) {
+        runEnd++;
+      }
+      if (runEnd - runStart == 1) {
+        add(dictId, startDocId + runStart);
+      } else {
+        if (_bitmaps.size() == dictId) {
+          add(dictId, startDocId + runStart);
+          runStart++;
+        }
+        _bitmaps.get(dictId).add(startDocId + runStart, startDocId + runEnd);
+      }
+      runStart = runEnd;
+    }
+  }
+
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
     ThreadSafeMutableRoaringBitmap bitmap;
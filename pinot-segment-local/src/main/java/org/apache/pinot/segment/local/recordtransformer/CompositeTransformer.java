@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
@@ -80,8 +81,19 @@ public class CompositeTransformer implements RecordTransformer {
    *      all the null values properly
    *   </li>
    * </ul>
+   * <p>When fused column transform is enabled in the ingestion config, {@link DataTypeTransformer},
+   * {@link TimeValidationTransformer}, {@link SpecialValueTransformer}, {@link NullValueTransformer} and
+   * {@link SanitizationTransformer} are replaced with a {@link FusedColumnTransformer} which applies them in the same
+   * order in a single pass over the columns.
    */
   public static List<RecordTransformer> getDefaultTransformers(TableConfig tableConfig, Schema schema) {
+    IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
+    if (ingestionConfig != null && ingestionConfig.isFusedColumnTransformEnabled()) {
+      return Stream.of(new ExpressionTransformer(tableConfig, schema), new FilterTransformer(tableConfig),
+              new SchemaConformingTransformer(tableConfig, schema),
+              new SchemaConformingTransformerV2(tableConfig, schema), new FusedColumnTransformer(tableConfig, schema))
+          .filter(t -> !t.isNoOp()).collect(Collectors.toList());
+    }
     return Stream.of(new ExpressionTransformer(tableConfig, schema), new FilterTransformer(tableConfig),
             new SchemaConformingTransformer(tableConfig, schema),
             new SchemaConformingTransformerV2(tableConfig, schema), new DataTypeTransformer(tableConfig, schema),
@@ -65,59 +65,72 @@ public class DataTypeTransformer implements RecordTransformer {
   public GenericRow transform(GenericRow record) {
     for (Map.Entry<String, PinotDataType> entry : _dataTypes.entrySet()) {
       String column = entry.getKey();
-      try {
-        Object value = record.getValue(column);
-        if (value == null) {
-          continue;
-        }
+      Object value = record.getValue(column);
+      if (value != null) {
+        record.putValue(column, transformValue(record, column, value, entry.getValue()));
+      }
+    }
+    return record;
+  }
 
-        PinotDataType dest = entry.getValue();
-        if (dest != PinotDataType.JSON) {
-          value = standardize(column, value, dest.isSingleValue());
-        }
+  /**
+   * Returns the data type the values of the given column are converted to, or {@code null} if the column is not
+   * transformed.
+   */
+  @Nullable
+  PinotDataType getDataType(String column) {
+    return _dataTypes.get(column);
+  }
 
-        // NOTE: The standardized value could be null for empty Collection/Map/Object[].
-        if (value == null) {
-          record.putValue(column, null);
-          continue;
-        }
+  /**
+   * Converts a non-null value of the given column to the destination data type.
+   * <p>Returns {@code null} for empty Collection/Map/Object[], or when the conversion fails and continue on error is
+   * enabled (in which case the record is marked as incomplete).
+   */
+  @Nullable
+  Object transformValue(GenericRow record, String column, Object value, PinotDataType dest) {
+    try {
+      if (dest != PinotDataType.JSON) {
+        value = standardize(column, value, dest.isSingleValue());
+      }
 
-        // Convert data type if necessary
-        PinotDataType source;
-        if (value instanceof Object[]) {
-          // Multi-value column
-          Object[] values = (Object[]) value;
-          source = PinotDataType.getMultiValueType(values[0].getClass());
-        } else {
-          // Single-value column
-          source = PinotDataType.getSingleValueType(value.getClass());
-        }
+      // NOTE: The standardized value could be null for empty Collection/Map/Object[].
+      if (value == null) {
+        return null;
+      }
 
-        // Skipping conversion when srcType!=destType is speculative, and can be unsafe when
-        // the array for MV column contains values of mixing types. Mixing types can lead
-        // to ClassCastException during conversion, often aborting data ingestion jobs.
-        //
-        // So now, calling convert() unconditionally for safety. Perf impact is negligible:
-        // 1. for SV column, when srcType=destType, the conversion is simply pass through.
-        // 2. for MV column, when srcType=destType, the conversion is simply pass through
-        // if the source type is not Object[] (but sth like Integer[], Double[]). For Object[],
-        // the conversion loops through values in the array like before, but can catch the
-        // ClassCastException if it happens and continue the conversion now.
-        value = dest.convert(value, source);
-        value = dest.toInternal(value);
+      // Convert data type if necessary
+      PinotDataType source;
+      if (value instanceof Object[]) {
+        // Multi-value column
+        Object[] values = (Object[]) value;
+        source = PinotDataType.getMultiValueType(values[0].getClass());
+      } else {
+        // Single-value column
+        source = PinotDataType.getSingleValueType(value.getClass());
+      }
 
-        record.putValue(column, value);
-      } catch (Exception e) {
-        if (!_continueOnError) {
-          throw new RuntimeException("Caught exception while transforming data type for column: " + column, e);
-        } else {
-          LOGGER.debug("Caught exception while transforming data type for column: {}", column, e);
-          record.putValue(column, null);
-          record.putValue(GenericRow.INCOMPLETE_RECORD_KEY, true);
-        }
+      // Skipping conversion when srcType!=destType is speculative, and can be unsafe when
+      // the array for MV column contains values of mixing types. Mixing types can lead
+      // to ClassCastException during conversion, often aborting data ingestion jobs.
+      //
+      // So now, calling convert() unconditionally for safety. Perf impact is negligible:
+      // 1. for SV column, when srcType=destType, the conversion is simply pass through.
+      // 2. for MV column, when srcType=destType, the conversion is simply pass through
+      // if the source type is not Object[] (but sth like Integer[], Double[]). For Object[],
+      // the conversion loops through values in the array like before, but can catch the
+      // ClassCastException if it happens and continue the conversion now.
+      value = dest.convert(value, source);
+      return dest.toInternal(value);
+    } catch (Exception e) {
+      if (!_continueOnError) {
+        throw new RuntimeException("Caught exception while transforming data type for column: " + column, e);
+      } else {
+        LOGGER.debug("Caught exception while transforming data type for column: {}", column, e);
+        record.putValue(GenericRow.INCOMPLETE_RECORD_KEY, true);
+        return null;
       }
     }
-    return record;
   }
 
   /**
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.recordtransformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.PinotDataType;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+
+
+/**
+ * The {@code FusedColumnTransformer} class applies the per-column default transformers in a single pass over the
+ * columns: {@link DataTypeTransformer}, {@link TimeValidationTransformer}, {@link SpecialValueTransformer},
+ * {@link NullValueTransformer} and {@link SanitizationTransformer}, in this order.
+ * <p>The columns and the transforms to apply on each of them are resolved once from the schema, so that each value is
+ * looked up from the record once and put back at most once, instead of once per transformer. The result is the same as
+ * applying the transformers one after the other because each of them only reads and writes the column it transforms.
+ */
+public class FusedColumnTransformer implements RecordTransformer {
+  private final DataTypeTransformer _dataTypeTransformer;
+  private final TimeValidationTransformer _timeValidationTransformer;
+  private final SpecialValueTransformer _specialValueTransformer;
+  private final ColumnTransform[] _columnTransforms;
+  private final boolean _hasSpecialValueColumns;
+
+  public FusedColumnTransformer(TableConfig tableConfig, Schema schema) {
+    _dataTypeTransformer = new DataTypeTransformer(tableConfig, schema);
+    _timeValidationTransformer = new TimeValidationTransformer(tableConfig, schema);
+    _specialValueTransformer = new SpecialValueTransformer(schema);
+    NullValueTransformer nullValueTransformer = new NullValueTransformer(tableConfig, schema);
+    SanitizationTransformer sanitizationTransformer = new SanitizationTransformer(schema);
+    String validatedTimeColumnName = _timeValidationTransformer.getValidatedTimeColumnName();
+
+    List<ColumnTransform> columnTransforms = new ArrayList<>();
+    boolean hasSpecialValueColumns = false;
+    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
+      if (fieldSpec.isVirtualColumn()) {
+        continue;
+      }
+      String column = fieldSpec.getName();
+      boolean hasSpecialValues = _specialValueTransformer.hasSpecialValues(column);
+      hasSpecialValueColumns |= hasSpecialValues;
+      columnTransforms.add(new ColumnTransform(column, _dataTypeTransformer.getDataType(column),
+          column.equals(validatedTimeColumnName), hasSpecialValues, nullValueTransformer.getDefaultNullValue(column),
+          sanitizationTransformer.getMaxLength(column)));
+    }
+    _columnTransforms = columnTransforms.toArray(new ColumnTransform[0]);
+    _hasSpecialValueColumns = hasSpecialValueColumns;
+  }
+
+  @Override
+  public boolean isNoOp() {
+    return _columnTransforms.length == 0;
+  }
+
+  @Override
+  public GenericRow transform(GenericRow record) {
+    for (ColumnTransform columnTransform : _columnTransforms) {
+      String column = columnTransform._column;
+      Object value = record.getValue(column);
+      Object transformedValue = value;
+      if (transformedValue != null && columnTransform._dataType != null) {
+        transformedValue =
+            _dataTypeTransformer.transformValue(record, column, transformedValue, columnTransform._dataType);
+      }
+      if (transformedValue != null && columnTransform._validateTimeValue) {
+        transformedValue = _timeValidationTransformer.validateTimeValue(record, transformedValue);
+      }
+      if (columnTransform._hasSpecialValues) {
+        transformedValue = _specialValueTransformer.transformValue(transformedValue);
+      }
+      boolean isNull = false;
+      if (transformedValue == null && columnTransform._defaultNullValue != null) {
+        transformedValue = columnTransform._defaultNullValue;
+        isNull = true;
+      }
+      if (transformedValue != null && columnTransform._maxLength != null) {
+        transformedValue = SanitizationTransformer.sanitize(transformedValue, columnTransform._maxLength);
+      }
+      if (isNull) {
+        record.putDefaultNullValue(column, transformedValue);
+      } else if (transformedValue != value) {
+        record.putValue(column, transformedValue);
+      }
+    }
+    if (_hasSpecialValueColumns) {
+      _specialValueTransformer.logConversionCounts();
+    }
+    return record;
+  }
+
+  private static class ColumnTransform {
+    final String _column;
+    final PinotDataType _dataType;
+    final boolean _validateTimeValue;
+    final boolean _hasSpecialValues;
+    final Object _defaultNullValue;
+    final Integer _maxLength;
+
+    ColumnTransform(String column, @Nullable PinotDataType dataType, boolean validateTimeValue,
+        boolean hasSpecialValues, @Nullable Object defaultNullValue, @Nullable Integer maxLength) {
+      _column = column;
+      _dataType = dataType;
+      _validateTimeValue = validateTimeValue;
+      _hasSpecialValues = hasSpecialValues;
+      _defaultNullValue = defaultNullValue;
+      _maxLength = maxLength;
+    }
+  }
+}
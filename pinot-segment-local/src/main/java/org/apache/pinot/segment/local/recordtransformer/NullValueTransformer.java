@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.recordtransformer;
 import com.google.common.base.Preconditions;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
@@ -81,6 +82,14 @@ public class NullValueTransformer implements RecordTransformer {
     }
   }
 
+  /**
+   * Returns the value to fill when the given column is null, or {@code null} if the column is not transformed.
+   */
+  @Nullable
+  Object getDefaultNullValue(String column) {
+    return _defaultNullValues.get(column);
+  }
+
   @Override
   public GenericRow transform(GenericRow record) {
     for (Map.Entry<String, Object> entry : _defaultNullValues.entrySet()) {
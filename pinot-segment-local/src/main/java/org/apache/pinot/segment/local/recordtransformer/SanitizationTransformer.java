@@ -20,6 +20,7 @@ package org.apache.pinot.segment.local.recordtransformer;
 
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
@@ -57,26 +58,40 @@ public class SanitizationTransformer implements RecordTransformer {
   public GenericRow transform(GenericRow record) {
     for (Map.Entry<String, Integer> entry : _stringColumnMaxLengthMap.entrySet()) {
       String stringColumn = entry.getKey();
-      int maxLength = entry.getValue();
       Object value = record.getValue(stringColumn);
-      if (value instanceof String) {
-        // Single-valued column
-        String stringValue = (String) value;
-        String sanitizedValue = StringUtil.sanitizeStringValue(stringValue, maxLength);
-        // NOTE: reference comparison
-        //noinspection StringEquality
-        if (sanitizedValue != stringValue) {
-          record.putValue(stringColumn, sanitizedValue);
-        }
-      } else {
-        // Multi-valued column
-        Object[] values = (Object[]) value;
-        int numValues = values.length;
-        for (int i = 0; i < numValues; i++) {
-          values[i] = StringUtil.sanitizeStringValue(values[i].toString(), maxLength);
-        }
+      Object sanitizedValue = sanitize(value, entry.getValue());
+      // NOTE: reference comparison
+      if (sanitizedValue != value) {
+        record.putValue(stringColumn, sanitizedValue);
       }
     }
     return record;
   }
+
+  /**
+   * Returns the max length of the values of the given column, or {@code null} if the column is not sanitized.
+   */
+  @Nullable
+  Integer getMaxLength(String column) {
+    return _stringColumnMaxLengthMap.get(column);
+  }
+
+  /**
+   * Sanitizes a value of a string column. Single-value is returned as is if it does not need to be sanitized, and
+   * multi-value is sanitized in place.
+   */
+  static Object sanitize(Object value, int maxLength) {
+    if (value instanceof String) {
+      // Single-valued column
+      return StringUtil.sanitizeStringValue((String) value, maxLength);
+    } else {
+      // Multi-valued column
+      Object[] values = (Object[]) value;
+      int numValues = values.length;
+      for (int i = 0; i < numValues; i++) {
+        values[i] = StringUtil.sanitizeStringValue(values[i].toString(), maxLength);
+      }
+      return values;
+    }
+  }
 }
@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.data.Schema;
@@ -88,32 +89,52 @@ public class SpecialValueTransformer implements RecordTransformer {
   public GenericRow transform(GenericRow record) {
     for (String element : _specialValuesKeySet) {
       Object value = record.getValue(element);
-      if (value instanceof Object[]) {
-        // Multi-valued column.
-        Object[] values = (Object[]) value;
-        int numValues = values.length;
-        List<Object> negativeZeroNanSanitizedValues = new ArrayList<>(numValues);
-        for (Object o : values) {
-          Object zeroTransformedValue = transformNegativeZero(o);
-          Object nanTransformedValue = transformNaN(zeroTransformedValue);
-          if (nanTransformedValue != null) {
-            negativeZeroNanSanitizedValues.add(nanTransformedValue);
-          }
-        }
-        record.putValue(element, negativeZeroNanSanitizedValues.toArray());
-      } else {
-        // Single-valued column.
-        Object zeroTransformedValue = transformNegativeZero(value);
+      Object transformedValue = transformValue(value);
+      // NOTE: multi-valued column is always transformed into a new array
+      if (transformedValue != value) {
+        record.putValue(element, transformedValue);
+      }
+    }
+    logConversionCounts();
+    return record;
+  }
+
+  /**
+   * Returns whether the values of the given column are checked for special values.
+   */
+  boolean hasSpecialValues(String column) {
+    return _specialValuesKeySet.contains(column);
+  }
+
+  /**
+   * Converts -0.0 to 0.0 and NaN to null for a single-valued column, and removes the NaNs from a multi-valued column.
+   */
+  @Nullable
+  Object transformValue(@Nullable Object value) {
+    if (value instanceof Object[]) {
+      // Multi-valued column.
+      Object[] values = (Object[]) value;
+      int numValues = values.length;
+      List<Object> negativeZeroNanSanitizedValues = new ArrayList<>(numValues);
+      for (Object o : values) {
+        Object zeroTransformedValue = transformNegativeZero(o);
         Object nanTransformedValue = transformNaN(zeroTransformedValue);
-        if (nanTransformedValue != value) {
-          record.putValue(element, nanTransformedValue);
+        if (nanTransformedValue != null) {
+          negativeZeroNanSanitizedValues.add(nanTransformedValue);
         }
       }
+      return negativeZeroNanSanitizedValues.toArray();
+    } else {
+      // Single-valued column.
+      Object zeroTransformedValue = transformNegativeZero(value);
+      return transformNaN(zeroTransformedValue);
     }
+  }
+
+  void logConversionCounts() {
     if (_negativeZeroConversionCount > 0 || _nanConversionCount > 0) {
       LOGGER.debug("Converted {} -0.0s to 0.0 and {} NaNs to null", _negativeZeroConversionCount, _nanConversionCount);
     }
-    return record;
   }
 
   @VisibleForTesting
@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.recordtransformer;
 
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.data.DateTimeFieldSpec;
@@ -82,6 +83,26 @@ public class TimeValidationTransformer implements RecordTransformer {
     if (timeValue == null) {
       return record;
     }
+    if (validateTimeValue(record, timeValue) == null) {
+      record.putValue(_timeColumnName, null);
+    }
+    return record;
+  }
+
+  /**
+   * Returns the time column, or {@code null} if the time value is not validated.
+   */
+  @Nullable
+  String getValidatedTimeColumnName() {
+    return _enableTimeValueCheck ? _timeColumnName : null;
+  }
+
+  /**
+   * Validates a non-null time value. Returns the time value if it is valid, or {@code null} if it is invalid and
+   * continue on error is enabled.
+   */
+  @Nullable
+  Object validateTimeValue(GenericRow record, Object timeValue) {
     long timeValueMs;
     try {
       timeValueMs = _timeFormatSpec.fromFormatToMillis(timeValue.toString());
@@ -90,8 +111,7 @@ public class TimeValidationTransformer implements RecordTransformer {
           String.format("Caught exception while parsing time value: %s with format: %s", timeValue, _timeFormatSpec);
       if (_continueOnError) {
         LOGGER.debug(errorMessage);
-        record.putValue(_timeColumnName, null);
-        return record;
+        return null;
       } else {
         throw new IllegalStateException(errorMessage);
       }
@@ -102,13 +122,12 @@ public class TimeValidationTransformer implements RecordTransformer {
               TimeUtils.VALID_TIME_INTERVAL);
       if (_continueOnError) {
         LOGGER.debug(errorMessage);
-        record.putValue(_timeColumnName, null);
         record.putValue(GenericRow.INCOMPLETE_RECORD_KEY, true);
-        return record;
+        return null;
       } else {
         throw new IllegalStateException(errorMessage);
       }
     }
-    return record;
+    return timeValue;
   }
 }
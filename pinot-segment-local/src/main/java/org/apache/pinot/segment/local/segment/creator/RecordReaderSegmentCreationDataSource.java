@@ -18,9 +18,15 @@
  */
 package org.apache.pinot.segment.local.segment.creator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.pinot.common.Utils;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.segment.local.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
 import org.apache.pinot.segment.spi.creator.SegmentCreationDataSource;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -41,6 +47,8 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
   private final RecordReader _recordReader;
   private RecordEnricherPipeline _recordEnricherPipeline;
   private TransformPipeline _transformPipeline;
+  private int _parallelism = 1;
+  private int _batchSize = SegmentGeneratorConfig.DEFAULT_SEGMENT_CREATION_BATCH_SIZE;
 
   public RecordReaderSegmentCreationDataSource(RecordReader recordReader) {
     _recordReader = recordReader;
@@ -54,6 +62,15 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
     _transformPipeline = transformPipeline;
   }
 
+  /**
+   * Sets the number of threads used to collect the stats. When larger than 1, the transformed rows are buffered in
+   * batches of the given size, and the stats of each batch are collected concurrently across columns.
+   */
+  public void setParallelism(int parallelism, int batchSize) {
+    _parallelism = parallelism;
+    _batchSize = batchSize;
+  }
+
   @Override
   public SegmentPreIndexStatsCollector gatherStats(StatsCollectorConfig statsCollectorConfig) {
     try {
@@ -62,9 +79,15 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
       TransformPipeline transformPipeline = _transformPipeline != null ? _transformPipeline
           : new TransformPipeline(statsCollectorConfig.getTableConfig(), statsCollectorConfig.getSchema());
 
-      SegmentPreIndexStatsCollector collector = new SegmentPreIndexStatsCollectorImpl(statsCollectorConfig);
+      SegmentPreIndexStatsCollectorImpl collector = new SegmentPreIndexStatsCollectorImpl(statsCollectorConfig);
       collector.init();
 
+      if (_parallelism > 1) {
+        gatherStatsInParallel(collector, recordEnricherPipeline, transformPipeline);
+        collector.build();
+        return collector;
+      }
+
       // Gather the stats
       GenericRow reuse = new GenericRow();
       TransformPipeline.Result reusedResult = new TransformPipeline.Result();
@@ -88,6 +111,33 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
     }
   }
 
+  private void gatherStatsInParallel(SegmentPreIndexStatsCollectorImpl collector,
+      RecordEnricherPipeline recordEnricherPipeline, TransformPipeline transformPipeline)
+      throws Exception {
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(_parallelism, new NamedThreadFactory("segment-stats-collection"));
+    try {
+      // NOTE: Rows are buffered across records, so a new row is read for each record instead of reusing one
+      List<GenericRow> rows = new ArrayList<>(_batchSize);
+      TransformPipeline.Result reusedResult = new TransformPipeline.Result();
+      while (_recordReader.hasNext()) {
+        GenericRow row = _recordReader.next(new GenericRow());
+        recordEnricherPipeline.run(row);
+        transformPipeline.processRow(row, reusedResult);
+        rows.addAll(reusedResult.getTransformedRows());
+        if (rows.size() >= _batchSize) {
+          collector.collectRows(rows, executorService);
+          rows.clear();
+        }
+      }
+      if (!rows.isEmpty()) {
+        collector.collectRows(rows, executorService);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
   @Override
   public RecordReader getRecordReader() {
     try {
@@ -24,16 +24,24 @@ import com.google.common.collect.Maps;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.pinot.common.utils.FileUtils;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.segment.local.io.util.PinotDataBitSet;
 import org.apache.pinot.segment.local.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexPlugin;
@@ -88,6 +96,11 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentColumnarIndexCreator.class);
   // Allow at most 512 characters for the metadata property
   static final int METADATA_PROPERTY_LENGTH_LIMIT = 512;
+  // Indexes that buffer (or build in memory) the whole column when sealed. When sealing the columns concurrently, at
+  // most one of them is sealed at a time to bound the memory used, while the other indexes are sealed in parallel.
+  private static final Set<String> HEAVY_INDEX_IDS =
+      Set.of(StandardIndexes.INVERTED_ID, StandardIndexes.RANGE_ID, StandardIndexes.TEXT_ID, StandardIndexes.JSON_ID,
+          StandardIndexes.FST_ID, StandardIndexes.H3_ID, StandardIndexes.VECTOR_ID);
   private SegmentGeneratorConfig _config;
   private TreeMap<String, ColumnIndexCreationInfo> _indexCreationInfoMap;
   private final Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
@@ -103,6 +116,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private File _indexDir;
   private int _totalDocs;
   private int _docIdCounter;
+  // Only set when segment creation parallelism is enabled, used to index and seal the columns concurrently
+  private ExecutorService _executorService;
 
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
@@ -224,6 +239,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         _nullValueVectorCreatorMap.put(columnName, new NullValueVectorCreator(_indexDir, columnName));
       }
     }
+
+    int parallelism = Math.min(segmentCreationSpec.getSegmentCreationParallelism(), _creatorsByColAndIndex.size());
+    if (parallelism > 1) {
+      _executorService = Executors.newFixedThreadPool(parallelism,
+          new NamedThreadFactory("segment-creation-" + segmentCreationSpec.getTableName()));
+    }
   }
 
   private boolean isNullable(FieldSpec fieldSpec) {
@@ -340,6 +361,106 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     _docIdCounter++;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>When segment creation parallelism is enabled, each column is indexed by a separate task over the whole batch.
+   * The creators of a column are only accessed by one task at a time, so they don't need to be thread-safe.
+   */
+  @Override
+  public void indexRows(List<GenericRow> rows)
+      throws IOException {
+    if (_executorService == null) {
+      SegmentCreator.super.indexRows(rows);
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>(_creatorsByColAndIndex.size());
+    for (Map.Entry<String, Map<IndexType<?, ?, ?>, IndexCreator>> byColEntry : _creatorsByColAndIndex.entrySet()) {
+      futures.add(_executorService.submit(() -> {
+        indexColumnRows(byColEntry.getKey(), byColEntry.getValue(), rows);
+        return null;
+      }));
+    }
+
+    // Null value vectors are cheap to fill, so fill them on the current thread while the columns are being indexed
+    int numRows = rows.size();
+    for (Map.Entry<String, NullValueVectorCreator> entry : _nullValueVectorCreatorMap.entrySet()) {
+      String columnName = entry.getKey();
+      NullValueVectorCreator nullValueVectorCreator = entry.getValue();
+      for (int i = 0; i < numRows; i++) {
+        if (rows.get(i).isNullValue(columnName)) {
+          nullValueVectorCreator.setNull(_docIdCounter + i);
+        }
+      }
+    }
+
+    waitForTasks(futures);
+    _docIdCounter += numRows;
+  }
+
+  private void indexColumnRows(String columnName, Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex,
+      List<GenericRow> rows)
+      throws IOException {
+    FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    boolean isSingleValue = fieldSpec.isSingleValueField();
+    try {
+      for (GenericRow row : rows) {
+        Object columnValueToIndex = row.getValue(columnName);
+        if (columnValueToIndex == null) {
+          throw new RuntimeException("Null value for column:" + columnName);
+        }
+        if (isSingleValue) {
+          indexSingleValueRow(dictionaryCreator, columnValueToIndex, creatorsByIndex);
+        } else {
+          indexMultiValueRow(dictionaryCreator, (Object[]) columnValueToIndex, creatorsByIndex);
+        }
+      }
+    } catch (JsonParseException jpe) {
+      throw new ColumnJsonParserException(columnName, jpe);
+    }
+  }
+
+  /**
+   * Waits for all the tasks to finish, then rethrows the first failure if any. All the tasks are waited on even after a
+   * failure so that no creator is still in use when the caller closes them.
+   */
+  private static void waitForTasks(List<Future<?>> futures)
+      throws IOException {
+    Throwable failure = null;
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+  }
+
   @Override
   public void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment)
       throws IOException {
@@ -449,16 +570,60 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void seal()
       throws ConfigurationException, IOException {
-    for (SegmentDictionaryCreator creator : _dictionaryCreatorMap.values()) {
-      creator.seal();
-    }
-    for (NullValueVectorCreator creator : _nullValueVectorCreatorMap.values()) {
-      creator.seal();
-    }
-    for (Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType : _creatorsByColAndIndex.values()) {
-      for (IndexCreator creator : creatorsByType.values()) {
+    if (_executorService == null) {
+      for (SegmentDictionaryCreator creator : _dictionaryCreatorMap.values()) {
+        creator.seal();
+      }
+      for (NullValueVectorCreator creator : _nullValueVectorCreatorMap.values()) {
         creator.seal();
       }
+      for (Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType : _creatorsByColAndIndex.values()) {
+        for (IndexCreator creator : creatorsByType.values()) {
+          creator.seal();
+        }
+      }
+    } else {
+      // Sealing builds the heavy indexes (e.g. inverted, range, text, json), so seal the columns concurrently, but
+      // only one heavy index at a time to not hold the memory of all of them at once
+      Semaphore heavyIndexSealPermit = new Semaphore(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (SegmentDictionaryCreator creator : _dictionaryCreatorMap.values()) {
+        futures.add(_executorService.submit(() -> {
+          creator.seal();
+          return null;
+        }));
+      }
+      for (NullValueVectorCreator creator : _nullValueVectorCreatorMap.values()) {
+        futures.add(_executorService.submit(() -> {
+          creator.seal();
+          return null;
+        }));
+      }
+      for (Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType : _creatorsByColAndIndex.values()) {
+        futures.add(_executorService.submit(() -> {
+          for (Map.Entry<IndexType<?, ?, ?>, IndexCreator> entry : creatorsByType.entrySet()) {
+            if (!HEAVY_INDEX_IDS.contains(entry.getKey().getId())) {
+              entry.getValue().seal();
+            }
+          }
+          return null;
+        }));
+        for (Map.Entry<IndexType<?, ?, ?>, IndexCreator> entry : creatorsByType.entrySet()) {
+          if (HEAVY_INDEX_IDS.contains(entry.getKey().getId())) {
+            IndexCreator creator = entry.getValue();
+            futures.add(_executorService.submit(() -> {
+              heavyIndexSealPermit.acquire();
+              try {
+                creator.seal();
+              } finally {
+                heavyIndexSealPermit.release();
+              }
+              return null;
+            }));
+          }
+        }
+      }
+      waitForTasks(futures);
     }
     writeMetadata();
   }
@@ -666,6 +831,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         _creatorsByColAndIndex.values().stream().flatMap(map -> map.values().stream()).collect(Collectors.toList());
     creators.addAll(_nullValueVectorCreatorMap.values());
     creators.addAll(_dictionaryCreatorMap.values());
-    FileUtils.close(creators);
+    try {
+      FileUtils.close(creators);
+    } finally {
+      if (_executorService != null) {
+        _executorService.shutdownNow();
+        _executorService = null;
+      }
+    }
   }
 }
@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -190,6 +191,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     if (dataSource instanceof RecordReaderSegmentCreationDataSource) {
       ((RecordReaderSegmentCreationDataSource) dataSource).setRecordEnricherPipeline(enricherPipeline);
       ((RecordReaderSegmentCreationDataSource) dataSource).setTransformPipeline(transformPipeline);
+      ((RecordReaderSegmentCreationDataSource) dataSource).setParallelism(config.getSegmentCreationParallelism(),
+          config.getSegmentCreationBatchSize());
     }
 
     // Optimization for realtime segment conversion
@@ -270,12 +273,21 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       // Build the index
       _recordReader.rewind();
       LOGGER.info("Start building IndexCreator!");
+      // When segment creation parallelism is enabled, the transformed rows are buffered and indexed in batches, so a
+      // new row is read for each record instead of reusing one
+      int parallelism = _config.getSegmentCreationParallelism();
+      int batchSize = _config.getSegmentCreationBatchSize();
+      List<GenericRow> batch = parallelism > 1 ? new ArrayList<>(batchSize) : null;
       GenericRow reuse = new GenericRow();
       TransformPipeline.Result reusedResult = new TransformPipeline.Result();
       while (_recordReader.hasNext()) {
         long recordReadStopTime = System.nanoTime();
         long indexStopTime;
-        reuse.clear();
+        if (batch != null) {
+          reuse = new GenericRow();
+        } else {
+          reuse.clear();
+        }
 
         try {
           long recordReadStartTime = System.nanoTime();
@@ -299,13 +311,26 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
           }
         }
 
-        for (GenericRow row : reusedResult.getTransformedRows()) {
-          _indexCreator.indexRow(row);
+        if (batch != null) {
+          batch.addAll(reusedResult.getTransformedRows());
+          if (batch.size() >= batchSize) {
+            _indexCreator.indexRows(batch);
+            batch.clear();
+          }
+        } else {
+          for (GenericRow row : reusedResult.getTransformedRows()) {
+            _indexCreator.indexRow(row);
+          }
         }
         indexStopTime = System.currentTimeMillis();
         _totalIndexTime += (indexStopTime - recordReadStopTime);
         incompleteRowsFound += reusedResult.getIncompleteRowCount();
       }
+      if (batch != null && !batch.isEmpty()) {
+        long indexStartTime = System.currentTimeMillis();
+        _indexCreator.indexRows(batch);
+        _totalIndexTime += (System.currentTimeMillis() - indexStartTime);
+      }
     } catch (Exception e) {
       _indexCreator.close();
       throw e;
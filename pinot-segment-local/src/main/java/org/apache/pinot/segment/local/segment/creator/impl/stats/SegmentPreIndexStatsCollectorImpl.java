@@ -18,8 +18,14 @@
  */
 package org.apache.pinot.segment.local.segment.creator.impl.stats;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.pinot.segment.spi.creator.ColumnStatistics;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
@@ -108,6 +114,48 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
     _totalDocCount++;
   }
 
+  /**
+   * Collects the stats for a batch of rows, in order, with one task per column running on the given executor. Each
+   * column stats collector is accessed by a single task, and the stats are the same as collecting the rows one by one
+   * with {@link #collectRow(GenericRow)}.
+   */
+  public void collectRows(List<GenericRow> rows, ExecutorService executorService)
+      throws InterruptedException {
+    List<Callable<Void>> tasks = new ArrayList<>(_columnStatsCollectorMap.size());
+    for (Map.Entry<String, AbstractColumnStatisticsCollector> entry : _columnStatsCollectorMap.entrySet()) {
+      String columnName = entry.getKey();
+      AbstractColumnStatisticsCollector columnStatsCollector = entry.getValue();
+      tasks.add(() -> {
+        for (GenericRow row : rows) {
+          Map<String, Object> fieldToValueMap = row.getFieldToValueMap();
+          if (fieldToValueMap.containsKey(columnName)) {
+            try {
+              columnStatsCollector.collect(fieldToValueMap.get(columnName));
+            } catch (Exception e) {
+              LOGGER.error("Exception while collecting stats for column:{} in row:{}", columnName, row);
+              throw e;
+            }
+          }
+        }
+        return null;
+      });
+    }
+    // NOTE: invokeAll() returns after all the tasks are done
+    for (Future<Void> future : executorService.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException("Caught exception while collecting stats", cause);
+      }
+    }
+
+    _totalDocCount += rows.size();
+  }
+
   @Override
   public int getTotalDocCount() {
     return _totalDocCount;
@@ -31,6 +31,12 @@ import org.apache.pinot.spi.data.FieldSpec.DataType;
  * ids.
  */
 public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<ForwardIndexReaderContext> {
+  // Bulk decode the whole doc id range then gather the values when the range spans at most this many docs per doc to
+  // read (i.e. at least 20% of the docs in the range are read). Bulk decoding unpacks 32 values per call without the
+  // per-value offset computation and bound check, which is cheaper than decoding the docs one by one when enough docs
+  // in the range are read.
+  private static final int MAX_DOC_ID_RANGE_PER_DOC = 5;
+
   private final FixedBitIntReader _reader;
   private final int _numDocs;
   private final int _numBitsPerValue;
@@ -61,14 +67,20 @@ public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<
     return _reader.read(docId);
   }
 
+  @Override
+  public ForwardIndexReaderContext createContext() {
+    return new Context();
+  }
+
   @Override
   public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
     int firstDocId = docIds[0];
     int lastDocId = docIds[length - 1];
     int index = 0;
+    int docIdRange = lastDocId - firstDocId + 1;
 
     // Use bulk read if the doc ids are sequential
-    if (lastDocId - firstDocId + 1 == length && length >= 64) {
+    if (docIdRange == length && length >= 64) {
       int bulkStartIndex = (firstDocId + 31) & 0xffffffe0;
       int bulkEndIndex = lastDocId & 0xffffffe0;
 
@@ -79,6 +91,20 @@ public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<
         _reader.read32(i, dictIdBuffer, index);
         index += 32;
       }
+    } else if (length >= 64 && docIdRange <= length * MAX_DOC_ID_RANGE_PER_DOC && context instanceof Context) {
+      // Bulk read the doc id range into the context buffer, then gather the values for the doc ids
+      int bulkStartIndex = firstDocId & 0xffffffe0;
+      int bulkEndIndex = lastDocId & 0xffffffe0;
+      if (bulkEndIndex > bulkStartIndex) {
+        int[] buffer = ((Context) context).getBuffer(bulkEndIndex - bulkStartIndex);
+        for (int i = bulkStartIndex; i < bulkEndIndex; i += 32) {
+          _reader.read32(i, buffer, i - bulkStartIndex);
+        }
+        int docId;
+        while ((docId = docIds[index]) < bulkEndIndex) {
+          dictIdBuffer[index++] = buffer[docId - bulkStartIndex];
+        }
+      }
     }
 
     // Process the remaining docs
@@ -131,4 +157,22 @@ public final class FixedBitSVForwardIndexReaderV2 implements ForwardIndexReader<
   public boolean isDocLengthInBits() {
     return true;
   }
+
+  /**
+   * Reader context that holds the buffer for the bulk decoded values.
+   */
+  public static class Context implements ForwardIndexReaderContext {
+    private int[] _buffer;
+
+    int[] getBuffer(int size) {
+      if (_buffer == null || _buffer.length < size) {
+        _buffer = new int[size];
+      }
+      return _buffer;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
 }
@@ -39,6 +39,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,6 +55,7 @@ import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.metrics.ServerTimer;
+import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.SegmentUtils;
 import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.common.utils.helix.HelixHelper;
@@ -200,6 +202,13 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
 
   @Override
   public void preloadSegments(IndexLoadingConfig indexLoadingConfig) {
+    preloadSegments(indexLoadingConfig, null, null);
+  }
+
+  @Override
+  public void preloadSegments(IndexLoadingConfig indexLoadingConfig,
+      @Nullable Map<String, Map<String, String>> segmentAssignment,
+      @Nullable Map<String, SegmentZKMetadata> segmentMetadataMap) {
     if (!_isPreloading) {
       return;
     }
@@ -220,7 +229,8 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
       }
       // From now on, the _isPreloading flag is true until the segments are preloaded.
       long startTime = System.currentTimeMillis();
-      doPreloadSegments(tableDataManager, indexLoadingConfig, helixManager, segmentPreloadExecutor);
+      doPreloadSegments(tableDataManager, indexLoadingConfig, helixManager, segmentPreloadExecutor, segmentAssignment,
+          segmentMetadataMap);
       long duration = System.currentTimeMillis() - startTime;
       _serverMetrics.addTimedTableValue(_tableNameWithType, ServerTimer.UPSERT_PRELOAD_TIME_MS, duration,
           TimeUnit.MILLISECONDS);
@@ -243,14 +253,20 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
   }
 
   protected void doPreloadSegments(TableDataManager tableDataManager, IndexLoadingConfig indexLoadingConfig,
-      HelixManager helixManager, ExecutorService segmentPreloadExecutor)
+      HelixManager helixManager, ExecutorService segmentPreloadExecutor,
+      @Nullable Map<String, Map<String, String>> segmentAssignment,
+      @Nullable Map<String, SegmentZKMetadata> segmentMetadataMap)
       throws Exception {
     _logger.info("Preload segments from partition: {} of table: {} for fast upsert metadata recovery", _partitionId,
         _tableNameWithType);
     String instanceId = getInstanceId(tableDataManager);
-    Map<String, Map<String, String>> segmentAssignment = getSegmentAssignment(helixManager);
-    Map<String, SegmentZKMetadata> segmentMetadataMap = getSegmentsZKMetadata(helixManager);
-    List<Future<?>> futures = new ArrayList<>();
+    if (segmentAssignment == null) {
+      segmentAssignment = getSegmentAssignment(helixManager);
+    }
+    if (segmentMetadataMap == null) {
+      segmentMetadataMap = getSegmentsZKMetadata(helixManager);
+    }
+    List<SegmentZKMetadata> segmentsToPreload = new ArrayList<>();
     for (Map.Entry<String, Map<String, String>> entry : segmentAssignment.entrySet()) {
       String segmentName = entry.getKey();
       Map<String, String> instanceStateMap = entry.getValue();
@@ -282,8 +298,24 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
             _partitionId);
         continue;
       }
-      futures.add(segmentPreloadExecutor.submit(
-          () -> doPreloadSegmentWithSnapshot(tableDataManager, segmentName, indexLoadingConfig, segmentZKMetadata)));
+      segmentsToPreload.add(segmentZKMetadata);
+    }
+
+    // Track the preloading progress with the gauges so that slow preloading can be identified
+    int numSegmentsToPreload = segmentsToPreload.size();
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRELOAD_SEGMENTS_COUNT,
+        numSegmentsToPreload);
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId,
+        ServerGauge.UPSERT_PRELOADED_SEGMENTS_COUNT, 0);
+    AtomicInteger numPreloadedSegments = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>(numSegmentsToPreload);
+    for (SegmentZKMetadata segmentZKMetadata : segmentsToPreload) {
+      String segmentName = segmentZKMetadata.getSegmentName();
+      futures.add(segmentPreloadExecutor.submit(() -> {
+        doPreloadSegmentWithSnapshot(tableDataManager, segmentName, indexLoadingConfig, segmentZKMetadata);
+        _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId,
+            ServerGauge.UPSERT_PRELOADED_SEGMENTS_COUNT, numPreloadedSegments.incrementAndGet());
+      }));
     }
     try {
       for (Future<?> f : futures) {
@@ -296,8 +328,8 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
         }
       }
     }
-    _logger.info("Preloaded segments from partition: {} of table: {} for fast upsert metadata recovery", _partitionId,
-        _tableNameWithType);
+    _logger.info("Preloaded {} segments from partition: {} of table: {} for fast upsert metadata recovery",
+        numSegmentsToPreload, _partitionId, _tableNameWithType);
   }
 
   private String getInstanceId(TableDataManager tableDataManager) {
@@ -560,6 +592,27 @@ public abstract class BasePartitionUpsertMetadataManager implements PartitionUps
     addOrReplaceSegment(segment, validDocIds, queryableDocIds, recordInfoIterator, null, null);
   }
 
+  /**
+   * Returns whether the record from the given segment should replace the current record from another segment when
+   * preloading segments. The valid docs from the snapshots should not overlap, but segments are preloaded concurrently,
+   * so the conflict (if any) must be resolved without relying on the order the segments are added: larger comparison
+   * value wins, then larger segment sequence number for LLC segments, then larger segment name.
+   */
+  protected static boolean shouldReplaceOnPreload(int comparisonResult, String segmentName,
+      String currentSegmentName) {
+    if (comparisonResult != 0) {
+      return comparisonResult > 0;
+    }
+    if (LLCSegmentName.isLLCSegment(segmentName) && LLCSegmentName.isLLCSegment(currentSegmentName)) {
+      int sequenceNumber = LLCSegmentName.getSequenceNumber(segmentName);
+      int currentSequenceNumber = LLCSegmentName.getSequenceNumber(currentSegmentName);
+      if (sequenceNumber != currentSequenceNumber) {
+        return sequenceNumber > currentSequenceNumber;
+      }
+    }
+    return segmentName.compareTo(currentSegmentName) > 0;
+  }
+
   @Override
   public boolean addRecord(MutableSegment segment, RecordInfo recordInfo) {
     _gotFirstConsumingSegment = true;
@@ -18,17 +18,37 @@
  */
 package org.apache.pinot.segment.local.upsert;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.apache.pinot.common.utils.SegmentUtils;
+import org.apache.pinot.common.utils.helix.HelixHelper;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.spi.config.table.HashFunction;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
 import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +60,9 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
   protected String _tableNameWithType;
   protected UpsertContext _context;
 
+  private final Lock _preloadLock = new ReentrantLock();
+  private volatile boolean _isPreloading;
+
   @Override
   public void init(TableConfig tableConfig, Schema schema, TableDataManager tableDataManager) {
     _tableNameWithType = tableConfig.getTableName();
@@ -86,6 +109,7 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
         hashFunction, upsertConfig.getMode(), enableSnapshot, enablePreload, metadataTTL, deletedKeysTTL,
         consistencyMode, upsertViewRefreshIntervalMs, tableIndexDir);
 
+    _isPreloading = enableSnapshot && enablePreload;
     initCustomVariables();
   }
 
@@ -96,6 +120,102 @@ public abstract class BaseTableUpsertMetadataManager implements TableUpsertMetad
   protected void initCustomVariables() {
   }
 
+  /**
+   * Preloads the partitions hosted by the server concurrently. The segment assignment and segment ZK metadata are read
+   * once for all the partitions, and each partition is preloaded by a thread from a bounded pool created for the
+   * preloading, which submits the segments to the segment preload executor of the table and waits for them to finish.
+   * The partition threads should not run on the segment preload executor because they block on the segments.
+   */
+  @Override
+  public void preloadSegments(IndexLoadingConfig indexLoadingConfig) {
+    if (!_isPreloading) {
+      return;
+    }
+    // Helix threads processing the segment state transitions are blocked here until all the partitions are preloaded
+    _preloadLock.lock();
+    try {
+      if (!_isPreloading) {
+        return;
+      }
+      doPreloadSegments(indexLoadingConfig);
+    } catch (Exception e) {
+      // Partitions not preloaded here are preloaded individually by the partition metadata managers, or loaded via the
+      // normal segment loading logic
+      LOGGER.warn("Failed to preload segments for table: {}, skipping", _tableNameWithType, e);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      _isPreloading = false;
+      _preloadLock.unlock();
+    }
+  }
+
+  private void doPreloadSegments(IndexLoadingConfig indexLoadingConfig)
+      throws Exception {
+    TableDataManager tableDataManager = _context.getTableDataManager();
+    Preconditions.checkNotNull(tableDataManager, "Preloading segments requires tableDataManager");
+    HelixManager helixManager = tableDataManager.getHelixManager();
+    String instanceId = tableDataManager.getInstanceDataManagerConfig().getInstanceId();
+    Map<String, Map<String, String>> segmentAssignment = getSegmentAssignment(helixManager);
+    Map<String, SegmentZKMetadata> segmentMetadataMap = getSegmentsZKMetadata(helixManager);
+    Set<Integer> partitionIds = new TreeSet<>();
+    for (Map.Entry<String, Map<String, String>> entry : segmentAssignment.entrySet()) {
+      if (!CommonConstants.Helix.StateModel.SegmentStateModel.ONLINE.equals(entry.getValue().get(instanceId))) {
+        continue;
+      }
+      String segmentName = entry.getKey();
+      SegmentZKMetadata segmentZKMetadata = segmentMetadataMap.get(segmentName);
+      if (segmentZKMetadata != null) {
+        Integer partitionId = SegmentUtils.getRealtimeSegmentPartitionId(segmentName, segmentZKMetadata, null);
+        if (partitionId != null) {
+          partitionIds.add(partitionId);
+        }
+      }
+    }
+    int numPartitions = partitionIds.size();
+    if (numPartitions == 0) {
+      return;
+    }
+    LOGGER.info("Preload segments from partitions: {} of table: {} for fast upsert metadata recovery", partitionIds,
+        _tableNameWithType);
+    long startTimeMs = System.currentTimeMillis();
+    int numThreads = Math.min(numPartitions, Runtime.getRuntime().availableProcessors());
+    ExecutorService partitionPreloadExecutor =
+        Executors.newFixedThreadPool(numThreads, new NamedThreadFactory("upsert-preload-" + _tableNameWithType));
+    try {
+      List<Future<?>> futures = new ArrayList<>(numPartitions);
+      for (int partitionId : partitionIds) {
+        PartitionUpsertMetadataManager partitionUpsertMetadataManager = getOrCreatePartitionManager(partitionId);
+        futures.add(partitionPreloadExecutor.submit(
+            () -> partitionUpsertMetadataManager.preloadSegments(indexLoadingConfig, segmentAssignment,
+                segmentMetadataMap)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      partitionPreloadExecutor.shutdownNow();
+    }
+    LOGGER.info("Preloaded segments from {} partitions of table: {} in {}ms", numPartitions, _tableNameWithType,
+        System.currentTimeMillis() - startTimeMs);
+  }
+
+  @VisibleForTesting
+  Map<String, Map<String, String>> getSegmentAssignment(HelixManager helixManager) {
+    IdealState idealState = HelixHelper.getTableIdealState(helixManager, _tableNameWithType);
+    Preconditions.checkState(idealState != null, "Failed to find ideal state for table: %s", _tableNameWithType);
+    return idealState.getRecord().getMapFields();
+  }
+
+  @VisibleForTesting
+  Map<String, SegmentZKMetadata> getSegmentsZKMetadata(HelixManager helixManager) {
+    Map<String, SegmentZKMetadata> segmentMetadataMap = new HashMap<>();
+    ZKMetadataProvider.getSegmentsZKMetadata(helixManager.getHelixPropertyStore(), _tableNameWithType)
+        .forEach(m -> segmentMetadataMap.put(m.getSegmentName(), m));
+    return segmentMetadataMap;
+  }
+
   @Override
   public UpsertConfig.Mode getUpsertMode() {
     return _context.getPartialUpsertHandler() == null ? UpsertConfig.Mode.FULL : UpsertConfig.Mode.PARTIAL;
@@ -161,14 +161,29 @@ public class ConcurrentMapPartitionUpsertMetadataManager extends BasePartitionUp
   @Override
   protected void addSegmentWithoutUpsert(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
       @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator) {
+    String segmentName = segment.getSegmentName();
     segment.enableUpsert(this, validDocIds, queryableDocIds);
     while (recordInfoIterator.hasNext()) {
       RecordInfo recordInfo = recordInfoIterator.next();
       int newDocId = recordInfo.getDocId();
       Comparable newComparisonValue = recordInfo.getComparisonValue();
-      addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
-      _primaryKeyToRecordLocationMap.put(HashUtils.hashPrimaryKey(recordInfo.getPrimaryKey(), _hashFunction),
-          new RecordLocation(segment, newDocId, newComparisonValue));
+      _primaryKeyToRecordLocationMap.compute(HashUtils.hashPrimaryKey(recordInfo.getPrimaryKey(), _hashFunction),
+          (primaryKey, currentRecordLocation) -> {
+            if (currentRecordLocation != null && currentRecordLocation.getSegment() != segment) {
+              // The same primary key is preloaded from another segment
+              IndexSegment currentSegment = currentRecordLocation.getSegment();
+              if (shouldReplaceOnPreload(newComparisonValue.compareTo(currentRecordLocation.getComparisonValue()),
+                  segmentName, currentSegment.getSegmentName())) {
+                replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentRecordLocation.getDocId(),
+                    newDocId, recordInfo);
+                return new RecordLocation(segment, newDocId, newComparisonValue);
+              } else {
+                return currentRecordLocation;
+              }
+            }
+            addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+            return new RecordLocation(segment, newDocId, newComparisonValue);
+          });
     }
   }
 
@@ -0,0 +1,788 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.HelixManager;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.LazyRow;
+import org.apache.pinot.segment.local.upsert.OffHeapRecordLocationMap.RecordLocation;
+import org.apache.pinot.segment.local.utils.HashUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Implementation of {@link PartitionUpsertMetadataManager} that is backed by an {@link OffHeapRecordLocationMap}, which
+ * keeps the primary keys out of the heap to reduce the GC pressure for tables with large number of primary keys.
+ *
+ * <p>The map stores the 128-bit hash of the primary key instead of the primary key itself. When the hash function is
+ * not {@link HashFunction#MD5} or {@link HashFunction#MURMUR3}, the primary key is hashed with MURMUR3. The comparison
+ * value is stored as a fixed-width long, so only a single numeric (INT, LONG, FLOAT, DOUBLE, TIMESTAMP) comparison
+ * column is supported. The segments are referenced by ids assigned by this manager.
+ *
+ * <p>When snapshot is enabled, the record locations of the immutable segments are persisted into the table index
+ * directory together with the validDocIds snapshots. On restart, the persisted record locations are loaded in bulk,
+ * and an immutable segment whose name and CRC match the snapshot is bound to them with its validDocIds snapshot without
+ * reading its primary keys, so that only the segments committed after the snapshot are replayed. Records replayed
+ * before the segment they invalidate is bound are tracked, and removed from its validDocIds when it is bound. Record
+ * locations of a segment changed since the snapshot are dropped when the segment is added, and record locations of
+ * the snapshot segments not loaded after preloading (or by the time the next snapshot is taken) are dropped.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+@ThreadSafe
+public class OffHeapPartitionUpsertMetadataManager extends BasePartitionUpsertMetadataManager {
+  private static final int RECORD_LOCATION_SNAPSHOT_VERSION = 1;
+
+  // Used to initialize a reference to previous row for merging in partial upsert
+  private final LazyRow _reusePreviousRow = new LazyRow();
+  private final Map<String, Object> _reuseMergeResultHolder = new HashMap<>();
+
+  private final DataType _comparisonValueType;
+  private final OffHeapRecordLocationMap _recordLocationMap;
+  private final Map<IndexSegment, Integer> _segmentToIdMap = new ConcurrentHashMap<>();
+  private final Map<Integer, IndexSegment> _idToSegmentMap = new ConcurrentHashMap<>();
+  private final AtomicInteger _nextSegmentId = new AtomicInteger(OffHeapRecordLocationMap.EMPTY_SEGMENT_ID + 1);
+  private final File _recordLocationSnapshotFile;
+  // Segments in the record location snapshot which are not added yet
+  private final Map<String, SnapshotSegment> _snapshotSegmentNameMap = new ConcurrentHashMap<>();
+  private final Map<Integer, SnapshotSegment> _snapshotSegmentIdMap = new ConcurrentHashMap<>();
+
+  public OffHeapPartitionUpsertMetadataManager(String tableNameWithType, int partitionId, UpsertContext context,
+      int initialCapacity) {
+    super(tableNameWithType, partitionId, context);
+    _comparisonValueType = getComparisonValueType(context);
+    _recordLocationMap =
+        new OffHeapRecordLocationMap(initialCapacity, "UpsertRecordLocationMap: " + tableNameWithType + "_"
+            + partitionId);
+    _recordLocationSnapshotFile = _enableSnapshot && _tableIndexDir != null ? new File(_tableIndexDir,
+        V1Constants.UPSERT_RECORD_LOCATION_SNAPSHOT_TABLE_PARTITION + partitionId) : null;
+    if (_recordLocationSnapshotFile != null && _recordLocationSnapshotFile.exists()) {
+      loadRecordLocationSnapshot();
+    }
+  }
+
+  /**
+   * Returns the stored type of the comparison column, and throws exception if it cannot be stored as fixed-width long.
+   */
+  static DataType getComparisonValueType(UpsertContext context) {
+    Preconditions.checkArgument(context.getComparisonColumns().size() == 1,
+        "Off-heap upsert metadata manager only supports single comparison column, got: %s",
+        context.getComparisonColumns());
+    String comparisonColumn = context.getComparisonColumns().get(0);
+    FieldSpec fieldSpec = context.getSchema().getFieldSpecFor(comparisonColumn);
+    Preconditions.checkArgument(fieldSpec != null, "Failed to find comparison column: %s in schema",
+        comparisonColumn);
+    DataType storedType = fieldSpec.getDataType().getStoredType();
+    switch (storedType) {
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return storedType;
+      default:
+        throw new IllegalArgumentException(
+            String.format("Off-heap upsert metadata manager does not support comparison column: %s of type: %s",
+                comparisonColumn, storedType));
+    }
+  }
+
+  @Override
+  protected long getNumPrimaryKeys() {
+    return _recordLocationMap.size();
+  }
+
+  @Override
+  protected void addOrReplaceSegment(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator,
+      @Nullable IndexSegment oldSegment, @Nullable MutableRoaringBitmap validDocIdsForOldSegment) {
+    String segmentName = segment.getSegmentName();
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = getOrAssignSegmentId(segment);
+
+    if (_partialUpsertHandler != null) {
+      recordInfoIterator = resolveComparisonTies(recordInfoIterator, _hashFunction);
+    }
+    AtomicInteger numKeysInWrongSegment = new AtomicInteger();
+    while (recordInfoIterator.hasNext()) {
+      RecordInfo recordInfo = recordInfoIterator.next();
+      int newDocId = recordInfo.getDocId();
+      long newComparisonValue = encodeComparisonValue(recordInfo.getComparisonValue());
+      ByteBuffer keyHash = hashPrimaryKey(recordInfo.getPrimaryKey());
+      _recordLocationMap.compute(keyHash.getLong(0), keyHash.getLong(8), currentRecordLocation -> {
+        IndexSegment currentSegment = getSegment(currentRecordLocation);
+        SnapshotSegment snapshotSegment =
+            currentSegment == null && currentRecordLocation != null ? _snapshotSegmentIdMap.get(
+                currentRecordLocation.getSegmentId()) : null;
+        if (snapshotSegment != null) {
+          synchronized (snapshotSegment) {
+            currentSegment = getSegment(currentRecordLocation);
+            if (currentSegment == null) {
+              // The current record is in a snapshot segment not added yet
+              // Track the invalidated doc so that it is removed from the validDocIds snapshot when the segment is added
+              int comparisonResult = compareComparisonValues(newComparisonValue,
+                  currentRecordLocation.getComparisonValue());
+              if (comparisonResult > 0 || (comparisonResult == 0 && LLCSegmentName.isLLCSegment(segmentName)
+                  && LLCSegmentName.isLLCSegment(snapshotSegment._segmentName)
+                  && LLCSegmentName.getSequenceNumber(segmentName) > LLCSegmentName.getSequenceNumber(
+                  snapshotSegment._segmentName))) {
+                snapshotSegment._invalidatedDocIds.add(currentRecordLocation.getDocId());
+                addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+                return new RecordLocation(segmentId, newDocId, newComparisonValue);
+              } else {
+                return currentRecordLocation;
+              }
+            }
+          }
+        }
+        if (currentSegment != null) {
+          // Existing primary key
+          int currentDocId = currentRecordLocation.getDocId();
+          int comparisonResult = compareComparisonValues(newComparisonValue,
+              currentRecordLocation.getComparisonValue());
+
+          // The current record is in the same segment
+          // Update the record location when there is a tie to keep the newer record. Note that the record info
+          // iterator will return records with incremental doc ids.
+          if (currentSegment == segment) {
+            if (comparisonResult >= 0) {
+              replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+              return new RecordLocation(segmentId, newDocId, newComparisonValue);
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // The current record is in an old segment being replaced
+          // See ConcurrentMapPartitionUpsertMetadataManager for details
+          if (currentSegment == oldSegment) {
+            if (comparisonResult >= 0) {
+              addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+              if (validDocIdsForOldSegment != null) {
+                validDocIdsForOldSegment.remove(currentDocId);
+              }
+              return new RecordLocation(segmentId, newDocId, newComparisonValue);
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // This should not happen because the previously replaced segment should have all keys removed. We still
+          // handle it here, and also track the number of keys not properly replaced previously.
+          String currentSegmentName = currentSegment.getSegmentName();
+          if (currentSegmentName.equals(segmentName)) {
+            numKeysInWrongSegment.getAndIncrement();
+            if (comparisonResult >= 0) {
+              addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+              return new RecordLocation(segmentId, newDocId, newComparisonValue);
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // The current record is in a different segment
+          // Update the record location when getting a newer comparison value, or the value is the same as the
+          // current value, but the segment has a larger sequence number (the segment is newer than the current
+          // segment).
+          if (comparisonResult > 0 || (comparisonResult == 0 && LLCSegmentName.isLLCSegment(segmentName)
+              && LLCSegmentName.isLLCSegment(currentSegmentName)
+              && LLCSegmentName.getSequenceNumber(segmentName) > LLCSegmentName.getSequenceNumber(
+              currentSegmentName))) {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+            return new RecordLocation(segmentId, newDocId, newComparisonValue);
+          } else {
+            return currentRecordLocation;
+          }
+        } else {
+          // New primary key
+          addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+          return new RecordLocation(segmentId, newDocId, newComparisonValue);
+        }
+      });
+    }
+    int numKeys = numKeysInWrongSegment.get();
+    if (numKeys > 0) {
+      _logger.warn("Found {} primary keys in the wrong segment when adding segment: {}", numKeys, segmentName);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.UPSERT_KEYS_IN_WRONG_SEGMENT, numKeys);
+    }
+  }
+
+  @Override
+  protected void doAddSegment(ImmutableSegmentImpl segment) {
+    if (!addSegmentFromSnapshot(segment)) {
+      super.doAddSegment(segment);
+    }
+  }
+
+  @Override
+  protected void doPreloadSegment(ImmutableSegmentImpl segment) {
+    if (!addSegmentFromSnapshot(segment)) {
+      super.doPreloadSegment(segment);
+    }
+  }
+
+  @Override
+  protected void doPreloadSegments(TableDataManager tableDataManager, IndexLoadingConfig indexLoadingConfig,
+      HelixManager helixManager, ExecutorService segmentPreloadExecutor,
+      @Nullable Map<String, Map<String, String>> segmentAssignment,
+      @Nullable Map<String, SegmentZKMetadata> segmentMetadataMap)
+      throws Exception {
+    try {
+      super.doPreloadSegments(tableDataManager, indexLoadingConfig, helixManager, segmentPreloadExecutor,
+          segmentAssignment, segmentMetadataMap);
+    } finally {
+      // All the segments with validDocIds snapshot are preloaded, so the remaining snapshot segments are either no
+      // longer hosted or will be added from the records
+      dropUnclaimedSnapshotSegments();
+    }
+  }
+
+  /**
+   * Binds the segment to the record locations loaded from the snapshot if the segment is not changed since the snapshot
+   * is taken. Returns {@code true} if the segment is added, in which case there is no need to read its records.
+   */
+  private boolean addSegmentFromSnapshot(ImmutableSegmentImpl segment) {
+    String segmentName = segment.getSegmentName();
+    SnapshotSegment snapshotSegment = _snapshotSegmentNameMap.remove(segmentName);
+    if (snapshotSegment == null) {
+      return false;
+    }
+    long startTimeMs = System.currentTimeMillis();
+    MutableRoaringBitmap validDocIds =
+        snapshotSegment._crc.equals(segment.getSegmentMetadata().getCrc()) ? segment.loadValidDocIdsFromSnapshot()
+            : null;
+    synchronized (snapshotSegment) {
+      if (validDocIds != null) {
+        validDocIds.andNot(snapshotSegment._invalidatedDocIds);
+        MutableRoaringBitmap queryableDocIds = getQueryableDocIds(segment, validDocIds);
+        segment.enableUpsert(this, new ThreadSafeMutableRoaringBitmap(validDocIds),
+            queryableDocIds != null ? new ThreadSafeMutableRoaringBitmap(queryableDocIds) : null);
+        _segmentToIdMap.put(segment, snapshotSegment._segmentId);
+        _idToSegmentMap.put(snapshotSegment._segmentId, segment);
+      }
+      // Record locations of the changed segment are treated as absent, and will be replaced when adding the segment
+      _snapshotSegmentIdMap.remove(snapshotSegment._segmentId);
+    }
+    if (validDocIds == null) {
+      _logger.info("Segment: {} is changed since the record location snapshot is taken, adding it from the records",
+          segmentName);
+      // Drop the stale record locations, which might not be replaced by the records of the changed segment
+      int staleSegmentId = snapshotSegment._segmentId;
+      _recordLocationMap.removeIf(recordLocation -> recordLocation.getSegmentId() == staleSegmentId);
+      return false;
+    }
+    updatePrimaryKeyGauge();
+    _logger.info("Added segment: {} with {} valid docs from the record location snapshot in {}ms", segmentName,
+        validDocIds.getCardinality(), System.currentTimeMillis() - startTimeMs);
+    return true;
+  }
+
+  @Override
+  protected void addSegmentWithoutUpsert(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator) {
+    String segmentName = segment.getSegmentName();
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = getOrAssignSegmentId(segment);
+    while (recordInfoIterator.hasNext()) {
+      RecordInfo recordInfo = recordInfoIterator.next();
+      int newDocId = recordInfo.getDocId();
+      long newComparisonValue = encodeComparisonValue(recordInfo.getComparisonValue());
+      ByteBuffer keyHash = hashPrimaryKey(recordInfo.getPrimaryKey());
+      _recordLocationMap.compute(keyHash.getLong(0), keyHash.getLong(8), currentRecordLocation -> {
+        if (currentRecordLocation != null && currentRecordLocation.getSegmentId() != segmentId) {
+          // The same primary key is preloaded from another segment, or is in a snapshot segment not added yet
+          int comparisonResult =
+              compareComparisonValues(newComparisonValue, currentRecordLocation.getComparisonValue());
+          IndexSegment currentSegment = getSegment(currentRecordLocation);
+          SnapshotSegment snapshotSegment =
+              currentSegment == null ? _snapshotSegmentIdMap.get(currentRecordLocation.getSegmentId()) : null;
+          if (snapshotSegment != null) {
+            synchronized (snapshotSegment) {
+              currentSegment = getSegment(currentRecordLocation);
+              if (currentSegment == null) {
+                if (!shouldReplaceOnPreload(comparisonResult, segmentName, snapshotSegment._segmentName)) {
+                  return currentRecordLocation;
+                }
+                snapshotSegment._invalidatedDocIds.add(currentRecordLocation.getDocId());
+                addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+                return new RecordLocation(segmentId, newDocId, newComparisonValue);
+              }
+            }
+          }
+          if (currentSegment != null) {
+            if (!shouldReplaceOnPreload(comparisonResult, segmentName, currentSegment.getSegmentName())) {
+              return currentRecordLocation;
+            }
+            replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentRecordLocation.getDocId(),
+                newDocId, recordInfo);
+            return new RecordLocation(segmentId, newDocId, newComparisonValue);
+          }
+        }
+        addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+        return new RecordLocation(segmentId, newDocId, newComparisonValue);
+      });
+    }
+  }
+
+  @Override
+  protected void removeSegment(IndexSegment segment, MutableRoaringBitmap validDocIds) {
+    assert !validDocIds.isEmpty();
+
+    Integer segmentId = _segmentToIdMap.get(segment);
+    if (segmentId == null) {
+      // No primary key can reference the segment
+      return;
+    }
+    PrimaryKey primaryKey = new PrimaryKey(new Object[_primaryKeyColumns.size()]);
+    PeekableIntIterator iterator = validDocIds.getIntIterator();
+    try (
+        UpsertUtils.PrimaryKeyReader primaryKeyReader = new UpsertUtils.PrimaryKeyReader(segment, _primaryKeyColumns)) {
+      while (iterator.hasNext()) {
+        primaryKeyReader.getPrimaryKey(iterator.next(), primaryKey);
+        ByteBuffer keyHash = hashPrimaryKey(primaryKey);
+        _recordLocationMap.compute(keyHash.getLong(0), keyHash.getLong(8), recordLocation -> {
+          if (recordLocation != null && recordLocation.getSegmentId() == segmentId) {
+            return null;
+          }
+          return recordLocation;
+        });
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(
+          String.format("Caught exception while removing segment: %s, table: %s", segment.getSegmentName(),
+              _tableNameWithType), e);
+    }
+  }
+
+  @Override
+  public void removeSegment(IndexSegment segment) {
+    super.removeSegment(segment);
+    releaseSegmentIdIfUntracked(segment);
+  }
+
+  @Override
+  public void replaceSegment(ImmutableSegment segment, IndexSegment oldSegment) {
+    super.replaceSegment(segment, oldSegment);
+    releaseSegmentIdIfUntracked(oldSegment);
+  }
+
+  @Override
+  public void doRemoveExpiredPrimaryKeys() {
+    AtomicInteger numMetadataTTLKeysRemoved = new AtomicInteger();
+    AtomicInteger numDeletedTTLKeysRemoved = new AtomicInteger();
+    double largestSeenComparisonValue = _largestSeenComparisonValue.get();
+    double metadataTTLKeysThreshold;
+    if (_metadataTTL > 0) {
+      metadataTTLKeysThreshold = largestSeenComparisonValue - _metadataTTL;
+    } else {
+      metadataTTLKeysThreshold = Double.MIN_VALUE;
+    }
+    double deletedKeysThreshold;
+    if (_deletedKeysTTL > 0) {
+      deletedKeysThreshold = largestSeenComparisonValue - _deletedKeysTTL;
+    } else {
+      deletedKeysThreshold = Double.MIN_VALUE;
+    }
+
+    _recordLocationMap.removeIf(recordLocation -> {
+      double comparisonValue = decodeComparisonValue(recordLocation.getComparisonValue()).doubleValue();
+      if (_metadataTTL > 0 && comparisonValue < metadataTTLKeysThreshold) {
+        numMetadataTTLKeysRemoved.getAndIncrement();
+        return true;
+      }
+      if (_deletedKeysTTL > 0 && comparisonValue < deletedKeysThreshold) {
+        IndexSegment segment = getSegment(recordLocation);
+        if (segment == null) {
+          return true;
+        }
+        ThreadSafeMutableRoaringBitmap currentQueryableDocIds = segment.getQueryableDocIds();
+        // if key not part of queryable doc id, it means it is deleted
+        if (currentQueryableDocIds != null && !currentQueryableDocIds.contains(recordLocation.getDocId())) {
+          removeDocId(segment, recordLocation.getDocId());
+          numDeletedTTLKeysRemoved.getAndIncrement();
+          return true;
+        }
+      }
+      return false;
+    });
+    if (_metadataTTL > 0) {
+      persistWatermark(largestSeenComparisonValue);
+    }
+
+    // Update metrics
+    updatePrimaryKeyGauge();
+    int numMetadataTTLKeys = numMetadataTTLKeysRemoved.get();
+    if (numMetadataTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on metadataTTL", numMetadataTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.METADATA_TTL_PRIMARY_KEYS_REMOVED,
+          numMetadataTTLKeys);
+    }
+    int numDeletedTTLKeys = numDeletedTTLKeysRemoved.get();
+    if (numDeletedTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on deletedKeysTTL", numDeletedTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.DELETED_KEYS_TTL_PRIMARY_KEYS_REMOVED,
+          numDeletedTTLKeys);
+    }
+  }
+
+  @Override
+  protected boolean doAddRecord(MutableSegment segment, RecordInfo recordInfo) {
+    AtomicBoolean isOutOfOrderRecord = new AtomicBoolean(false);
+    ThreadSafeMutableRoaringBitmap validDocIds = Objects.requireNonNull(segment.getValidDocIds());
+    ThreadSafeMutableRoaringBitmap queryableDocIds = segment.getQueryableDocIds();
+    int segmentId = getOrAssignSegmentId(segment);
+    int newDocId = recordInfo.getDocId();
+    long newComparisonValue = encodeComparisonValue(recordInfo.getComparisonValue());
+
+    // When TTL is enabled, update largestSeenComparisonValue when adding new record
+    if (_metadataTTL > 0 || _deletedKeysTTL > 0) {
+      double comparisonValue = ((Number) recordInfo.getComparisonValue()).doubleValue();
+      _largestSeenComparisonValue.getAndUpdate(v -> Math.max(v, comparisonValue));
+    }
+
+    ByteBuffer keyHash = hashPrimaryKey(recordInfo.getPrimaryKey());
+    _recordLocationMap.compute(keyHash.getLong(0), keyHash.getLong(8), currentRecordLocation -> {
+      IndexSegment currentSegment = getSegment(currentRecordLocation);
+      if (currentSegment != null) {
+        // Existing primary key
+
+        // Update the record location when the new comparison value is greater than or equal to the current value.
+        // Update the record location when there is a tie to keep the newer record.
+        if (compareComparisonValues(newComparisonValue, currentRecordLocation.getComparisonValue()) >= 0) {
+          int currentDocId = currentRecordLocation.getDocId();
+          if (segment == currentSegment) {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+          } else {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+          }
+          return new RecordLocation(segmentId, newDocId, newComparisonValue);
+        } else {
+          // Out-of-order record
+          handleOutOfOrderEvent(decodeComparisonValue(currentRecordLocation.getComparisonValue()),
+              recordInfo.getComparisonValue());
+          isOutOfOrderRecord.set(true);
+          return currentRecordLocation;
+        }
+      } else {
+        // New primary key
+        addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+        return new RecordLocation(segmentId, newDocId, newComparisonValue);
+      }
+    });
+
+    updatePrimaryKeyGauge();
+    return !isOutOfOrderRecord.get();
+  }
+
+  @Override
+  protected GenericRow doUpdateRecord(GenericRow record, RecordInfo recordInfo) {
+    assert _partialUpsertHandler != null;
+    long newComparisonValue = encodeComparisonValue(recordInfo.getComparisonValue());
+    ByteBuffer keyHash = hashPrimaryKey(recordInfo.getPrimaryKey());
+    _recordLocationMap.compute(keyHash.getLong(0), keyHash.getLong(8), recordLocation -> {
+      // Read the previous record if the following conditions are met:
+      // - New record is not a DELETE record
+      // - New record is not out-of-order
+      // - Previous record is not deleted
+      IndexSegment currentSegment = getSegment(recordLocation);
+      if (currentSegment != null && !recordInfo.isDeleteRecord()
+          && compareComparisonValues(newComparisonValue, recordLocation.getComparisonValue()) >= 0) {
+        ThreadSafeMutableRoaringBitmap currentQueryableDocIds = currentSegment.getQueryableDocIds();
+        int currentDocId = recordLocation.getDocId();
+        if (currentQueryableDocIds == null || currentQueryableDocIds.contains(currentDocId)) {
+          _reusePreviousRow.init(currentSegment, currentDocId);
+          _partialUpsertHandler.merge(_reusePreviousRow, record, _reuseMergeResultHolder);
+          _reuseMergeResultHolder.clear();
+        }
+      }
+      return recordLocation;
+    });
+    return record;
+  }
+
+  @Override
+  protected void doTakeSnapshot() {
+    super.doTakeSnapshot();
+    if (_recordLocationSnapshotFile == null) {
+      return;
+    }
+    try {
+      persistRecordLocationSnapshot();
+    } catch (Exception e) {
+      _logger.warn("Caught exception while persisting record location snapshot: {}, deleting it",
+          _recordLocationSnapshotFile, e);
+      FileUtils.deleteQuietly(_recordLocationSnapshotFile);
+    }
+  }
+
+  /**
+   * Drops the record locations of the snapshot segments which are not added yet.
+   */
+  private void dropUnclaimedSnapshotSegments() {
+    if (_snapshotSegmentIdMap.isEmpty()) {
+      return;
+    }
+    Set<Integer> segmentIds = new HashSet<>(_snapshotSegmentIdMap.keySet());
+    _logger.info("Dropping record locations of segments: {} from the previous snapshot which are not added",
+        _snapshotSegmentNameMap.keySet());
+    _snapshotSegmentIdMap.clear();
+    _snapshotSegmentNameMap.clear();
+    _recordLocationMap.removeIf(recordLocation -> segmentIds.contains(recordLocation.getSegmentId()));
+    updatePrimaryKeyGauge();
+  }
+
+  /**
+   * Snapshot format:
+   * <ul>
+   *   <li>Version (int), hash function (UTF) and comparison value type (UTF)</li>
+   *   <li>Number of segments (int), followed by the id (int), name (UTF) and CRC (UTF) of each segment</li>
+   *   <li>Segment id (int), primary key hash (2 longs), doc id (int) and comparison value (long) of each record
+   *   location, terminated by the empty segment id</li>
+   * </ul>
+   */
+  private void persistRecordLocationSnapshot()
+      throws IOException {
+    long startTimeMs = System.currentTimeMillis();
+    // All the segments are added before taking the snapshot, so the remaining snapshot segments won't be added
+    dropUnclaimedSnapshotSegments();
+    // Only persist the record locations of the segments with validDocIds snapshot
+    Map<Integer, ImmutableSegmentImpl> snapshotSegments = new HashMap<>();
+    for (IndexSegment segment : _trackedSegments) {
+      if (segment instanceof ImmutableSegmentImpl && ((ImmutableSegmentImpl) segment).hasValidDocIdsSnapshotFile()) {
+        Integer segmentId = _segmentToIdMap.get(segment);
+        if (segmentId != null) {
+          snapshotSegments.put(segmentId, (ImmutableSegmentImpl) segment);
+        }
+      }
+    }
+    File tmpFile = new File(_recordLocationSnapshotFile.getPath() + ".tmp");
+    long[] numRecordLocations = new long[1];
+    try (DataOutputStream outputStream = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+      outputStream.writeInt(RECORD_LOCATION_SNAPSHOT_VERSION);
+      outputStream.writeUTF(_hashFunction.name());
+      outputStream.writeUTF(_comparisonValueType.name());
+      outputStream.writeInt(snapshotSegments.size());
+      for (Map.Entry<Integer, ImmutableSegmentImpl> entry : snapshotSegments.entrySet()) {
+        outputStream.writeInt(entry.getKey());
+        outputStream.writeUTF(entry.getValue().getSegmentName());
+        outputStream.writeUTF(entry.getValue().getSegmentMetadata().getCrc());
+      }
+      _recordLocationMap.forEach((keyHigh, keyLow, recordLocation) -> {
+        if (snapshotSegments.containsKey(recordLocation.getSegmentId())) {
+          try {
+            outputStream.writeInt(recordLocation.getSegmentId());
+            outputStream.writeLong(keyHigh);
+            outputStream.writeLong(keyLow);
+            outputStream.writeInt(recordLocation.getDocId());
+            outputStream.writeLong(recordLocation.getComparisonValue());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          numRecordLocations[0]++;
+        }
+      });
+      outputStream.writeInt(OffHeapRecordLocationMap.EMPTY_SEGMENT_ID);
+    }
+    Files.move(tmpFile.toPath(), _recordLocationSnapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    _logger.info("Persisted {} record locations of {} segments into snapshot: {} in {}ms", numRecordLocations[0],
+        snapshotSegments.size(), _recordLocationSnapshotFile, System.currentTimeMillis() - startTimeMs);
+  }
+
+  /**
+   * Loads the record locations from the snapshot. The snapshot file is deleted after loading so that a stale snapshot
+   * is never loaded after a crash, and the record locations are rebuilt from the validDocIds snapshots instead.
+   */
+  private void loadRecordLocationSnapshot() {
+    long startTimeMs = System.currentTimeMillis();
+    try (DataInputStream inputStream = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(_recordLocationSnapshotFile)))) {
+      int version = inputStream.readInt();
+      Preconditions.checkState(version == RECORD_LOCATION_SNAPSHOT_VERSION,
+          "Unsupported record location snapshot version: %s", version);
+      String hashFunction = inputStream.readUTF();
+      String comparisonValueType = inputStream.readUTF();
+      Preconditions.checkState(hashFunction.equals(_hashFunction.name()) && comparisonValueType.equals(
+              _comparisonValueType.name()),
+          "Record location snapshot with hash function: %s, comparison value type: %s does not match the config",
+          hashFunction, comparisonValueType);
+      int numSegments = inputStream.readInt();
+      int maxSegmentId = OffHeapRecordLocationMap.EMPTY_SEGMENT_ID;
+      for (int i = 0; i < numSegments; i++) {
+        int segmentId = inputStream.readInt();
+        SnapshotSegment snapshotSegment = new SnapshotSegment(segmentId, inputStream.readUTF(), inputStream.readUTF());
+        _snapshotSegmentNameMap.put(snapshotSegment._segmentName, snapshotSegment);
+        _snapshotSegmentIdMap.put(segmentId, snapshotSegment);
+        maxSegmentId = Math.max(maxSegmentId, segmentId);
+      }
+      _nextSegmentId.set(maxSegmentId + 1);
+      long numRecordLocations = 0;
+      int segmentId;
+      while ((segmentId = inputStream.readInt()) != OffHeapRecordLocationMap.EMPTY_SEGMENT_ID) {
+        long keyHigh = inputStream.readLong();
+        long keyLow = inputStream.readLong();
+        int docId = inputStream.readInt();
+        _recordLocationMap.put(keyHigh, keyLow, new RecordLocation(segmentId, docId, inputStream.readLong()));
+        numRecordLocations++;
+      }
+      _logger.info("Loaded {} record locations of {} segments from snapshot: {} in {}ms", numRecordLocations,
+          numSegments, _recordLocationSnapshotFile, System.currentTimeMillis() - startTimeMs);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while loading record location snapshot: {}, rebuilding from segments",
+          _recordLocationSnapshotFile, e);
+      _snapshotSegmentNameMap.clear();
+      _snapshotSegmentIdMap.clear();
+      _recordLocationMap.removeIf(recordLocation -> true);
+    }
+    FileUtils.deleteQuietly(_recordLocationSnapshotFile);
+  }
+
+  @Override
+  protected void doClose()
+      throws IOException {
+    _recordLocationMap.close();
+    _segmentToIdMap.clear();
+    _idToSegmentMap.clear();
+  }
+
+  private int getOrAssignSegmentId(IndexSegment segment) {
+    return _segmentToIdMap.computeIfAbsent(segment, k -> {
+      int segmentId = _nextSegmentId.getAndIncrement();
+      _idToSegmentMap.put(segmentId, k);
+      return segmentId;
+    });
+  }
+
+  private void releaseSegmentIdIfUntracked(IndexSegment segment) {
+    if (!_trackedSegments.contains(segment)) {
+      Integer segmentId = _segmentToIdMap.remove(segment);
+      if (segmentId != null) {
+        _idToSegmentMap.remove(segmentId);
+      }
+    }
+  }
+
+  /**
+   * Returns the segment of the record location, or {@code null} if the record location is {@code null} or references
+   * a segment already released (e.g. primary keys not removed because the segment is out of metadata TTL).
+   */
+  @Nullable
+  private IndexSegment getSegment(@Nullable RecordLocation recordLocation) {
+    return recordLocation != null ? _idToSegmentMap.get(recordLocation.getSegmentId()) : null;
+  }
+
+  private ByteBuffer hashPrimaryKey(PrimaryKey primaryKey) {
+    byte[] bytes = primaryKey.asBytes();
+    return ByteBuffer.wrap(_hashFunction == HashFunction.MD5 ? HashUtils.hashMD5(bytes) : HashUtils.hashMurmur3(bytes));
+  }
+
+  private long encodeComparisonValue(Comparable comparisonValue) {
+    switch (_comparisonValueType) {
+      case INT:
+      case LONG:
+        return ((Number) comparisonValue).longValue();
+      case FLOAT:
+      case DOUBLE:
+        return Double.doubleToLongBits(((Number) comparisonValue).doubleValue());
+      default:
+        throw new IllegalStateException("Unsupported comparison value type: " + _comparisonValueType);
+    }
+  }
+
+  private Number decodeComparisonValue(long encodedValue) {
+    switch (_comparisonValueType) {
+      case INT:
+        return (int) encodedValue;
+      case LONG:
+        return encodedValue;
+      case FLOAT:
+        return (float) Double.longBitsToDouble(encodedValue);
+      case DOUBLE:
+        return Double.longBitsToDouble(encodedValue);
+      default:
+        throw new IllegalStateException("Unsupported comparison value type: " + _comparisonValueType);
+    }
+  }
+
+  private int compareComparisonValues(long encodedValue1, long encodedValue2) {
+    if (_comparisonValueType == DataType.FLOAT || _comparisonValueType == DataType.DOUBLE) {
+      return Double.compare(Double.longBitsToDouble(encodedValue1), Double.longBitsToDouble(encodedValue2));
+    } else {
+      return Long.compare(encodedValue1, encodedValue2);
+    }
+  }
+
+  /**
+   * Segment in the record location snapshot which is not added yet.
+   */
+  private static class SnapshotSegment {
+    final int _segmentId;
+    final String _segmentName;
+    final String _crc;
+    // Docs invalidated by the records added before this segment, guarded by the lock of this object
+    final MutableRoaringBitmap _invalidatedDocIds = new MutableRoaringBitmap();
+
+    SnapshotSegment(int segmentId, String segmentName, String crc) {
+      _segmentId = segmentId;
+      _segmentName = segmentName;
+      _crc = crc;
+    }
+  }
+}
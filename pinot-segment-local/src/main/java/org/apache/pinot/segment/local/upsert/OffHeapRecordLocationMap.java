@@ -0,0 +1,340 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * Off-heap open-addressing hash table from the 128-bit primary key hash to the record location (segment id, doc id and
+ * comparison value), used by the {@link OffHeapPartitionUpsertMetadataManager} to keep the primary keys out of the
+ * heap.
+ *
+ * <p>Each entry is stored in a fixed-width slot:
+ * <ul>
+ *   <li>Primary key hash high bits (8 bytes)</li>
+ *   <li>Primary key hash low bits (8 bytes)</li>
+ *   <li>Segment id (4 bytes), where 0 marks an empty slot</li>
+ *   <li>Doc id (4 bytes)</li>
+ *   <li>Comparison value encoded as long (8 bytes)</li>
+ * </ul>
+ *
+ * <p>The table is split into stripes by the primary key hash, and each stripe is a linear probing table guarded by its
+ * own lock, and is resized independently. Entries are removed with backward shift deletion so that no tombstone is
+ * needed.
+ */
+@ThreadSafe
+public class OffHeapRecordLocationMap implements Closeable {
+  public static final int EMPTY_SEGMENT_ID = 0;
+
+  private static final int NUM_STRIPES = 16;
+  private static final int MIN_STRIPE_CAPACITY = 16;
+  private static final double LOAD_FACTOR = 0.75;
+
+  private static final int SLOT_SIZE = 32;
+  private static final int KEY_HIGH_OFFSET = 0;
+  private static final int KEY_LOW_OFFSET = 8;
+  private static final int SEGMENT_ID_OFFSET = 16;
+  private static final int DOC_ID_OFFSET = 20;
+  private static final int COMPARISON_VALUE_OFFSET = 24;
+
+  private final String _description;
+  private final Stripe[] _stripes = new Stripe[NUM_STRIPES];
+
+  public OffHeapRecordLocationMap(int initialCapacity, String description) {
+    _description = description;
+    int stripeCapacity = MIN_STRIPE_CAPACITY;
+    while (stripeCapacity * LOAD_FACTOR * NUM_STRIPES < initialCapacity) {
+      stripeCapacity <<= 1;
+    }
+    for (int i = 0; i < NUM_STRIPES; i++) {
+      _stripes[i] = new Stripe(stripeCapacity);
+    }
+  }
+
+  /**
+   * Returns the number of entries in the map.
+   */
+  public long size() {
+    long size = 0;
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        size += stripe._size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Computes the new record location for the given primary key hash atomically. The remapping function takes the
+   * current record location ({@code null} if absent), and returns the new record location, or {@code null} to remove
+   * the entry.
+   */
+  public void compute(long keyHigh, long keyLow, UnaryOperator<RecordLocation> remappingFunction) {
+    Stripe stripe = getStripe(keyHigh);
+    synchronized (stripe) {
+      stripe.compute(keyHigh, keyLow, remappingFunction);
+    }
+  }
+
+  /**
+   * Puts the record location for the given primary key hash.
+   */
+  public void put(long keyHigh, long keyLow, RecordLocation recordLocation) {
+    compute(keyHigh, keyLow, current -> recordLocation);
+  }
+
+  /**
+   * Returns the record location for the given primary key hash, or {@code null} if absent.
+   */
+  @Nullable
+  public RecordLocation get(long keyHigh, long keyLow) {
+    Stripe stripe = getStripe(keyHigh);
+    synchronized (stripe) {
+      int slot = stripe.find(keyHigh, keyLow);
+      return slot >= 0 ? stripe.read(slot) : null;
+    }
+  }
+
+  /**
+   * Removes all the entries matching the given predicate. The predicate is invoked while holding the lock of the
+   * stripe, and may be invoked more than once for the retained entries.
+   */
+  public void removeIf(Predicate<RecordLocation> predicate) {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        stripe.removeIf(predicate);
+      }
+    }
+  }
+
+  /**
+   * Invokes the consumer for all the entries in the map. The consumer is invoked while holding the lock of the stripe.
+   */
+  public void forEach(EntryConsumer consumer) {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        for (int slot = 0; slot < stripe._capacity; slot++) {
+          if (stripe.getSegmentId(slot) != EMPTY_SEGMENT_ID) {
+            consumer.accept(stripe.getKeyHigh(slot), stripe.getKeyLow(slot), stripe.read(slot));
+          }
+        }
+      }
+    }
+  }
+
+  private Stripe getStripe(long keyHigh) {
+    return _stripes[(int) (keyHigh >>> 60) & (NUM_STRIPES - 1)];
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (Stripe stripe : _stripes) {
+      synchronized (stripe) {
+        stripe._buffer.close();
+      }
+    }
+  }
+
+  private PinotDataBuffer allocate(int capacity) {
+    PinotDataBuffer buffer =
+        PinotDataBuffer.allocateDirect((long) capacity * SLOT_SIZE, ByteOrder.nativeOrder(), _description);
+    for (int slot = 0; slot < capacity; slot++) {
+      buffer.putInt((long) slot * SLOT_SIZE + SEGMENT_ID_OFFSET, EMPTY_SEGMENT_ID);
+    }
+    return buffer;
+  }
+
+  private class Stripe {
+    PinotDataBuffer _buffer;
+    int _capacity;
+    int _mask;
+    int _size;
+
+    Stripe(int capacity) {
+      _buffer = allocate(capacity);
+      _capacity = capacity;
+      _mask = capacity - 1;
+    }
+
+    int getSegmentId(int slot) {
+      return _buffer.getInt((long) slot * SLOT_SIZE + SEGMENT_ID_OFFSET);
+    }
+
+    long getKeyHigh(int slot) {
+      return _buffer.getLong((long) slot * SLOT_SIZE + KEY_HIGH_OFFSET);
+    }
+
+    long getKeyLow(int slot) {
+      return _buffer.getLong((long) slot * SLOT_SIZE + KEY_LOW_OFFSET);
+    }
+
+    int getHomeSlot(long keyLow) {
+      return (int) keyLow & _mask;
+    }
+
+    /**
+     * Returns the slot of the given key, or {@code -(insertionSlot + 1)} if absent.
+     */
+    int find(long keyHigh, long keyLow) {
+      int slot = getHomeSlot(keyLow);
+      while (getSegmentId(slot) != EMPTY_SEGMENT_ID) {
+        if (getKeyHigh(slot) == keyHigh && getKeyLow(slot) == keyLow) {
+          return slot;
+        }
+        slot = (slot + 1) & _mask;
+      }
+      return -(slot + 1);
+    }
+
+    RecordLocation read(int slot) {
+      long offset = (long) slot * SLOT_SIZE;
+      return new RecordLocation(_buffer.getInt(offset + SEGMENT_ID_OFFSET), _buffer.getInt(offset + DOC_ID_OFFSET),
+          _buffer.getLong(offset + COMPARISON_VALUE_OFFSET));
+    }
+
+    void write(int slot, long keyHigh, long keyLow, RecordLocation recordLocation) {
+      Preconditions.checkArgument(recordLocation._segmentId != EMPTY_SEGMENT_ID, "Invalid segment id: %s",
+          recordLocation._segmentId);
+      long offset = (long) slot * SLOT_SIZE;
+      _buffer.putLong(offset + KEY_HIGH_OFFSET, keyHigh);
+      _buffer.putLong(offset + KEY_LOW_OFFSET, keyLow);
+      _buffer.putInt(offset + SEGMENT_ID_OFFSET, recordLocation._segmentId);
+      _buffer.putInt(offset + DOC_ID_OFFSET, recordLocation._docId);
+      _buffer.putLong(offset + COMPARISON_VALUE_OFFSET, recordLocation._comparisonValue);
+    }
+
+    void compute(long keyHigh, long keyLow, UnaryOperator<RecordLocation> remappingFunction) {
+      int slot = find(keyHigh, keyLow);
+      if (slot >= 0) {
+        RecordLocation currentLocation = read(slot);
+        RecordLocation newLocation = remappingFunction.apply(currentLocation);
+        if (newLocation == null) {
+          remove(slot);
+        } else if (newLocation != currentLocation) {
+          write(slot, keyHigh, keyLow, newLocation);
+        }
+      } else {
+        RecordLocation newLocation = remappingFunction.apply(null);
+        if (newLocation != null) {
+          write(-(slot + 1), keyHigh, keyLow, newLocation);
+          _size++;
+          if (_size > _capacity * LOAD_FACTOR) {
+            resize();
+          }
+        }
+      }
+    }
+
+    void removeIf(Predicate<RecordLocation> predicate) {
+      int slot = 0;
+      while (slot < _capacity) {
+        if (getSegmentId(slot) != EMPTY_SEGMENT_ID && predicate.test(read(slot))) {
+          // Re-examine the same slot because another entry might be shifted into it
+          remove(slot);
+        } else {
+          slot++;
+        }
+      }
+    }
+
+    /**
+     * Removes the entry in the given slot with backward shift deletion.
+     */
+    void remove(int slot) {
+      int hole = slot;
+      int next = (hole + 1) & _mask;
+      while (getSegmentId(next) != EMPTY_SEGMENT_ID) {
+        int homeSlot = getHomeSlot(getKeyLow(next));
+        // Move the entry into the hole if its home slot is not within (hole, next]
+        if (((next - homeSlot) & _mask) >= ((next - hole) & _mask)) {
+          long holeOffset = (long) hole * SLOT_SIZE;
+          _buffer.copyTo((long) next * SLOT_SIZE, _buffer, holeOffset, SLOT_SIZE);
+          hole = next;
+        }
+        next = (next + 1) & _mask;
+      }
+      _buffer.putInt((long) hole * SLOT_SIZE + SEGMENT_ID_OFFSET, EMPTY_SEGMENT_ID);
+      _size--;
+    }
+
+    void resize() {
+      PinotDataBuffer oldBuffer = _buffer;
+      int oldCapacity = _capacity;
+      _capacity = oldCapacity << 1;
+      _mask = _capacity - 1;
+      _buffer = allocate(_capacity);
+      for (int slot = 0; slot < oldCapacity; slot++) {
+        long offset = (long) slot * SLOT_SIZE;
+        if (oldBuffer.getInt(offset + SEGMENT_ID_OFFSET) != EMPTY_SEGMENT_ID) {
+          int newSlot = find(oldBuffer.getLong(offset + KEY_HIGH_OFFSET), oldBuffer.getLong(offset + KEY_LOW_OFFSET));
+          oldBuffer.copyTo(offset, _buffer, (long) -(newSlot + 1) * SLOT_SIZE, SLOT_SIZE);
+        }
+      }
+      try {
+        oldBuffer.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while closing the buffer for: " + _description, e);
+      }
+    }
+  }
+
+  /**
+   * Consumer of the entries in the map.
+   */
+  public interface EntryConsumer {
+    void accept(long keyHigh, long keyLow, RecordLocation recordLocation);
+  }
+
+  /**
+   * Record location stored in the map.
+   */
+  public static class RecordLocation {
+    private final int _segmentId;
+    private final int _docId;
+    private final long _comparisonValue;
+
+    public RecordLocation(int segmentId, int docId, long comparisonValue) {
+      _segmentId = segmentId;
+      _docId = docId;
+      _comparisonValue = comparisonValue;
+    }
+
+    public int getSegmentId() {
+      return _segmentId;
+    }
+
+    public int getDocId() {
+      return _docId;
+    }
+
+    public long getComparisonValue() {
+      return _comparisonValue;
+    }
+  }
+}
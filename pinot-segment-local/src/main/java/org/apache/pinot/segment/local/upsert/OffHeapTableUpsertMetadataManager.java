@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * Implementation of {@link TableUpsertMetadataManager} that is backed by {@link OffHeapRecordLocationMap}. It can be
+ * enabled by setting the {@code metadataManagerClass} in the upsert config to the name of this class, and the initial
+ * capacity of the primary key map for each partition can be set with {@code initialCapacity} in the
+ * {@code metadataManagerConfigs}.
+ */
+@ThreadSafe
+public class OffHeapTableUpsertMetadataManager extends BaseTableUpsertMetadataManager {
+  public static final String INITIAL_CAPACITY_KEY = "initialCapacity";
+  public static final int DEFAULT_INITIAL_CAPACITY = 64 * 1024;
+
+  private final Map<Integer, OffHeapPartitionUpsertMetadataManager> _partitionMetadataManagerMap =
+      new ConcurrentHashMap<>();
+  private int _initialCapacity = DEFAULT_INITIAL_CAPACITY;
+
+  @Override
+  protected void initCustomVariables() {
+    // Fail fast if the comparison column cannot be stored off-heap
+    OffHeapPartitionUpsertMetadataManager.getComparisonValueType(_context);
+    Map<String, String> metadataManagerConfigs =
+        _context.getTableConfig().getUpsertConfig().getMetadataManagerConfigs();
+    if (metadataManagerConfigs != null && metadataManagerConfigs.containsKey(INITIAL_CAPACITY_KEY)) {
+      _initialCapacity = Integer.parseInt(metadataManagerConfigs.get(INITIAL_CAPACITY_KEY));
+    }
+  }
+
+  @Override
+  public OffHeapPartitionUpsertMetadataManager getOrCreatePartitionManager(int partitionId) {
+    return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
+        k -> new OffHeapPartitionUpsertMetadataManager(_tableNameWithType, k, _context, _initialCapacity));
+  }
+
+  @Override
+  public void stop() {
+    for (OffHeapPartitionUpsertMetadataManager metadataManager : _partitionMetadataManagerMap.values()) {
+      metadataManager.stop();
+    }
+  }
+
+  @Override
+  public Map<Integer, Long> getPartitionToPrimaryKeyCount() {
+    Map<Integer, Long> partitionToPrimaryKeyCount = new HashMap<>();
+    _partitionMetadataManagerMap.forEach(
+        (partitionID, upsertMetadataManager) -> partitionToPrimaryKeyCount.put(partitionID,
+            upsertMetadataManager.getNumPrimaryKeys()));
+    return partitionToPrimaryKeyCount;
+  }
+
+  @Override
+  public void setSegmentContexts(List<SegmentContext> segmentContexts, Map<String, String> queryOptions) {
+    _partitionMetadataManagerMap.forEach(
+        (partitionID, upsertMetadataManager) -> upsertMetadataManager.setSegmentContexts(segmentContexts,
+            queryOptions));
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (OffHeapPartitionUpsertMetadataManager metadataManager : _partitionMetadataManagerMap.values()) {
+      metadataManager.close();
+    }
+  }
+}
@@ -20,7 +20,10 @@ package org.apache.pinot.segment.local.upsert;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.IndexSegment;
@@ -72,6 +75,16 @@ public interface PartitionUpsertMetadataManager extends Closeable {
    */
   void preloadSegments(IndexLoadingConfig indexLoadingConfig);
 
+  /**
+   * Preload segments for the table partition with the segment assignment and segment ZK metadata of the table, which
+   * are read from ZK when not provided. This allows the table to read them once when preloading multiple partitions.
+   */
+  default void preloadSegments(IndexLoadingConfig indexLoadingConfig,
+      @Nullable Map<String, Map<String, String>> segmentAssignment,
+      @Nullable Map<String, SegmentZKMetadata> segmentMetadataMap) {
+    preloadSegments(indexLoadingConfig);
+  }
+
   boolean isPreloading();
 
   /**
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.spi.SegmentContext;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.UpsertConfig;
@@ -41,6 +42,13 @@ public interface TableUpsertMetadataManager extends Closeable {
 
   UpsertConfig.Mode getUpsertMode();
 
+  /**
+   * Preloads the segments of all the partitions hosted by the server for the table. Partitions not preloaded here are
+   * still preloaded individually via {@link PartitionUpsertMetadataManager#preloadSegments(IndexLoadingConfig)}.
+   */
+  default void preloadSegments(IndexLoadingConfig indexLoadingConfig) {
+  }
+
   /**
    * Stops the metadata manager. After invoking this method, no access to the metadata will be accepted.
    */
@@ -0,0 +1,271 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.DateTimeFormatSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPartitionDedupMetadataManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = TableNameBuilder.REALTIME.tableNameWithType(RAW_TABLE_NAME);
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "OffHeapPartitionDedupMetadataManagerTest");
+  private static final File SNAPSHOT_FILE = new File(TEMP_DIR, "snapshot");
+  private static final String DEDUP_TIME_COLUMN = "ts";
+
+  @BeforeMethod
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws IOException {
+    FileUtils.forceDelete(TEMP_DIR);
+  }
+
+  @Test
+  public void testAddRemoveSegment()
+      throws IOException {
+    for (HashFunction hashFunction : new HashFunction[]{HashFunction.NONE, HashFunction.MD5, HashFunction.MURMUR3}) {
+      try (TestMetadataManager metadataManager = new TestMetadataManager(hashFunction, 0, null)) {
+        ImmutableSegmentImpl segment1 = mockSegment(1, "123");
+        metadataManager._primaryKeys = getPrimaryKeys(0, 1, 2, 0, 1, 0);
+        metadataManager.addSegment(segment1);
+        assertEquals(metadataManager._primaryKeyMap.size(), 3);
+        assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment1));
+
+        // Removing a segment that is not added should not remove any key
+        metadataManager.removeSegment(mockSegment(1, "123"));
+        assertEquals(metadataManager._primaryKeyMap.size(), 3);
+
+        metadataManager.removeSegment(segment1);
+        assertEquals(metadataManager._primaryKeyMap.size(), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testAddRow()
+      throws IOException {
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 0, null)) {
+      ImmutableSegmentImpl segment1 = mockSegment(1, "123");
+      metadataManager._primaryKeys = getPrimaryKeys(0, 1, 2);
+      metadataManager.addSegment(segment1);
+
+      MutableSegment segment2 = mock(MutableSegment.class);
+      when(segment2.getSegmentName()).thenReturn(getSegmentName(2));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment2));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+      assertEquals(metadataManager._primaryKeyMap.size(), 4);
+
+      // Commit the consuming segment, and the keys should be owned by the committed segment
+      ImmutableSegmentImpl committedSegment2 = mockSegment(2, "456");
+      metadataManager._primaryKeys = getPrimaryKeys(3);
+      metadataManager.addSegment(committedSegment2);
+      assertEquals(metadataManager._primaryKeyMap.size(), 4);
+      metadataManager._primaryKeys = getPrimaryKeys(3);
+      metadataManager.removeSegment(committedSegment2);
+      assertEquals(metadataManager._primaryKeyMap.size(), 3);
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+    }
+  }
+
+  @Test
+  public void testMetadataTTL()
+      throws IOException {
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 10, null)) {
+      ImmutableSegmentImpl segment1 = mockSegment(1, "123");
+      metadataManager._primaryKeys = getPrimaryKeys(0, 1, 2);
+      metadataManager._dedupTimes = List.of(100L, 105L, 110L);
+      metadataManager.addSegment(segment1);
+      // Expired keys should only be removed on demand instead of when adding the segment
+      assertEquals(metadataManager._primaryKeyMap.size(), 3);
+
+      // The TTL is based on the largest seen record time instead of the wall clock
+      MutableSegment segment2 = mock(MutableSegment.class);
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), getRecord(0, 110), segment2));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), getRecord(0, 112), segment2));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(1), getRecord(1, 112), segment2));
+
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(4), getRecord(4, 116), segment2));
+
+      // Record already out of the TTL should not be treated as duplicate, and should not be tracked
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), getRecord(3, 100), segment2));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), getRecord(3, 100), segment2));
+
+      // Keys 0 (112), 2 (110) and 4 (116) are kept, key 1 (105) is expired
+      metadataManager.removeExpiredPrimaryKeys();
+      assertEquals(metadataManager._primaryKeyMap.size(), 3);
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(2), getRecord(2, 116), segment2));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(1), getRecord(1, 116), segment2));
+    }
+  }
+
+  @Test
+  public void testTakeSnapshot()
+      throws IOException {
+    ImmutableSegmentImpl segment1 = mockSegment(1, "123");
+    ImmutableSegmentImpl segment2 = mockSegment(2, "456");
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 0, SNAPSHOT_FILE)) {
+      metadataManager._primaryKeys = getPrimaryKeys(0, 1, 2);
+      metadataManager.addSegment(segment1);
+      metadataManager._primaryKeys = getPrimaryKeys(3);
+      metadataManager.addSegment(segment2);
+      // Snapshot is taken after commit, so that it is available even if the server is not gracefully shut down
+      metadataManager.takeSnapshot();
+      assertTrue(SNAPSHOT_FILE.exists());
+    }
+
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 0, SNAPSHOT_FILE)) {
+      assertEquals(metadataManager._primaryKeyMap.size(), 4);
+      metadataManager._primaryKeys = getPrimaryKeys();
+      metadataManager.addSegment(mockSegment(1, "123"));
+
+      // Segment 2 is never added, and its keys should be purged once all the segments are added
+      metadataManager.removeExpiredPrimaryKeys();
+      assertEquals(metadataManager._primaryKeyMap.size(), 3);
+      MutableSegment segment3 = mock(MutableSegment.class);
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment3));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment3));
+    }
+  }
+
+  @Test
+  public void testSnapshot()
+      throws IOException {
+    ImmutableSegmentImpl segment1 = mockSegment(1, "123");
+    ImmutableSegmentImpl segment2 = mockSegment(2, "456");
+    MutableSegment segment3 = mock(MutableSegment.class);
+    when(segment3.getSegmentName()).thenReturn(getSegmentName(3));
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 0, SNAPSHOT_FILE)) {
+      metadataManager._primaryKeys = getPrimaryKeys(0, 1, 2);
+      metadataManager.addSegment(segment1);
+      metadataManager._primaryKeys = getPrimaryKeys(3, 4);
+      metadataManager.addSegment(segment2);
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(5), segment3));
+      metadataManager.stop();
+      assertTrue(SNAPSHOT_FILE.exists());
+
+      // Segments should not be removed after the manager is stopped
+      metadataManager.removeSegment(segment1);
+      assertEquals(metadataManager._primaryKeyMap.size(), 6);
+    }
+
+    try (TestMetadataManager metadataManager = new TestMetadataManager(HashFunction.NONE, 0, SNAPSHOT_FILE)) {
+      assertFalse(SNAPSHOT_FILE.exists());
+      // Keys of the consuming segment should not be persisted
+      assertEquals(metadataManager._primaryKeyMap.size(), 5);
+
+      // Unchanged segment should be bound to the loaded keys without reading the primary keys
+      metadataManager._primaryKeys = getPrimaryKeys();
+      metadataManager.addSegment(mockSegment(1, "123"));
+      assertEquals(metadataManager._primaryKeyMap.size(), 5);
+
+      // Keys of the changed segment should be replaced
+      metadataManager._primaryKeys = getPrimaryKeys(3, 6);
+      metadataManager.addSegment(mockSegment(2, "789"));
+      assertEquals(metadataManager._primaryKeyMap.size(), 5);
+      MutableSegment segment4 = mock(MutableSegment.class);
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment4));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(6), segment4));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(4), segment4));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(5), segment4));
+    }
+  }
+
+  private static ImmutableSegmentImpl mockSegment(int sequenceNumber, String crc) {
+    ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
+    when(segment.getSegmentName()).thenReturn(getSegmentName(sequenceNumber));
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return segment;
+  }
+
+  private static String getSegmentName(int sequenceNumber) {
+    return new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, 0L).toString();
+  }
+
+  private static PrimaryKey getPrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+
+  private static GenericRow getRecord(int primaryKey, long dedupTimeMs) {
+    GenericRow record = new GenericRow();
+    record.putValue("pk", primaryKey);
+    record.putValue(DEDUP_TIME_COLUMN, dedupTimeMs);
+    return record;
+  }
+
+  private static List<PrimaryKey> getPrimaryKeys(int... values) {
+    List<PrimaryKey> primaryKeys = new ArrayList<>(values.length);
+    for (int value : values) {
+      primaryKeys.add(getPrimaryKey(value));
+    }
+    return primaryKeys;
+  }
+
+  private static class TestMetadataManager extends OffHeapPartitionDedupMetadataManager {
+    List<PrimaryKey> _primaryKeys;
+    List<Long> _dedupTimes;
+
+    TestMetadataManager(HashFunction hashFunction, long metadataTTLMs, File snapshotFile) {
+      super(REALTIME_TABLE_NAME, null, 0, mock(ServerMetrics.class), hashFunction, 16, metadataTTLMs,
+          DEDUP_TIME_COLUMN, new DateTimeFormatSpec("1:MILLISECONDS:EPOCH"), snapshotFile);
+    }
+
+    @Override
+    Iterator<PrimaryKey> getPrimaryKeyIterator(IndexSegment segment) {
+      return _primaryKeys.iterator();
+    }
+
+    @Override
+    Iterator<?> getDedupTimeIterator(IndexSegment segment) {
+      return _dedupTimes != null ? _dedupTimes.iterator() : null;
+    }
+  }
+}
@@ -21,11 +21,16 @@ package org.apache.pinot.segment.local.indexsegment.mutable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.segment.local.segment.creator.SegmentTestUtils;
 import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
 import org.apache.pinot.segment.local.segment.virtualcolumn.VirtualColumnProviderFactory;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
@@ -36,6 +41,7 @@ import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.FileFormat;
@@ -45,12 +51,15 @@ import org.apache.pinot.spi.data.readers.RecordReaderFactory;
 import org.apache.pinot.spi.stream.StreamMessageMetadata;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.ReadMode;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 
 
 @SuppressWarnings({"rawtypes", "unchecked"})
@@ -202,6 +211,125 @@ public class MutableSegmentImplTest {
     }
   }
 
+  @Test
+  public void testBatchIndexing()
+      throws Exception {
+    URL resourceUrl = MutableSegmentImplTest.class.getClassLoader().getResource(AVRO_FILE);
+    Assert.assertNotNull(resourceUrl);
+    File avroFile = new File(resourceUrl.getFile());
+
+    // Index the raw metric columns without dictionary, and put inverted index on the single-value dimension columns
+    Set<String> noDictionaryColumns = new HashSet<>();
+    Set<String> invertedIndexColumns = new HashSet<>();
+    for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+      if (fieldSpec.isVirtualColumn() || !fieldSpec.isSingleValueField()) {
+        continue;
+      }
+      if (fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC) {
+        noDictionaryColumns.add(fieldSpec.getName());
+      } else {
+        invertedIndexColumns.add(fieldSpec.getName());
+      }
+    }
+    MutableSegmentImpl batchMutableSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(_schema, noDictionaryColumns, Collections.emptySet(),
+            invertedIndexColumns, false);
+    StreamMessageMetadata defaultMetadata = new StreamMessageMetadata(_lastIngestionTimeMs, new GenericRow());
+    try (RecordReader recordReader = RecordReaderFactory.getRecordReader(FileFormat.AVRO, avroFile,
+        _schema.getColumnNames(), null)) {
+      List<GenericRow> batch = new ArrayList<>();
+      while (recordReader.hasNext()) {
+        batch.add(recordReader.next());
+        if (batch.size() == 97) {
+          assertTrue(batchMutableSegment.index(batch, defaultMetadata));
+          batch.clear();
+        }
+      }
+      batchMutableSegment.index(batch, defaultMetadata);
+    }
+
+    try {
+      int numDocs = _mutableSegmentImpl.getNumDocsIndexed();
+      assertEquals(batchMutableSegment.getNumDocsIndexed(), numDocs);
+      assertEquals(batchMutableSegment.getSegmentMetadata().getLatestIngestionTimestamp(), _lastIngestionTimeMs);
+      for (FieldSpec fieldSpec : _schema.getAllFieldSpecs()) {
+        String column = fieldSpec.getName();
+        if (fieldSpec.isVirtualColumn()) {
+          continue;
+        }
+        DataSource actualDataSource = batchMutableSegment.getDataSource(column);
+        DataSource expectedDataSource = _mutableSegmentImpl.getDataSource(column);
+        DataSourceMetadata actualMetadata = actualDataSource.getDataSourceMetadata();
+        DataSourceMetadata expectedMetadata = expectedDataSource.getDataSourceMetadata();
+        assertEquals(actualMetadata.getNumDocs(), numDocs);
+        assertEquals(actualMetadata.getMinValue(), expectedMetadata.getMinValue());
+        assertEquals(actualMetadata.getMaxValue(), expectedMetadata.getMaxValue());
+        if (!fieldSpec.isSingleValueField()) {
+          assertEquals(actualMetadata.getMaxNumValuesPerMVEntry(), expectedMetadata.getMaxNumValuesPerMVEntry());
+        }
+
+        try (PinotSegmentColumnReader actualReader = new PinotSegmentColumnReader(batchMutableSegment, column);
+            PinotSegmentColumnReader expectedReader = new PinotSegmentColumnReader(_mutableSegmentImpl, column)) {
+          for (int docId = 0; docId < numDocs; docId++) {
+            Object actualValue = actualReader.getValue(docId);
+            Object expectedValue = expectedReader.getValue(docId);
+            if (fieldSpec.isSingleValueField()) {
+              assertEquals(actualValue, expectedValue);
+            } else {
+              assertEquals((Object[]) actualValue, (Object[]) expectedValue);
+            }
+            if (invertedIndexColumns.contains(column)) {
+              InvertedIndexReader invertedIndex = actualDataSource.getInvertedIndex();
+              int dictId = actualDataSource.getForwardIndex().getDictId(docId, null);
+              assertTrue(((MutableRoaringBitmap) invertedIndex.getDocIds(dictId)).contains(docId));
+            }
+          }
+        }
+      }
+    } finally {
+      batchMutableSegment.destroy();
+    }
+  }
+
+  @Test
+  public void testBatchIndexingWithInvalidValue()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension("stringColumn", FieldSpec.DataType.STRING)
+        .addSingleValueDimension("intColumn", FieldSpec.DataType.INT).build();
+    MutableSegmentImpl mutableSegment =
+        MutableSegmentImplTestUtils.createMutableSegmentImpl(schema, Collections.emptySet(), Collections.emptySet(),
+            Collections.emptySet(), false);
+    try {
+      // The invalid value of the second record fails the dictionary insert, and the batch should be indexed with the
+      // row-at-a-time path, which indexes the first record into all the columns before failing
+      List<GenericRow> batch = List.of(getRow("a", 1), getRow("b", "invalid"), getRow("c", 3));
+      expectThrows(ClassCastException.class, () -> mutableSegment.index(batch, null));
+      assertEquals(mutableSegment.getNumDocsIndexed(), 1);
+
+      assertTrue(mutableSegment.index(List.of(getRow("d", 4), getRow("e", 5)), null));
+      int numDocs = mutableSegment.getNumDocsIndexed();
+      assertEquals(numDocs, 3);
+      Object[][] expectedValues = new Object[][]{{"a", 1}, {"d", 4}, {"e", 5}};
+      try (PinotSegmentColumnReader stringReader = new PinotSegmentColumnReader(mutableSegment, "stringColumn");
+          PinotSegmentColumnReader intReader = new PinotSegmentColumnReader(mutableSegment, "intColumn")) {
+        for (int docId = 0; docId < numDocs; docId++) {
+          assertEquals(stringReader.getValue(docId), expectedValues[docId][0]);
+          assertEquals(intReader.getValue(docId), expectedValues[docId][1]);
+        }
+      }
+    } finally {
+      mutableSegment.destroy();
+    }
+  }
+
+  private static GenericRow getRow(String stringValue, Object intValue) {
+    GenericRow row = new GenericRow();
+    row.putValue("stringColumn", stringValue);
+    row.putValue("intColumn", intValue);
+    return row;
+  }
+
   @AfterClass
   public void tearDown() {
     FileUtils.deleteQuietly(TEMP_DIR);
@@ -684,6 +684,60 @@ public class RecordTransformerTest {
     }
   }
 
+  @Test
+  public void testFusedColumnTransformer() {
+    IngestionConfig ingestionConfig = new IngestionConfig();
+    ingestionConfig.setFusedColumnTransformEnabled(true);
+    TableConfig tableConfig =
+        new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").setIngestionConfig(ingestionConfig).build();
+    List<RecordTransformer> transformers = CompositeTransformer.getDefaultTransformers(tableConfig, SCHEMA);
+    assertEquals(transformers.size(), 1);
+    assertTrue(transformers.get(0) instanceof FusedColumnTransformer);
+
+    // Fused transformer should give the same result as applying the transformers one after the other
+    RecordTransformer fusedTransformer = new CompositeTransformer(transformers);
+    RecordTransformer defaultTransformer = CompositeTransformer.getDefaultTransformer(TABLE_CONFIG, SCHEMA);
+    GenericRow fusedRecord = getRecord();
+    GenericRow expectedRecord = getRecord();
+    for (int i = 0; i < NUM_ROUNDS; i++) {
+      fusedRecord = fusedTransformer.transform(fusedRecord);
+      expectedRecord = defaultTransformer.transform(expectedRecord);
+      assertEquals(fusedRecord, expectedRecord);
+    }
+    fusedRecord = fusedTransformer.transform(new GenericRow());
+    expectedRecord = defaultTransformer.transform(new GenericRow());
+    assertEquals(fusedRecord, expectedRecord);
+    validateNullValueFields(fusedRecord);
+
+    // Invalid time value with time value check and continue on error enabled
+    String timeCol = "timeCol";
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension("svInt", DataType.INT)
+        .addSingleValueDimension("svString", DataType.STRING)
+        .addDateTime(timeCol, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS").build();
+    // Use a valid default time so that both transformers fill the same value
+    schema.getFieldSpecFor(timeCol).setDefaultNullValue(1_600_000_000_000L);
+    ingestionConfig.setRowTimeValueCheck(true);
+    ingestionConfig.setContinueOnError(true);
+    tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable").setTimeColumnName(timeCol)
+        .setIngestionConfig(ingestionConfig).build();
+    fusedTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
+    ingestionConfig.setFusedColumnTransformEnabled(false);
+    defaultTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
+    fusedRecord = new GenericRow();
+    fusedRecord.putValue("svInt", "abc");
+    fusedRecord.putValue("svString", 123);
+    fusedRecord.putValue(timeCol, "1");
+    expectedRecord = fusedRecord.copy();
+    fusedRecord = fusedTransformer.transform(fusedRecord);
+    expectedRecord = defaultTransformer.transform(expectedRecord);
+    assertEquals(fusedRecord, expectedRecord);
+    assertEquals(fusedRecord.getValue(GenericRow.INCOMPLETE_RECORD_KEY), true);
+    assertTrue(fusedRecord.isNullValue("svInt"));
+    assertTrue(fusedRecord.isNullValue(timeCol));
+    assertEquals(fusedRecord.getValue(timeCol), 1_600_000_000_000L);
+    assertEquals(fusedRecord.getValue("svString"), "123");
+  }
+
   @Test
   public void testPassThroughTransformer() {
     RecordTransformer transformer = CompositeTransformer.getPassThroughTransformer();
@@ -21,11 +21,16 @@ package org.apache.pinot.segment.local.segment.creator.impl;
 import com.google.common.collect.ImmutableList;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.V1Constants.MetadataKeys.Column;
@@ -127,6 +132,88 @@ public class SegmentColumnarIndexCreatorTest {
     }
   }
 
+  @Test
+  public void testParallelSegmentCreation()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension("intDim", DataType.INT)
+        .addSingleValueDimension("stringDim", DataType.STRING).addMultiValueDimension("mvDim", DataType.LONG)
+        .addMetric("rawMetric", DataType.DOUBLE).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("test")
+        .setInvertedIndexColumns(List.of("intDim")).setRangeIndexColumns(List.of("stringDim"))
+        .setNoDictionaryColumns(List.of("rawMetric")).setNullHandlingEnabled(true).build();
+
+    Random random = new Random(42);
+    List<GenericRow> rows = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue("intDim", random.nextInt(10) == 0 ? null : random.nextInt(100));
+      row.putValue("stringDim", "value-" + random.nextInt(50));
+      row.putValue("mvDim", new Object[]{(long) random.nextInt(20), (long) random.nextInt(20)});
+      row.putValue("rawMetric", random.nextDouble());
+      rows.add(row);
+    }
+
+    File sequentialDir = createSegment(tableConfig, schema, rows, "sequential", 1);
+    // Use a batch size which does not divide the number of rows to also cover the last partial batch
+    File parallelDir = createSegment(tableConfig, schema, rows, "parallel", 4);
+    try {
+      SegmentMetadata sequentialMetadata = ImmutableSegmentLoader.load(sequentialDir, ReadMode.heap)
+          .getSegmentMetadata();
+      SegmentMetadata parallelMetadata = ImmutableSegmentLoader.load(parallelDir, ReadMode.heap).getSegmentMetadata();
+      assertEquals(parallelMetadata.getTotalDocs(), sequentialMetadata.getTotalDocs());
+      for (String column : schema.getColumnNames()) {
+        ColumnMetadata sequentialColumn = sequentialMetadata.getColumnMetadataFor(column);
+        ColumnMetadata parallelColumn = parallelMetadata.getColumnMetadataFor(column);
+        assertEquals(parallelColumn.getCardinality(), sequentialColumn.getCardinality());
+        assertEquals(parallelColumn.getMinValue(), sequentialColumn.getMinValue());
+        assertEquals(parallelColumn.getMaxValue(), sequentialColumn.getMaxValue());
+        assertEquals(parallelColumn.isSorted(), sequentialColumn.isSorted());
+        assertEquals(parallelColumn.hasDictionary(), sequentialColumn.hasDictionary());
+        assertEquals(parallelColumn.getTotalNumberOfEntries(), sequentialColumn.getTotalNumberOfEntries());
+      }
+
+      try (PinotSegmentRecordReader sequentialReader = new PinotSegmentRecordReader(sequentialDir);
+          PinotSegmentRecordReader parallelReader = new PinotSegmentRecordReader(parallelDir)) {
+        while (sequentialReader.hasNext()) {
+          assertTrue(parallelReader.hasNext());
+          GenericRow sequentialRow = sequentialReader.next();
+          GenericRow parallelRow = parallelReader.next();
+          assertEquals(parallelRow.getNullValueFields(), sequentialRow.getNullValueFields());
+          for (String column : schema.getColumnNames()) {
+            Object sequentialValue = sequentialRow.getValue(column);
+            Object parallelValue = parallelRow.getValue(column);
+            if (sequentialValue instanceof Object[]) {
+              assertTrue(Arrays.equals((Object[]) parallelValue, (Object[]) sequentialValue));
+            } else {
+              assertEquals(parallelValue, sequentialValue);
+            }
+          }
+        }
+        assertFalse(parallelReader.hasNext());
+      }
+    } finally {
+      FileUtils.deleteQuietly(sequentialDir.getParentFile());
+      FileUtils.deleteQuietly(parallelDir.getParentFile());
+    }
+  }
+
+  private static File createSegment(TableConfig tableConfig, Schema schema, List<GenericRow> rows, String segmentName,
+      int parallelism)
+      throws Exception {
+    File outDir = new File(TEMP_DIR, segmentName);
+    FileUtils.deleteQuietly(outDir);
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(outDir.getAbsolutePath());
+    config.setSegmentName(segmentName);
+    config.setSegmentCreationParallelism(parallelism);
+    config.setSegmentCreationBatchSize(64);
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    return new File(outDir, segmentName);
+  }
+
   @AfterClass
   public void tearDown()
       throws IOException {
@@ -25,6 +25,7 @@ import java.util.Random;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.io.util.PinotDataBitSetV2;
 import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -43,6 +44,9 @@ public class FixedBitSVForwardIndexReaderV2Test {
   private final int[][] _sequentialDocIds = new int[32][NUM_DOC_IDS];
   private final int[] _sparseDocIds = new int[NUM_DOC_IDS];
   private final int[] _lastSequentialDocIds = new int[NUM_DOC_IDS];
+  // Near-dense doc ids (about 67% of the docs in the range) which are read with bulk decode and gather
+  private final int[] _denseDocIds = new int[NUM_DOC_IDS];
+  private final int[] _lastDenseDocIds = new int[NUM_DOC_IDS];
 
   @BeforeClass
   public void setUp()
@@ -63,6 +67,15 @@ public class FixedBitSVForwardIndexReaderV2Test {
       sparseDocId += 5 + RANDOM.nextInt(6);
       _lastSequentialDocIds[i] = NUM_VALUES - NUM_DOC_IDS + i;
     }
+
+    int denseDocId = RANDOM.nextInt(10);
+    int lastDenseDocId = NUM_VALUES - 1;
+    for (int i = 0; i < NUM_DOC_IDS; i++) {
+      _denseDocIds[i] = denseDocId;
+      denseDocId += 1 + RANDOM.nextInt(2);
+      _lastDenseDocIds[NUM_DOC_IDS - 1 - i] = lastDenseDocId;
+      lastDenseDocId -= 1 + RANDOM.nextInt(2);
+    }
   }
 
   @AfterClass
@@ -107,6 +120,14 @@ public class FixedBitSVForwardIndexReaderV2Test {
         for (int i = 0; i < NUM_DOC_IDS; i++) {
           Assert.assertEquals(dictIdBuffer[i], values[_lastSequentialDocIds[i]]);
         }
+        try (ForwardIndexReaderContext context = reader.createContext()) {
+          for (int[] docIds : new int[][]{_denseDocIds, _lastDenseDocIds, _sparseDocIds, _sequentialDocIds[1]}) {
+            reader.readDictIds(docIds, NUM_DOC_IDS, dictIdBuffer, context);
+            for (int i = 0; i < NUM_DOC_IDS; i++) {
+              Assert.assertEquals(dictIdBuffer[i], values[docIds[i]]);
+            }
+          }
+        }
       }
 
       // Byte range test
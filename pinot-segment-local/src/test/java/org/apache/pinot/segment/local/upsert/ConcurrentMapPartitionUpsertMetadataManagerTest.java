@@ -873,11 +873,45 @@ public class ConcurrentMapPartitionUpsertMetadataManagerTest {
 
     // segment1: 0 -> {0, 100}, 1 -> {1, 120}, 2 -> {2, 100}
     // segment2: 0 -> {0, 1}, 1 -> {1, 2}
-    // segment2 was preloaded, so new locations got put in tracking map w/o checking on comparison values.
-    checkRecordLocation(recordLocationMap, 0, segment2, 0, 1, hashFunction);
-    checkRecordLocation(recordLocationMap, 1, segment2, 1, 2, hashFunction);
+    // Conflicts are resolved by the comparison value regardless of the preloading order
+    checkRecordLocation(recordLocationMap, 0, segment1, 0, 100, hashFunction);
+    checkRecordLocation(recordLocationMap, 1, segment1, 1, 120, hashFunction);
     checkRecordLocation(recordLocationMap, 2, segment1, 2, 100, hashFunction);
     assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1, 2});
+    assertTrue(validDocIds2.getMutableRoaringBitmap().isEmpty());
+
+    // Add the 3rd segment
+    // segment3: 0 -> {0, 100}, 1 -> {1, 150}
+    primaryKeys = new int[]{0, 1};
+    timestamps = new int[]{100, 150};
+    ThreadSafeMutableRoaringBitmap validDocIds3 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment3 =
+        mockImmutableSegment(3, validDocIds3, null, getPrimaryKeyList(numRecords, primaryKeys));
+    upsertMetadataManager.doPreloadSegment(segment3, validDocIds3, null,
+        getRecordInfoList(numRecords, primaryKeys, timestamps, null).iterator());
+
+    // segment1: 2 -> {2, 100}
+    // segment3: 0 -> {0, 100}, 1 -> {1, 150}
+    // Tie on the comparison value is resolved by the segment sequence number
+    checkRecordLocation(recordLocationMap, 0, segment3, 0, 100, hashFunction);
+    checkRecordLocation(recordLocationMap, 1, segment3, 1, 150, hashFunction);
+    checkRecordLocation(recordLocationMap, 2, segment1, 2, 100, hashFunction);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{2});
+    assertTrue(validDocIds2.getMutableRoaringBitmap().isEmpty());
+    assertEquals(validDocIds3.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+  }
+
+  @Test
+  public void testShouldReplaceOnPreload() {
+    String segmentName1 = getSegmentName(1);
+    String segmentName2 = getSegmentName(2);
+    assertTrue(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(1, segmentName1, segmentName2));
+    assertFalse(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(-1, segmentName2, segmentName1));
+    assertTrue(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(0, segmentName2, segmentName1));
+    assertFalse(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(0, segmentName1, segmentName2));
+    // Non-LLC segments are ordered by the segment name
+    assertTrue(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(0, "uploaded_2", "uploaded_1"));
+    assertFalse(BasePartitionUpsertMetadataManager.shouldReplaceOnPreload(0, "uploaded_1", "uploaded_2"));
   }
 
   @Test
@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPartitionUpsertMetadataManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = TableNameBuilder.REALTIME.tableNameWithType(RAW_TABLE_NAME);
+  private static final List<String> PRIMARY_KEY_COLUMNS = Collections.singletonList("pk");
+  private static final List<String> COMPARISON_COLUMNS = Collections.singletonList("timeCol");
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "OffHeapPartitionUpsertMetadataManagerTest");
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+    ServerMetrics.register(mock(ServerMetrics.class));
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.forceDelete(INDEX_DIR);
+  }
+
+  private static UpsertContext getContext(DataType comparisonColumnType, HashFunction hashFunction) {
+    return getContext(comparisonColumnType, hashFunction, false);
+  }
+
+  private static UpsertContext getContext(DataType comparisonColumnType, HashFunction hashFunction,
+      boolean enableSnapshot) {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension("pk", DataType.INT)
+        .addField(new DimensionFieldSpec("timeCol", comparisonColumnType, true))
+        .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS).build();
+    return new UpsertContext.Builder().setTableConfig(mock(TableConfig.class)).setSchema(schema)
+        .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS).setComparisonColumns(COMPARISON_COLUMNS)
+        .setHashFunction(hashFunction).setEnableSnapshot(enableSnapshot).setTableIndexDir(INDEX_DIR).build();
+  }
+
+  private static MutableSegment mockMutableSegment(int sequenceNumber, ThreadSafeMutableRoaringBitmap validDocIds) {
+    MutableSegment segment = mock(MutableSegment.class);
+    when(segment.getSegmentName()).thenReturn(
+        new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, System.currentTimeMillis()).toString());
+    when(segment.getValidDocIds()).thenReturn(validDocIds);
+    return segment;
+  }
+
+  private static ImmutableSegmentImpl mockImmutableSegment(int sequenceNumber, String crc,
+      ThreadSafeMutableRoaringBitmap validDocIds) {
+    ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
+    when(segment.getSegmentName()).thenReturn(new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, 0L).toString());
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(segment.getValidDocIds()).thenReturn(validDocIds);
+    when(segment.hasValidDocIdsSnapshotFile()).thenReturn(true);
+    when(segment.loadValidDocIdsFromSnapshot()).thenReturn(validDocIds.getMutableRoaringBitmap().clone());
+    return segment;
+  }
+
+  private static PrimaryKey makePrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+
+  @Test
+  public void testAddRecord()
+      throws IOException {
+    verifyAddRecord(DataType.LONG, HashFunction.NONE, 100L, 120L);
+    verifyAddRecord(DataType.INT, HashFunction.MD5, 100, 120);
+    verifyAddRecord(DataType.DOUBLE, HashFunction.MURMUR3, -1.5, 1.5);
+  }
+
+  private void verifyAddRecord(DataType comparisonColumnType, HashFunction hashFunction, Comparable smallerValue,
+      Comparable largerValue)
+      throws IOException {
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(comparisonColumnType,
+            hashFunction), 16);
+
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    MutableSegment segment1 = mockMutableSegment(1, validDocIds1);
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    MutableSegment segment2 = mockMutableSegment(2, validDocIds2);
+
+    // segment1: 0 -> {0, smaller}, 1 -> {1, larger}
+    assertTrue(upsertMetadataManager.addRecord(segment1, new RecordInfo(makePrimaryKey(0), 0, smallerValue, false)));
+    assertTrue(upsertMetadataManager.addRecord(segment1, new RecordInfo(makePrimaryKey(1), 1, largerValue, false)));
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 2);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 1});
+
+    // Same comparison value in the new segment should replace the record
+    // segment1: 1 -> {1, larger}
+    // segment2: 0 -> {0, smaller}
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(0), 0, smallerValue, false)));
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
+
+    // Out-of-order record should be skipped
+    assertFalse(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(1), 1, smallerValue, false)));
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{1});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
+
+    // Newer record in the same segment should replace the record
+    // segment2: 0 -> {2, larger}, 1 -> {3, larger}
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(0), 2, largerValue, false)));
+    assertTrue(upsertMetadataManager.addRecord(segment2, new RecordInfo(makePrimaryKey(1), 3, largerValue, false)));
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 2);
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[0]);
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{2, 3});
+
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testRecordLocationSnapshot()
+      throws IOException {
+    File snapshotFile = new File(INDEX_DIR, V1Constants.UPSERT_RECORD_LOCATION_SNAPSHOT_TABLE_PARTITION + 0);
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(DataType.LONG, HashFunction.NONE,
+            true), 16);
+
+    // segment1: 0 -> {0, 100}, 2 -> {2, 100}
+    // segment2: 1 -> {0, 200}
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment1 = mockImmutableSegment(1, "1", validDocIds1);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null,
+        Arrays.asList(new RecordInfo(makePrimaryKey(0), 0, 100L, false),
+            new RecordInfo(makePrimaryKey(1), 1, 100L, false), new RecordInfo(makePrimaryKey(2), 2, 100L, false))
+            .iterator());
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment2 = mockImmutableSegment(2, "2", validDocIds2);
+    upsertMetadataManager.addSegment(segment2, validDocIds2, null,
+        Collections.singletonList(new RecordInfo(makePrimaryKey(1), 0, 200L, false)).iterator());
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0, 2});
+    assertEquals(validDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
+    upsertMetadataManager._trackedSegments.add(segment1);
+    upsertMetadataManager._trackedSegments.add(segment2);
+
+    // Record locations of the consuming segment should not be persisted
+    MutableSegment segment3 = mockMutableSegment(3, new ThreadSafeMutableRoaringBitmap());
+    upsertMetadataManager.addRecord(segment3, new RecordInfo(makePrimaryKey(3), 0, 300L, false));
+    upsertMetadataManager.doTakeSnapshot();
+    assertTrue(snapshotFile.exists());
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(DataType.LONG, HashFunction.NONE,
+            true), 16);
+    assertFalse(snapshotFile.exists());
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 3);
+
+    // Replay a segment committed after the snapshot before the snapshot segments are added
+    // segment4: 0 -> {0, 150}
+    ThreadSafeMutableRoaringBitmap validDocIds4 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment4 = mockImmutableSegment(4, "4", validDocIds4);
+    upsertMetadataManager.addSegment(segment4, validDocIds4, null,
+        Arrays.asList(new RecordInfo(makePrimaryKey(0), 0, 150L, false),
+            new RecordInfo(makePrimaryKey(1), 1, 50L, false)).iterator());
+    assertEquals(validDocIds4.getMutableRoaringBitmap().toArray(), new int[]{0});
+
+    // segment1 should be added from the snapshot with the doc invalidated by segment4 removed
+    segment1 = mockImmutableSegment(1, "1", validDocIds1);
+    upsertMetadataManager.doAddSegment(segment1);
+    ArgumentCaptor<ThreadSafeMutableRoaringBitmap> validDocIdsCaptor =
+        ArgumentCaptor.forClass(ThreadSafeMutableRoaringBitmap.class);
+    verify(segment1).enableUpsert(eq(upsertMetadataManager), validDocIdsCaptor.capture(), any());
+    assertEquals(validDocIdsCaptor.getValue().getMutableRoaringBitmap().toArray(), new int[]{2});
+
+    // segment2 is changed since the snapshot, and its record locations should be dropped
+    segment2 = mockImmutableSegment(2, "changed", new ThreadSafeMutableRoaringBitmap());
+    upsertMetadataManager.doAddSegment(segment2);
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 2);
+    ThreadSafeMutableRoaringBitmap validDocIds5 = new ThreadSafeMutableRoaringBitmap();
+    MutableSegment segment5 = mockMutableSegment(5, validDocIds5);
+    assertTrue(upsertMetadataManager.addRecord(segment5, new RecordInfo(makePrimaryKey(1), 0, 10L, false)));
+    assertEquals(validDocIds5.getMutableRoaringBitmap().toArray(), new int[]{0});
+
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testDropUnclaimedSnapshotSegmentsAfterPreload()
+      throws Exception {
+    FileUtils.deleteQuietly(new File(INDEX_DIR, V1Constants.UPSERT_RECORD_LOCATION_SNAPSHOT_TABLE_PARTITION + 0));
+    OffHeapPartitionUpsertMetadataManager upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(DataType.LONG, HashFunction.NONE,
+            true), 16);
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ImmutableSegmentImpl segment1 = mockImmutableSegment(1, "1", validDocIds1);
+    upsertMetadataManager.addSegment(segment1, validDocIds1, null,
+        Arrays.asList(new RecordInfo(makePrimaryKey(0), 0, 100L, false),
+            new RecordInfo(makePrimaryKey(1), 1, 100L, false)).iterator());
+    upsertMetadataManager._trackedSegments.add(segment1);
+    upsertMetadataManager.doTakeSnapshot();
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+
+    upsertMetadataManager =
+        new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(DataType.LONG, HashFunction.NONE,
+            true), 16);
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 2);
+
+    // segment1 is no longer assigned to the server, so it is not preloaded and its record locations should be dropped
+    TableDataManager tableDataManager = mock(TableDataManager.class, RETURNS_DEEP_STUBS);
+    when(tableDataManager.getInstanceDataManagerConfig().getInstanceId()).thenReturn("server_0");
+    upsertMetadataManager.doPreloadSegments(tableDataManager, mock(IndexLoadingConfig.class), null, null,
+        Collections.emptyMap(), Collections.emptyMap());
+    assertEquals(upsertMetadataManager.getNumPrimaryKeys(), 0);
+
+    upsertMetadataManager.stop();
+    upsertMetadataManager.close();
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnsupportedComparisonColumn() {
+    new OffHeapPartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, getContext(DataType.STRING, HashFunction.NONE),
+        16);
+  }
+}
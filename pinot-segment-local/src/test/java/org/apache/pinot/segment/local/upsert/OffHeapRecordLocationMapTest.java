@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.apache.pinot.segment.local.upsert.OffHeapRecordLocationMap.RecordLocation;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class OffHeapRecordLocationMapTest {
+  private static final int NUM_KEYS = 10_000;
+  // Spread the keys across the stripes with the high bits, and use the sequential low bits to get long probe chains
+  private static final long KEY_HIGH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  @Test
+  public void testComputeAndRemove()
+      throws IOException {
+    Random random = new Random();
+    // Use small key space to get collisions on the slots, and small initial capacity to trigger resizing
+    Map<Long, RecordLocation> expectedMap = new HashMap<>();
+    try (OffHeapRecordLocationMap map = new OffHeapRecordLocationMap(16, "testMap")) {
+      for (int i = 0; i < 100_000; i++) {
+        long key = random.nextInt(NUM_KEYS);
+        int operation = random.nextInt(3);
+        if (operation == 2) {
+          // Remove
+          map.compute(key * KEY_HIGH_MULTIPLIER, key, current -> null);
+          expectedMap.remove(key);
+        } else {
+          RecordLocation recordLocation = new RecordLocation(random.nextInt(10) + 1, i, random.nextLong());
+          map.compute(key * KEY_HIGH_MULTIPLIER, key, current -> recordLocation);
+          expectedMap.put(key, recordLocation);
+        }
+      }
+      verify(map, expectedMap);
+
+      // Keep the current record location
+      for (long key = 0; key < NUM_KEYS; key++) {
+        map.compute(key * KEY_HIGH_MULTIPLIER, key, current -> current);
+      }
+      verify(map, expectedMap);
+
+      // Remove all the record locations from segment 1
+      map.removeIf(recordLocation -> recordLocation.getSegmentId() == 1);
+      expectedMap.values().removeIf(recordLocation -> recordLocation.getSegmentId() == 1);
+      verify(map, expectedMap);
+
+      map.removeIf(recordLocation -> true);
+      assertEquals(map.size(), 0);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidSegmentId()
+      throws IOException {
+    try (OffHeapRecordLocationMap map = new OffHeapRecordLocationMap(16, "testMap")) {
+      map.put(0, 0, new RecordLocation(OffHeapRecordLocationMap.EMPTY_SEGMENT_ID, 0, 0));
+    }
+  }
+
+  private static void verify(OffHeapRecordLocationMap map, Map<Long, RecordLocation> expectedMap) {
+    assertEquals(map.size(), expectedMap.size());
+    for (long key = 0; key < NUM_KEYS; key++) {
+      RecordLocation expected = expectedMap.get(key);
+      RecordLocation actual = map.get(key * KEY_HIGH_MULTIPLIER, key);
+      if (expected == null) {
+        assertNull(actual);
+      } else {
+        assertNotNull(actual);
+        assertEquals(actual.getSegmentId(), expected.getSegmentId());
+        assertEquals(actual.getDocId(), expected.getDocId());
+        assertEquals(actual.getComparisonValue(), expected.getComparisonValue());
+      }
+    }
+  }
+}
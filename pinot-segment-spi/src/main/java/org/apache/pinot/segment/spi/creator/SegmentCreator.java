@@ -22,6 +22,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.List;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration2.ex.ConfigurationException;
@@ -58,6 +59,19 @@ public interface SegmentCreator extends Closeable, Serializable {
   void indexRow(GenericRow row)
       throws IOException;
 
+  /**
+   * Adds a batch of rows to the index, in order. The rows are not reused by the caller, so the implementation may
+   * process them column by column instead of row by row.
+   *
+   * @param rows The rows to index.
+   */
+  default void indexRows(List<GenericRow> rows)
+      throws IOException {
+    for (GenericRow row : rows) {
+      indexRow(row);
+    }
+  }
+
   /**
    * Adds a column to the index.
    *
@@ -77,6 +77,7 @@ public class SegmentGeneratorConfig implements Serializable {
   }
 
   public static final String GENERATE_INV_BEFORE_PUSH_DEPREC_PROP = "generate.inverted.index.before.push";
+  public static final int DEFAULT_SEGMENT_CREATION_BATCH_SIZE = 10_000;
   private final TableConfig _tableConfig;
   // NOTE: Use TreeMap to guarantee the order. The custom properties will be written into the segment metadata.
   private final TreeMap<String, String> _customProperties = new TreeMap<>();
@@ -121,6 +122,10 @@ public class SegmentGeneratorConfig implements Serializable {
   private boolean _optimizeDictionaryForMetrics = false;
   private double _noDictionarySizeRatioThreshold = IndexingConfig.DEFAULT_NO_DICTIONARY_SIZE_RATIO_THRESHOLD;
   private boolean _realtimeConversion = false;
+  // Number of threads used to collect stats and create indexes concurrently across columns (1 means single-threaded)
+  private int _segmentCreationParallelism = 1;
+  // Number of rows buffered on heap and handed to the column threads at once when parallelism is enabled
+  private int _segmentCreationBatchSize = DEFAULT_SEGMENT_CREATION_BATCH_SIZE;
   // consumerDir contains data from the consuming segment, and is used during _realtimeConversion optimization
   private File _consumerDir;
   private final Map<String, FieldIndexConfigs> _indexConfigsByColName;
@@ -754,6 +759,24 @@ public class SegmentGeneratorConfig implements Serializable {
     _failOnEmptySegment = failOnEmptySegment;
   }
 
+  public int getSegmentCreationParallelism() {
+    return _segmentCreationParallelism;
+  }
+
+  public void setSegmentCreationParallelism(int segmentCreationParallelism) {
+    Preconditions.checkArgument(segmentCreationParallelism > 0, "Segment creation parallelism must be positive");
+    _segmentCreationParallelism = segmentCreationParallelism;
+  }
+
+  public int getSegmentCreationBatchSize() {
+    return _segmentCreationBatchSize;
+  }
+
+  public void setSegmentCreationBatchSize(int segmentCreationBatchSize) {
+    Preconditions.checkArgument(segmentCreationBatchSize > 0, "Segment creation batch size must be positive");
+    _segmentCreationBatchSize = segmentCreationBatchSize;
+  }
+
   public SegmentZKPropsConfig getSegmentZKPropsConfig() {
     return _segmentZKPropsConfig;
   }
@@ -38,6 +38,19 @@ public interface MutableDictionary extends Dictionary {
    */
   int[] index(Object[] values);
 
+  /**
+   * Indexes a batch of single-value entries (values of the dictionary type) into the dictionary, and returns an array
+   * of dictIds for each value.
+   */
+  default int[] indexBatch(Object[] values) {
+    int numValues = values.length;
+    int[] dictIds = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      dictIds[i] = index(values[i]);
+    }
+    return dictIds;
+  }
+
   @Override
   default boolean isSorted() {
     return false;
@@ -61,6 +61,24 @@ public interface MutableIndex extends IndexReader {
    */
   void add(@Nonnull Object[] values, @Nullable int[] dictIds, int docId);
 
+  /**
+   * Adds a batch of single value cells with consecutive document ids to the index.
+   *
+   * The default implementation adds the cells one by one. Implementations are encouraged to override it when the
+   * per-cell overhead (e.g. buffer lookup, locking) can be amortized across the batch.
+   *
+   * @param values The nonnull values of the cells, where the value at index i belongs to docId startDocId + i
+   * @param dictIds An optional array of dictionary values aligned with the values. If there is no dictionary, null is
+   *                received.
+   * @param startDocId The document id of the first cell. A non-negative value.
+   * @param numDocs The number of cells to add
+   */
+  default void addBatch(@Nonnull Object[] values, @Nullable int[] dictIds, int startDocId, int numDocs) {
+    for (int i = 0; i < numDocs; i++) {
+      add(values[i], dictIds != null ? dictIds[i] : -1, startDocId + i);
+    }
+  }
+
   /**
    * Commits the mutable index artifacts to disk. This is used in preparation for realtime segment conversion.
    * commit() should be implemented to perform any required actions before using mutable segment artifacts to
@@ -37,6 +37,13 @@ public interface MutableInvertedIndex extends InvertedIndexReader<MutableRoaring
     }
   }
 
+  @Override
+  default void addBatch(@Nonnull Object[] values, @Nullable int[] dictIds, int startDocId, int numDocs) {
+    for (int i = 0; i < numDocs; i++) {
+      add(dictIds[i], startDocId + i);
+    }
+  }
+
   /**
    * Add the docId to the posting list for the dictionary id.
    * @param dictId dictionary id
@@ -44,6 +44,13 @@ public class ThreadSafeMutableRoaringBitmap {
     _mutableRoaringBitmap.add(docId);
   }
 
+  /**
+   * Adds the doc ids in range [startDocId, endDocId) to the bitmap.
+   */
+  public synchronized void add(int startDocId, int endDocId) {
+    _mutableRoaringBitmap.add((long) startDocId, (long) endDocId);
+  }
+
   public synchronized boolean contains(int docId) {
     return _mutableRoaringBitmap.contains(docId);
   }
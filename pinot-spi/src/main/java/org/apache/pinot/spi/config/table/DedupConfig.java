@@ -20,25 +20,35 @@ package org.apache.pinot.spi.config.table;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.BaseJsonConfig;
 
 public class DedupConfig extends BaseJsonConfig {
   private final boolean _dedupEnabled;
   private final HashFunction _hashFunction;
   private final String _metadataManagerClass;
+  private final Map<String, String> _metadataManagerConfigs;
 
   public DedupConfig(@JsonProperty(value = "dedupEnabled", required = true) boolean dedupEnabled,
       @JsonProperty(value = "hashFunction") HashFunction hashFunction) {
     this(dedupEnabled, hashFunction, null);
   }
+
+  public DedupConfig(boolean dedupEnabled, HashFunction hashFunction, String metadataManagerClass) {
+    this(dedupEnabled, hashFunction, metadataManagerClass, null);
+  }
+
   @JsonCreator
   public DedupConfig(@JsonProperty(value = "dedupEnabled", required = true) boolean dedupEnabled,
       @JsonProperty(value = "hashFunction") HashFunction hashFunction,
-      @JsonProperty(value = "metadataManagerClass") String metadataManagerClass
+      @JsonProperty(value = "metadataManagerClass") String metadataManagerClass,
+      @JsonProperty(value = "metadataManagerConfigs") @Nullable Map<String, String> metadataManagerConfigs
   ) {
     _dedupEnabled = dedupEnabled;
     _hashFunction = hashFunction == null ? HashFunction.NONE : hashFunction;
     _metadataManagerClass = metadataManagerClass;
+    _metadataManagerConfigs = metadataManagerConfigs;
   }
 
   public HashFunction getHashFunction() {
@@ -52,4 +62,9 @@ public class DedupConfig extends BaseJsonConfig {
   public String getMetadataManagerClass() {
     return _metadataManagerClass;
   }
+
+  @Nullable
+  public Map<String, String> getMetadataManagerConfigs() {
+    return _metadataManagerConfigs;
+  }
 }
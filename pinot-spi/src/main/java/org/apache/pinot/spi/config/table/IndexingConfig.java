@@ -90,6 +90,12 @@ public class IndexingConfig extends BaseJsonConfig {
    */
   private List<String> _varLengthDictionaryColumns;
 
+  /**
+   * The list of single-value columns for which the min/max values are stored in the segment ZK metadata, so that the
+   * broker can prune the segments on them (see {@link RoutingConfig#COLUMN_VALUE_SEGMENT_PRUNER_TYPE}).
+   */
+  private List<String> _columnValuePruningColumns;
+
   private JsonNode _tierOverwrites;
 
   @Nullable
@@ -287,6 +293,15 @@ public class IndexingConfig extends BaseJsonConfig {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
   }
 
+  @Nullable
+  public List<String> getColumnValuePruningColumns() {
+    return _columnValuePruningColumns;
+  }
+
+  public void setColumnValuePruningColumns(List<String> columnValuePruningColumns) {
+    _columnValuePruningColumns = columnValuePruningColumns;
+  }
+
   public boolean isEnableDefaultStarTree() {
     return _enableDefaultStarTree;
   }
@@ -66,6 +66,9 @@ public class IngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Configs related to check time value for segment")
   private boolean _segmentTimeValueCheck = true;
 
+  @JsonPropertyDescription("Whether to apply the per-column default record transforms in a single pass")
+  private boolean _fusedColumnTransformEnabled;
+
   @Deprecated
   public IngestionConfig(@Nullable BatchIngestionConfig batchIngestionConfig,
       @Nullable StreamIngestionConfig streamIngestionConfig, @Nullable FilterConfig filterConfig,
@@ -145,6 +148,10 @@ public class IngestionConfig extends BaseJsonConfig {
     return _segmentTimeValueCheck;
   }
 
+  public boolean isFusedColumnTransformEnabled() {
+    return _fusedColumnTransformEnabled;
+  }
+
   public void setBatchIngestionConfig(BatchIngestionConfig batchIngestionConfig) {
     _batchIngestionConfig = batchIngestionConfig;
   }
@@ -194,4 +201,8 @@ public class IngestionConfig extends BaseJsonConfig {
   public void setSegmentTimeValueCheck(boolean segmentTimeValueCheck) {
     _segmentTimeValueCheck = segmentTimeValueCheck;
   }
+
+  public void setFusedColumnTransformEnabled(boolean fusedColumnTransformEnabled) {
+    _fusedColumnTransformEnabled = fusedColumnTransformEnabled;
+  }
 }
@@ -40,6 +40,10 @@ public class StreamIngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Whether to track offsets of the filtered stream messages during consumption.")
   private boolean _trackFilteredMessageOffsets = false;
 
+  @JsonPropertyDescription("Whether to fetch and decode/transform the next message batch while indexing the current "
+      + "one during consumption.")
+  private boolean _pipelinedConsumptionEnabled = false;
+
   @JsonCreator
   public StreamIngestionConfig(@JsonProperty("streamConfigMaps") List<Map<String, String>> streamConfigMaps) {
     _streamConfigMaps = streamConfigMaps;
@@ -64,4 +68,12 @@ public class StreamIngestionConfig extends BaseJsonConfig {
   public boolean isTrackFilteredMessageOffsets() {
     return _trackFilteredMessageOffsets;
   }
+
+  public void setPipelinedConsumptionEnabled(boolean pipelinedConsumptionEnabled) {
+    _pipelinedConsumptionEnabled = pipelinedConsumptionEnabled;
+  }
+
+  public boolean isPipelinedConsumptionEnabled() {
+    return _pipelinedConsumptionEnabled;
+  }
 }
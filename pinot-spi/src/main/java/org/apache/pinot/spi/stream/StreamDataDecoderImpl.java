@@ -47,11 +47,19 @@ public class StreamDataDecoderImpl implements StreamDataDecoder {
 
   @Override
   public StreamDataDecoderResult decode(StreamMessage message) {
+    return decode(message, _reuse);
+  }
+
+  /**
+   * Decodes a {@link StreamMessage} into the given destination row instead of the reused row, so that the decoded row
+   * can be held while decoding the following messages.
+   */
+  public StreamDataDecoderResult decode(StreamMessage message, GenericRow destination) {
     assert message.getValue() != null;
 
     try {
-      _reuse.clear();
-      GenericRow row = _valueDecoder.decode(message.getValue(), 0, message.getLength(), _reuse);
+      destination.clear();
+      GenericRow row = _valueDecoder.decode(message.getValue(), 0, message.getLength(), destination);
       if (row != null) {
         if (message.getKey() != null) {
           row.putValue(KEY, new String(message.getKey(), StandardCharsets.UTF_8));
@@ -287,6 +287,11 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_MIN_GROUP_TRIM_SIZE = "pinot.broker.min.group.trim.size";
     public static final int DEFAULT_BROKER_MIN_GROUP_TRIM_SIZE = 5000;
 
+    // Config for reducing the GROUP BY and selection ORDER BY results incrementally as the server responses arrive,
+    // instead of waiting for all the servers to respond before reducing.
+    public static final String CONFIG_OF_BROKER_ENABLE_STREAMING_REDUCE = "pinot.broker.enable.streaming.reduce";
+    public static final boolean DEFAULT_BROKER_ENABLE_STREAMING_REDUCE = false;
+
     // Configure the request handler type used by broker to handler inbound query request.
     // NOTE: the request handler type refers to the communication between Broker and Server.
     public static final String BROKER_REQUEST_HANDLER_TYPE = "pinot.broker.request.handler.type";
@@ -344,6 +349,21 @@ public class CommonConstants {
     // precedence over "query.response.size" (i.e., "query.response.size" will be ignored).
     public static final String CONFIG_OF_MAX_SERVER_RESPONSE_SIZE_BYTES = "pinot.broker.max.server.response.size.bytes";
 
+    // Broker configs for the query result cache, which caches the results of the single-stage queries keyed on the
+    // query and the routed segments (with segment CRC). Results of the queries hitting real-time tables are only cached
+    // when the max staleness is positive, and are expired after the max staleness.
+    public static final String CONFIG_OF_BROKER_ENABLE_QUERY_RESULT_CACHE = "pinot.broker.query.result.cache.enabled";
+    public static final boolean DEFAULT_BROKER_ENABLE_QUERY_RESULT_CACHE = false;
+    public static final String CONFIG_OF_BROKER_QUERY_RESULT_CACHE_MAX_ENTRIES =
+        "pinot.broker.query.result.cache.max.entries";
+    public static final int DEFAULT_BROKER_QUERY_RESULT_CACHE_MAX_ENTRIES = 1000;
+    public static final String CONFIG_OF_BROKER_QUERY_RESULT_CACHE_MAX_RESULT_ROWS =
+        "pinot.broker.query.result.cache.max.result.rows";
+    public static final int DEFAULT_BROKER_QUERY_RESULT_CACHE_MAX_RESULT_ROWS = 10_000;
+    public static final String CONFIG_OF_BROKER_QUERY_RESULT_CACHE_REALTIME_MAX_STALENESS_MS =
+        "pinot.broker.query.result.cache.realtime.max.staleness.ms";
+    public static final long DEFAULT_BROKER_QUERY_RESULT_CACHE_REALTIME_MAX_STALENESS_MS = 0L;
+
     public static class Request {
       public static final String SQL = "sql";
       public static final String TRACE = "trace";
@@ -379,6 +399,9 @@ public class CommonConstants {
 
         // Reorder scan based predicates based on cardinality and number of selected values
         public static final String AND_SCAN_REORDERING = "AndScanReordering";
+        // Reorder AND filter children based on the selectivity estimated on each segment, and evaluate the inverted
+        // index based children by scanning the candidate documents when it is estimated to be cheaper
+        public static final String ADAPTIVE_FILTER_REORDERING = "adaptiveFilterReordering";
         public static final String SKIP_INDEXES = "skipIndexes";
 
         public static final String ORDER_BY_ALGORITHM = "orderByAlgorithm";
@@ -387,6 +410,8 @@ public class CommonConstants {
         public static final String NUM_GROUPS_LIMIT = "numGroupsLimit";
         public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "maxInitialResultHolderCapacity";
         public static final String GROUP_TRIM_THRESHOLD = "groupTrimThreshold";
+        // Number of partitions for the radix-partitioned GROUP BY ORDER BY combine on the server, disabled by default
+        public static final String NUM_GROUP_BY_COMBINE_PARTITIONS = "numGroupByCombinePartitions";
         public static final String STAGE_PARALLELISM = "stageParallelism";
 
         public static final String IN_PREDICATE_PRE_SORTED = "inPredicatePreSorted";
@@ -394,12 +419,19 @@ public class CommonConstants {
 
         public static final String DROP_RESULTS = "dropResults";
 
+        // Can be set to false to bypass the broker query result cache
+        public static final String USE_RESULT_CACHE = "useResultCache";
+
         // Maximum number of pending results blocks allowed in the streaming operator
         public static final String MAX_STREAMING_PENDING_BLOCKS = "maxStreamingPendingBlocks";
 
         // Handle JOIN Overflow
         public static final String MAX_ROWS_IN_JOIN = "maxRowsInJoin";
         public static final String JOIN_OVERFLOW_MODE = "joinOverflowMode";
+        public static final String NUM_JOIN_SPILL_PARTITIONS = "numJoinSpillPartitions";
+
+        // Handle SORT Overflow, rows beyond the limit are spilled to disk
+        public static final String MAX_ROWS_IN_SORT = "maxRowsInSort";
 
         // Handle WINDOW Overflow
         public static final String MAX_ROWS_IN_WINDOW = "maxRowsInWindow";
@@ -770,6 +802,9 @@ public class CommonConstants {
     public static final boolean DEFAULT_THREAD_ALLOCATED_BYTES_MEASUREMENT = false;
 
     public static final String CONFIG_OF_CURRENT_DATA_TABLE_VERSION = "pinot.server.instance.currentDataTableVersion";
+    // Compression type (PASS_THROUGH, LZ4 or ZSTANDARD) of the data table sent to broker, only applies to DataTable V5
+    public static final String CONFIG_OF_DATA_TABLE_COMPRESSION_TYPE = "pinot.server.instance.dataTableCompressionType";
+    public static final String DEFAULT_DATA_TABLE_COMPRESSION_TYPE = "LZ4";
 
     // Environment Provider Configs
     public static final String PREFIX_OF_CONFIG_OF_ENVIRONMENT_PROVIDER_FACTORY =
@@ -1002,6 +1037,8 @@ public class CommonConstants {
     public static final String CRYPTER_NAME = "segment.crypter";
     public static final String PARTITION_METADATA = "segment.partition.metadata";
     public static final String CUSTOM_MAP = "custom.map";
+    public static final String COLUMN_MIN_VALUES = "segment.column.min.values";
+    public static final String COLUMN_MAX_VALUES = "segment.column.max.values";
     public static final String SIZE_IN_BYTES = "segment.size.in.bytes";
 
     /**
@@ -1133,9 +1170,20 @@ public class CommonConstants {
     public static final String KEY_OF_JOIN_OVERFLOW_MODE = "pinot.query.join.overflow.mode";
 
     public enum JoinOverFlowMode {
-      THROW, BREAK
+      THROW, BREAK, SPILL
     }
 
+    /**
+     * Configuration for spilling intermediate results to local disk.
+     */
+    public static final String KEY_OF_SPILL_DIR = "pinot.query.runner.spill.dir";
+    public static final String DEFAULT_SPILL_DIR_NAME = "pinot-query-spill";
+
+    /**
+     * Configuration for sort overflow, rows beyond the limit are spilled to disk.
+     */
+    public static final String KEY_OF_MAX_ROWS_IN_SORT = "pinot.query.sort.max.rows";
+
     /**
      * Configuration for window overflow.
      */